@@ -0,0 +1,191 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The adaptive limit of the concurrent CLI runs on a host, adjusted with additive increase and multiplicative decrease.
+ * <p>
+ * Each job keeps a baseline of its run duration on the host. A run that ends within twice the baseline of its job, while
+ * the host was fully used, raises the limit by one run per limit's worth of runs. A slower run lowers the limit by a
+ * quarter and a failed run halves it, at most once per generation of runs: runs that started before the last decrease
+ * do not lower the limit again. The limit always stays between the floor and the ceiling of the global configuration.
+ * Guarded by {@link TotalTestHostThrottle}.
+ */
+final class TotalTestAdaptiveLimit
+{
+	private static final double LATENCY_TOLERANCE = 2.0;
+	private static final double SLOW_DECREASE = 0.75;
+	private static final double FAILURE_DECREASE = 0.5;
+	private static final double BASELINE_DRIFT = 0.05;
+	private static final int MAX_BASELINES = 500;
+
+	private double limit;
+	private long lastDecreaseTime;
+	private String lastAdjustment;
+	private long successes;
+	private long slowRuns;
+	private long failures;
+
+	/** The baseline run duration of the most recent jobs, by job name. */
+	private final Map<String, Double> baselines = new LinkedHashMap<String, Double>(16, 0.75f, true)
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<String, Double> eldest)
+		{
+			return size() > MAX_BASELINES;
+		}
+	};
+
+	/**
+	 * Constructor
+	 *
+	 * @param initialLimit
+	 * 			  The limit to start from.
+	 */
+	TotalTestAdaptiveLimit(final int initialLimit)
+	{
+		this.limit = initialLimit;
+	}
+
+	/**
+	 * Returns the current limit.
+	 *
+	 * @param floor
+	 * 			  The lowest limit.
+	 * @param ceiling
+	 * 			  The highest limit.
+	 * @return the number of runs allowed on the host
+	 */
+	int getLimit(final int floor, final int ceiling)
+	{
+		limit = Math.max(floor, Math.min(ceiling, limit));
+		return (int) limit;
+	}
+
+	/**
+	 * Adjusts the limit with the outcome of a run.
+	 *
+	 * @param jobKey
+	 * 			  The full name of the job of the run.
+	 * @param startTime
+	 * 			  The time the run got its permit.
+	 * @param durationMillis
+	 * 			  The duration of the run.
+	 * @param failed
+	 * 			  <code>true</code> if the run ended with an error, otherwise <code>false</code>.
+	 * @param saturated
+	 * 			  <code>true</code> if the host was fully used when the run ended, otherwise <code>false</code>.
+	 * @param floor
+	 * 			  The lowest limit.
+	 * @param ceiling
+	 * 			  The highest limit.
+	 */
+	void onRunEnded(final String jobKey, final long startTime, final long durationMillis, final boolean failed,
+			final boolean saturated, final int floor, final int ceiling)
+	{
+		if (failed)
+		{
+			failures++;
+			decrease(startTime, FAILURE_DECREASE, "failed run"); //$NON-NLS-1$
+		}
+		else
+		{
+			Double baseline = jobKey != null ? baselines.get(jobKey) : null;
+			if (baseline != null && durationMillis > baseline * LATENCY_TOLERANCE)
+			{
+				slowRuns++;
+				decrease(startTime, SLOW_DECREASE, "slow run of " + jobKey); //$NON-NLS-1$
+				baseline += (durationMillis - baseline) * BASELINE_DRIFT;
+			}
+			else
+			{
+				successes++;
+				if (saturated && limit < ceiling)
+				{
+					limit += 1 / Math.max(limit, 1);
+					lastAdjustment = "increased"; //$NON-NLS-1$
+				}
+
+				// The baseline follows faster runs at once and slower ones slowly, so it tracks the quiet times of the host.
+				baseline = baseline == null || durationMillis < baseline ? durationMillis : baseline + (durationMillis - baseline) * BASELINE_DRIFT;
+			}
+
+			if (jobKey != null)
+			{
+				baselines.put(jobKey, baseline);
+			}
+		}
+
+		getLimit(floor, ceiling);
+	}
+
+	/**
+	 * Returns a description of the last change of the limit.
+	 *
+	 * @return the description, or <code>null</code> if the limit did not change yet
+	 */
+	String getLastAdjustment()
+	{
+		return lastAdjustment;
+	}
+
+	/**
+	 * Returns the number of runs that ended in time.
+	 *
+	 * @return the number of runs
+	 */
+	long getSuccesses()
+	{
+		return successes;
+	}
+
+	/**
+	 * Returns the number of runs slower than the baseline of their job.
+	 *
+	 * @return the number of runs
+	 */
+	long getSlowRuns()
+	{
+		return slowRuns;
+	}
+
+	/**
+	 * Returns the number of runs that ended with an error.
+	 *
+	 * @return the number of runs
+	 */
+	long getFailures()
+	{
+		return failures;
+	}
+
+	private void decrease(final long startTime, final double factor, final String reason)
+	{
+		// The runs started before the last decrease saw the old limit, they must not lower the new one again.
+		if (startTime > lastDecreaseTime)
+		{
+			limit *= factor;
+			lastDecreaseTime = System.currentTimeMillis();
+			lastAdjustment = "decreased after a " + reason; //$NON-NLS-1$
+		}
+	}
+}
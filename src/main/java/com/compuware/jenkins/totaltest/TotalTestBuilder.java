@@ -29,7 +29,6 @@ import hudson.model.AbstractProject;
 import hudson.model.Item;
 import hudson.model.Run;
 import hudson.model.TaskListener;
-import hudson.security.ACL;
 import hudson.tasks.Builder;
 import hudson.tasks.BuildStepDescriptor;
 import jenkins.model.Jenkins;
@@ -43,16 +42,13 @@ import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.StaplerRequest;
 
-import com.cloudbees.plugins.credentials.CredentialsProvider;
 import com.cloudbees.plugins.credentials.common.StandardListBoxModel;
 import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
-import com.cloudbees.plugins.credentials.domains.DomainRequirement;
 import com.compuware.jenkins.common.configuration.CpwrGlobalConfiguration;
 import com.compuware.jenkins.common.configuration.HostConnection;
 
 import org.kohsuke.stapler.QueryParameter;
 
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -79,10 +75,11 @@ public class TotalTestBuilder extends AbstractTotalTestBuilderMigration implemen
 	
 	private static final String TEST_SCENARIO_SUFFIX = ".testscenario"; //$NON-NLS-1$
 	private static final String TEST_SUITE_SUFFIX = ".testsuite"; //$NON-NLS-1$
-	private static final String DATASET_HLQ_PATTERN = "^([A-Z#@\\$]{1}[\\w#@\\$\\-]{1,7})"; //$NON-NLS-1$
+	static final String DATASET_HLQ_PATTERN = "^([A-Z#@\\$]{1}[\\w#@\\$\\-]{1,7})"; //$NON-NLS-1$
 	private static final String DB2 = "DB2"; //$NON-NLS-1$
 	private static final String IMS = "IMS"; //$NON-NLS-1$
 	private static final String TOTALTEST = "TOTALTEST"; //$NON-NLS-1$
+	private static final int DEFAULT_SHARD_COUNT = 1;
 	
 	private String projectFolder;
 	private String credentialsId;
@@ -92,6 +89,16 @@ public class TotalTestBuilder extends AbstractTotalTestBuilderMigration implemen
 	private boolean useStubs;
 	private boolean deleteTemp;
 	private boolean recursive;
+	private boolean useWorkspaceCache;
+	private int shardCount = DEFAULT_SHARD_COUNT;
+	private int shardIndex;
+	private int timeoutMinutes;
+	private int inactivityTimeoutMinutes;
+	private int maxRetries;
+	private boolean isolateHlq;
+	private boolean bufferLog;
+	private boolean memoizeResults;
+	private String memoizationInputs;
 
 	private String ccRepo;
 	private String ccSystem;
@@ -384,6 +391,28 @@ public class TotalTestBuilder extends AbstractTotalTestBuilderMigration implemen
 		return datasetHLQ;
 	}
 	
+	/**
+	 * Sets whether each run should lease a unique high level qualifier derived from the configured one.
+	 * 
+	 * @param isolateHlq
+	 * 			<code>true</code> if concurrent runs should use different qualifiers, otherwise <code>false</code>
+	 */
+	@DataBoundSetter
+	public void setIsolateHlq(final boolean isolateHlq)
+	{
+		this.isolateHlq = isolateHlq;
+	}
+	
+	/**
+	 * Returns whether each run should lease a unique high level qualifier derived from the configured one.
+	 * 
+	 * @return	<code>true</code> indicates concurrent runs use different qualifiers.
+	 */
+	public boolean isIsolateHlq()
+	{
+		return isolateHlq;
+	}
+	
 	/**
 	 * Sets whether should recursively check for Unit Test projects
 	 * 
@@ -406,6 +435,204 @@ public class TotalTestBuilder extends AbstractTotalTestBuilderMigration implemen
 		return recursive;
 	}
 	
+	/**
+	 * Sets whether the CLI workspace should be initialized from the workspace template cached on the node.
+	 * 
+	 * @param useWorkspaceCache
+	 * 			<code>true</code> if the cached CLI workspace template should be used, otherwise <code>false</code>
+	 */
+	@DataBoundSetter
+	public void setUseWorkspaceCache(final boolean useWorkspaceCache)
+	{
+		this.useWorkspaceCache = useWorkspaceCache;
+	}
+	
+	/**
+	 * Returns whether the CLI workspace should be initialized from the workspace template cached on the node.
+	 * 
+	 * @return	<code>true</code> indicates the cached CLI workspace template should be used.
+	 */
+	public boolean isUseWorkspaceCache()
+	{
+		return useWorkspaceCache;
+	}
+	
+	/**
+	 * Sets the number of shards the test scenarios/suites are split into.
+	 * 
+	 * @param shardCount
+	 * 			The number of shards, a value lower than 2 runs all the test scenarios/suites.
+	 */
+	@DataBoundSetter
+	public void setShardCount(final int shardCount)
+	{
+		this.shardCount = shardCount;
+	}
+	
+	/**
+	 * Returns the number of shards the test scenarios/suites are split into.
+	 * 
+	 * @return	The number of shards.
+	 */
+	public int getShardCount()
+	{
+		return shardCount;
+	}
+	
+	/**
+	 * Sets the zero based index of the shard run by this build step.
+	 * 
+	 * @param shardIndex
+	 * 			The index of the shard.
+	 */
+	@DataBoundSetter
+	public void setShardIndex(final int shardIndex)
+	{
+		this.shardIndex = shardIndex;
+	}
+	
+	/**
+	 * Returns the zero based index of the shard run by this build step.
+	 * 
+	 * @return	The index of the shard.
+	 */
+	public int getShardIndex()
+	{
+		return shardIndex;
+	}
+	
+	/**
+	 * Sets the longest time the CLI may run.
+	 * 
+	 * @param timeoutMinutes
+	 * 			The limit in minutes, 0 for no limit.
+	 */
+	@DataBoundSetter
+	public void setTimeoutMinutes(final int timeoutMinutes)
+	{
+		this.timeoutMinutes = timeoutMinutes;
+	}
+	
+	/**
+	 * Returns the longest time the CLI may run.
+	 * 
+	 * @return	The limit in minutes, 0 for no limit.
+	 */
+	public int getTimeoutMinutes()
+	{
+		return timeoutMinutes;
+	}
+	
+	/**
+	 * Sets the longest time the CLI may write no output.
+	 * 
+	 * @param inactivityTimeoutMinutes
+	 * 			The limit in minutes, 0 for no limit.
+	 */
+	@DataBoundSetter
+	public void setInactivityTimeoutMinutes(final int inactivityTimeoutMinutes)
+	{
+		this.inactivityTimeoutMinutes = inactivityTimeoutMinutes;
+	}
+	
+	/**
+	 * Returns the longest time the CLI may write no output.
+	 * 
+	 * @return	The limit in minutes, 0 for no limit.
+	 */
+	public int getInactivityTimeoutMinutes()
+	{
+		return inactivityTimeoutMinutes;
+	}
+	
+	/**
+	 * Sets the number of times a run failing with a transient host error is launched again.
+	 * 
+	 * @param maxRetries
+	 * 			The number of retries, 0 to never retry.
+	 */
+	@DataBoundSetter
+	public void setMaxRetries(final int maxRetries)
+	{
+		this.maxRetries = maxRetries;
+	}
+	
+	/**
+	 * Returns the number of times a run failing with a transient host error is launched again.
+	 * 
+	 * @return	The number of retries, 0 to never retry.
+	 */
+	public int getMaxRetries()
+	{
+		return maxRetries;
+	}
+	
+	/**
+	 * Sets whether the CLI output should be buffered in a log file on the node and archived with the build.
+	 * 
+	 * @param bufferLog
+	 * 			<code>true</code> if the CLI output should be buffered on the node, otherwise <code>false</code>
+	 */
+	@DataBoundSetter
+	public void setBufferLog(final boolean bufferLog)
+	{
+		this.bufferLog = bufferLog;
+	}
+	
+	/**
+	 * Returns whether the CLI output should be buffered in a log file on the node and archived with the build.
+	 * 
+	 * @return	<code>true</code> indicates the CLI output is buffered on the node.
+	 */
+	public boolean isBufferLog()
+	{
+		return bufferLog;
+	}
+	
+	/**
+	 * Sets whether the results of test scenarios with unchanged inputs should be reused instead of running them again.
+	 * 
+	 * @param memoizeResults
+	 * 			<code>true</code> if the results should be reused, otherwise <code>false</code>
+	 */
+	@DataBoundSetter
+	public void setMemoizeResults(final boolean memoizeResults)
+	{
+		this.memoizeResults = memoizeResults;
+	}
+	
+	/**
+	 * Returns whether the results of test scenarios with unchanged inputs should be reused instead of running them again.
+	 * 
+	 * @return	<code>true</code> indicates the results are reused.
+	 */
+	public boolean isMemoizeResults()
+	{
+		return memoizeResults;
+	}
+	
+	/**
+	 * Sets the workspace files, such as the program sources, whose content is part of the inputs of every test scenario.
+	 * 
+	 * @param memoizationInputs
+	 * 			An Ant file pattern relative to the workspace
+	 */
+	@DataBoundSetter
+	public void setMemoizationInputs(final String memoizationInputs)
+	{
+		this.memoizationInputs = StringUtils.trimToNull(memoizationInputs);
+	}
+	
+	/**
+	 * Returns the workspace files whose content is part of the inputs of every test scenario.
+	 * 
+	 * @return	The Ant file pattern, or <code>null</code> if none.
+	 */
+	public String getMemoizationInputs()
+	{
+		return memoizationInputs;
+	}
+	
 	/*
 	 * (non-Javadoc)
 	 * @see jenkins.tasks.SimpleBuildStep#perform(hudson.model.Run, hudson.FilePath, hudson.Launcher, hudson.model.TaskListener)
@@ -421,10 +648,19 @@ public class TotalTestBuilder extends AbstractTotalTestBuilderMigration implemen
     	
 		try
 		{
-			validateParameters(launcher, listener, build.getParent());
+			TotalTestCredentials credentials = TotalTestCredentials.resolve(build.getParent(), getCredentialsId());
+			validateParameters(listener, credentials);
+			
+			TotalTestRunner runner = new TotalTestRunner(this, credentials);
+			boolean success;
+			try (TotalTestHostThrottle.Permit permit = TotalTestHostThrottle.get().acquire(TotalTestHostThrottle.getHostKey(this),
+					build.getParent().getFullName(), listener))
+			{
+				runner.setPermit(permit);
+				success = runner.run(build, launcher, workspaceFilePath, listener);
+				permit.completed();
+			}
 			
-			TotalTestRunner runner = new TotalTestRunner(this);
-			boolean success = runner.run(build, launcher, workspaceFilePath, listener);
 			if (success == false) //NOSONAR
 			{
 				throw new AbortException(Messages.totalTestFailure());
@@ -464,9 +700,23 @@ public class TotalTestBuilder extends AbstractTotalTestBuilderMigration implemen
 	 */
 	public void validateParameters(final Launcher launcher, final TaskListener listener, final Item project)
 	{
-		if (TotalTestRunnerUtils.getLoginInformation(project, getCredentialsId()) != null)
+		validateParameters(listener, TotalTestCredentials.resolve(project, getCredentialsId()));
+	}
+
+	/**
+	 * Validates the configuration parameters.
+	 * 
+	 * @param listener
+	 *          An instance of <code>TaskListener</code> for the build listener.
+	 * @param credentials
+	 * 			The credentials resolved for the build.
+	 */
+	public void validateParameters(final TaskListener listener, final TotalTestCredentials credentials)
+	{
+		StandardUsernamePasswordCredentials loginCredentials = credentials.get(getCredentialsId());
+		if (loginCredentials != null)
 		{
-			listener.getLogger().println(Messages.username() + EQUAL + TotalTestRunnerUtils.getLoginInformation(project, getCredentialsId()).getUsername());
+			listener.getLogger().println(Messages.username() + EQUAL + loginCredentials.getUsername());
 		}
 		else
 		{
@@ -526,6 +776,17 @@ public class TotalTestBuilder extends AbstractTotalTestBuilderMigration implemen
 		{
 			listener.getLogger().println(Messages.hlq() + EQUAL + getHlq().isEmpty());			
 		}
+		
+		TotalTestShard shard = new TotalTestShard(getShardCount(), getShardIndex());
+		if (shard.isSharded())
+		{
+			if (shard.isValid() == false) // NOSONAR
+			{
+				throw new IllegalArgumentException(Messages.shardIndexError(getShardIndex(), getShardCount()));
+			}
+			
+			listener.getLogger().println(Messages.shard() + EQUAL + shard);
+		}
 	}
 	
 	/**
@@ -869,9 +1130,7 @@ public class TotalTestBuilder extends AbstractTotalTestBuilderMigration implemen
 				project.checkPermission(Item.CONFIGURE);
 			}
 			
-			List<StandardUsernamePasswordCredentials> creds = CredentialsProvider
-					.lookupCredentials(StandardUsernamePasswordCredentials.class, project, ACL.SYSTEM,
-							Collections.<DomainRequirement> emptyList());
+			List<StandardUsernamePasswordCredentials> creds = TotalTestCredentials.lookupForForm(project);
 
 			StandardListBoxModel model = new StandardListBoxModel();
 
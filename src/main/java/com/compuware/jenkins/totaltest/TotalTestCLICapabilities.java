@@ -0,0 +1,302 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.compuware.jenkins.common.utils.CLIVersionUtils;
+
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.remoting.Channel;
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * The features supported by the Total Test CLI installed on a node.
+ * <p>
+ * Capabilities are resolved once per node, CLI location and CLI installation timestamp, and are reused by later builds
+ * until the CLI installation changes.
+ */
+public final class TotalTestCLICapabilities
+{
+	private static final String BUILT_IN_NODE = "(built-in)"; //$NON-NLS-1$
+	private static final String KEY_SEPARATOR = "|"; //$NON-NLS-1$
+
+	private static final Map<String, TotalTestCLICapabilities> capabilitiesCache = new ConcurrentHashMap<>();
+
+	private final String cliDirectory;
+	private final String cliVersion;
+	private final boolean newFileExtensions;
+	private final boolean defaultOutputFolder;
+	private final boolean localConfiguration;
+	private final boolean hostConnection;
+
+	/**
+	 * Constructor
+	 *
+	 * @param cliDirectory
+	 *            The location of the CLI on the node.
+	 * @param cliVersion
+	 *            The version of the CLI.
+	 */
+	private TotalTestCLICapabilities(final String cliDirectory, final String cliVersion)
+	{
+		this.cliDirectory = cliDirectory;
+		this.cliVersion = cliVersion;
+		this.newFileExtensions = isMinimumRelease(TotalTestRunnerUtils.TTT_NEW_EXTENSIONS_CLI_VERSION);
+		this.defaultOutputFolder = isMinimumRelease(TotalTestRunnerUtils.TTT_OUTPUTFOLDER_CLI_VERSION);
+		this.localConfiguration = isMinimumRelease(TotalTestRunnerUtils.TTT_CLI_200401);
+		this.hostConnection = isMinimumRelease(TotalTestRunnerUtils.TTT_CLI_200501);
+	}
+
+	/**
+	 * Returns the capabilities of the Total Test CLI configured for the node of the given launcher.
+	 *
+	 * @param launcher
+	 *            An instance <code>Launcher</code> for the node running the CLI.
+	 *
+	 * @return an instance of <code>TotalTestCLICapabilities</code>
+	 *
+	 * @throws IOException
+	 *             If the CLI location is not specified or does not exist.
+	 * @throws InterruptedException
+	 *             If unable to get the CLI version.
+	 */
+	public static TotalTestCLICapabilities resolve(final Launcher launcher) throws IOException, InterruptedException
+	{
+		String cliDirectoryName = TotalTestRunnerUtils.getTopaWorkbenchCLIPath(launcher);
+		if (cliDirectoryName == null)
+		{
+			throw new FileNotFoundException("ERROR: Topaz Workench CLI location was not specified. Check 'BMC Configuration' section under 'Configure System'"); //$NON-NLS-1$
+		}
+
+		VirtualChannel vChannel = launcher.getChannel();
+		FilePath cliDirectory = new FilePath(vChannel, cliDirectoryName);
+		long timestamp = cliDirectory.act(new GetInstallationTimestamp());
+
+		return resolve(getNodeKey(vChannel), cliDirectory, timestamp);
+	}
+
+	/**
+	 * Returns the capabilities of the Total Test CLI described by a preflight of the node of the given launcher.
+	 *
+	 * @param launcher
+	 *            An instance <code>Launcher</code> for the node running the CLI.
+	 * @param preflight
+	 *            The preflight of the node.
+	 *
+	 * @return an instance of <code>TotalTestCLICapabilities</code>
+	 *
+	 * @throws IOException
+	 *             If the CLI location does not exist.
+	 * @throws InterruptedException
+	 *             If unable to get the CLI version.
+	 */
+	public static TotalTestCLICapabilities resolve(final Launcher launcher, final TotalTestPreflight preflight)
+			throws IOException, InterruptedException
+	{
+		VirtualChannel vChannel = launcher.getChannel();
+		return resolve(getNodeKey(vChannel), new FilePath(vChannel, preflight.getCLIDirectory()), preflight.getCLITimestamp());
+	}
+
+	/**
+	 * Returns the capabilities of the Total Test CLI in the given directory, resolving the CLI version only if the
+	 * capabilities for the installation timestamp are not cached yet.
+	 *
+	 * @param nodeKey
+	 *            The name identifying the node.
+	 * @param cliDirectory
+	 *            The CLI directory on the node.
+	 * @param timestamp
+	 *            The installation timestamp of the CLI, negative if the CLI directory does not exist.
+	 *
+	 * @return an instance of <code>TotalTestCLICapabilities</code>
+	 *
+	 * @throws IOException
+	 *             If the CLI location does not exist.
+	 * @throws InterruptedException
+	 *             If unable to get the CLI version.
+	 */
+	static TotalTestCLICapabilities resolve(final String nodeKey, final FilePath cliDirectory, final long timestamp)
+			throws IOException, InterruptedException
+	{
+		if (timestamp < 0)
+		{
+			throw new FileNotFoundException("ERROR: Topaz Workench CLI location does not exist. Location: " + cliDirectory.getRemote() + ". Check 'BMC Configuration' section under 'Configure System'");  //NOSONAR //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		String installationKey = nodeKey + KEY_SEPARATOR + cliDirectory.getRemote() + KEY_SEPARATOR;
+		String key = installationKey + timestamp;
+
+		TotalTestCLICapabilities capabilities = capabilitiesCache.get(key);
+		if (capabilities == null)
+		{
+			String cliVersion = CLIVersionUtils.getCLIVersion(cliDirectory, TotalTestRunnerUtils.TTT_MINIMUM_CLI_VERSION);
+			capabilities = new TotalTestCLICapabilities(cliDirectory.getRemote(), cliVersion);
+
+			// Forget the capabilities of earlier installations in the same location.
+			capabilitiesCache.keySet().removeIf(cachedKey -> cachedKey.startsWith(installationKey));
+			capabilitiesCache.put(key, capabilities);
+		}
+
+		return capabilities;
+	}
+
+	/**
+	 * Returns the name identifying the node of the given channel.
+	 *
+	 * @param vChannel
+	 *            The channel to the node.
+	 *
+	 * @return the name of the node
+	 */
+	static String getNodeKey(final VirtualChannel vChannel)
+	{
+		return vChannel instanceof Channel ? ((Channel) vChannel).getName() : BUILT_IN_NODE;
+	}
+
+	/**
+	 * Returns the location of the CLI on the node.
+	 *
+	 * @return the CLI directory
+	 */
+	public String getCLIDirectory()
+	{
+		return cliDirectory;
+	}
+
+	/**
+	 * Returns the version of the CLI.
+	 *
+	 * @return the CLI version
+	 */
+	public String getCLIVersion()
+	{
+		return cliVersion;
+	}
+
+	/**
+	 * Returns if the CLI uses the new (.scenario, .suite, .result) file extensions.
+	 *
+	 * @return <code>true</code> if the new file extensions are used, otherwise <code>false</code>
+	 */
+	public boolean isNewFileExtensions()
+	{
+		return newFileExtensions;
+	}
+
+	/**
+	 * Returns if the CLI uses the default Output folder.
+	 *
+	 * @return <code>true</code> if the default Output folder is used, otherwise <code>false</code>
+	 */
+	public boolean isDefaultOutputFolder()
+	{
+		return defaultOutputFolder;
+	}
+
+	/**
+	 * Returns if the CLI supports a local configuration directory and program selection.
+	 *
+	 * @return <code>true</code> if a local configuration directory is supported, otherwise <code>false</code>
+	 */
+	public boolean isLocalConfiguration()
+	{
+		return localConfiguration;
+	}
+
+	/**
+	 * Returns if the CLI supports host connections, context variables and Enterprise Data.
+	 *
+	 * @return <code>true</code> if host connections are supported, otherwise <code>false</code>
+	 */
+	public boolean isHostConnection()
+	{
+		return hostConnection;
+	}
+
+	/**
+	 * Returns if the CLI is greater or equal to the passed version.
+	 *
+	 * @param versionNumber
+	 *            The minimum Total Test CLI version number to check against.
+	 *
+	 * @return <code>true</code> if the CLI is at least the given version, otherwise <code>false</code>
+	 */
+	public boolean isMinimumRelease(final String versionNumber)
+	{
+		boolean isMinimumRelease = true;
+		try
+		{
+			CLIVersionUtils.checkCLICompatibility(cliVersion, versionNumber);
+		}
+		catch (Exception e)
+		{
+			isMinimumRelease = false;
+		}
+
+		return isMinimumRelease;
+	}
+
+	/**
+	 * Returns the latest modification time of the CLI directory and the files directly in it, or -1 if the directory
+	 * does not exist.
+	 */
+	static final class GetInstallationTimestamp extends MasterToSlaveFileCallable<Long>
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public Long invoke(File cliDirectory, VirtualChannel channel) throws IOException, InterruptedException
+		{
+			return getInstallationTimestamp(cliDirectory);
+		}
+
+		/**
+		 * Returns the installation timestamp of a local CLI directory.
+		 *
+		 * @param cliDirectory
+		 *            The CLI directory.
+		 *
+		 * @return the latest modification time, or -1 if the directory does not exist
+		 */
+		static long getInstallationTimestamp(final File cliDirectory)
+		{
+			if (!cliDirectory.exists())
+			{
+				return -1;
+			}
+
+			long timestamp = cliDirectory.lastModified();
+			File[] files = cliDirectory.listFiles();
+			if (files != null)
+			{
+				for (File file : files)
+				{
+					timestamp = Math.max(timestamp, file.lastModified());
+				}
+			}
+
+			return timestamp;
+		}
+	}
+}
@@ -0,0 +1,488 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.TeeOutputStream;
+import org.jenkinsci.plugins.durabletask.BourneShellScript;
+import org.jenkinsci.plugins.durabletask.Controller;
+import org.jenkinsci.plugins.durabletask.DurableTask;
+import org.jenkinsci.plugins.durabletask.WindowsBatchScript;
+
+import hudson.AbortException;
+import hudson.EnvVars;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.Proc;
+import hudson.model.Computer;
+import hudson.model.TaskListener;
+import hudson.slaves.WorkspaceList;
+import hudson.util.ArgumentListBuilder;
+import jenkins.util.Timer;
+
+/**
+ * Launches a Total Test CLI script on the node of the build.
+ * <p>
+ * Both the Unit Test and the Functional Test runners start the CLI through this class, so the way a CLI process is
+ * started, monitored and waited for is defined in one place.
+ */
+public class TotalTestCLILauncher
+{
+	private static final String ARGUMENT_VARIABLE = "TOTAL_TEST_CLI_ARG_"; //$NON-NLS-1$
+	private static final String ARGUMENTS_FILE_VARIABLE = "TOTAL_TEST_CLI_ARGS"; //$NON-NLS-1$
+	private static final int ARGUMENTS_FILE_MODE = 0600;
+	private static final int LOG_TAIL_SIZE = 16 * 1024;
+
+	private final Launcher launcher;
+	private final TaskListener listener;
+	private final String osScriptFile;
+	private TotalTestWorkspaceCache workspaceCache;
+	private TotalTestOutputParser outputParser;
+	private TotalTestWatchdog watchdog;
+	private TotalTestLogPipeline logPipeline;
+	private volatile String timeoutReason;
+	private final LogTail logTail = new LogTail();
+
+	/**
+	 * Constructor
+	 *
+	 * @param launcher
+	 *            The machine that the CLI will be executed on.
+	 * @param listener
+	 *            Build listener
+	 * @param osScriptFile
+	 *            The name of the operating system dependent script file being run.
+	 */
+	public TotalTestCLILauncher(final Launcher launcher, final TaskListener listener, final String osScriptFile)
+	{
+		this.launcher = launcher;
+		this.listener = listener;
+		this.osScriptFile = osScriptFile;
+	}
+
+	/**
+	 * Sets the workspace cache used to initialize the CLI workspace before launching the CLI.
+	 *
+	 * @param workspaceCache
+	 *            An instance of <code>TotalTestWorkspaceCache</code>, or <code>null</code> to let the CLI create its
+	 *            workspace.
+	 */
+	public void setWorkspaceCache(final TotalTestWorkspaceCache workspaceCache)
+	{
+		this.workspaceCache = workspaceCache;
+	}
+
+	/**
+	 * Sets the parser following the output of the CLI.
+	 *
+	 * @param outputParser
+	 *            An instance of <code>TotalTestOutputParser</code> writing to the build log, or <code>null</code> to copy
+	 *            the output to the build log as is.
+	 */
+	public void setOutputParser(final TotalTestOutputParser outputParser)
+	{
+		this.outputParser = outputParser;
+	}
+
+	/**
+	 * Sets the watchdog bounding the execution time of the CLI.
+	 *
+	 * @param watchdog
+	 *            An instance of <code>TotalTestWatchdog</code>, or <code>null</code> to let the CLI run without limit.
+	 */
+	public void setWatchdog(final TotalTestWatchdog watchdog)
+	{
+		this.watchdog = watchdog != null && watchdog.isEnabled() ? watchdog : null;
+	}
+
+	/**
+	 * Sets the pipeline moving the output of the CLI to the build log through a log file on the node.
+	 *
+	 * @param logPipeline
+	 *            An instance of <code>TotalTestLogPipeline</code>, or <code>null</code> to copy the output to the build
+	 *            log as the CLI writes it.
+	 */
+	public void setLogPipeline(final TotalTestLogPipeline logPipeline)
+	{
+		this.logPipeline = logPipeline;
+	}
+
+	/**
+	 * Returns why the watchdog killed the CLI.
+	 *
+	 * @return the reason, or <code>null</code> if the CLI was not killed by the watchdog
+	 */
+	public String getTimeoutReason()
+	{
+		return timeoutReason;
+	}
+
+	/**
+	 * Returns the end of the output of the last CLI run, used to classify its failure.
+	 *
+	 * @return the last 16 KB of the output
+	 */
+	public String getLogTail()
+	{
+		return logTail.toString();
+	}
+
+	/**
+	 * Launches the CLI and waits for it to complete.
+	 *
+	 * @param args
+	 *            An instance of <code>ArgumentListBuilder</code> containing the script and its arguments.
+	 * @param env
+	 *            The environment variables for the CLI process.
+	 * @param workDir
+	 *            The working directory of the CLI process.
+	 *
+	 * @return <code>int</code> the exit value of the CLI
+	 *
+	 * @throws IOException
+	 *             If the CLI could not be launched.
+	 * @throws InterruptedException
+	 *             If the CLI run was interrupted.
+	 */
+	public int launch(final ArgumentListBuilder args, final EnvVars env, final FilePath workDir)
+			throws IOException, InterruptedException
+	{
+		workDir.mkdirs();
+
+		if (workspaceCache != null)
+		{
+			workspaceCache.restore();
+		}
+
+		OutputStream out = new TeeOutputStream(outputParser != null ? outputParser : listener.getLogger(), logTail);
+		EnvVars cliEnv = env;
+		if (watchdog != null)
+		{
+			cliEnv = new EnvVars(env);
+			cliEnv.put(TotalTestWatchdog.MARKER_VARIABLE, watchdog.getMarker());
+			out = watchdog.watch(out);
+			watchdog.start();
+		}
+
+		Proc proc = logPipeline != null ? logPipeline.start(launcher, osScriptFile, args, cliEnv, workDir, out)
+				: launcher.launch().cmds(args).envs(cliEnv).stdout(out).pwd(workDir).start();
+		ScheduledFuture<?> watch = null;
+		if (watchdog != null)
+		{
+			watch = Timer.get().scheduleWithFixedDelay(() -> checkWatchdog(proc), watchdog.getCheckInterval(),
+					watchdog.getCheckInterval(), TimeUnit.MILLISECONDS);
+		}
+
+		int exitValue;
+		try
+		{
+			exitValue = proc.join();
+		}
+		finally
+		{
+			if (watch != null)
+			{
+				watch.cancel(false);
+			}
+
+			if (logPipeline != null)
+			{
+				logPipeline.archive(launcher);
+			}
+		}
+
+		if (outputParser != null)
+		{
+			outputParser.forceEol();
+			outputParser.getProgress().finish();
+		}
+
+		finish(exitValue);
+
+		return exitValue;
+	}
+
+	/**
+	 * Checks the limits of the watchdog. The check runs on the shared timer, so a timeout is handed over to the remoting
+	 * thread pool, which writes a thread dump of the CLI JVM to the log and kills the CLI.
+	 *
+	 * @param proc
+	 *            The CLI process.
+	 */
+	private void checkWatchdog(final Proc proc)
+	{
+		if (timeoutReason != null)
+		{
+			return;
+		}
+
+		String reason = watchdog.check();
+		if (reason == null)
+		{
+			return;
+		}
+
+		timeoutReason = reason;
+		Computer.threadPoolForRemoting.submit(() -> stopTimedOut(proc, reason));
+	}
+
+	/**
+	 * Kills the CLI that exceeded the limits of the watchdog, after writing a thread dump of the CLI JVM to the log.
+	 *
+	 * @param proc
+	 *            The CLI process.
+	 * @param reason
+	 *            Why the CLI is stopped.
+	 */
+	private void stopTimedOut(final Proc proc, final String reason)
+	{
+		listener.getLogger().println("Stopping " + osScriptFile + ": " + reason); //$NON-NLS-1$ //$NON-NLS-2$
+		watchdog.dumpThreads(launcher, listener);
+
+		try
+		{
+			proc.kill();
+		}
+		catch (IOException e)
+		{
+			listener.getLogger().println("Could not stop " + osScriptFile + ": " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Launches the CLI as a durable task, which keeps running on the node when the controller restarts.
+	 * <p>
+	 * The script and its arguments are written to a file only readable by the agent user, in the temporary folder of the
+	 * workspace next to the control folder of the task. The task reads the file and deletes it before it starts the CLI,
+	 * so no argument, in particular no password, is written to the script file of the task or kept in its environment.
+	 * {@link #finish(int)} must be called once the task exited.
+	 *
+	 * @param args
+	 *            An instance of <code>ArgumentListBuilder</code> containing the script and its arguments.
+	 * @param env
+	 *            The environment variables for the CLI process.
+	 * @param workDir
+	 *            The working directory of the CLI process.
+	 *
+	 * @return the controller of the task
+	 *
+	 * @throws IOException
+	 *             If the CLI could not be launched.
+	 * @throws InterruptedException
+	 *             If the launch was interrupted.
+	 */
+	public Controller launchDurable(final ArgumentListBuilder args, final EnvVars env, final FilePath workDir)
+			throws IOException, InterruptedException
+	{
+		workDir.mkdirs();
+
+		if (workspaceCache != null)
+		{
+			workspaceCache.restore();
+		}
+
+		listener.getLogger().println("Launching " + args); //$NON-NLS-1$
+
+		List<String> arguments = args.toList();
+		EnvVars taskEnv = new EnvVars(env);
+		if (watchdog != null)
+		{
+			taskEnv.put(TotalTestWatchdog.MARKER_VARIABLE, watchdog.getMarker());
+		}
+
+		StringBuilder content = new StringBuilder();
+		StringBuilder script = new StringBuilder();
+		if (launcher.isUnix())
+		{
+			// The file sets the positional parameters, which are not exported to the CLI.
+			content.append("set --"); //$NON-NLS-1$
+			for (String argument : arguments)
+			{
+				content.append(" '").append(argument.replace("'", "'\\''")).append('\''); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+			content.append('\n');
+
+			// Without an interpreter line the task runs the script with sh -xe, which would trace the arguments to the log.
+			script.append("#!/bin/sh\nset +x\n") //$NON-NLS-1$
+					.append(". \"$").append(ARGUMENTS_FILE_VARIABLE).append("\"\n") //$NON-NLS-1$ //$NON-NLS-2$
+					.append("rm -f \"$").append(ARGUMENTS_FILE_VARIABLE).append("\"\n") //$NON-NLS-1$ //$NON-NLS-2$
+					.append("exec \"$@\"\n"); //$NON-NLS-1$
+		}
+		else
+		{
+			// The variables are cleared on the line that starts the CLI, which is expanded before it runs, so they are not
+			// inherited by the CLI.
+			StringBuilder clear = new StringBuilder();
+			StringBuilder command = new StringBuilder();
+			for (int i = 0; i < arguments.size(); i++)
+			{
+				String argument = arguments.get(i);
+				if (argument.indexOf('"') >= 0 || argument.indexOf('\r') >= 0 || argument.indexOf('\n') >= 0)
+				{
+					throw new AbortException("Argument " + i + " of the Total Test CLI can not be passed to a durable task on Windows" //$NON-NLS-1$ //$NON-NLS-2$
+							+ " because it contains a quote or a line break"); //$NON-NLS-1$
+				}
+
+				content.append("set \"").append(ARGUMENT_VARIABLE).append(i).append('=').append(argument.replace("%", "%%")) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+						.append("\"\r\n"); //$NON-NLS-1$
+				clear.append("set \"").append(ARGUMENT_VARIABLE).append(i).append("=\" & "); //$NON-NLS-1$ //$NON-NLS-2$
+				command.append(i == 0 ? "\"%" : " \"%").append(ARGUMENT_VARIABLE).append(i).append("%\""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+
+			script.append("@echo off\r\nsetlocal DisableDelayedExpansion\r\n") //$NON-NLS-1$
+					.append("call \"%").append(ARGUMENTS_FILE_VARIABLE).append("%\"\r\n") //$NON-NLS-1$ //$NON-NLS-2$
+					.append("del \"%").append(ARGUMENTS_FILE_VARIABLE).append("%\"\r\n") //$NON-NLS-1$ //$NON-NLS-2$
+					.append(clear).append(command).append("\r\n"); //$NON-NLS-1$
+		}
+
+		FilePath argumentsFile = writeArgumentsFile(workDir, content.toString());
+		taskEnv.put(ARGUMENTS_FILE_VARIABLE, argumentsFile.getRemote());
+
+		DurableTask task = launcher.isUnix() ? new BourneShellScript(script.toString()) : new WindowsBatchScript(script.toString());
+		try
+		{
+			return task.launch(taskEnv, workDir, launcher, listener);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			argumentsFile.delete();
+			throw e;
+		}
+	}
+
+	/**
+	 * Writes the arguments of a durable task to a file in the temporary folder of the workspace that only the agent user
+	 * can read.
+	 *
+	 * @param workDir
+	 *            The working directory of the task.
+	 * @param content
+	 *            The content of the file.
+	 *
+	 * @return the file
+	 *
+	 * @throws IOException
+	 *             If the file could not be written.
+	 * @throws InterruptedException
+	 *             If writing the file was interrupted.
+	 */
+	private FilePath writeArgumentsFile(final FilePath workDir, final String content) throws IOException, InterruptedException
+	{
+		FilePath tempDir = WorkspaceList.tempDir(workDir);
+		if (tempDir == null)
+		{
+			tempDir = workDir;
+		}
+
+		tempDir.mkdirs();
+		FilePath argumentsFile = tempDir.createTempFile("totaltest-args", launcher.isUnix() ? ".sh" : ".bat"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		try
+		{
+			// The mode is set before the arguments are written, on Windows the file inherits the access of the folder.
+			argumentsFile.chmod(ARGUMENTS_FILE_MODE);
+			argumentsFile.write(content, null);
+		}
+		catch (IOException | InterruptedException e)
+		{
+			argumentsFile.delete();
+			throw e;
+		}
+
+		return argumentsFile;
+	}
+
+	/**
+	 * Completes a CLI run: logs the exit value and, when the run succeeded, caches the CLI workspace.
+	 *
+	 * @param exitValue
+	 *            The exit value of the CLI.
+	 *
+	 * @throws InterruptedException
+	 *             If caching the CLI workspace was interrupted.
+	 */
+	public void finish(final int exitValue) throws InterruptedException
+	{
+		listener.getLogger().println(osScriptFile + " exited with exit value = " + exitValue); //$NON-NLS-1$
+
+		if (workspaceCache != null && exitValue == 0)
+		{
+			workspaceCache.seed();
+		}
+	}
+
+	/**
+	 * Keeps the last bytes written to it.
+	 */
+	private static final class LogTail extends OutputStream
+	{
+		private final byte[] buffer = new byte[LOG_TAIL_SIZE];
+		private long written;
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.io.OutputStream#write(int)
+		 */
+		@Override
+		public synchronized void write(final int b)
+		{
+			buffer[(int) (written++ % buffer.length)] = (byte) b;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.io.OutputStream#write(byte[], int, int)
+		 */
+		@Override
+		public synchronized void write(final byte[] b, final int off, final int len)
+		{
+			int start = Math.max(0, len - buffer.length);
+			for (int i = start; i < len; i++)
+			{
+				buffer[(int) (written++ % buffer.length)] = b[off + i];
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public synchronized String toString()
+		{
+			if (written <= buffer.length)
+			{
+				return new String(buffer, 0, (int) written, StandardCharsets.UTF_8);
+			}
+
+			int head = (int) (written % buffer.length);
+			byte[] ordered = new byte[buffer.length];
+			System.arraycopy(buffer, head, ordered, 0, buffer.length - head);
+			System.arraycopy(buffer, 0, ordered, buffer.length - head, head);
+			return new String(ordered, StandardCharsets.UTF_8);
+		}
+	}
+}
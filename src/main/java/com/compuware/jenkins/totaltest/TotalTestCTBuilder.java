@@ -19,6 +19,7 @@ package com.compuware.jenkins.totaltest;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.ListIterator;
@@ -28,10 +29,8 @@ import org.kohsuke.stapler.AncestorInPath;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
-import com.cloudbees.plugins.credentials.CredentialsProvider;
 import com.cloudbees.plugins.credentials.common.StandardListBoxModel;
 import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
-import com.cloudbees.plugins.credentials.domains.DomainRequirement;
 import com.compuware.jenkins.common.configuration.CpwrGlobalConfiguration;
 import com.compuware.jenkins.common.configuration.HostConnection;
 import com.google.common.base.Strings;
@@ -44,7 +43,6 @@ import hudson.model.AbstractProject;
 import hudson.model.Item;
 import hudson.model.Run;
 import hudson.model.TaskListener;
-import hudson.security.ACL;
 import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.Builder;
 import hudson.util.FormValidation;
@@ -103,6 +101,22 @@ public class TotalTestCTBuilder extends Builder implements SimpleBuildStep
 	/** SonarQube version 5 or 6 */
 	private String sonarVersion;
 	private String logLevel;
+	/** Initialize the CLI workspace from the template cached on the node */
+	private boolean useWorkspaceCache = DescriptorImpl.defaultUseWorkspaceCache;
+	/** Stop the CLI as soon as its output shows a failure */
+	private boolean failFast = DescriptorImpl.defaultFailFast;
+	/** The longest time the CLI may run, in minutes */
+	private int timeoutMinutes = DescriptorImpl.defaultTimeoutMinutes;
+	/** The longest time the CLI may write no output, in minutes */
+	private int inactivityTimeoutMinutes = DescriptorImpl.defaultInactivityTimeoutMinutes;
+	/** The number of times a run failing with a transient host error is launched again */
+	private int maxRetries = DescriptorImpl.defaultMaxRetries;
+	/** The number of test folders run at once, 0 to size it to the node */
+	private int maxParallelRuns = DescriptorImpl.defaultMaxParallelRuns;
+	/** Buffer the CLI output in a log file on the node and archive it */
+	private boolean bufferLog = DescriptorImpl.defaultBufferLog;
+	/** Narrow the test files to the ones impacted by the selected programs */
+	private boolean useImpactIndex = DescriptorImpl.defaultUseImpactIndex;
 	
 	/**
 	 * Optional file path to a folder that contains source code of tested programs. Default is COBOL. It is only used to set the
@@ -120,6 +134,10 @@ public class TotalTestCTBuilder extends Builder implements SimpleBuildStep
 	private boolean createResult = DescriptorImpl.defaultCreateResult;
 	private boolean createSonarReport = DescriptorImpl.defaultCreateSonarReport;
 	private boolean createJUnitReport = DescriptorImpl.defaultCreateJUnitReport;
+	/** Convert the JUnit and Sonar reports in the background, after the verdict was published */
+	private boolean deferReports = DescriptorImpl.defaultDeferReports;
+	/** Convert the JUnit and Sonar reports in the plugin instead of the CLI */
+	private boolean convertReports = DescriptorImpl.defaultConvertReports;
 	
 	/**
 	 * Fields for selected programs to execute.
@@ -241,6 +259,31 @@ public class TotalTestCTBuilder extends Builder implements SimpleBuildStep
 		return folderPath;
 	}
 
+	/**
+	 * Get the test folders, one per line of the folder path.
+	 * 
+	 * @return the folder paths, a single empty path for the workspace
+	 */
+	public List<String> getFolderPaths()
+	{
+		List<String> folderPaths = new ArrayList<>();
+		for (String line : Strings.nullToEmpty(folderPath).split("\\r?\\n")) //$NON-NLS-1$
+		{
+			if (!line.trim().isEmpty())
+			{
+				folderPaths.add(line.trim());
+			}
+		}
+
+		if (folderPaths.isEmpty())
+		{
+			// No folder keeps the path as it was configured.
+			return Collections.singletonList(folderPath);
+		}
+
+		return folderPaths;
+	}
+
 	/**
 	 * Server URL accessor
 	 * 
@@ -590,6 +633,56 @@ public class TotalTestCTBuilder extends Builder implements SimpleBuildStep
 	{
 		this.createJUnitReport = createJUnitReport;
 	}
+
+	/**
+	 * Set if the CLI should only create the result file, the JUnit and Sonar reports being converted from it in the
+	 * background once the verdict was published.
+	 * 
+	 * @param deferReports
+	 * 			<code>true</code> indicates the reports are converted after the verdict.
+	 * 			<code>false</code> indicates the CLI creates the reports before it exits.
+	 */
+	@DataBoundSetter
+	public void setDeferReports(boolean deferReports)
+	{
+		this.deferReports = deferReports;
+	}
+
+	/**
+	 * Should the CLI only create the result file, the JUnit and Sonar reports being converted from it in the background
+	 * once the verdict was published.
+	 * 
+	 * @return	<code>true</code> indicates the reports are converted after the verdict.
+	 * 			<code>false</code> indicates the CLI creates the reports before it exits.
+	 */
+	public boolean getDeferReports()
+	{
+		return deferReports;
+	}
+
+	/**
+	 * Set if the JUnit and Sonar reports should be converted from the result file by the plugin instead of the CLI.
+	 * 
+	 * @param convertReports
+	 * 			<code>true</code> indicates the plugin converts the reports.
+	 * 			<code>false</code> indicates the CLI creates the reports.
+	 */
+	@DataBoundSetter
+	public void setConvertReports(boolean convertReports)
+	{
+		this.convertReports = convertReports;
+	}
+
+	/**
+	 * Should the JUnit and Sonar reports be converted from the result file by the plugin instead of the CLI.
+	 * 
+	 * @return	<code>true</code> indicates the plugin converts the reports.
+	 * 			<code>false</code> indicates the CLI creates the reports.
+	 */
+	public boolean getConvertReports()
+	{
+		return convertReports;
+	}
 	
 	/**
 	 * Returns the logging level.
@@ -781,6 +874,193 @@ public class TotalTestCTBuilder extends Builder implements SimpleBuildStep
 		return haltPipelineOnFailure;
 	}
 
+	/**
+	 * Set if the CLI workspace should be initialized from the workspace template cached on the node.
+	 * 
+	 * @param useWorkspaceCache
+	 * 			<code>true</code> indicates the cached CLI workspace template should be used.
+	 * 			<code>false</code> indicates the CLI workspace is always created by the CLI.
+	 */
+	@DataBoundSetter
+	public void setUseWorkspaceCache(boolean useWorkspaceCache)
+	{
+		this.useWorkspaceCache = useWorkspaceCache;
+	}
+
+	/**
+	 * Should the CLI workspace be initialized from the workspace template cached on the node.
+	 * 
+	 * @return	<code>true</code> indicates the cached CLI workspace template should be used.
+	 * 			<code>false</code> indicates the CLI workspace is always created by the CLI.
+	 */
+	public boolean getUseWorkspaceCache()
+	{
+		return useWorkspaceCache;
+	}
+
+	/**
+	 * Set if the CLI should stop at its first failure. Kept for existing configurations, the CLI is now asked to stop
+	 * itself, as with {@link #setHaltAtFailure(boolean)}, so the result file of the run is still written.
+	 * 
+	 * @param failFast
+	 * 			<code>true</code> indicates the CLI stops at its first failure.
+	 * 			<code>false</code> indicates the CLI runs to its end, unless halt at failure is set.
+	 */
+	@DataBoundSetter
+	public void setFailFast(boolean failFast)
+	{
+		this.failFast = failFast;
+	}
+
+	/**
+	 * Should the CLI stop at its first failure.
+	 * 
+	 * @return	<code>true</code> indicates the CLI stops at its first failure.
+	 * 			<code>false</code> indicates the CLI runs to its end, unless halt at failure is set.
+	 */
+	public boolean getFailFast()
+	{
+		return failFast;
+	}
+
+	/**
+	 * Set the longest time the CLI may run.
+	 * 
+	 * @param timeoutMinutes
+	 * 			The limit in minutes, 0 for no limit.
+	 */
+	@DataBoundSetter
+	public void setTimeoutMinutes(int timeoutMinutes)
+	{
+		this.timeoutMinutes = timeoutMinutes;
+	}
+
+	/**
+	 * Get the longest time the CLI may run.
+	 * 
+	 * @return	The limit in minutes, 0 for no limit.
+	 */
+	public int getTimeoutMinutes()
+	{
+		return timeoutMinutes;
+	}
+
+	/**
+	 * Set the longest time the CLI may write no output.
+	 * 
+	 * @param inactivityTimeoutMinutes
+	 * 			The limit in minutes, 0 for no limit.
+	 */
+	@DataBoundSetter
+	public void setInactivityTimeoutMinutes(int inactivityTimeoutMinutes)
+	{
+		this.inactivityTimeoutMinutes = inactivityTimeoutMinutes;
+	}
+
+	/**
+	 * Get the longest time the CLI may write no output.
+	 * 
+	 * @return	The limit in minutes, 0 for no limit.
+	 */
+	public int getInactivityTimeoutMinutes()
+	{
+		return inactivityTimeoutMinutes;
+	}
+
+	/**
+	 * Set the number of times a run failing with a transient host error is launched again.
+	 * 
+	 * @param maxRetries
+	 * 			The number of retries, 0 to never retry.
+	 */
+	@DataBoundSetter
+	public void setMaxRetries(int maxRetries)
+	{
+		this.maxRetries = maxRetries;
+	}
+
+	/**
+	 * Get the number of times a run failing with a transient host error is launched again.
+	 * 
+	 * @return	The number of retries, 0 to never retry.
+	 */
+	public int getMaxRetries()
+	{
+		return maxRetries;
+	}
+
+	/**
+	 * Set the number of test folders run at once.
+	 * 
+	 * @param maxParallelRuns
+	 * 			The number of folders, 0 to size it to the cores and memory of the node.
+	 */
+	@DataBoundSetter
+	public void setMaxParallelRuns(int maxParallelRuns)
+	{
+		this.maxParallelRuns = maxParallelRuns;
+	}
+
+	/**
+	 * Get the number of test folders run at once.
+	 * 
+	 * @return	The number of folders, 0 to size it to the cores and memory of the node.
+	 */
+	public int getMaxParallelRuns()
+	{
+		return maxParallelRuns;
+	}
+
+	/**
+	 * Set if the CLI output should be buffered in a log file on the node and archived with the build.
+	 * 
+	 * @param bufferLog
+	 * 			<code>true</code> indicates the CLI output is buffered on the node and forwarded to the build log in batches.
+	 * 			<code>false</code> indicates the CLI output is copied to the build log as the CLI writes it.
+	 */
+	@DataBoundSetter
+	public void setBufferLog(boolean bufferLog)
+	{
+		this.bufferLog = bufferLog;
+	}
+
+	/**
+	 * Should the CLI output be buffered in a log file on the node and archived with the build.
+	 * 
+	 * @return	<code>true</code> indicates the CLI output is buffered on the node and forwarded to the build log in batches.
+	 * 			<code>false</code> indicates the CLI output is copied to the build log as the CLI writes it.
+	 */
+	public boolean getBufferLog()
+	{
+		return bufferLog;
+	}
+
+	/**
+	 * Set if the test files should be narrowed to the ones referencing the selected programs, using the impact index
+	 * kept on the node.
+	 * 
+	 * @param useImpactIndex
+	 * 			<code>true</code> indicates only the impacted test files are passed to the CLI.
+	 * 			<code>false</code> indicates the CLI scans the folder.
+	 */
+	@DataBoundSetter
+	public void setUseImpactIndex(boolean useImpactIndex)
+	{
+		this.useImpactIndex = useImpactIndex;
+	}
+
+	/**
+	 * Should the test files be narrowed to the ones referencing the selected programs, using the impact index kept on
+	 * the node.
+	 * 
+	 * @return	<code>true</code> indicates only the impacted test files are passed to the CLI.
+	 * 			<code>false</code> indicates the CLI scans the folder.
+	 */
+	public boolean getUseImpactIndex()
+	{
+		return useImpactIndex;
+	}
+
 	/**
 	 * Set if using local configuration
 	 * 
@@ -1237,10 +1517,28 @@ public class TotalTestCTBuilder extends Builder implements SimpleBuildStep
 
 		try
 		{
-			validateParameters(launcher, listener, build.getParent());
+			TotalTestCredentials credentials = TotalTestCredentials.resolve(build.getParent(), getCredentialsId(),
+					getServerCredentialsId());
+			validateParameters(launcher, listener, credentials);
+
+			boolean success;
+			if (getFolderPaths().size() > 1)
+			{
+				// Each folder waits for a host permit of its own.
+				success = new TotalTestParallelRunner(this, credentials).run(build, launcher, workspace, listener);
+			}
+			else
+			{
+				TotalTestCTRunner runner = new TotalTestCTRunner(this, credentials);
+				try (TotalTestHostThrottle.Permit permit = TotalTestHostThrottle.get().acquire(TotalTestHostThrottle.getHostKey(this),
+						build.getParent().getFullName(), listener))
+				{
+					runner.setPermit(permit);
+					success = runner.run(build, launcher, workspace, listener);
+					permit.completed();
+				}
+			}
 
-			TotalTestCTRunner runner = new TotalTestCTRunner(this);
-			boolean success = runner.run(build, launcher, workspace, listener);
 			if (success == false) //NOSONAR
 			{
 				listener.error("Test failure"); //$NON-NLS-1$
@@ -1270,6 +1568,21 @@ public class TotalTestCTBuilder extends Builder implements SimpleBuildStep
 	 *            An instance of <code>Item</code> for the Jenkins project.
 	 */
 	public void validateParameters(final Launcher launcher, final TaskListener listener, final Item project)
+	{
+		validateParameters(launcher, listener, TotalTestCredentials.resolve(project, getCredentialsId()));
+	}
+
+	/**
+	 * Validates the configuration parameters.
+	 * 
+	 * @param launcher
+	 *            An instance of <code>Launcher</code> for launching the plugin.
+	 * @param listener
+	 *            An instance of <code>TaskListener</code> for the build listener.
+	 * @param credentials
+	 *            The credentials resolved for the build.
+	 */
+	public void validateParameters(final Launcher launcher, final TaskListener listener, final TotalTestCredentials credentials)
 	{
 		if (isSelectEnvironmentId())
 		{
@@ -1343,7 +1656,7 @@ public class TotalTestCTBuilder extends Builder implements SimpleBuildStep
 		if (!getCredentialsId().isEmpty())
 		{
 
-			if (TotalTestRunnerUtils.getLoginInformation(project, getCredentialsId()) != null)
+			if (credentials.get(getCredentialsId()) != null)
 			{
 				listener.getLogger().println("Credentials entered..."); //$NON-NLS-1$
 			}
@@ -1417,6 +1730,16 @@ public class TotalTestCTBuilder extends Builder implements SimpleBuildStep
 		
 		public static final String defaultCustomerId = ""; //NOSONAR  //$NON-NLS-1$
 		public static final String defaultSiteId = ""; //NOSONAR  //$NON-NLS-1$
+		public static final Boolean defaultUseWorkspaceCache = false; //NOSONAR
+		public static final Boolean defaultFailFast = false; //NOSONAR
+		public static final int defaultTimeoutMinutes = 0; //NOSONAR
+		public static final int defaultInactivityTimeoutMinutes = 0; //NOSONAR
+		public static final int defaultMaxRetries = 0; //NOSONAR
+		public static final int defaultMaxParallelRuns = 0; //NOSONAR
+		public static final Boolean defaultBufferLog = false; //NOSONAR
+		public static final Boolean defaultUseImpactIndex = false; //NOSONAR
+		public static final Boolean defaultDeferReports = false; //NOSONAR
+		public static final Boolean defaultConvertReports = false; //NOSONAR
 
 		/**
 		 * Fill in the Sonar versions.
@@ -1615,10 +1938,13 @@ public class TotalTestCTBuilder extends Builder implements SimpleBuildStep
 			
 			if (value != null && value.trim().length() > 0)
 			{
-				File theFolder = new File(value);
-				if (theFolder.isFile())
+				for (String line : value.split("\\r?\\n")) //$NON-NLS-1$
 				{
-					return FormValidation.error(Messages.errors_missingFolderPath());
+					File theFolder = new File(line.trim());
+					if (!line.trim().isEmpty() && theFolder.isFile())
+					{
+						return FormValidation.error(Messages.errors_missingFolderPath());
+					}
 				}
 			}
 
@@ -1659,9 +1985,7 @@ public class TotalTestCTBuilder extends Builder implements SimpleBuildStep
 				project.checkPermission(Item.CONFIGURE);
 			}
 			
-			List<StandardUsernamePasswordCredentials> creds = CredentialsProvider.lookupCredentials(
-					StandardUsernamePasswordCredentials.class, project, ACL.SYSTEM,
-					Collections.<DomainRequirement> emptyList());
+			List<StandardUsernamePasswordCredentials> creds = TotalTestCredentials.lookupForForm(project);
 
 			StandardListBoxModel model = new StandardListBoxModel();
 
@@ -1766,9 +2090,7 @@ public class TotalTestCTBuilder extends Builder implements SimpleBuildStep
 				project.checkPermission(Item.CONFIGURE);
 			}
 			
-			List<StandardUsernamePasswordCredentials> creds = CredentialsProvider.lookupCredentials(
-					StandardUsernamePasswordCredentials.class, project, ACL.SYSTEM,
-					Collections.<DomainRequirement> emptyList());
+			List<StandardUsernamePasswordCredentials> creds = TotalTestCredentials.lookupForForm(project);
 
 			StandardListBoxModel model = new StandardListBoxModel();
 
@@ -0,0 +1,710 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jenkinsci.plugins.durabletask.Controller;
+import org.jenkinsci.plugins.workflow.steps.FlowInterruptedException;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+import hudson.AbortException;
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import hudson.util.ArgumentListBuilder;
+import jenkins.model.Jenkins;
+import jenkins.util.Timer;
+
+/**
+ * A Pipeline step running Total Test scenarios as a durable task.
+ * <p>
+ * The CLI runs in the background on the node. The step polls the task for its output and exit value, so no controller
+ * thread waits for the CLI, and reattaches to the task when the controller restarts. The test scenarios are configured
+ * as for the {@link TotalTestCTBuilder} step:
+ *
+ * <pre>
+ * totaltestDurable test: [$class: 'TotalTestCTBuilder', environmentId: '...', credentialsId: '...', ...]
+ * </pre>
+ */
+public class TotalTestCTDurableStep extends Step
+{
+	private final TotalTestCTBuilder test;
+
+	/**
+	 * Constructor
+	 *
+	 * @param test
+	 * 			  The configuration of the test scenarios to run.
+	 */
+	@DataBoundConstructor
+	public TotalTestCTDurableStep(final TotalTestCTBuilder test)
+	{
+		this.test = test;
+	}
+
+	/**
+	 * Returns the configuration of the test scenarios to run.
+	 *
+	 * @return the configuration
+	 */
+	public TotalTestCTBuilder getTest()
+	{
+		return test;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.jenkinsci.plugins.workflow.steps.Step#start(org.jenkinsci.plugins.workflow.steps.StepContext)
+	 */
+	@Override
+	public StepExecution start(final StepContext context) throws Exception
+	{
+		return new Execution(context, test);
+	}
+
+	/**
+	 * The execution of the step, which survives controller restarts.
+	 * <p>
+	 * The configuration of the step is kept as XML, as in the configuration of a job, and read again after a restart.
+	 * The preparation and the launch of the CLI use the node, so they run on a thread of their own rather than on the
+	 * thread of the Pipeline.
+	 */
+	static final class Execution extends StepExecution
+	{
+		private static final long serialVersionUID = 1L;
+		private static final Logger LOGGER = Logger.getLogger(Execution.class.getName());
+		private static final long MIN_RECURRENCE_PERIOD = 250;
+		private static final long MAX_RECURRENCE_PERIOD = TimeUnit.SECONDS.toMillis(15);
+		private static final float RECURRENCE_PERIOD_BACKOFF = 1.2f;
+
+		private final String configuration;
+		private transient TotalTestCTBuilder tttBuilder;
+		private String hostKey;
+		private String jobKey;
+		private TotalTestPreflight preflight;
+		private Controller controller;
+		private Integer exitValue;
+		private String node;
+		private String remote;
+		private transient volatile Future<?> launching;
+		private transient volatile boolean stopped;
+		private transient volatile ScheduledFuture<?> task;
+		private transient TotalTestHostThrottle.Permit permit;
+		private transient long recurrencePeriod;
+		private transient TotalTestOutputParser outputParser;
+		private TotalTestWatchdog watchdog;
+		private String timeoutReason;
+		private int progressId;
+
+		Execution(final StepContext context, final TotalTestCTBuilder tttBuilder)
+		{
+			super(context);
+			this.configuration = Jenkins.XSTREAM2.toXML(tttBuilder);
+			this.tttBuilder = tttBuilder;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.jenkinsci.plugins.workflow.steps.StepExecution#start()
+		 */
+		@Override
+		public boolean start() throws Exception
+		{
+			TaskListener listener = getContext().get(TaskListener.class);
+			listener.getLogger().println("Running " + Messages.displayName() + "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+
+			launching = Computer.threadPoolForRemoting.submit(this::launchSafely);
+
+			return false;
+		}
+
+		/**
+		 * Launches the CLI task, failing the step when it could not be launched.
+		 */
+		private void launchSafely()
+		{
+			try
+			{
+				launch();
+			}
+			catch (Exception e)
+			{
+				LOGGER.log(Level.FINE, "Total Test CLI task launch failed", e); //$NON-NLS-1$
+				if (stopped)
+				{
+					// The step already failed with the cause of the stop.
+					release();
+				}
+				else
+				{
+					finish(e);
+				}
+			}
+		}
+
+		/**
+		 * Waits for a permit of the host, prepares the run and launches the CLI task.
+		 *
+		 * @throws Exception
+		 * 			  If the run could not be prepared or launched.
+		 */
+		private void launch() throws Exception
+		{
+			Run<?, ?> build = getContext().get(Run.class);
+			FilePath workspace = getContext().get(FilePath.class);
+			Launcher launcher = getContext().get(Launcher.class);
+			TaskListener listener = getContext().get(TaskListener.class);
+			EnvVars env = getContext().get(EnvVars.class);
+			TotalTestCTBuilder builder = getBuilder();
+
+			TotalTestCredentials credentials = TotalTestCredentials.resolve(build.getParent(), builder.getCredentialsId(),
+					builder.getServerCredentialsId());
+			builder.validateParameters(launcher, listener, credentials);
+			if (builder.getFolderPaths().size() > 1)
+			{
+				throw new AbortException("Several test folders can not be run as a durable task, use one step per folder"); //$NON-NLS-1$
+			}
+
+			hostKey = TotalTestHostThrottle.getHostKey(builder);
+			jobKey = build.getParent().getFullName();
+			TotalTestHostThrottle.Permit acquired = TotalTestHostThrottle.get().acquire(hostKey, jobKey, listener);
+			synchronized (this)
+			{
+				permit = acquired;
+			}
+
+			if (stopped)
+			{
+				release();
+				return;
+			}
+
+			TotalTestCTRunner runner = new TotalTestCTRunner(builder, credentials);
+			runner.setPermit(acquired);
+			ArgumentListBuilder args = runner.prepare(build, launcher, workspace, listener);
+			if (args == null && runner.isNoImpactedTests())
+			{
+				acquired.completed();
+				finish(null);
+				return;
+			}
+			else if (args == null)
+			{
+				throw new AbortException("Test failure"); //$NON-NLS-1$
+			}
+
+			preflight = runner.getPreflight();
+			node = getNodeName(workspace);
+			remote = workspace.getRemote();
+			controller = runner.createCLILauncher(launcher).launchDurable(args, env, workspace);
+			if (stopped)
+			{
+				// The step was stopped while the task was launched.
+				stopTask(controller);
+				release();
+				return;
+			}
+
+			if (runner.getWatchdog().isEnabled())
+			{
+				watchdog = runner.getWatchdog();
+				watchdog.start();
+			}
+
+			progressId = TotalTestProgressAction.start(build, builder.getFolderPath()).getId();
+			getOutputParser(listener);
+
+			recurrencePeriod = MIN_RECURRENCE_PERIOD;
+			schedule();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.jenkinsci.plugins.workflow.steps.StepExecution#onResume()
+		 */
+		@Override
+		public void onResume()
+		{
+			if (controller == null)
+			{
+				// Jenkins restarted while the run was prepared, before the task was launched.
+				getContext().onFailure(new AbortException("Jenkins restarted before the Total Test CLI was launched")); //$NON-NLS-1$
+				return;
+			}
+
+			// The task still uses the host, the permits of the host are counted again from the running tasks.
+			synchronized (this)
+			{
+				permit = TotalTestHostThrottle.get().reattach(hostKey, jobKey);
+			}
+
+			if (watchdog != null)
+			{
+				// The time the controller was down does not count as inactivity of the CLI.
+				watchdog.activity();
+			}
+
+			// A task that exited before the restart is analyzed by the next check.
+			recurrencePeriod = MIN_RECURRENCE_PERIOD;
+			schedule();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.jenkinsci.plugins.workflow.steps.StepExecution#stop(java.lang.Throwable)
+		 */
+		@Override
+		public void stop(final Throwable cause) throws Exception
+		{
+			stopped = true;
+			Future<?> launch = launching;
+			if (launch != null)
+			{
+				// Stops the wait for the host or the preparation of the run.
+				launch.cancel(true);
+			}
+
+			ScheduledFuture<?> scheduled = task;
+			if (scheduled != null)
+			{
+				scheduled.cancel(false);
+			}
+
+			Controller running = controller;
+			FilePath workspace = getWorkspace();
+			if (running != null && workspace != null && exitValue == null)
+			{
+				running.stop(workspace, getContext().get(Launcher.class));
+			}
+
+			finish(cause);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.jenkinsci.plugins.workflow.steps.StepExecution#getStatus()
+		 */
+		@Override
+		public String getStatus()
+		{
+			if (controller == null)
+			{
+				return "Preparing the Total Test run"; //$NON-NLS-1$
+			}
+
+			return (exitValue == null ? "Total Test CLI running on " : "Analyzing the Total Test result on ") //$NON-NLS-1$ //$NON-NLS-2$
+					+ (node == null || node.isEmpty() ? "built-in node" : node) + " in " + remote; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		/**
+		 * Returns the configuration of the step, read again from its XML after a restart.
+		 *
+		 * @return the configuration
+		 */
+		private TotalTestCTBuilder getBuilder()
+		{
+			if (tttBuilder == null)
+			{
+				tttBuilder = (TotalTestCTBuilder) Jenkins.XSTREAM2.fromXML(configuration);
+			}
+
+			return tttBuilder;
+		}
+
+		/**
+		 * Schedules the next check of the CLI task.
+		 */
+		private void schedule()
+		{
+			task = Timer.get().schedule(this::check, recurrencePeriod, TimeUnit.MILLISECONDS);
+		}
+
+		/**
+		 * Copies the new output of the CLI task to the build log and completes the step when the task exited.
+		 * <p>
+		 * The controller of the task and its exit value are kept until the step completed, so a restart while the result
+		 * is analyzed analyzes it again.
+		 */
+		private void check()
+		{
+			Controller running = controller;
+			if (running == null || stopped)
+			{
+				return;
+			}
+
+			try
+			{
+				FilePath workspace = getWorkspace();
+				if (workspace == null)
+				{
+					// The node is offline, wait for it to come back.
+					backOff();
+					schedule();
+					return;
+				}
+
+				TaskListener listener = getContext().get(TaskListener.class);
+				Launcher launcher = getContext().get(Launcher.class);
+				if (exitValue == null && !poll(running, workspace, launcher, listener))
+				{
+					schedule();
+					return;
+				}
+
+				if (timeoutReason != null)
+				{
+					listener.error(Messages.timeoutError(timeoutReason));
+					finish(new FlowInterruptedException(Result.ABORTED, true, new TotalTestWatchdog.TimeoutCause(timeoutReason)));
+					return;
+				}
+
+				// Reading and analyzing the result must not hold up the other tasks of the shared timer.
+				int value = exitValue;
+				Computer.threadPoolForRemoting.submit(() -> completeSafely(workspace, launcher, listener, value));
+			}
+			catch (IOException e)
+			{
+				// The channel to the node may come back, as the task keeps running on the node.
+				LOGGER.log(Level.FINE, "Total Test CLI task check failed, checking again later", e); //$NON-NLS-1$
+				backOff();
+				schedule();
+			}
+			catch (Exception e)
+			{
+				LOGGER.log(Level.FINE, "Total Test CLI task check failed", e); //$NON-NLS-1$
+				stopTask(running);
+				finish(e);
+			}
+		}
+
+		/**
+		 * Copies the new output of the CLI task to the build log and records its exit value once it exited.
+		 *
+		 * @param running
+		 * 			  The controller of the task.
+		 * @param workspace
+		 * 			  The workspace of the task.
+		 * @param launcher
+		 * 			  The machine that the CLI is executed on.
+		 * @param listener
+		 * 			  Build listener
+		 * @return <code>true</code> if the task exited, otherwise <code>false</code>
+		 * @throws IOException
+		 * 			  If the node could not be reached.
+		 * @throws InterruptedException
+		 * 			  If the check was interrupted.
+		 */
+		private boolean poll(final Controller running, final FilePath workspace, final Launcher launcher,
+				final TaskListener listener) throws IOException, InterruptedException
+		{
+			TotalTestOutputParser parser = getOutputParser(listener);
+			boolean wroteLog = running.writeLog(workspace, parser);
+			if (wroteLog && watchdog != null)
+			{
+				watchdog.activity();
+			}
+
+			Integer value = running.exitStatus(workspace, launcher, listener);
+			if (value == null)
+			{
+				String reason = watchdog != null && timeoutReason == null ? watchdog.check() : null;
+				if (reason != null)
+				{
+					timeoutReason = reason;
+
+					// The thread dump and the stop wait for the node, which must not hold up the shared timer.
+					Computer.threadPoolForRemoting.submit(() -> {
+						listener.getLogger().println("Stopping the Total Test CLI: " + reason); //$NON-NLS-1$
+						watchdog.dumpThreads(launcher, listener);
+						running.stop(workspace, launcher);
+						return null;
+					});
+				}
+
+				if (wroteLog)
+				{
+					recurrencePeriod = MIN_RECURRENCE_PERIOD;
+				}
+				else
+				{
+					backOff();
+				}
+
+				return false;
+			}
+
+			running.writeLog(workspace, parser);
+			parser.forceEol();
+			parser.getProgress().finish();
+			running.cleanup(workspace);
+			exitValue = value;
+
+			return true;
+		}
+
+		/**
+		 * Stops the CLI task, if it can still be reached, before the step fails.
+		 *
+		 * @param running
+		 * 			  The controller of the task.
+		 */
+		private void stopTask(final Controller running)
+		{
+			FilePath workspace = getWorkspace();
+			if (workspace == null)
+			{
+				return;
+			}
+
+			try
+			{
+				running.stop(workspace, getContext().get(Launcher.class));
+			}
+			catch (IOException e)
+			{
+				LOGGER.log(Level.FINE, "Total Test CLI task could not be stopped", e); //$NON-NLS-1$
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		/**
+		 * Completes the step, failing it when the result could not be analyzed.
+		 */
+		private void completeSafely(final FilePath workspace, final Launcher launcher, final TaskListener listener,
+				final int exitValue)
+		{
+			try
+			{
+				complete(workspace, launcher, listener, exitValue);
+			}
+			catch (Exception e)
+			{
+				LOGGER.log(Level.FINE, "Total Test CLI result analysis failed", e); //$NON-NLS-1$
+				finish(e);
+			}
+		}
+
+		/**
+		 * Analyzes the result of the CLI and completes the step.
+		 *
+		 * @param workspace
+		 * 			  The workspace of the build.
+		 * @param launcher
+		 * 			  The machine that the CLI was executed on.
+		 * @param listener
+		 * 			  Build listener
+		 * @param exitValue
+		 * 			  The exit value of the CLI.
+		 * @throws IOException
+		 * 			  If the result could not be read.
+		 * @throws InterruptedException
+		 * 			  If the analysis was interrupted.
+		 */
+		private void complete(final FilePath workspace, final Launcher launcher, final TaskListener listener,
+				final int exitValue) throws IOException, InterruptedException
+		{
+			TotalTestCTRunner runner = new TotalTestCTRunner(getBuilder());
+			runner.restore(getContext().get(Run.class), launcher, workspace, listener, preflight);
+			runner.createCLILauncher(launcher).finish(exitValue);
+
+			boolean success = runner.complete(launcher, exitValue);
+			TotalTestHostThrottle.Permit held = permit;
+			if (held != null)
+			{
+				held.completed();
+			}
+
+			if (success)
+			{
+				listener.getLogger().println("Test Success..."); //$NON-NLS-1$
+				finish(null);
+			}
+			else
+			{
+				listener.error("Test failure"); //$NON-NLS-1$
+				finish(new AbortException("Test failure")); //$NON-NLS-1$
+			}
+		}
+
+		/**
+		 * Completes the step and releases the permit of the host.
+		 *
+		 * @param failure
+		 * 			  Why the step failed, or <code>null</code> if it succeeded.
+		 */
+		private void finish(final Throwable failure)
+		{
+			release();
+			controller = null;
+			exitValue = null;
+			if (failure == null)
+			{
+				getContext().onSuccess(null);
+			}
+			else
+			{
+				getContext().onFailure(failure);
+			}
+		}
+
+		/**
+		 * Releases the permit of the host, if the step still holds it.
+		 */
+		private void release()
+		{
+			TotalTestHostThrottle.Permit held;
+			synchronized (this)
+			{
+				held = permit;
+				permit = null;
+			}
+
+			if (held != null)
+			{
+				held.close();
+			}
+		}
+
+		/**
+		 * Returns the parser following the output of the CLI task.
+		 *
+		 * @param listener
+		 * 			  Build listener
+		 * @return the parser
+		 * @throws IOException
+		 * 			  If the build could not be retrieved.
+		 * @throws InterruptedException
+		 * 			  If the retrieval was interrupted.
+		 */
+		private TotalTestOutputParser getOutputParser(final TaskListener listener) throws IOException, InterruptedException
+		{
+			if (outputParser == null)
+			{
+				// The action of the step is reused after a restart of the controller, so its progress is kept.
+				Run<?, ?> build = getContext().get(Run.class);
+				TotalTestProgressAction progress = TotalTestProgressAction.find(build, progressId);
+				if (progress == null)
+				{
+					progress = TotalTestProgressAction.start(build, getBuilder().getFolderPath());
+					progressId = progress.getId();
+				}
+
+				outputParser = new TotalTestOutputParser(listener.getLogger(), progress);
+			}
+
+			return outputParser;
+		}
+
+		/**
+		 * Waits longer before the next check.
+		 */
+		private void backOff()
+		{
+			recurrencePeriod = Math.min((long) (recurrencePeriod * RECURRENCE_PERIOD_BACKOFF), MAX_RECURRENCE_PERIOD);
+		}
+
+		/**
+		 * Returns the workspace of the task on its node.
+		 *
+		 * @return the workspace, or <code>null</code> if the node is offline
+		 */
+		private FilePath getWorkspace()
+		{
+			Jenkins jenkins = Jenkins.getInstanceOrNull();
+			Computer computer = jenkins != null ? jenkins.getComputer(node) : null;
+			VirtualChannel channel = computer != null ? computer.getChannel() : null;
+
+			return channel != null ? new FilePath(channel, remote) : null;
+		}
+
+		/**
+		 * Returns the name of the node of a workspace.
+		 *
+		 * @param workspace
+		 * 			  The workspace.
+		 * @return the name of the node, empty for the built-in node
+		 */
+		private static String getNodeName(final FilePath workspace)
+		{
+			Computer computer = workspace.toComputer();
+			Node workspaceNode = computer != null ? computer.getNode() : null;
+
+			return workspaceNode != null ? workspaceNode.getNodeName() : ""; //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Descriptor for {@link TotalTestCTDurableStep}.
+	 */
+	@Extension
+	public static final class DescriptorImpl extends StepDescriptor
+	{
+		/*
+		 * (non-Javadoc)
+		 * @see org.jenkinsci.plugins.workflow.steps.StepDescriptor#getFunctionName()
+		 */
+		@Override
+		public String getFunctionName()
+		{
+			return "totaltestDurable"; //$NON-NLS-1$
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.jenkinsci.plugins.workflow.steps.StepDescriptor#getRequiredContext()
+		 */
+		@Override
+		public Set<? extends Class<?>> getRequiredContext()
+		{
+			return new HashSet<>(Arrays.asList(Run.class, FilePath.class, Launcher.class, TaskListener.class, EnvVars.class));
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see hudson.model.Descriptor#getDisplayName()
+		 */
+		@Override
+		public String getDisplayName()
+		{
+			return Messages.displayNameDurable();
+		}
+	}
+}
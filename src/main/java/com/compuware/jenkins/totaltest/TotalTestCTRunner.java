@@ -17,36 +17,41 @@
  */
 package com.compuware.jenkins.totaltest;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.io.Reader;
-import java.io.StringReader;
+import java.io.Serializable;
 import java.io.StringWriter;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.Properties;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.apache.commons.lang3.math.NumberUtils;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.xml.sax.InputSource;
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
 import com.compuware.jenkins.common.configuration.CpwrGlobalConfiguration;
 import com.compuware.jenkins.common.configuration.HostConnection;
 import com.compuware.jenkins.totaltest.TotalTestCTBuilder.DescriptorImpl;
 import com.google.common.base.Strings;
+import hudson.AbortException;
 import hudson.EnvVars;
 import hudson.FilePath;
 import hudson.Launcher;
+import hudson.model.Result;
 import hudson.model.Run;
 import hudson.model.TaskListener;
 import hudson.remoting.VirtualChannel;
 import hudson.util.ArgumentListBuilder;
+import jenkins.MasterToSlaveFileCallable;
 
 public class TotalTestCTRunner
 {
@@ -54,6 +59,7 @@ public class TotalTestCTRunner
 	private static final String TOTAL_TEST_CLI_SH = "TotalTestFTCLI.sh"; //$NON-NLS-1$
 	private static final String TOTAL_TEST_WEBAPP = "totaltestapi"; //$NON-NLS-1$
 	private static final String TOPAZ_CLI_WORKSPACE = "BMC-CliWkspc"; //$NON-NLS-1$
+	private static final String PARALLEL_WORKSPACE_PREFIX = "folder-"; //$NON-NLS-1$
 	private static final String DATA = "-data"; //$NON-NLS-1$
 	private static final String FOLDER_OUTPUT = "Output"; //$NON-NLS-1$
 	private static final String GENERATED_SUITE_RESULT_FILE_NAME = ".cli.suiteresult";  //$NON-NLS-1$
@@ -69,13 +75,26 @@ public class TotalTestCTRunner
   	private static final String FILE_EXT_CONTEXT_OLD="xactx"; //$NON-NLS-1$
  	private static final String SCENARIOS_FOLDER = "Scenarios"; //$NON-NLS-1$ 
  	private static final String SUITES_FOLDER = "Suites"; //$NON-NLS-1$ 
+	static final Set<String> PRUNED_FOLDERS = new HashSet<>(Arrays.asList(TOPAZ_CLI_WORKSPACE, ".metadata", ".git", ".svn", ".settings")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	private static final long MODIFIED_TIME_TOLERANCE = 2000;
 
 	private final TotalTestCTBuilder tttBuilder;
+	private TotalTestCredentials credentials;
 
 	private TaskListener listener;
 	private FilePath workspaceFilePath;
 	private Run<?, ?> build;
 	private String remoteFileSeparator;
+	private TotalTestCLICapabilities cliCapabilities;
+	private TotalTestPreflight preflight;
+	private TotalTestWatchdog watchdog;
+	private String impactedFolder;
+	private boolean noImpactedTests;
+	private String folderPath;
+	private String reportFolder;
+	private int parallelIndex;
+	private TotalTestResultSummary summary;
+	private TotalTestHostThrottle.Permit permit;
 
 	/**
 	 * Constructor
@@ -84,8 +103,78 @@ public class TotalTestCTRunner
 	 * 			  An instance of <code>TotalTestCTBuilder</code> containing the arguments.
 	 */
 	public TotalTestCTRunner(TotalTestCTBuilder tttBuilder)
+	{
+		this(tttBuilder, null);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param tttBuilder
+	 * 			  An instance of <code>TotalTestCTBuilder</code> containing the arguments.
+	 * @param credentials
+	 * 			  The credentials resolved for the build, or <code>null</code> to resolve them when the runner runs.
+	 */
+	public TotalTestCTRunner(TotalTestCTBuilder tttBuilder, TotalTestCredentials credentials)
 	{
 		this.tttBuilder = tttBuilder;
+		this.credentials = credentials;
+		this.folderPath = tttBuilder.getFolderPath();
+		this.reportFolder = tttBuilder.getReportFolder();
+	}
+
+	/**
+	 * Sets the host permit the run holds.
+	 * 
+	 * @param permit
+	 * 			  The permit, told about the connection and host errors of the CLI, or <code>null</code> if the run has none.
+	 */
+	void setPermit(final TotalTestHostThrottle.Permit permit)
+	{
+		this.permit = permit;
+	}
+
+	/**
+	 * Makes this runner run one of the folders of a parallel run.
+	 * <p>
+	 * The CLI of the folder gets a workspace of its own and, when a report folder is set, a report sub-folder of its
+	 * own. The result of the folder is archived and added to the build, and kept in the runner, see
+	 * {@link #getSummary()}, for the merged result of the run. A timeout of the CLI fails the folder only.
+	 * 
+	 * @param folder
+	 * 			  The folder path of the test files.
+	 * @param index
+	 * 			  The one based index of the folder in the run.
+	 */
+	void setParallelFolder(final String folder, final int index)
+	{
+		this.folderPath = folder;
+		this.parallelIndex = index;
+		if (!Strings.isNullOrEmpty(reportFolder) && !reportFolder.trim().isEmpty())
+		{
+			this.reportFolder = reportFolder.trim() + '/' + index;
+		}
+	}
+
+	/**
+	 * Returns the path of the CLI workspace of the run.
+	 * 
+	 * @return the path on the node
+	 */
+	private String getCliWorkspace()
+	{
+		String topazCliWorkspace = workspaceFilePath.getRemote() + remoteFileSeparator + TOPAZ_CLI_WORKSPACE;
+		return parallelIndex > 0 ? topazCliWorkspace + remoteFileSeparator + PARALLEL_WORKSPACE_PREFIX + parallelIndex : topazCliWorkspace;
+	}
+
+	/**
+	 * Returns the summary of the result read by the last run.
+	 * 
+	 * @return the summary, or <code>null</code> if no result was read
+	 */
+	TotalTestResultSummary getSummary()
+	{
+		return summary;
 	}
 
 	/**
@@ -109,45 +198,294 @@ public class TotalTestCTRunner
 	 */
 	public boolean run(final Run<?, ?> build, final Launcher launcher, final FilePath workspaceFilePath,
 			final TaskListener listener) throws IOException, InterruptedException
+	{
+		ArgumentListBuilder args = prepare(build, launcher, workspaceFilePath, listener);
+		if (args == null)
+		{
+			return noImpactedTests;
+		}
+
+		EnvVars env = build.getEnvironment(listener);
+		FilePath workDir = new FilePath(launcher.getChannel(), workspaceFilePath.getRemote());
+		TotalTestRetryPolicy retryPolicy = new TotalTestRetryPolicy(tttBuilder.getMaxRetries(),
+				TotalTestHostThrottle.getHostKey(tttBuilder), listener);
+		retryPolicy.setPermit(permit);
+		TotalTestProgressAction progress = TotalTestProgressAction.start(build, folderPath);
+		TotalTestCLILauncher cliLauncher = null;
+		int exitValue;
+		do
+		{
+			if (cliLauncher != null)
+			{
+				progress.nextAttempt();
+			}
+
+			cliLauncher = createCLILauncher(launcher);
+			cliLauncher.setOutputParser(new TotalTestOutputParser(listener.getLogger(), progress));
+			if (tttBuilder.getBufferLog())
+			{
+				cliLauncher.setLogPipeline(new TotalTestLogPipeline(build, workspaceFilePath, listener));
+			}
+
+			exitValue = cliLauncher.launch(args, env, workDir);
+			if (cliLauncher.getTimeoutReason() != null)
+			{
+				// The timeout of one folder of a parallel run only fails that folder.
+				throw parallelIndex > 0 ? new AbortException(Messages.timeoutError(cliLauncher.getTimeoutReason()))
+						: TotalTestWatchdog.timedOut(build, cliLauncher.getTimeoutReason());
+			}
+		}
+		while (retryPolicy.retry(build, exitValue, cliLauncher.getLogTail()));
+
+		return complete(launcher, exitValue);
+	}
+
+	/**
+	 * Returns the folder path of the test files.
+	 * 
+	 * @return the folder path, "." for the workspace
+	 */
+	private String getFolder()
+	{
+		String folder = folderPath;
+		if (Strings.isNullOrEmpty(folder) || folder.trim().isEmpty())
+		{
+			folder = "."; //$NON-NLS-1$
+		}
+
+		return folder;
+	}
+
+	/**
+	 * Selects the test files of the folder impacted by the selected programs from the impact index of the node.
+	 * 
+	 * @param folder
+	 *            The folder path of the test files.
+	 * 
+	 * @return the selection of the impact index, or <code>null</code> to run the folder
+	 * 
+	 * @throws InterruptedException
+	 * 			If the selection was interrupted.
+	 */
+	private TotalTestImpactIndex.Selection selectImpactedFiles(final String folder) throws InterruptedException
+	{
+		Set<String> programs = TotalTestImpactIndex.getSelectedPrograms(tttBuilder, workspaceFilePath, listener);
+		if (programs == null)
+		{
+			listener.getLogger().println("No program list to select the impacted test files, running the folder"); //$NON-NLS-1$
+			return null;
+		}
+
+		return TotalTestImpactIndex.forWorkspace(workspaceFilePath, listener).select(workspaceFilePath.child(folder),
+				tttBuilder.getRecursive(), programs, tttBuilder.getUseScenarios());
+	}
+
+	/**
+	 * Records a result without scenarios for a run skipped because no test file is impacted by the selected programs.
+	 */
+	private void recordNoImpactedTests()
+	{
+		noImpactedTests = true;
+		listener.getLogger().println("No test file references the selected programs, the Total Test CLI is not launched"); //$NON-NLS-1$
+
+		summary = new TotalTestResultSummary();
+		summary.setResultType(TotalTestResultSummary.RESULT_NO_IMPACTED_TESTS);
+		if (parallelIndex == 0)
+		{
+			build.addAction(new TotalTestResultAction(summary, null, TotalTestResultAction.newId(build, folderPath), folderPath));
+		}
+	}
+
+	/**
+	 * Returns whether the run was skipped because no test file is impacted by the selected programs.
+	 * 
+	 * @return <code>true</code> if the CLI must not be launched, otherwise <code>false</code>
+	 */
+	boolean isNoImpactedTests()
+	{
+		return noImpactedTests;
+	}
+
+	/**
+	 * Prepares a run of the Total Test Functional Test CLI.
+	 * <p>
+	 * Collects the state of the node and builds the command line of the CLI.
+	 * 
+	 * @param build
+	 *			  The current running Jenkins build
+	 * @param launcher
+	 *            The machine that the files will be checked out.
+	 * @param workspaceFilePath
+	 *            a directory to check out the source code.
+	 * @param listener
+	 *            Build listener
+	 * 
+	 * @return the CLI script and its arguments, or <code>null</code> if the node could not be reached or no test file
+	 *         is impacted by the selected programs, see {@link #isNoImpactedTests()}
+	 * 
+	 * @throws IOException
+	 * 			If an error occurred preparing the Total Test run.
+	 * @throws InterruptedException
+	 * 			If the preparation was interrupted.
+	 */
+	ArgumentListBuilder prepare(final Run<?, ?> build, final Launcher launcher, final FilePath workspaceFilePath,
+			final TaskListener listener) throws IOException, InterruptedException
 	{
 		// initialization
 		ArgumentListBuilder args = new ArgumentListBuilder();
-		EnvVars env = build.getEnvironment(listener);
 		VirtualChannel vChannel = launcher.getChannel();
 		if (vChannel == null)
 		{
 			listener.getLogger().println("Error: No channel could be retrieved"); //$NON-NLS-1$
-			return false;
+			return null;
 		}
 		this.listener = listener;
 		this.workspaceFilePath = workspaceFilePath;
 		this.build = build;
-		Properties remoteProperties = vChannel.call(new RemoteSystemProperties());
-		remoteFileSeparator = remoteProperties.getProperty("file.separator"); //$NON-NLS-1$
+		if (credentials == null)
+		{
+			credentials = TotalTestCredentials.resolve(build.getParent(), tttBuilder.getCredentialsId(),
+					tttBuilder.getServerCredentialsId());
+		}
+		preflight = TotalTestPreflight.collect(launcher, workspaceFilePath, folderPath);
+		remoteFileSeparator = preflight.getFileSeparator();
 
 		boolean isLinux = launcher.isUnix();
 		String osScriptFile = isLinux ? TOTAL_TEST_CLI_SH : TOTAL_TEST_CLI_BAT;
 
 		TotalTestRunnerUtils.logJenkinsAndPluginVersion(listener);
 
-		FilePath cliScriptPath = TotalTestRunnerUtils.getCLIScriptPath(launcher, listener, remoteFileSeparator, osScriptFile);
+		cliCapabilities = TotalTestCLICapabilities.resolve(launcher, preflight);
+		if (cliCapabilities.isLocalConfiguration() && tttBuilder.getUseImpactIndex())
+		{
+			impactedFolder = null;
+			TotalTestImpactIndex.Selection selection = selectImpactedFiles(getFolder());
+			if (selection != null && selection.getFiles().isEmpty())
+			{
+				recordNoImpactedTests();
+				return null;
+			}
+			else if (selection != null && !selection.getFolder().isEmpty())
+			{
+				// The CLI runs a single folder, so the impacted files are run through the narrowest folder holding them all.
+				impactedFolder = getFolder() + remoteFileSeparator + selection.getFolder().replace("/", remoteFileSeparator); //$NON-NLS-1$
+				listener.getLogger().println("Impacted test files: " + String.join(", ", selection.getFiles())); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+
+		FilePath cliScriptPath = TotalTestRunnerUtils.getCLIScriptPath(cliCapabilities, launcher, listener, remoteFileSeparator,
+				osScriptFile, TotalTestRunnerUtils.TTT_MINIMUM_CLI_VERSION);
 		args.add(cliScriptPath.getRemote());
 		
-		String topazCliWorkspace = workspaceFilePath.getRemote() + remoteFileSeparator + TOPAZ_CLI_WORKSPACE;
+		String topazCliWorkspace = getCliWorkspace();
 		args.add(DATA, TotalTestRunnerUtils.escapeForScript(topazCliWorkspace));
 		
 		addArguments(args, launcher, listener, remoteFileSeparator);
 
-		FilePath workDir = new FilePath (vChannel, workspaceFilePath.getRemote());
-		workDir.mkdirs();
-
 		listener.getLogger().println("----------------------------------"); //$NON-NLS-1$
 		listener.getLogger().println("Now executing Total Test Testing CLI and printing out the execution log..."); //$NON-NLS-1$
 		listener.getLogger().println("----------------------------------\n\n"); //$NON-NLS-1$
 
-		int exitValue = launcher.launch().cmds(args).envs(env).stdout(listener.getLogger()).pwd(workDir).join();
-		listener.getLogger().println(osScriptFile + " exited with exit value = " + exitValue); //$NON-NLS-1$
+		return args;
+	}
+
+	/**
+	 * Restores the state of a prepared run, after the controller was restarted while the CLI was running.
+	 * 
+	 * @param build
+	 *			  The current running Jenkins build
+	 * @param launcher
+	 *            The machine that the files will be checked out.
+	 * @param workspaceFilePath
+	 *            a directory to check out the source code.
+	 * @param listener
+	 *            Build listener
+	 * @param preflight
+	 *            The preflight collected when the run was prepared.
+	 * 
+	 * @throws IOException
+	 * 			If the CLI capabilities could not be resolved.
+	 * @throws InterruptedException
+	 * 			If the restore was interrupted.
+	 */
+	void restore(final Run<?, ?> build, final Launcher launcher, final FilePath workspaceFilePath,
+			final TaskListener listener, final TotalTestPreflight preflight) throws IOException, InterruptedException
+	{
+		this.build = build;
+		this.workspaceFilePath = workspaceFilePath;
+		this.listener = listener;
+		this.preflight = preflight;
+		this.remoteFileSeparator = preflight.getFileSeparator();
+		this.cliCapabilities = TotalTestCLICapabilities.resolve(launcher, preflight);
+	}
+
+	/**
+	 * Returns the preflight collected when the run was prepared.
+	 * 
+	 * @return the preflight
+	 */
+	TotalTestPreflight getPreflight()
+	{
+		return preflight;
+	}
+
+	/**
+	 * Returns the watchdog bounding the execution time of the CLI run.
+	 * 
+	 * @return the watchdog
+	 */
+	TotalTestWatchdog getWatchdog()
+	{
+		if (watchdog == null)
+		{
+			watchdog = new TotalTestWatchdog(tttBuilder.getTimeoutMinutes(), tttBuilder.getInactivityTimeoutMinutes());
+		}
 
+		return watchdog;
+	}
+
+	/**
+	 * Creates the launcher of the CLI for a prepared run.
+	 * 
+	 * @param launcher
+	 *            The machine that the CLI will be executed on.
+	 * 
+	 * @return the CLI launcher
+	 */
+	TotalTestCLILauncher createCLILauncher(final Launcher launcher)
+	{
+		String osScriptFile = launcher.isUnix() ? TOTAL_TEST_CLI_SH : TOTAL_TEST_CLI_BAT;
+		TotalTestCLILauncher cliLauncher = new TotalTestCLILauncher(launcher, listener, osScriptFile);
+		if (tttBuilder.getUseWorkspaceCache())
+		{
+			String topazCliWorkspace = getCliWorkspace();
+			cliLauncher.setWorkspaceCache(TotalTestWorkspaceCache.forWorkspace(workspaceFilePath,
+					new FilePath(launcher.getChannel(), topazCliWorkspace), cliCapabilities.getCLIVersion(), listener));
+		}
+
+		cliLauncher.setWatchdog(getWatchdog());
+
+		return cliLauncher;
+	}
+
+	/**
+	 * Analyzes the result of a CLI run.
+	 * 
+	 * @param launcher
+	 *            The machine that the CLI was executed on.
+	 * @param cliExitValue
+	 *            The exit value of the CLI.
+	 * 
+	 * @return <code>boolean</code> if the build was successful
+	 * 
+	 * @throws IOException
+	 * 			If an error occurred reading the result.
+	 * @throws InterruptedException
+	 * 			If the analysis was interrupted.
+	 */
+	boolean complete(final Launcher launcher, final int cliExitValue) throws IOException, InterruptedException
+	{
+		int exitValue = cliExitValue;
 		if (exitValue == 0)
 		{
 			listener.getLogger().println("\n\n----------------------------------"); //$NON-NLS-1$
@@ -203,12 +541,13 @@ public class TotalTestCTRunner
 			if (tttBuilder.getCreateResult())
 			{
 				VirtualChannel vChannel = launcher.getChannel();
-				FilePath testFolder = new FilePath(vChannel, tttBuilder.getFolderPath());
-				boolean usesNewExtension = TotalTestRunnerUtils.usesNewFileExtensions(launcher, listener, remoteFileSeparator);
+				FilePath testFolder = new FilePath(vChannel, folderPath);
+				boolean usesNewExtension = cliCapabilities.isNewFileExtensions();
+				TotalTestPreflight.PathState testFolderState = preflight.getPath(folderPath);
 				boolean isSuite = true;
 				String resultFileName = null;
 				
-				if (testFolder.exists() && testFolder.isDirectory() == false) //NOSONAR
+				if (testFolderState != null && testFolderState.isExists() && testFolderState.isDirectory() == false) //NOSONAR
 				{
 					// This most likely is a fully pathed test scenario.
 					String fileName = testFolder.getName();
@@ -257,30 +596,28 @@ public class TotalTestCTRunner
 		
 				listener.getLogger().println("Reading suite result from file: " + testSuiteResultPath.getRemote()); //$NON-NLS-1$
 			
-				String content = null;
-	
-				// For performance reasons we will create the content String from the testSuiteResultPath if the file is remote
-				// (running on a slave) otherwise we use the better performing Files.readAllBytes.
-				// The performance difference is approximately 2x faster with Files.readAllBytes than
-				// TotalTestRunnerUtils.GetRemoteUTF8FileContents() when running locally.
-				if (testSuiteResultPath.isRemote())
-				{
-					content = testSuiteResultPath.act(new TotalTestRunnerUtils.GetRemoteUTF8FileContents());
-				}
-				else
-				{
-					content = new String(Files.readAllBytes(Paths.get(testSuiteResultPath.getRemote())), StandardCharsets.UTF_8);
-				}
-		
-				listener.getLogger().println("Result content:"); //$NON-NLS-1$
-				listener.getLogger().println(content);
+				// Parse the result where the file resides, so only a compact summary is sent to the controller.
+				summary = testSuiteResultPath.act(new TotalTestResultParser.ParseResultFile());
+
+				// Every folder of a parallel run keeps its own result next to the merged result of the run.
+				String resultId = TotalTestResultAction.newId(build, folderPath);
+				TotalTestResultAction.archive(build, resultId, testSuiteResultPath);
+				build.addAction(new TotalTestResultAction(summary, testSuiteResultPath.getName(), resultId, folderPath));
 	
-				Document document = getXaScenarioSuiteResultAsDocument(content);
-				String xaScenarioSuiteResult = getXaScenarioSuiteResult(document, isSuite);
+				String xaScenarioSuiteResult = getXaScenarioSuiteResult(summary, isSuite);
 				String logMessage = String.format("Result state from %s: %s", isSuite ? FILE_EXT_XASUITE : FILE_EXT_XAUNIT , xaScenarioSuiteResult);  //$NON-NLS-1$
 				listener.getLogger().println(logMessage);
+				TotalTestResultAction.printDigest(listener.getLogger(), summary);
+				listener.getLogger().println("The complete result is available on the Total Test Result page of the build"); //$NON-NLS-1$
+
+				if (isConvertReports() && (tttBuilder.getCreateJUnitReport() || tttBuilder.getCreateSonarReport()))
+				{
+					convertReports(testSuiteResultPath);
+				}
+
+				recordHistory(testSuiteResultPath);
 	
-				if (!xaScenarioSuiteResult.equalsIgnoreCase("SUCCESS")) //$NON-NLS-1$
+				if (!xaScenarioSuiteResult.equalsIgnoreCase(TotalTestResultParser.RESULT_SUCCESS))
 				{
 					result = -1;
 				}
@@ -290,7 +627,7 @@ public class TotalTestCTRunner
 					listener.getLogger().println(
 							"The suite executed successfully, now checking that code coverage level is higher than the threshold on " //$NON-NLS-1$
 									+ tttBuilder.getCcThreshold() + " %"); //$NON-NLS-1$
-					boolean isCCThresholdOk = getXaScenarioSuiteCodeCoverage(document, isSuite);
+					boolean isCCThresholdOk = getXaScenarioSuiteCodeCoverage(summary, isSuite);
 					if (!isCCThresholdOk)
 					{
 						listener.getLogger().println("Code coverage threshold not reached"); //$NON-NLS-1$
@@ -311,79 +648,48 @@ public class TotalTestCTRunner
 	}
 
 	/**
-	 * Return the results Document.
-	 * 
-	 * @param xml
-	 * 			  The results xml to create results document.
-	 * 
-	 * @return	  <code>Document</code> that is generaged from the result xml
-	 * 
-	 * @throws Exception
-	 */
-	private Document getXaScenarioSuiteResultAsDocument(String xml) throws Exception //NOSONAR
-	{
-		DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-		dbf.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-		dbf.setFeature("http://xml.org/sax/features/external-general-entities", false);
-		dbf.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-		dbf.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-		dbf.setXIncludeAware(false);
-		dbf.setExpandEntityReferences(false);
-		DocumentBuilder db = dbf.newDocumentBuilder();
-		Reader r = new StringReader(xml);
-		return db.parse(new InputSource(r));
-	}
-
-	/**
-	 * Return the Scenario or Suite results Document.
+	 * Return the Scenario or Suite result type.
 	 * 
-	 * @param document
-	 * 			The results document to get the status from.
+	 * @param summary
+	 * 			The summary of the result file.
 	 * @param isSuite
 	 * 			<code>true</code> if a suite result otherwise <code>false</code>
 	 * 
 	 * @return	 <code>String</code> representing the results.
 	 * 
-	 * @throws Exception
+	 * @throws IOException
+	 * 			If the result file is not a result of the expected type.
 	 */
-	private String getXaScenarioSuiteResult(Document document, boolean isSuite) throws Exception	//NOSONAR
+	private String getXaScenarioSuiteResult(TotalTestResultSummary summary, boolean isSuite) throws IOException
 	{
-		String resultType = null;
-
-		XPathFactory xpf = XPathFactory.newInstance();
-		XPath xpath = xpf.newXPath();
-		String resultTag = isSuite ? "/XaSuiteResult" : "/XaUnitResult"; //$NON-NLS-1$ //$NON-NLS-2$
-		Element xaSuiteResultElement = (Element) xpath.evaluate(resultTag, document, XPathConstants.NODE); //NOSONAR
-		resultType = xaSuiteResultElement.getAttribute("resultType"); //$NON-NLS-1$
+		String resultTag = isSuite ? TotalTestResultParser.XA_SUITE_RESULT : TotalTestResultParser.XA_UNIT_RESULT;
+		if (!resultTag.equals(summary.getRootElement()) || summary.getResultType() == null)
+		{
+			throw new IOException("No " + resultTag + " result type found"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
 
-		return resultType;
+		return summary.getResultType();
 	}
 
 	/**
 	 * Return if there is Code Doverage data.
 	 * 
-	 * @param document
-	 * 			Document to look for Code Coverage data.
+	 * @param summary
+	 * 			The summary of the result file to look for Code Coverage data.
 	 * @param isSuite
 	 * 			<code>true</code> if a suite result otherwise <code>false</code>
 	 * 
 	 * @return <code>boolean</code> if the document has Code Coverage data.
-	 * 
-	 * @throws Exception
 	 */
-	private boolean getXaScenarioSuiteCodeCoverage(Document document, boolean isSuite) throws Exception // NOSONAR
+	private boolean getXaScenarioSuiteCodeCoverage(TotalTestResultSummary summary, boolean isSuite)
 	{
 		boolean isCCThresholdOk = true;
 
-		XPathFactory xpf = XPathFactory.newInstance();
-		XPath xpath = xpf.newXPath();
-		String resultPathName = isSuite ? "XaSuiteResult" : "XaUnitResult";  //$NON-NLS-1$  //$NON-NLS-2$
-		Element percentageElement = (Element) xpath.evaluate(String.format("/%s/CC/data", resultPathName), document, XPathConstants.NODE); //$NON-NLS-1$
+		String resultPathName = isSuite ? TotalTestResultParser.XA_SUITE_RESULT : TotalTestResultParser.XA_UNIT_RESULT;
+		String sPercentage = summary.getCcPercentage();
 
-		if (percentageElement != null)
+		if (sPercentage != null)
 		{
-			String sPercentage = percentageElement.getAttribute("percentage"); //$NON-NLS-1$
-
 			int percentage = Integer.parseInt(sPercentage);
 
 			if (percentage < tttBuilder.getCcThreshold())
@@ -404,6 +710,26 @@ public class TotalTestCTRunner
 	}
 
 	
+	/**
+	 * Returns the credentials resolved for the build with the given ID.
+	 * 
+	 * @param credentialsId
+	 * 			  The credential ID.
+	 * @return the credentials
+	 * @throws IOException
+	 * 			  if the credentials could not be found
+	 */
+	private StandardUsernamePasswordCredentials getCredentials(final String credentialsId) throws IOException
+	{
+		StandardUsernamePasswordCredentials loginCredentials = credentials.get(credentialsId);
+		if (loginCredentials == null)
+		{
+			throw new IOException(Messages.missingParameterError(Messages.loginCredentials()));
+		}
+
+		return loginCredentials;
+	}
+
 	/**
 	 * Adds an arguments to the argument list.
 	 * 
@@ -420,8 +746,8 @@ public class TotalTestCTRunner
 	 */
 	private void addArguments(final ArgumentListBuilder args, final Launcher launcher, final TaskListener listener, final String remoteFileSeparator) throws IOException, InterruptedException
 	{
-		boolean min200501 = TotalTestRunnerUtils.isMinimumRelease(launcher, listener, remoteFileSeparator, TotalTestRunnerUtils.TTT_CLI_200501);
-		boolean min200401 = TotalTestRunnerUtils.isMinimumRelease(launcher, listener, remoteFileSeparator, TotalTestRunnerUtils.TTT_CLI_200401);
+		boolean min200501 = cliCapabilities.isHostConnection();
+		boolean min200401 = cliCapabilities.isLocalConfiguration();
 
 		if (min200501)
 		{
@@ -432,11 +758,9 @@ public class TotalTestCTRunner
 			args.add("-e").add(TotalTestRunnerUtils.escapeForScript(tttBuilder.getEnvironmentId()), false); //$NON-NLS-1$
 		}
 		
-		String hostCreds = tttBuilder.getCredentialsId();
-		args.add("-u").add( //$NON-NLS-1$
-				TotalTestRunnerUtils.getLoginInformation(build.getParent(), hostCreds).getUsername(), false);
-		args.add("-p").add( //$NON-NLS-1$
-				TotalTestRunnerUtils.getLoginInformation(build.getParent(), hostCreds).getPassword(), true);
+		StandardUsernamePasswordCredentials hostCreds = getCredentials(tttBuilder.getCredentialsId());
+		args.add("-u").add(hostCreds.getUsername(), false); //$NON-NLS-1$
+		args.add("-p").add(hostCreds.getPassword(), true); //$NON-NLS-1$
 
 		if (!min200401 || !tttBuilder.getLocalConfig())
 		{
@@ -458,27 +782,22 @@ public class TotalTestCTRunner
 				
 				if (!Strings.isNullOrEmpty(serverCreds))
 				{
-					args.add("-cesu").add( //$NON-NLS-1$
-							TotalTestRunnerUtils.getLoginInformation(build.getParent(), serverCreds).getUsername(), false);
-					args.add("-cesp").add( //$NON-NLS-1$
-							TotalTestRunnerUtils.getLoginInformation(build.getParent(), serverCreds).getPassword(), true);
+					StandardUsernamePasswordCredentials serverLogin = getCredentials(serverCreds);
+					args.add("-cesu").add(serverLogin.getUsername(), false); //$NON-NLS-1$
+					args.add("-cesp").add(serverLogin.getPassword(), true); //$NON-NLS-1$
 				}
 			}
 		}
 
-		String folder = tttBuilder.getFolderPath();
-		if (Strings.isNullOrEmpty(folder) || folder.trim().isEmpty())
-		{
-			folder = "."; //$NON-NLS-1$
-		}
-
+		String folder = impactedFolder != null ? impactedFolder : getFolder();
 		listener.getLogger().println("The folder path: " + folder); //$NON-NLS-1$
+
 		args.add("-f").add(TotalTestRunnerUtils.escapeForScript(folder), false); //$NON-NLS-1$
 
 		String workDir = workspaceFilePath.getRemote();
 		if (!Strings.isNullOrEmpty(workDir))
 		{
-			if (workDir.compareTo(workspaceFilePath.absolutize().getRemote()) != 0)
+			if (workDir.compareTo(preflight.getWorkspace()) != 0)
 			{
 				args.add("-r").add(TotalTestRunnerUtils.escapeForScript(workDir)); //$NON-NLS-1$
 				listener.getLogger().println("Set the root folder : " + workDir); //$NON-NLS-1$
@@ -499,7 +818,8 @@ public class TotalTestCTRunner
 			args.add("-x"); //$NON-NLS-1$
 		}
 
-		if (tttBuilder.getHaltAtFailure())
+		// The CLI stops itself at the first failure and still writes the result file.
+		if (tttBuilder.getHaltAtFailure() || tttBuilder.getFailFast())
 		{
 			args.add("-h"); //$NON-NLS-1$
 		}
@@ -509,15 +829,15 @@ public class TotalTestCTRunner
 			args.add("-S").add(TotalTestRunnerUtils.escapeForScript(tttBuilder.getSourceFolder())); //$NON-NLS-1$
 		}
 
-		if (TotalTestRunnerUtils.usesDefaultOutputFolder(launcher, listener, remoteFileSeparator) == true) //NOSONAR
+		if (cliCapabilities.isDefaultOutputFolder())
 		{
 			args.add("-G"); //$NON-NLS-1$
 		}
 		else
 		{
-			if (!Strings.isNullOrEmpty(tttBuilder.getReportFolder()))
+			if (!Strings.isNullOrEmpty(reportFolder))
 			{
-				args.add("-g").add(TotalTestRunnerUtils.escapeForScript(tttBuilder.getReportFolder())); //$NON-NLS-1$
+				args.add("-g").add(TotalTestRunnerUtils.escapeForScript(reportFolder)); //$NON-NLS-1$
 				args.add("-G"); //$NON-NLS-1$
 			}
 		}
@@ -615,7 +935,10 @@ public class TotalTestCTRunner
 			
 			args.add("-loglevel").add(tttBuilder.getLogLevel()); //$NON-NLS-1$
 		
-			if (!tttBuilder.getCreateReport())
+			// Reports converted by the plugin are converted from the result file, deferred reports leave only the result
+			// file to the CLI.
+			boolean convertReports = isConvertReports();
+			if (!tttBuilder.getCreateReport() || isDeferReports())
 			{
 				args.add("-norep"); //$NON-NLS-1$
 			}
@@ -623,11 +946,11 @@ public class TotalTestCTRunner
 			{
 				args.add("-nores"); //$NON-NLS-1$
 			}
-			if (!tttBuilder.getCreateSonarReport())
+			if (!tttBuilder.getCreateSonarReport() || convertReports)
 			{
 				args.add("-nosq"); //$NON-NLS-1$
 			}
-			if (!tttBuilder.getCreateJUnitReport())
+			if (!tttBuilder.getCreateJUnitReport() || convertReports)
 			{
 				args.add("-noju"); //$NON-NLS-1$
 			}
@@ -679,6 +1002,85 @@ public class TotalTestCTRunner
 		}
 	}
 
+	/**
+	 * Records the results of the run in the history of the job.
+	 * 
+	 * @param resultFile
+	 *            The result file.
+	 * 
+	 * @throws InterruptedException
+	 * 			If reading the result file was interrupted.
+	 */
+	private void recordHistory(final FilePath resultFile) throws InterruptedException
+	{
+		try
+		{
+			TotalTestHistory.Results results = resultFile.act(new TotalTestHistory.CollectResults());
+			TotalTestHistory.forJob(build.getParent()).record(build, getFolder(), summary, results);
+		}
+		catch (IOException e)
+		{
+			listener.getLogger().println("Unable to record the result in the Total Test history of the job: " + e.getMessage()); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Returns if the reports are converted from the result file by the plugin, instead of being created by the CLI.
+	 * <p>
+	 * The reports need the result file, and the CLI needs its own JUnit report to compare it with the previous one.
+	 * 
+	 * @return	<code>true</code> if the plugin converts the reports, otherwise <code>false</code>
+	 */
+	private boolean isConvertReports()
+	{
+		return (tttBuilder.getConvertReports() || tttBuilder.getDeferReports()) && tttBuilder.getCreateResult()
+				&& !tttBuilder.getCompareJUnits();
+	}
+
+	/**
+	 * Returns if the reports are converted from the result file after the verdict, instead of being created by the CLI.
+	 * 
+	 * @return	<code>true</code> if the reports are deferred, otherwise <code>false</code>
+	 */
+	private boolean isDeferReports()
+	{
+		return tttBuilder.getDeferReports() && isConvertReports();
+	}
+
+	/**
+	 * Converts the result file to the JUnit and Sonar reports, in the background when the reports are deferred.
+	 * 
+	 * @param resultFile
+	 *            The result file.
+	 * 
+	 * @throws InterruptedException
+	 * 			If the conversion was interrupted.
+	 */
+	private void convertReports(final FilePath resultFile) throws InterruptedException
+	{
+		if (isDeferReports())
+		{
+			TotalTestDeferredReportsAction.start(build, resultFile, workspaceFilePath, tttBuilder.getCreateJUnitReport(),
+					tttBuilder.getCreateSonarReport());
+			listener.getLogger().println("The JUnit and Sonar reports are converted in the background, use the totaltestWaitForReports step before reading them"); //$NON-NLS-1$
+		}
+		else
+		{
+			try
+			{
+				resultFile.act(new TotalTestReportConverter.ConvertResultFile(workspaceFilePath.getRemote(),
+						tttBuilder.getCreateJUnitReport(), tttBuilder.getCreateSonarReport()));
+				listener.getLogger().println("Converted the result file to JUnit and Sonar reports"); //$NON-NLS-1$
+			}
+			catch (IOException e)
+			{
+				// The verdict of the run stands, but the reports the build publishes are missing.
+				listener.getLogger().println("Unable to convert the result file: " + e.getMessage()); //$NON-NLS-1$
+				build.setResult(Result.UNSTABLE);
+			}
+		}
+	}
+
 	/**
 	 * Returns the path to the Output directory.
 	 * 
@@ -699,141 +1101,17 @@ public class TotalTestCTRunner
 	private FilePath getOutputFilePath(final Launcher launcher, final TaskListener listener, String osFile) throws IOException, InterruptedException
 	{
 		VirtualChannel vChannel = launcher.getChannel();
-		boolean useDefaultOutput = TotalTestRunnerUtils.usesDefaultOutputFolder(launcher, listener, remoteFileSeparator);
-		FilePath workDir = new FilePath(vChannel, workspaceFilePath.getRemote());
-		
-		String folderPathString = tttBuilder.getFolderPath();
-		if (folderPathString != null && !folderPathString.isEmpty() && !".".equals(folderPathString)) //$NON-NLS-1$
-		{
-			FilePath absoluteFolder = new FilePath (vChannel, folderPathString).absolutize();
-			if (absoluteFolder.isDirectory())
-			{
-				workDir = absoluteFolder;
-			}
-			else
-			{
-				if (useDefaultOutput == true) //NOSONAR
-				{
-					if (absoluteFolder.exists())
-					{
-						// This is an absolute path file, so go back to the parent directory.
-						absoluteFolder = new FilePath (vChannel, absoluteFolder + remoteFileSeparator + "..").absolutize(); //$NON-NLS-1$
-					}
-					else
-					{
-						if (folderPathString.endsWith("\\") || folderPathString.endsWith( "/")) //$NON-NLS-1$ //$NON-NLS-2$
-						{
-							absoluteFolder = new FilePath (vChannel, workDir + folderPathString);
-						}
-						else
-						{
-							absoluteFolder = new FilePath (vChannel, workDir + remoteFileSeparator + folderPathString).absolutize();
-						}
-					}
-					
-					if (absoluteFolder.isDirectory())
-					{
-						workDir = absoluteFolder;
-					}
-				}
-			}
-		}
-
-		if (!workDir.exists())
-		{
-			throw new FileNotFoundException("workDir location does not exist. Location: " + workDir.getRemote()); //$NON-NLS-1$
-		}
-
-	
-		String workDirName = workDir.getRemote();
-		if (workDir != null && (workDirName.endsWith(SCENARIOS_FOLDER ) || workDirName.endsWith(SUITES_FOLDER ))) {
-			workDir = workDir.getParent();
-		}
 
+		// Resolve the working and report folders on the node with a single call.
+		String[] folders = workspaceFilePath.act(new ResolveOutputFolders(folderPath,
+				Strings.nullToEmpty(reportFolder).trim(), cliCapabilities.isDefaultOutputFolder(),
+				remoteFileSeparator));
 
 		if(listener != null) {
-			listener.getLogger().println("workspace path: " + workDir.getRemote()); //$NON-NLS-1$
+			listener.getLogger().println("workspace path: " + folders[0]); //$NON-NLS-1$
 		}
 
-		String outputFolder = null;
-		if (useDefaultOutput == false && folderPathString != null) // NOSONAR
-		{
-			FilePath tempAbsoluteFolder = new FilePath (vChannel, folderPathString);
-			FilePath absoluteFolder = null;
-			if (null != tempAbsoluteFolder)
-			{
-				absoluteFolder = tempAbsoluteFolder.absolutize();
-				if (!folderPathString.isEmpty() && !".".equals(folderPathString)) //$NON-NLS-1$
-				{
-					if (absoluteFolder.exists())
-					{
-						if (absoluteFolder.isDirectory() == true) // NOSONAR
-						{
-							absoluteFolder = new FilePath (absoluteFolder, tttBuilder.getReportFolder().trim());
-						}
-					}
-					else
-					{
-						// Strip off the scenario/suite name, add the report folder and add the difference between working and absolute path
-						String reportFolder = tttBuilder.getReportFolder().trim();
-						String folderPath = tttBuilder.getFolderPath().trim();
-						
-						if (reportFolder.endsWith("/") || reportFolder.endsWith("\\")) //$NON-NLS-1$ //$NON-NLS-2$
-						{
-							// Relative Path with trailing seperator
-							absoluteFolder = new FilePath (vChannel, reportFolder + folderPath);
-						}
-						else
-						{
-							// Relative path with no trailing separator.
-							absoluteFolder = new FilePath (vChannel, reportFolder + remoteFileSeparator + folderPath);
-						}
-					}
-				}
-			}
-
-			if (absoluteFolder.exists() && absoluteFolder.isDirectory())
-			{
-				// Absolute Path to a folder
-				outputFolder = absoluteFolder.getRemote();
-			}
-			else
-			{
-				// Absolute Path to file (Suite, Context or Scenario) in the working directory
-				FilePath absoluteReportFolderPath = null;
-				absoluteReportFolderPath = new FilePath(workDir, absoluteFolder.getRemote()).absolutize();
-				
-				if (absoluteReportFolderPath.exists() && absoluteReportFolderPath.isDirectory())
-				{
-					// Relative Path exists in the working directory
-					if(null != absoluteFolder.getRemote()) {
-						outputFolder = absoluteFolder.getRemote();
-					}
-				}
-				else
-				{
-
-					FilePath parentPath = absoluteReportFolderPath.getParent();
-					if (parentPath != null) {
-						outputFolder = new FilePath(parentPath, tttBuilder.getReportFolder().trim()).getRemote();
-					} else {
-						listener.getLogger().println("Warning: Parent path is null for " + absoluteReportFolderPath.getRemote()); //$NON-NLS-1$
-						outputFolder = tttBuilder.getReportFolder().trim(); // fallback
-					}
-
-				}
-			}
-		}
-		
-		if (outputFolder == null || outputFolder.isEmpty())
-		{
-			outputFolder = FOLDER_OUTPUT;
-		}
-		
-		FilePath absoluteReportFolderPath = null;
-		if(null != workDir) {
-			absoluteReportFolderPath = new FilePath(workDir, outputFolder).absolutize();
-		}
+		FilePath absoluteReportFolderPath = new FilePath(vChannel, folders[1]);
 		if(listener != null) {
 			if (osFile.endsWith(GENERATED_SUITE_RESULT_FILE_NAME))
 			{
@@ -846,45 +1124,48 @@ public class TotalTestCTRunner
 						+ absoluteReportFolderPath.getRemote());
 			}
 		}
-		FilePath fileFound = searchFileFromDir(absoluteReportFolderPath, osFile, listener);
+		FilePath fileFound = searchFileFromDir(absoluteReportFolderPath, osFile, preflight.getNodeTime(), listener);
 		
 		return fileFound;
 	}
 
 	/**
 	 * find a file by name in the folder
+	 * <p>
+	 * The folder is searched on the node. A file written by the current run is returned as soon as it is found,
+	 * otherwise the most recently modified match is returned.
 	 * 
 	 * @param directoryPath
 	 * 			  The folder where we should search.
 	 * @param search
 	 * 			  The file to search for.
+	 * @param runStart
+	 * 			  The time on the node's clock when the run started.
 	 * @param listener
 	 *            Build listener
 	 * 
 	 * @return	  <code>String</code> The absolute path to the file.
 	 */
-	private static FilePath searchFileFromDir(FilePath directoryPath, String search, final TaskListener listener)
+	private static FilePath searchFileFromDir(FilePath directoryPath, String search, long runStart, final TaskListener listener)
 	{
 		FilePath returnFile = null;
 		
 		if (!Strings.isNullOrEmpty(search))
 		{
 			try {
-				for (FilePath childPath : directoryPath.list())
+				SearchResult found = directoryPath.act(new SearchResultFiles(search, runStart - MODIFIED_TIME_TOLERANCE));
+				if (!found.candidates.isEmpty())
 				{
-					if (childPath.isDirectory())
-					{
-						// Recurse into this directory
-						returnFile = searchFileFromDir(childPath, search, listener);
-					}
-					else if (childPath.getName().endsWith(search))
+					returnFile = new FilePath(directoryPath.getChannel(), found.candidates.get(0));
+					if (!found.written)
 					{
-						returnFile = childPath.absolutize();
+						listener.getLogger().println("No file matching " + search + " was written by this run, falling back to the older " //$NON-NLS-1$ //$NON-NLS-2$
+								+ returnFile.getRemote() + " (newest of " + found.candidates.size() + " matches)"); //$NON-NLS-1$ //$NON-NLS-2$
 					}
-					
-					if (null != returnFile)
+					else if (found.candidates.size() > 1)
 					{
-						break;
+						listener.getLogger().println("Found " + found.candidates.size() + " files matching " + search //$NON-NLS-1$ //$NON-NLS-2$
+								+ ", using the most recent one"); //$NON-NLS-1$
 					}
 				}
 			} catch (IOException e) {
@@ -1035,4 +1316,227 @@ public class TotalTestCTRunner
 			}
 		}
 	}
+
+	/**
+	 * Resolves the working folder and the report folder of a run on the node.
+	 * <p>
+	 * The result holds the working folder at index 0 and the absolute report folder at index 1.
+	 */
+	private static final class ResolveOutputFolders extends MasterToSlaveFileCallable<String[]>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String folderPathString;
+		private final String reportFolder;
+		private final boolean useDefaultOutput;
+		private final String remoteFileSeparator;
+
+		ResolveOutputFolders(final String folderPathString, final String reportFolder, final boolean useDefaultOutput,
+				final String remoteFileSeparator)
+		{
+			this.folderPathString = folderPathString;
+			this.reportFolder = reportFolder;
+			this.useDefaultOutput = useDefaultOutput;
+			this.remoteFileSeparator = remoteFileSeparator;
+		}
+
+		@Override
+		public String[] invoke(File workspace, VirtualChannel channel) throws IOException, InterruptedException
+		{
+			File workDir = workspace;
+
+			if (folderPathString != null && !folderPathString.isEmpty() && !".".equals(folderPathString)) //$NON-NLS-1$
+			{
+				File absoluteFolder = new File(folderPathString).getAbsoluteFile();
+				if (absoluteFolder.isDirectory())
+				{
+					workDir = absoluteFolder;
+				}
+				else if (useDefaultOutput)
+				{
+					if (absoluteFolder.exists())
+					{
+						// This is an absolute path file, so go back to the parent directory.
+						absoluteFolder = new File(absoluteFolder.getPath() + remoteFileSeparator + "..").getAbsoluteFile(); //$NON-NLS-1$
+					}
+					else if (folderPathString.endsWith("\\") || folderPathString.endsWith("/")) //$NON-NLS-1$ //$NON-NLS-2$
+					{
+						absoluteFolder = new File(workDir.getPath() + folderPathString);
+					}
+					else
+					{
+						absoluteFolder = new File(workDir.getPath() + remoteFileSeparator + folderPathString).getAbsoluteFile();
+					}
+
+					if (absoluteFolder.isDirectory())
+					{
+						workDir = absoluteFolder;
+					}
+				}
+			}
+
+			if (!workDir.exists())
+			{
+				throw new FileNotFoundException("workDir location does not exist. Location: " + workDir.getPath()); //$NON-NLS-1$
+			}
+
+			String workDirName = workDir.getPath();
+			if ((workDirName.endsWith(SCENARIOS_FOLDER) || workDirName.endsWith(SUITES_FOLDER)) && workDir.getParentFile() != null)
+			{
+				workDir = workDir.getParentFile();
+			}
+
+			String outputFolder = null;
+			if (!useDefaultOutput && folderPathString != null)
+			{
+				File absoluteFolder = new File(folderPathString).getAbsoluteFile();
+				if (!folderPathString.isEmpty() && !".".equals(folderPathString)) //$NON-NLS-1$
+				{
+					if (absoluteFolder.exists())
+					{
+						if (absoluteFolder.isDirectory())
+						{
+							absoluteFolder = TotalTestPreflight.resolve(absoluteFolder, reportFolder);
+						}
+					}
+					else if (reportFolder.endsWith("/") || reportFolder.endsWith("\\")) //$NON-NLS-1$ //$NON-NLS-2$
+					{
+						// Strip off the scenario/suite name, add the report folder and add the difference between working and absolute path
+						// Relative Path with trailing seperator
+						absoluteFolder = new File(reportFolder + folderPathString.trim());
+					}
+					else
+					{
+						// Relative path with no trailing separator.
+						absoluteFolder = new File(reportFolder + remoteFileSeparator + folderPathString.trim());
+					}
+				}
+
+				if (absoluteFolder.isDirectory())
+				{
+					// Absolute Path to a folder
+					outputFolder = absoluteFolder.getPath();
+				}
+				else
+				{
+					// Absolute Path to file (Suite, Context or Scenario) in the working directory
+					File absoluteReportFolderPath = TotalTestPreflight.resolve(workDir, absoluteFolder.getPath()).getAbsoluteFile();
+					if (absoluteReportFolderPath.isDirectory())
+					{
+						// Relative Path exists in the working directory
+						outputFolder = absoluteFolder.getPath();
+					}
+					else
+					{
+						File parentPath = absoluteReportFolderPath.getParentFile();
+						outputFolder = parentPath != null ? TotalTestPreflight.resolve(parentPath, reportFolder).getPath() : reportFolder;
+					}
+				}
+			}
+
+			if (outputFolder == null || outputFolder.isEmpty())
+			{
+				outputFolder = FOLDER_OUTPUT;
+			}
+
+			return new String[] { workDir.getPath(), TotalTestPreflight.resolve(workDir, outputFolder).getAbsolutePath() };
+		}
+	}
+
+	/**
+	 * The files found by {@link SearchResultFiles}.
+	 */
+	private static final class SearchResult implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		/** The matches, most recently modified first. */
+		private final List<String> candidates;
+		/** If the most recent match was modified at or after the start of the run. */
+		private final boolean written;
+
+		SearchResult(final List<String> candidates, final boolean written)
+		{
+			this.candidates = candidates;
+			this.written = written;
+		}
+	}
+
+	/**
+	 * Searches a folder on the node for files whose name ends with the given name.
+	 * <p>
+	 * Folders that never contain results (CLI workspace, Eclipse metadata and version control folders) are skipped. All
+	 * matches are returned, most recently modified first, with whether the most recent one was modified at or after the
+	 * given time, which is taken from the node's clock.
+	 */
+	private static final class SearchResultFiles extends MasterToSlaveFileCallable<SearchResult>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String search;
+		private final long modifiedAfter;
+
+		SearchResultFiles(final String search, final long modifiedAfter)
+		{
+			this.search = search;
+			this.modifiedAfter = modifiedAfter;
+		}
+
+		@Override
+		public SearchResult invoke(File directory, VirtualChannel channel) throws IOException, InterruptedException
+		{
+			List<Path> matches = new ArrayList<>();
+			Map<Path, FileTime> modifiedTimes = new HashMap<>();
+
+			if (directory.isDirectory())
+			{
+				Files.walkFileTree(directory.toPath(), new SimpleFileVisitor<Path>()
+				{
+					@Override
+					public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+					{
+						Path name = dir.getFileName();
+						if (name != null && PRUNED_FOLDERS.contains(name.toString()))
+						{
+							return FileVisitResult.SKIP_SUBTREE;
+						}
+
+						return FileVisitResult.CONTINUE;
+					}
+
+					@Override
+					public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+					{
+						if (attrs.isRegularFile() && file.getFileName().toString().endsWith(search))
+						{
+							matches.add(file);
+							modifiedTimes.put(file, attrs.lastModifiedTime());
+						}
+
+						return FileVisitResult.CONTINUE;
+					}
+
+					@Override
+					public FileVisitResult visitFileFailed(Path file, IOException exc)
+					{
+						return FileVisitResult.CONTINUE;
+					}
+				});
+			}
+
+			if (matches.size() > 1)
+			{
+				matches.sort((first, second) -> modifiedTimes.get(second).compareTo(modifiedTimes.get(first)));
+			}
+
+			List<String> candidates = new ArrayList<>(matches.size());
+			for (Path match : matches)
+			{
+				candidates.add(match.toAbsolutePath().toString());
+			}
+
+			boolean written = !matches.isEmpty() && modifiedTimes.get(matches.get(0)).toMillis() >= modifiedAfter;
+			return new SearchResult(candidates, written);
+		}
+	}
 }
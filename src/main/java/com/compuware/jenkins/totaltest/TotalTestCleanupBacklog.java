@@ -0,0 +1,223 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.XmlFile;
+import hudson.model.Run;
+import jenkins.model.Jenkins;
+
+/**
+ * Keeps the high level qualifiers under which unit test runs left their temporary datasets.
+ * <p>
+ * The CLI can only delete the temporary datasets of a run while the run is in progress, so a run that skips the
+ * deletion to report its verdict sooner leaves them to be deleted on the host, for example by a scheduled job. The
+ * backlog lists the qualifiers to clean up, with the last run that used them, on the Total Test Host Connections page
+ * until an administrator clears it. The backlog is kept in JENKINS_HOME, so it survives a restart of the controller.
+ */
+public final class TotalTestCleanupBacklog
+{
+	private static final Logger LOGGER = Logger.getLogger(TotalTestCleanupBacklog.class.getName());
+	private static final String FILE_NAME = TotalTestCleanupBacklog.class.getName() + ".xml"; //$NON-NLS-1$
+	private static final int MAX_ENTRIES = 500;
+	private static final TotalTestCleanupBacklog INSTANCE = new TotalTestCleanupBacklog();
+
+	/** The qualifiers to clean up, in the order they were last used. */
+	private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true)
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest)
+		{
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	/** Whether the entries were read from JENKINS_HOME. */
+	private boolean loaded;
+
+	/**
+	 * Constructor
+	 */
+	private TotalTestCleanupBacklog()
+	{
+	}
+
+	/**
+	 * Returns the controller wide cleanup backlog.
+	 *
+	 * @return the backlog
+	 */
+	public static TotalTestCleanupBacklog get()
+	{
+		return INSTANCE;
+	}
+
+	/**
+	 * Records that a run left its temporary datasets under the given qualifier.
+	 *
+	 * @param qualifier
+	 * 			  The high level qualifier of the run.
+	 * @param build
+	 * 			  The build of the run.
+	 */
+	public synchronized void record(final String qualifier, final Run<?, ?> build)
+	{
+		load();
+		entries.put(qualifier, new Entry(qualifier, build.getFullDisplayName(), new Date()));
+		save();
+	}
+
+	/**
+	 * Returns the qualifiers to clean up, the most recently used first.
+	 *
+	 * @return the entries
+	 */
+	public synchronized List<Entry> getEntries()
+	{
+		load();
+		List<Entry> list = new ArrayList<>(entries.values());
+		Collections.reverse(list);
+		return list;
+	}
+
+	/**
+	 * Clears the backlog, once the datasets were deleted on the host.
+	 */
+	public synchronized void clear()
+	{
+		load();
+		entries.clear();
+		save();
+	}
+
+	/**
+	 * Returns the file the backlog is kept in.
+	 *
+	 * @return the file in JENKINS_HOME
+	 */
+	private static XmlFile getConfigFile()
+	{
+		return new XmlFile(new File(Jenkins.get().getRootDir(), FILE_NAME));
+	}
+
+	/**
+	 * Reads the entries kept by an earlier controller session, the first time the backlog is used.
+	 */
+	@SuppressWarnings("unchecked")
+	private void load()
+	{
+		if (loaded)
+		{
+			return;
+		}
+
+		loaded = true;
+		XmlFile file = getConfigFile();
+		if (!file.exists())
+		{
+			return;
+		}
+
+		try
+		{
+			// Oldest first, so the access order of the map is restored.
+			for (Entry entry : (List<Entry>) file.read())
+			{
+				entries.put(entry.getQualifier(), entry);
+			}
+		}
+		catch (IOException | ClassCastException e)
+		{
+			LOGGER.log(Level.WARNING, "Unable to read the Total Test cleanup backlog from " + file, e); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Writes the entries to JENKINS_HOME.
+	 */
+	private void save()
+	{
+		XmlFile file = getConfigFile();
+		try
+		{
+			file.write(new ArrayList<>(entries.values()));
+		}
+		catch (IOException e)
+		{
+			LOGGER.log(Level.WARNING, "Unable to write the Total Test cleanup backlog to " + file, e); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * A qualifier to clean up.
+	 */
+	public static final class Entry
+	{
+		private final String qualifier;
+		private final String lastBuild;
+		private final Date lastUsed;
+
+		Entry(final String qualifier, final String lastBuild, final Date lastUsed)
+		{
+			this.qualifier = qualifier;
+			this.lastBuild = lastBuild;
+			this.lastUsed = lastUsed;
+		}
+
+		/**
+		 * Returns the high level qualifier.
+		 *
+		 * @return the qualifier
+		 */
+		public String getQualifier()
+		{
+			return qualifier;
+		}
+
+		/**
+		 * Returns the last build that left temporary datasets under the qualifier.
+		 *
+		 * @return the display name of the build
+		 */
+		public String getLastBuild()
+		{
+			return lastBuild;
+		}
+
+		/**
+		 * Returns when the qualifier was last used.
+		 *
+		 * @return the end of the last run
+		 */
+		public Date getLastUsed()
+		{
+			return new Date(lastUsed.getTime());
+		}
+	}
+}
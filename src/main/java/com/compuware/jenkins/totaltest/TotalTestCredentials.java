@@ -0,0 +1,176 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.cloudbees.plugins.credentials.CredentialsMatchers;
+import com.cloudbees.plugins.credentials.CredentialsProvider;
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+import com.cloudbees.plugins.credentials.domains.DomainRequirement;
+
+import hudson.model.Item;
+import hudson.security.ACL;
+
+/**
+ * The username/password credentials used by a build, resolved once when the build starts.
+ * <p>
+ * All credential IDs of a build are resolved with a single credentials lookup and indexed by ID, so the runners and the
+ * parameter validation do not search the credentials again. Lookups made to fill the configuration form are cached for a
+ * few seconds per item.
+ */
+public final class TotalTestCredentials
+{
+	private static final long FORM_CACHE_TTL = TimeUnit.SECONDS.toMillis(10);
+	private static final int FORM_CACHE_MAX_ENTRIES = 256;
+	private static final String ROOT_CONTEXT = ""; //$NON-NLS-1$
+
+	private static final Map<String, FormLookup> formCache = new ConcurrentHashMap<>();
+
+	private final Map<String, StandardUsernamePasswordCredentials> credentials;
+
+	/**
+	 * Constructor
+	 *
+	 * @param credentials
+	 *            The resolved credentials, by ID.
+	 */
+	private TotalTestCredentials(final Map<String, StandardUsernamePasswordCredentials> credentials)
+	{
+		this.credentials = Collections.unmodifiableMap(credentials);
+	}
+
+	/**
+	 * Resolves the given credential IDs in the context of the given item.
+	 *
+	 * @param project
+	 *            The Jenkins project.
+	 * @param credentialsIds
+	 *            The credential IDs to resolve, <code>null</code> or empty IDs are ignored.
+	 *
+	 * @return an instance of <code>TotalTestCredentials</code>
+	 */
+	public static TotalTestCredentials resolve(final Item project, final String... credentialsIds)
+	{
+		Set<String> ids = new HashSet<>();
+		for (String credentialsId : credentialsIds)
+		{
+			if (credentialsId != null && !credentialsId.isEmpty())
+			{
+				ids.add(credentialsId);
+			}
+		}
+
+		Map<String, StandardUsernamePasswordCredentials> resolved = new HashMap<>();
+		if (!ids.isEmpty())
+		{
+			List<StandardUsernamePasswordCredentials> available = lookup(project);
+			for (String id : ids)
+			{
+				// The first match is the credential closest to the item.
+				StandardUsernamePasswordCredentials cred = CredentialsMatchers.firstOrNull(available, CredentialsMatchers.withId(id));
+				if (cred != null)
+				{
+					resolved.put(id, cred);
+				}
+			}
+		}
+
+		return new TotalTestCredentials(resolved);
+	}
+
+	/**
+	 * Returns the credentials with the given ID.
+	 *
+	 * @param credentialsId
+	 *            The credential ID.
+	 *
+	 * @return the credentials, or <code>null</code> if the ID was not resolved
+	 */
+	public StandardUsernamePasswordCredentials get(final String credentialsId)
+	{
+		return credentialsId != null ? credentials.get(credentialsId) : null;
+	}
+
+	/**
+	 * Returns the username/password credentials available to the given item, for filling a configuration form.
+	 * <p>
+	 * The caller must have checked the permissions of the user. The result is cached for a few seconds, because a
+	 * configuration page fills several credential selections at once.
+	 *
+	 * @param project
+	 *            The Jenkins project, or <code>null</code> for the global context.
+	 *
+	 * @return the credentials
+	 */
+	public static List<StandardUsernamePasswordCredentials> lookupForForm(final Item project)
+	{
+		String key = project != null ? project.getFullName() : ROOT_CONTEXT;
+		long now = System.currentTimeMillis();
+
+		FormLookup cached = formCache.get(key);
+		if (cached != null && now - cached.time < FORM_CACHE_TTL)
+		{
+			return cached.credentials;
+		}
+
+		formCache.values().removeIf(lookup -> now - lookup.time >= FORM_CACHE_TTL);
+		List<StandardUsernamePasswordCredentials> creds = Collections.unmodifiableList(lookup(project));
+		if (formCache.size() < FORM_CACHE_MAX_ENTRIES)
+		{
+			formCache.put(key, new FormLookup(now, creds));
+		}
+
+		return creds;
+	}
+
+	/**
+	 * Looks up the username/password credentials available to the given item.
+	 *
+	 * @param project
+	 *            The Jenkins project.
+	 *
+	 * @return the credentials
+	 */
+	private static List<StandardUsernamePasswordCredentials> lookup(final Item project)
+	{
+		return CredentialsProvider.lookupCredentials(StandardUsernamePasswordCredentials.class, project, ACL.SYSTEM,
+				Collections.<DomainRequirement> emptyList());
+	}
+
+	/**
+	 * A cached credentials lookup.
+	 */
+	private static final class FormLookup
+	{
+		private final long time;
+		private final List<StandardUsernamePasswordCredentials> credentials;
+
+		FormLookup(final long time, final List<StandardUsernamePasswordCredentials> credentials)
+		{
+			this.time = time;
+			this.credentials = credentials;
+		}
+	}
+}
@@ -0,0 +1,370 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.model.Computer;
+import hudson.model.InvisibleAction;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+
+/**
+ * The JUnit and Sonar reports of a build converted in the background, after the verdict of the run was published.
+ * <p>
+ * Each conversion runs on the node of the result file and its status is shown on the build page. Steps reading the
+ * reports wait for the conversions with the <code>totaltestWaitForReports</code> step, and the build does not end
+ * before they finished, so the next build can not overwrite the result files while they are read.
+ */
+public class TotalTestDeferredReportsAction extends InvisibleAction
+{
+	private static final Logger LOGGER = Logger.getLogger(TotalTestDeferredReportsAction.class.getName());
+
+	/**
+	 * The status of a conversion.
+	 */
+	public enum Status
+	{
+		PENDING, RUNNING, DONE, FAILED
+	}
+
+	private final List<Conversion> conversions = new ArrayList<>();
+
+	/** The conversions started by this controller session, to wait for. */
+	private transient List<Future<?>> pending = new ArrayList<>();
+
+	/**
+	 * Starts the conversion of a result file in the background.
+	 *
+	 * @param build
+	 *            The build the result file belongs to.
+	 * @param resultFile
+	 *            The result file.
+	 * @param workspace
+	 *            The workspace the reports are written to.
+	 * @param createJUnitReport
+	 *            <code>true</code> to write the JUnit report
+	 * @param createSonarReport
+	 *            <code>true</code> to write the Sonar report
+	 *
+	 * @return the conversion
+	 */
+	public static Conversion start(final Run<?, ?> build, final FilePath resultFile, final FilePath workspace,
+			final boolean createJUnitReport, final boolean createSonarReport)
+	{
+		TotalTestDeferredReportsAction action;
+		Conversion conversion = new Conversion(resultFile.getRemote());
+		synchronized (build)
+		{
+			action = build.getAction(TotalTestDeferredReportsAction.class);
+			if (action == null)
+			{
+				action = new TotalTestDeferredReportsAction();
+				build.addAction(action);
+			}
+		}
+
+		action.add(conversion, Computer.threadPoolForRemoting.submit(
+				() -> convert(build, conversion, resultFile, workspace, createJUnitReport, createSonarReport)));
+		return conversion;
+	}
+
+	/**
+	 * Converts a result file and records the status of the conversion.
+	 *
+	 * @param build
+	 *            The build the result file belongs to.
+	 * @param conversion
+	 *            The conversion.
+	 * @param resultFile
+	 *            The result file.
+	 * @param workspace
+	 *            The workspace the reports are written to.
+	 * @param createJUnitReport
+	 *            <code>true</code> to write the JUnit report
+	 * @param createSonarReport
+	 *            <code>true</code> to write the Sonar report
+	 */
+	private static void convert(final Run<?, ?> build, final Conversion conversion, final FilePath resultFile,
+			final FilePath workspace, final boolean createJUnitReport, final boolean createSonarReport)
+	{
+		conversion.setStatus(Status.RUNNING, null);
+		try
+		{
+			resultFile.act(new TotalTestReportConverter.ConvertResultFile(workspace.getRemote(), createJUnitReport,
+					createSonarReport));
+			conversion.setStatus(Status.DONE, null);
+		}
+		catch (IOException e)
+		{
+			conversion.setStatus(Status.FAILED, e.getMessage());
+		}
+		catch (InterruptedException e)
+		{
+			conversion.setStatus(Status.FAILED, e.getMessage());
+			Thread.currentThread().interrupt();
+		}
+
+		save(build);
+	}
+
+	/**
+	 * Saves the build, so the status of its conversions survives a restart.
+	 *
+	 * @param build
+	 *            The build to save.
+	 */
+	private static void save(final Run<?, ?> build)
+	{
+		try
+		{
+			build.save();
+		}
+		catch (IOException e)
+		{
+			LOGGER.log(Level.WARNING, "Unable to save the report status of " + build.getFullDisplayName(), e); //$NON-NLS-1$
+		}
+	}
+
+	private synchronized void add(final Conversion conversion, final Future<?> future)
+	{
+		conversions.add(conversion);
+		pending.add(future);
+	}
+
+	/**
+	 * The conversions of a loaded build were not started by this controller session.
+	 *
+	 * @return this action
+	 */
+	private Object readResolve()
+	{
+		pending = new ArrayList<>();
+		return this;
+	}
+
+	/**
+	 * Waits for the conversions of the build to finish.
+	 *
+	 * @param listener
+	 *            Build listener
+	 *
+	 * @return the number of conversions that failed
+	 *
+	 * @throws InterruptedException
+	 *             If the wait was interrupted, the conversions are then cancelled.
+	 */
+	public int await(final TaskListener listener) throws InterruptedException
+	{
+		List<Future<?>> futures;
+		synchronized (this)
+		{
+			futures = new ArrayList<>(pending);
+		}
+
+		if (isRunning())
+		{
+			listener.getLogger().println("Waiting for the Total Test reports to be converted"); //$NON-NLS-1$
+		}
+
+		for (Future<?> future : futures)
+		{
+			try
+			{
+				future.get();
+			}
+			catch (ExecutionException | CancellationException e) //NOSONAR
+			{
+				// The conversion records its own failure.
+			}
+			catch (InterruptedException e)
+			{
+				for (Future<?> other : futures)
+				{
+					other.cancel(true);
+				}
+
+				throw e;
+			}
+		}
+
+		int failed = 0;
+		for (Conversion conversion : getConversions())
+		{
+			if (conversion.getStatus() == Status.FAILED)
+			{
+				listener.getLogger().println("Unable to convert " + conversion.getResultFile() + ": " + conversion.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+				failed++;
+			}
+		}
+
+		return failed;
+	}
+
+	/**
+	 * Returns the conversions of the build.
+	 *
+	 * @return the conversions, in the order they were started
+	 */
+	public synchronized List<Conversion> getConversions()
+	{
+		return new ArrayList<>(conversions);
+	}
+
+	/**
+	 * Returns if a conversion of the build has not finished yet.
+	 *
+	 * @return <code>true</code> if a conversion is pending or running, otherwise <code>false</code>
+	 */
+	public synchronized boolean isRunning()
+	{
+		for (Conversion conversion : conversions)
+		{
+			if (conversion.getStatus() == Status.PENDING || conversion.getStatus() == Status.RUNNING)
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * The conversion of a result file.
+	 */
+	public static final class Conversion
+	{
+		private final String resultFile;
+		private Status status = Status.PENDING;
+		private String message;
+		private long startTime;
+		private long endTime;
+
+		Conversion(final String resultFile)
+		{
+			this.resultFile = resultFile;
+		}
+
+		/**
+		 * A conversion that did not finish when Jenkins stopped never will.
+		 *
+		 * @return this conversion
+		 */
+		private Object readResolve()
+		{
+			if (status == Status.PENDING || status == Status.RUNNING)
+			{
+				status = Status.FAILED;
+				message = "Jenkins was stopped during the conversion"; //$NON-NLS-1$
+			}
+
+			return this;
+		}
+
+		synchronized void setStatus(final Status status, final String message)
+		{
+			this.status = status;
+			this.message = message;
+			if (status == Status.RUNNING)
+			{
+				startTime = System.currentTimeMillis();
+			}
+			else if (status != Status.PENDING)
+			{
+				endTime = System.currentTimeMillis();
+			}
+		}
+
+		/**
+		 * Returns the path of the result file on its node.
+		 *
+		 * @return the result file
+		 */
+		public String getResultFile()
+		{
+			return resultFile;
+		}
+
+		/**
+		 * Returns the status of the conversion.
+		 *
+		 * @return the status
+		 */
+		public synchronized Status getStatus()
+		{
+			return status;
+		}
+
+		/**
+		 * Returns why the conversion failed.
+		 *
+		 * @return the message, or <code>null</code> if none
+		 */
+		public synchronized String getMessage()
+		{
+			return message;
+		}
+
+		/**
+		 * Returns how long the conversion took.
+		 *
+		 * @return the duration in milliseconds, 0 if the conversion did not finish
+		 */
+		public synchronized long getDuration()
+		{
+			return endTime > 0 ? endTime - startTime : 0;
+		}
+	}
+
+	/**
+	 * Keeps a build from ending before its reports were converted.
+	 */
+	@Extension
+	public static final class Listener extends RunListener<Run<?, ?>>
+	{
+		/*
+		 * (non-Javadoc)
+		 * @see hudson.model.listeners.RunListener#onCompleted(hudson.model.Run, hudson.model.TaskListener)
+		 */
+		@Override
+		public void onCompleted(final Run<?, ?> build, final TaskListener listener)
+		{
+			TotalTestDeferredReportsAction action = build.getAction(TotalTestDeferredReportsAction.class);
+			if (action != null)
+			{
+				try
+				{
+					action.await(listener);
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+}
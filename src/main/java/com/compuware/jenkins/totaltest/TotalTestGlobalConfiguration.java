@@ -0,0 +1,357 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang.StringUtils;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.StaplerRequest;
+
+import hudson.Extension;
+import hudson.util.FormValidation;
+import jenkins.model.GlobalConfiguration;
+import net.sf.json.JSONObject;
+
+/**
+ * The controller wide configuration of the Total Test steps.
+ * <p>
+ * Limits the number of Total Test CLI runs that may use the same host connection at once. A host connection without a
+ * limit of its own uses the default limit, a limit of 0 does not limit the runs. With adaptive limits, these limits are
+ * only the starting point: the limit of each host then follows the duration and failures of its runs, between a floor
+ * and a ceiling.
+ * <p>
+ * Also sets the retry budgets of transient CLI failures, see {@link TotalTestRetryPolicy}, and the size of the cache
+ * of reused unit test results, see {@link TotalTestResultCache}.
+ */
+@Symbol("totalTest")
+@Extension
+public class TotalTestGlobalConfiguration extends GlobalConfiguration
+{
+	private int defaultHostPermits;
+	private List<TotalTestHostLimit> hostLimits = new ArrayList<>();
+	private int resultCacheSize = DEFAULT_RESULT_CACHE_SIZE;
+	private boolean adaptiveLimits;
+	private int adaptiveMinPermits = DEFAULT_ADAPTIVE_MIN_PERMITS;
+	private int adaptiveMaxPermits = DEFAULT_ADAPTIVE_MAX_PERMITS;
+	private int retryBuildBudget = DEFAULT_RETRY_BUILD_BUDGET;
+	private int retryHostBudget = DEFAULT_RETRY_HOST_BUDGET;
+
+	/** The default size of the result cache in MB. */
+	public static final int DEFAULT_RESULT_CACHE_SIZE = 256;
+
+	/** The default floor of adaptive limits. */
+	public static final int DEFAULT_ADAPTIVE_MIN_PERMITS = 1;
+
+	/** The default ceiling of adaptive limits. */
+	public static final int DEFAULT_ADAPTIVE_MAX_PERMITS = 8;
+
+	/** The default number of retries of a build. */
+	public static final int DEFAULT_RETRY_BUILD_BUDGET = 3;
+
+	/** The default number of retries on a host within ten minutes. */
+	public static final int DEFAULT_RETRY_HOST_BUDGET = 10;
+
+	/**
+	 * Constructor
+	 */
+	public TotalTestGlobalConfiguration()
+	{
+		load();
+	}
+
+	/**
+	 * Returns the Total Test global configuration.
+	 *
+	 * @return the configuration, or <code>null</code> if Jenkins is not running
+	 */
+	public static TotalTestGlobalConfiguration get()
+	{
+		return GlobalConfiguration.all().get(TotalTestGlobalConfiguration.class);
+	}
+
+	/**
+	 * Returns the number of concurrent CLI runs allowed on a host connection without a limit of its own.
+	 *
+	 * @return the number of runs, 0 for no limit
+	 */
+	public int getDefaultHostPermits()
+	{
+		return defaultHostPermits;
+	}
+
+	/**
+	 * Sets the number of concurrent CLI runs allowed on a host connection without a limit of its own.
+	 *
+	 * @param defaultHostPermits
+	 * 			  The number of runs, 0 for no limit.
+	 */
+	@DataBoundSetter
+	public void setDefaultHostPermits(final int defaultHostPermits)
+	{
+		this.defaultHostPermits = Math.max(defaultHostPermits, 0);
+		save();
+	}
+
+	/**
+	 * Returns the limits of the host connections.
+	 *
+	 * @return the limits
+	 */
+	public List<TotalTestHostLimit> getHostLimits()
+	{
+		return hostLimits != null ? Collections.unmodifiableList(hostLimits) : Collections.<TotalTestHostLimit> emptyList();
+	}
+
+	/**
+	 * Sets the limits of the host connections.
+	 *
+	 * @param hostLimits
+	 * 			  The limits.
+	 */
+	@DataBoundSetter
+	public void setHostLimits(final List<TotalTestHostLimit> hostLimits)
+	{
+		this.hostLimits = hostLimits != null ? new ArrayList<>(hostLimits) : new ArrayList<>();
+		save();
+	}
+
+	/**
+	 * Returns the number of concurrent CLI runs allowed on the given host.
+	 *
+	 * @param hostKey
+	 * 			  The host connection ID, or the host of the run when it does not use a host connection.
+	 * @return the number of runs, 0 for no limit
+	 */
+	public int getHostPermits(final String hostKey)
+	{
+		for (TotalTestHostLimit hostLimit : getHostLimits())
+		{
+			if (hostLimit.getConnectionId().equals(hostKey))
+			{
+				return hostLimit.getPermits();
+			}
+		}
+
+		return defaultHostPermits;
+	}
+
+	/**
+	 * Returns whether the limits of the hosts adapt to the duration and failures of their runs.
+	 *
+	 * @return <code>true</code> if the limits are adaptive, otherwise <code>false</code>
+	 */
+	public boolean isAdaptiveLimits()
+	{
+		return adaptiveLimits;
+	}
+
+	/**
+	 * Sets whether the limits of the hosts adapt to the duration and failures of their runs.
+	 *
+	 * @param adaptiveLimits
+	 * 			  <code>true</code> if the limits are adaptive, otherwise <code>false</code>.
+	 */
+	@DataBoundSetter
+	public void setAdaptiveLimits(final boolean adaptiveLimits)
+	{
+		this.adaptiveLimits = adaptiveLimits;
+		save();
+	}
+
+	/**
+	 * Returns the lowest number of concurrent CLI runs an adaptive limit allows on a host.
+	 *
+	 * @return the number of runs, at least 1
+	 */
+	public int getAdaptiveMinPermits()
+	{
+		return Math.max(adaptiveMinPermits, 1);
+	}
+
+	/**
+	 * Sets the lowest number of concurrent CLI runs an adaptive limit allows on a host.
+	 *
+	 * @param adaptiveMinPermits
+	 * 			  The number of runs, at least 1.
+	 */
+	@DataBoundSetter
+	public void setAdaptiveMinPermits(final int adaptiveMinPermits)
+	{
+		this.adaptiveMinPermits = Math.max(adaptiveMinPermits, 1);
+		save();
+	}
+
+	/**
+	 * Returns the highest number of concurrent CLI runs an adaptive limit allows on a host.
+	 *
+	 * @return the number of runs, at least the floor
+	 */
+	public int getAdaptiveMaxPermits()
+	{
+		return Math.max(adaptiveMaxPermits, getAdaptiveMinPermits());
+	}
+
+	/**
+	 * Sets the highest number of concurrent CLI runs an adaptive limit allows on a host.
+	 *
+	 * @param adaptiveMaxPermits
+	 * 			  The number of runs, at least the floor.
+	 */
+	@DataBoundSetter
+	public void setAdaptiveMaxPermits(final int adaptiveMaxPermits)
+	{
+		this.adaptiveMaxPermits = Math.max(adaptiveMaxPermits, 1);
+		save();
+	}
+
+	/**
+	 * Returns the number of retries of transient CLI failures allowed to a build, all its steps together.
+	 *
+	 * @return the number of retries
+	 */
+	public int getRetryBuildBudget()
+	{
+		return retryBuildBudget;
+	}
+
+	/**
+	 * Sets the number of retries of transient CLI failures allowed to a build, all its steps together.
+	 *
+	 * @param retryBuildBudget
+	 * 			  The number of retries, 0 to never retry.
+	 */
+	@DataBoundSetter
+	public void setRetryBuildBudget(final int retryBuildBudget)
+	{
+		this.retryBuildBudget = Math.max(retryBuildBudget, 0);
+		save();
+	}
+
+	/**
+	 * Returns the number of retries of transient CLI failures allowed on a host within ten minutes, all builds together.
+	 *
+	 * @return the number of retries
+	 */
+	public int getRetryHostBudget()
+	{
+		return retryHostBudget;
+	}
+
+	/**
+	 * Sets the number of retries of transient CLI failures allowed on a host within ten minutes, all builds together.
+	 *
+	 * @param retryHostBudget
+	 * 			  The number of retries, 0 to never retry.
+	 */
+	@DataBoundSetter
+	public void setRetryHostBudget(final int retryHostBudget)
+	{
+		this.retryHostBudget = Math.max(retryHostBudget, 0);
+		save();
+	}
+
+	/**
+	 * Returns the largest size of the cache of reused unit test results.
+	 *
+	 * @return the size in MB, 0 when results are not reused
+	 */
+	public int getResultCacheSize()
+	{
+		return resultCacheSize;
+	}
+
+	/**
+	 * Sets the largest size of the cache of reused unit test results.
+	 *
+	 * @param resultCacheSize
+	 * 			  The size in MB, 0 to not reuse results.
+	 */
+	@DataBoundSetter
+	public void setResultCacheSize(final int resultCacheSize)
+	{
+		this.resultCacheSize = Math.max(resultCacheSize, 0);
+		save();
+	}
+
+	/**
+	 * Returns the statistics of the hosts used by Total Test runs since Jenkins started.
+	 *
+	 * @return the statistics
+	 */
+	public List<TotalTestHostThrottle.HostStatistics> getHostStatistics()
+	{
+		return TotalTestHostThrottle.get().getStatistics();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see jenkins.model.GlobalConfiguration#configure(org.kohsuke.stapler.StaplerRequest, net.sf.json.JSONObject)
+	 */
+	@Override
+	public boolean configure(final StaplerRequest req, final JSONObject json) throws FormException
+	{
+		// Unchecked repeatable entries are missing from the form, so start from an empty list.
+		hostLimits = new ArrayList<>();
+		req.bindJSON(this, json);
+		save();
+
+		return true;
+	}
+
+	/**
+	 * Validates the 'defaultHostPermits' field.
+	 *
+	 * @param value
+	 * 			  The number of runs.
+	 * @return validation message
+	 */
+	public FormValidation doCheckDefaultHostPermits(@QueryParameter final String value)
+	{
+		return TotalTestHostLimit.checkPermits(value);
+	}
+
+	/**
+	 * Validates the 'adaptiveMaxPermits' field.
+	 *
+	 * @param value
+	 * 			  The ceiling of adaptive limits.
+	 * @param adaptiveMinPermits
+	 * 			  The floor of adaptive limits.
+	 * @return validation message
+	 */
+	public FormValidation doCheckAdaptiveMaxPermits(@QueryParameter final String value, @QueryParameter final String adaptiveMinPermits)
+	{
+		try
+		{
+			if (Integer.parseInt(StringUtils.trimToEmpty(value)) < Integer.parseInt(StringUtils.trimToEmpty(adaptiveMinPermits)))
+			{
+				return FormValidation.error(Messages.checkAdaptivePermitsError());
+			}
+		}
+		catch (NumberFormatException e)
+		{
+			// The number fields validate their own format.
+		}
+
+		return FormValidation.ok();
+	}
+}
@@ -0,0 +1,899 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.io.input.CountingInputStream;
+
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.listeners.ItemListener;
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * Keeps the Total Test results of the builds of a job, so they can be queried across builds.
+ * <p>
+ * The history is a single append-only file in the job directory. It holds the test IDs, each written once, and one
+ * fixed-size row per run, scenario and test case of a build, with its verdict, duration and Code Coverage percentage.
+ * The file is read once into primitive columns, indexed by test ID and by build number, and kept in sync as builds are
+ * recorded, so a query never reads the build directories.
+ * <p>
+ * Rows are appended in time order, so the rows of a period are found with a binary search on the time column. A run
+ * recorded again in the same build, such as a step retried by the <code>retry</code> step of a Pipeline, replaces the
+ * rows of the earlier attempt, so only the final attempt is reported.
+ */
+public final class TotalTestHistory
+{
+	static final String HISTORY_FILE_NAME = "totaltest-history.bin"; //$NON-NLS-1$
+
+	/** The kind of a row: a run of a suite or scenario file. */
+	public static final byte KIND_RUN = 0;
+	/** The kind of a row: a scenario of a suite. */
+	public static final byte KIND_SCENARIO = 1;
+	/** The kind of a row: a test case. */
+	public static final byte KIND_TEST_CASE = 2;
+
+	private static final int FORMAT_VERSION = 1;
+	private static final byte TAG_NAME = 1;
+	private static final byte TAG_ROW = 2;
+	private static final int INITIAL_CAPACITY = 256;
+	private static final String TEST_CASE_SEPARATOR = " / "; //$NON-NLS-1$
+
+	/** The histories read, held only as long as their job is loaded. */
+	private static final Map<Job<?, ?>, TotalTestHistory> HISTORIES = new WeakHashMap<>();
+
+	private final File file;
+
+	/** The test IDs, the position being the ID. */
+	private final List<String> names = new ArrayList<>();
+	private final Map<String, Integer> ids = new HashMap<>();
+
+	/** The columns of the rows. */
+	private int size;
+	private int[] builds = new int[INITIAL_CAPACITY];
+	private long[] times = new long[INITIAL_CAPACITY];
+	private int[] testIds = new int[INITIAL_CAPACITY];
+	private byte[] kinds = new byte[INITIAL_CAPACITY];
+	private boolean[] failures = new boolean[INITIAL_CAPACITY];
+	private long[] durations = new long[INITIAL_CAPACITY];
+	private float[] ccPercentages = new float[INITIAL_CAPACITY];
+	/** The rows of an earlier attempt of a run, not reported. */
+	private boolean[] superseded = new boolean[INITIAL_CAPACITY];
+
+	/** The rows of each test ID, the position being the ID. */
+	private final List<RowList> rowsByTest = new ArrayList<>();
+	/** The rows of each build number. */
+	private final TreeMap<Integer, RowList> rowsByBuild = new TreeMap<>();
+
+	private boolean loaded;
+	/** The length of the valid part of the file, a row cut short by a crash being dropped. */
+	private long validLength;
+
+	private TotalTestHistory(final File file)
+	{
+		this.file = file;
+	}
+
+	/**
+	 * Returns the history of a job, reading it on first use.
+	 *
+	 * @param job
+	 *            The job.
+	 *
+	 * @return the history
+	 *
+	 * @throws IOException
+	 *             If the history could not be read.
+	 */
+	public static TotalTestHistory forJob(final Job<?, ?> job) throws IOException
+	{
+		File historyFile = new File(job.getRootDir(), HISTORY_FILE_NAME);
+		TotalTestHistory history;
+		synchronized (HISTORIES)
+		{
+			history = HISTORIES.get(job);
+			if (history == null || !history.file.equals(historyFile))
+			{
+				history = new TotalTestHistory(historyFile);
+				HISTORIES.put(job, history);
+			}
+		}
+
+		history.load();
+		return history;
+	}
+
+	/**
+	 * Forgets the history of a job that was deleted, renamed or moved.
+	 *
+	 * @param item
+	 *            The item.
+	 */
+	private static void evict(final Item item)
+	{
+		if (item instanceof Job)
+		{
+			synchronized (HISTORIES)
+			{
+				HISTORIES.remove(item);
+			}
+		}
+	}
+
+	/**
+	 * Returns if a job has a history.
+	 *
+	 * @param job
+	 *            The job.
+	 *
+	 * @return <code>true</code> if a build of the job was recorded, otherwise <code>false</code>
+	 */
+	public static boolean exists(final Job<?, ?> job)
+	{
+		return new File(job.getRootDir(), HISTORY_FILE_NAME).isFile();
+	}
+
+	/**
+	 * Reads the history file, once.
+	 */
+	private synchronized void load() throws IOException
+	{
+		if (loaded)
+		{
+			return;
+		}
+
+		if (file.isFile())
+		{
+			CountingInputStream counter = new CountingInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try (DataInputStream in = new DataInputStream(counter))
+			{
+				if (in.readInt() != FORMAT_VERSION)
+				{
+					throw new IOException("Unsupported Total Test history format: " + file); //$NON-NLS-1$
+				}
+
+				validLength = counter.getByteCount();
+				while (true)
+				{
+					byte tag = in.readByte();
+					if (tag == TAG_NAME)
+					{
+						addName(in.readUTF());
+					}
+					else if (tag == TAG_ROW)
+					{
+						addRow(in.readInt(), in.readLong(), in.readInt(), in.readByte(), in.readBoolean(), in.readLong(),
+								in.readFloat());
+					}
+					else
+					{
+						break;
+					}
+					validLength = counter.getByteCount();
+				}
+			}
+			catch (EOFException e) //NOSONAR
+			{
+				// The end of the file, or a row cut short.
+			}
+		}
+
+		loaded = true;
+	}
+
+	/**
+	 * Forgets what was read, so the file is read again on next use.
+	 */
+	private void reset()
+	{
+		names.clear();
+		ids.clear();
+		rowsByTest.clear();
+		rowsByBuild.clear();
+		size = 0;
+		validLength = 0;
+		loaded = false;
+	}
+
+	/**
+	 * Records the results of a build.
+	 *
+	 * @param build
+	 *            The build.
+	 * @param runId
+	 *            The test ID of the run, such as the test folder or suite.
+	 * @param summary
+	 *            The summary of the result file.
+	 * @param results
+	 *            The scenario and test case results of the result file.
+	 *
+	 * @throws IOException
+	 *             If the history could not be written.
+	 */
+	public synchronized void record(final Run<?, ?> build, final String runId, final TotalTestResultSummary summary,
+			final Results results) throws IOException
+	{
+		// The file was deleted, replaced or written by another instance since it was read.
+		if (loaded && file.length() != validLength)
+		{
+			reset();
+		}
+
+		load();
+		long time = Math.max(System.currentTimeMillis(), size > 0 ? times[size - 1] : 0);
+		float cc = parsePercentage(summary.getCcPercentage());
+
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) //$NON-NLS-1$
+		{
+			// Drops a row cut short by a crash, so the file stays readable.
+			if (validLength == 0)
+			{
+				raf.setLength(0);
+				raf.writeInt(FORMAT_VERSION);
+				validLength = Integer.BYTES;
+			}
+			else
+			{
+				raf.setLength(validLength);
+			}
+			raf.seek(validLength);
+
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(raf.getChannel()))))
+			{
+				int number = build.getNumber();
+				append(out, number, time, runId, KIND_RUN, !summary.isSuccess(),
+						TotalTestReportConverter.toMillis(summary.getDuration()), cc);
+				for (int i = 0; i < results.size(); i++)
+				{
+					append(out, number, time, results.names.get(i), results.kinds[i], results.failures[i],
+							results.durations[i], Float.NaN);
+				}
+				out.flush();
+				validLength += out.size();
+			}
+		}
+		catch (IOException e)
+		{
+			// The rows kept in memory may not have been written.
+			reset();
+			throw e;
+		}
+	}
+
+	private void append(final DataOutputStream out, final int build, final long time, final String name, final byte kind,
+			final boolean failed, final long duration, final float cc) throws IOException
+	{
+		Integer id = ids.get(name);
+		if (id == null)
+		{
+			out.writeByte(TAG_NAME);
+			out.writeUTF(name);
+			id = addName(name);
+		}
+
+		out.writeByte(TAG_ROW);
+		out.writeInt(build);
+		out.writeLong(time);
+		out.writeInt(id);
+		out.writeByte(kind);
+		out.writeBoolean(failed);
+		out.writeLong(duration);
+		out.writeFloat(cc);
+		addRow(build, time, id, kind, failed, duration, cc);
+	}
+
+	private int addName(final String name)
+	{
+		int id = names.size();
+		names.add(name);
+		ids.put(name, id);
+		rowsByTest.add(new RowList());
+		return id;
+	}
+
+	private void addRow(final int build, final long time, final int testId, final byte kind, final boolean failed,
+			final long duration, final float cc)
+	{
+		if (size == builds.length)
+		{
+			int capacity = size * 2;
+			builds = Arrays.copyOf(builds, capacity);
+			times = Arrays.copyOf(times, capacity);
+			testIds = Arrays.copyOf(testIds, capacity);
+			kinds = Arrays.copyOf(kinds, capacity);
+			failures = Arrays.copyOf(failures, capacity);
+			durations = Arrays.copyOf(durations, capacity);
+			ccPercentages = Arrays.copyOf(ccPercentages, capacity);
+			superseded = Arrays.copyOf(superseded, capacity);
+		}
+
+		if (kind == KIND_RUN)
+		{
+			supersede(build, testId);
+		}
+
+		builds[size] = build;
+		times[size] = time;
+		testIds[size] = testId;
+		kinds[size] = kind;
+		failures[size] = failed;
+		durations[size] = duration;
+		ccPercentages[size] = cc;
+		superseded[size] = false;
+
+		rowsByTest.get(testId).add(size);
+		rowsByBuild.computeIfAbsent(build, number -> new RowList()).add(size);
+		size++;
+	}
+
+	/**
+	 * Marks the rows of an earlier attempt of a run of a build, the run row and the rows recorded with it.
+	 */
+	private void supersede(final int build, final int runId)
+	{
+		RowList buildRows = rowsByBuild.get(build);
+		if (buildRows == null)
+		{
+			return;
+		}
+
+		boolean inRun = false;
+		for (int i = 0; i < buildRows.size; i++)
+		{
+			int row = buildRows.rows[i];
+			if (kinds[row] == KIND_RUN)
+			{
+				inRun = testIds[row] == runId;
+			}
+
+			if (inRun)
+			{
+				superseded[row] = true;
+			}
+		}
+	}
+
+	/**
+	 * Returns the first row recorded at or after a time.
+	 */
+	private int firstRowSince(final long since)
+	{
+		int low = 0;
+		int high = size;
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (times[mid] < since)
+			{
+				low = mid + 1;
+			}
+			else
+			{
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * Returns the statistics of the tests of a kind recorded since a time.
+	 *
+	 * @param kind
+	 *            The kind of the tests.
+	 * @param since
+	 *            The start of the period.
+	 *
+	 * @return the statistics of each test
+	 */
+	private List<TestStatistics> getStatistics(final byte kind, final long since)
+	{
+		Map<Integer, TestStatistics> statistics = new HashMap<>();
+		for (int row = firstRowSince(since); row < size; row++)
+		{
+			if (kinds[row] == kind && !superseded[row])
+			{
+				statistics.computeIfAbsent(testIds[row], id -> new TestStatistics(names.get(id)))
+						.add(failures[row], durations[row]);
+			}
+		}
+
+		return new ArrayList<>(statistics.values());
+	}
+
+	/**
+	 * Returns the slowest tests of a kind, by average duration.
+	 *
+	 * @param kind
+	 *            The kind of the tests.
+	 * @param since
+	 *            The start of the period.
+	 * @param limit
+	 *            The most tests to return.
+	 *
+	 * @return the statistics of the slowest tests, the slowest first
+	 */
+	public synchronized List<TestStatistics> getSlowest(final byte kind, final long since, final int limit)
+	{
+		List<TestStatistics> statistics = getStatistics(kind, since);
+		statistics.sort(Comparator.comparingLong(TestStatistics::getAverageDuration).reversed());
+		return statistics.subList(0, Math.min(limit, statistics.size()));
+	}
+
+	/**
+	 * Returns the tests of a kind that failed the most often.
+	 *
+	 * @param kind
+	 *            The kind of the tests.
+	 * @param since
+	 *            The start of the period.
+	 * @param limit
+	 *            The most tests to return.
+	 *
+	 * @return the statistics of the tests, the highest failure rate first
+	 */
+	public synchronized List<TestStatistics> getFailureRates(final byte kind, final long since, final int limit)
+	{
+		List<TestStatistics> statistics = getStatistics(kind, since);
+		statistics.sort(Comparator.comparingDouble(TestStatistics::getFailureRate)
+				.thenComparingInt(TestStatistics::getFailures).reversed());
+		return statistics.subList(0, Math.min(limit, statistics.size()));
+	}
+
+	/**
+	 * Returns the rows of a test.
+	 *
+	 * @param testId
+	 *            The test ID.
+	 *
+	 * @return the rows of the test, the oldest first, empty if the test is unknown
+	 */
+	public synchronized List<Row> getTest(final String testId)
+	{
+		Integer id = ids.get(testId);
+		return id != null ? getRows(rowsByTest.get(id)) : new ArrayList<>();
+	}
+
+	/**
+	 * Returns the rows of a build.
+	 *
+	 * @param number
+	 *            The build number.
+	 *
+	 * @return the rows of the build, empty if the build was not recorded
+	 */
+	public synchronized List<Row> getBuild(final int number)
+	{
+		RowList buildRows = rowsByBuild.get(number);
+		return buildRows != null ? getRows(buildRows) : new ArrayList<>();
+	}
+
+	private List<Row> getRows(final RowList rowList)
+	{
+		List<Row> rows = new ArrayList<>(rowList.size);
+		for (int i = 0; i < rowList.size; i++)
+		{
+			if (!superseded[rowList.rows[i]])
+			{
+				rows.add(getRow(rowList.rows[i]));
+			}
+		}
+
+		return rows;
+	}
+
+	private Row getRow(final int row)
+	{
+		return new Row(names.get(testIds[row]), builds[row], times[row], kinds[row], failures[row], durations[row],
+				ccPercentages[row]);
+	}
+
+	private static float parsePercentage(final String percentage)
+	{
+		if (percentage == null)
+		{
+			return Float.NaN;
+		}
+
+		try
+		{
+			return Float.parseFloat(percentage.trim());
+		}
+		catch (NumberFormatException e) //NOSONAR
+		{
+			return Float.NaN;
+		}
+	}
+
+	/**
+	 * The rows of a test or build, in the order they were recorded.
+	 */
+	private static final class RowList
+	{
+		private int[] rows = new int[4];
+		private int size;
+
+		void add(final int row)
+		{
+			if (size == rows.length)
+			{
+				rows = Arrays.copyOf(rows, size * 2);
+			}
+			rows[size++] = row;
+		}
+	}
+
+	/**
+	 * The statistics of a test over a period.
+	 */
+	public static final class TestStatistics
+	{
+		private final String testId;
+		private int runs;
+		private int failures;
+		private long totalDuration;
+		private long maxDuration;
+
+		TestStatistics(final String testId)
+		{
+			this.testId = testId;
+		}
+
+		void add(final boolean failed, final long duration)
+		{
+			runs++;
+			if (failed)
+			{
+				failures++;
+			}
+			totalDuration += duration;
+			maxDuration = Math.max(maxDuration, duration);
+		}
+
+		/**
+		 * Returns the test ID.
+		 *
+		 * @return the test ID
+		 */
+		public String getTestId()
+		{
+			return testId;
+		}
+
+		/**
+		 * Returns the number of runs of the test.
+		 *
+		 * @return the run count
+		 */
+		public int getRuns()
+		{
+			return runs;
+		}
+
+		/**
+		 * Returns the number of failed runs of the test.
+		 *
+		 * @return the failure count
+		 */
+		public int getFailures()
+		{
+			return failures;
+		}
+
+		/**
+		 * Returns the share of failed runs.
+		 *
+		 * @return the failure rate, between 0 and 1
+		 */
+		public double getFailureRate()
+		{
+			return runs > 0 ? (double) failures / runs : 0;
+		}
+
+		/**
+		 * Returns the average duration of the runs.
+		 *
+		 * @return the duration in milliseconds
+		 */
+		public long getAverageDuration()
+		{
+			return runs > 0 ? totalDuration / runs : 0;
+		}
+
+		/**
+		 * Returns the longest duration of the runs.
+		 *
+		 * @return the duration in milliseconds
+		 */
+		public long getMaxDuration()
+		{
+			return maxDuration;
+		}
+	}
+
+	/**
+	 * A recorded result.
+	 */
+	public static final class Row
+	{
+		private final String testId;
+		private final int build;
+		private final long time;
+		private final byte kind;
+		private final boolean failed;
+		private final long duration;
+		private final float ccPercentage;
+
+		Row(final String testId, final int build, final long time, final byte kind, final boolean failed,
+				final long duration, final float ccPercentage)
+		{
+			this.testId = testId;
+			this.build = build;
+			this.time = time;
+			this.kind = kind;
+			this.failed = failed;
+			this.duration = duration;
+			this.ccPercentage = ccPercentage;
+		}
+
+		/**
+		 * Returns the test ID.
+		 *
+		 * @return the test ID
+		 */
+		public String getTestId()
+		{
+			return testId;
+		}
+
+		/**
+		 * Returns the build number.
+		 *
+		 * @return the build number
+		 */
+		public int getBuild()
+		{
+			return build;
+		}
+
+		/**
+		 * Returns when the result was recorded.
+		 *
+		 * @return the time in milliseconds
+		 */
+		public long getTime()
+		{
+			return time;
+		}
+
+		/**
+		 * Returns the kind of the test.
+		 *
+		 * @return {@link TotalTestHistory#KIND_RUN}, {@link TotalTestHistory#KIND_SCENARIO} or
+		 *         {@link TotalTestHistory#KIND_TEST_CASE}
+		 */
+		public byte getKind()
+		{
+			return kind;
+		}
+
+		/**
+		 * Returns if the test failed.
+		 *
+		 * @return <code>true</code> if the test failed, otherwise <code>false</code>
+		 */
+		public boolean isFailed()
+		{
+			return failed;
+		}
+
+		/**
+		 * Returns the duration of the test.
+		 *
+		 * @return the duration in milliseconds, 0 if unknown
+		 */
+		public long getDuration()
+		{
+			return duration;
+		}
+
+		/**
+		 * Returns the Code Coverage percentage of a run.
+		 *
+		 * @return the percentage, <code>NaN</code> if unknown
+		 */
+		public float getCcPercentage()
+		{
+			return ccPercentage;
+		}
+	}
+
+	/**
+	 * The scenario and test case results of a result file, in primitive columns.
+	 */
+	public static final class Results implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final List<String> names = new ArrayList<>();
+		private byte[] kinds = new byte[INITIAL_CAPACITY];
+		private boolean[] failures = new boolean[INITIAL_CAPACITY];
+		private long[] durations = new long[INITIAL_CAPACITY];
+
+		void add(final String name, final byte kind, final boolean failed, final long duration)
+		{
+			int index = names.size();
+			if (index == kinds.length)
+			{
+				kinds = Arrays.copyOf(kinds, index * 2);
+				failures = Arrays.copyOf(failures, index * 2);
+				durations = Arrays.copyOf(durations, index * 2);
+			}
+
+			names.add(name);
+			kinds[index] = kind;
+			failures[index] = failed;
+			durations[index] = duration;
+		}
+
+		/**
+		 * Returns the number of results.
+		 *
+		 * @return the result count
+		 */
+		public int size()
+		{
+			return names.size();
+		}
+	}
+
+	/**
+	 * Collects the scenario and test case results of a result file on the node where it resides. A test case is
+	 * identified by its scenario and its name.
+	 */
+	public static final class CollectResults extends MasterToSlaveFileCallable<Results>
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public Results invoke(File resultFile, VirtualChannel channel) throws IOException, InterruptedException
+		{
+			Results results = new Results();
+			try (InputStream in = new BufferedInputStream(Files.newInputStream(resultFile.toPath())))
+			{
+				XMLStreamReader reader = TotalTestResultParser.createInputFactory().createXMLStreamReader(in);
+				try
+				{
+					boolean isSuite = false;
+					String scenario = null;
+					int depth = 0;
+					boolean inCC = false;
+					while (reader.hasNext())
+					{
+						int event = reader.next();
+						if (event == XMLStreamConstants.START_ELEMENT)
+						{
+							depth++;
+							String resultType = reader.getAttributeValue(null, TotalTestResultParser.ATTR_RESULT_TYPE);
+							if (depth == 1)
+							{
+								isSuite = TotalTestResultParser.XA_SUITE_RESULT.equals(reader.getLocalName());
+								scenario = isSuite ? null : TotalTestResultParser.getName(reader);
+							}
+							else if (depth == 2 && TotalTestResultParser.ELEMENT_CC.equals(reader.getLocalName()))
+							{
+								inCC = true;
+							}
+							else if (!inCC && resultType != null)
+							{
+								boolean failed = !TotalTestResultParser.RESULT_SUCCESS.equalsIgnoreCase(resultType);
+								long duration = TotalTestReportConverter.toMillis(
+										TotalTestResultParser.getAttribute(reader, TotalTestResultParser.DURATION_ATTRIBUTES));
+								String name = TotalTestResultParser.getName(reader);
+								if (isSuite && depth == 2)
+								{
+									scenario = name;
+									results.add(name, KIND_SCENARIO, failed, duration);
+								}
+								else
+								{
+									results.add(scenario != null ? scenario + TEST_CASE_SEPARATOR + name : name,
+											KIND_TEST_CASE, failed, duration);
+								}
+							}
+						}
+						else if (event == XMLStreamConstants.END_ELEMENT)
+						{
+							if (depth == 2)
+							{
+								inCC = false;
+							}
+							depth--;
+						}
+					}
+				}
+				finally
+				{
+					reader.close();
+				}
+			}
+			catch (XMLStreamException e)
+			{
+				throw new IOException("Unable to read Total Test result: " + e.getMessage(), e); //$NON-NLS-1$
+			}
+
+			return results;
+		}
+	}
+
+	/**
+	 * Forgets the histories of the jobs that were deleted, renamed or moved, so a job later created under the same name
+	 * reads its own history file.
+	 */
+	@Extension
+	public static final class Listener extends ItemListener
+	{
+		/*
+		 * (non-Javadoc)
+		 * @see hudson.model.listeners.ItemListener#onDeleted(hudson.model.Item)
+		 */
+		@Override
+		public void onDeleted(final Item item)
+		{
+			evict(item);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see hudson.model.listeners.ItemListener#onLocationChanged(hudson.model.Item, java.lang.String, java.lang.String)
+		 */
+		@Override
+		public void onLocationChanged(final Item item, final String oldFullName, final String newFullName)
+		{
+			evict(item);
+		}
+	}
+}
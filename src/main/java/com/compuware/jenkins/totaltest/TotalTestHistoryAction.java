@@ -0,0 +1,293 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.StaplerResponse;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Action;
+import hudson.model.Item;
+import hudson.model.Job;
+import jenkins.model.TransientActionFactory;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+
+/**
+ * Serves the Total Test history of a job as JSON, under <code>job/&lt;name&gt;/totaltest-history/</code>:
+ * <ul>
+ * <li><code>slowest?days=30&amp;limit=50&amp;kind=scenario</code>: the slowest tests by average duration
+ * <li><code>failureRate?days=30&amp;limit=50&amp;kind=scenario</code>: the tests that failed the most often
+ * <li><code>test?id=...</code>: the results of a test in every recorded build
+ * <li><code>build?number=...</code>: the results of a build
+ * </ul>
+ * The kind is <code>run</code>, <code>scenario</code> or <code>testcase</code>. Queries are answered from the history
+ * file of the job, the build directories are not read.
+ */
+public class TotalTestHistoryAction implements Action
+{
+	private static final int DEFAULT_DAYS = 30;
+	private static final int DEFAULT_LIMIT = 50;
+
+	private final Job<?, ?> job;
+
+	/**
+	 * Constructor
+	 *
+	 * @param job
+	 *            The job of the history.
+	 */
+	public TotalTestHistoryAction(final Job<?, ?> job)
+	{
+		this.job = job;
+	}
+
+	@Override
+	public String getIconFileName()
+	{
+		return null;
+	}
+
+	@Override
+	public String getDisplayName()
+	{
+		return "Total Test History"; //$NON-NLS-1$
+	}
+
+	@Override
+	public String getUrlName()
+	{
+		return "totaltest-history"; //$NON-NLS-1$
+	}
+
+	/**
+	 * Serves the slowest tests of a period.
+	 *
+	 * @param days
+	 *            The number of days of the period, 30 by default.
+	 * @param limit
+	 *            The most tests to return, 50 by default.
+	 * @param kind
+	 *            The kind of the tests, scenarios by default.
+	 * @param rsp
+	 *            The response.
+	 *
+	 * @throws IOException
+	 *             If the history could not be read.
+	 */
+	public void doSlowest(@QueryParameter final Integer days, @QueryParameter final Integer limit,
+			@QueryParameter final String kind, final StaplerResponse rsp) throws IOException
+	{
+		job.checkPermission(Item.READ);
+		if (!isValid(days, limit))
+		{
+			rsp.sendError(HttpServletResponse.SC_BAD_REQUEST);
+			return;
+		}
+
+		List<TotalTestHistory.TestStatistics> statistics = TotalTestHistory.forJob(job).getSlowest(getKind(kind),
+				getSince(days), limit != null ? limit : DEFAULT_LIMIT);
+		sendStatistics(statistics, rsp);
+	}
+
+	/**
+	 * Serves the tests that failed the most often in a period.
+	 *
+	 * @param days
+	 *            The number of days of the period, 30 by default.
+	 * @param limit
+	 *            The most tests to return, 50 by default.
+	 * @param kind
+	 *            The kind of the tests, scenarios by default.
+	 * @param rsp
+	 *            The response.
+	 *
+	 * @throws IOException
+	 *             If the history could not be read.
+	 */
+	public void doFailureRate(@QueryParameter final Integer days, @QueryParameter final Integer limit,
+			@QueryParameter final String kind, final StaplerResponse rsp) throws IOException
+	{
+		job.checkPermission(Item.READ);
+		if (!isValid(days, limit))
+		{
+			rsp.sendError(HttpServletResponse.SC_BAD_REQUEST);
+			return;
+		}
+
+		List<TotalTestHistory.TestStatistics> statistics = TotalTestHistory.forJob(job).getFailureRates(getKind(kind),
+				getSince(days), limit != null ? limit : DEFAULT_LIMIT);
+		sendStatistics(statistics, rsp);
+	}
+
+	/**
+	 * Serves the results of a test.
+	 *
+	 * @param id
+	 *            The test ID.
+	 * @param rsp
+	 *            The response.
+	 *
+	 * @throws IOException
+	 *             If the history could not be read.
+	 */
+	public void doTest(@QueryParameter final String id, final StaplerResponse rsp) throws IOException
+	{
+		job.checkPermission(Item.READ);
+		if (id == null)
+		{
+			rsp.sendError(HttpServletResponse.SC_BAD_REQUEST);
+			return;
+		}
+
+		sendRows(TotalTestHistory.forJob(job).getTest(id), rsp);
+	}
+
+	/**
+	 * Serves the results of a build.
+	 *
+	 * @param number
+	 *            The build number.
+	 * @param rsp
+	 *            The response.
+	 *
+	 * @throws IOException
+	 *             If the history could not be read.
+	 */
+	public void doBuild(@QueryParameter final Integer number, final StaplerResponse rsp) throws IOException
+	{
+		job.checkPermission(Item.READ);
+		if (number == null)
+		{
+			rsp.sendError(HttpServletResponse.SC_BAD_REQUEST);
+			return;
+		}
+
+		sendRows(TotalTestHistory.forJob(job).getBuild(number), rsp);
+	}
+
+	private static boolean isValid(final Integer days, final Integer limit)
+	{
+		return (days == null || days >= 0) && (limit == null || limit >= 0);
+	}
+
+	private static byte getKind(final String kind)
+	{
+		if (kind == null)
+		{
+			return TotalTestHistory.KIND_SCENARIO;
+		}
+
+		switch (kind.toLowerCase(Locale.ROOT))
+		{
+			case "run": //$NON-NLS-1$
+				return TotalTestHistory.KIND_RUN;
+			case "testcase": //$NON-NLS-1$
+				return TotalTestHistory.KIND_TEST_CASE;
+			default:
+				return TotalTestHistory.KIND_SCENARIO;
+		}
+	}
+
+	private static long getSince(final Integer days)
+	{
+		return System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days != null ? days : DEFAULT_DAYS);
+	}
+
+	private static void sendStatistics(final List<TotalTestHistory.TestStatistics> statistics, final StaplerResponse rsp)
+			throws IOException
+	{
+		JSONArray array = new JSONArray();
+		for (TotalTestHistory.TestStatistics test : statistics)
+		{
+			JSONObject json = new JSONObject();
+			json.put("id", test.getTestId()); //$NON-NLS-1$
+			json.put("runs", test.getRuns()); //$NON-NLS-1$
+			json.put("failures", test.getFailures()); //$NON-NLS-1$
+			json.put("failureRate", test.getFailureRate()); //$NON-NLS-1$
+			json.put("averageDuration", test.getAverageDuration()); //$NON-NLS-1$
+			json.put("maxDuration", test.getMaxDuration()); //$NON-NLS-1$
+			array.add(json);
+		}
+
+		send(array, rsp);
+	}
+
+	private static void sendRows(final List<TotalTestHistory.Row> rows, final StaplerResponse rsp) throws IOException
+	{
+		JSONArray array = new JSONArray();
+		for (TotalTestHistory.Row row : rows)
+		{
+			JSONObject json = new JSONObject();
+			json.put("id", row.getTestId()); //$NON-NLS-1$
+			json.put("build", row.getBuild()); //$NON-NLS-1$
+			json.put("time", row.getTime()); //$NON-NLS-1$
+			json.put("kind", row.getKind()); //$NON-NLS-1$
+			json.put("failed", row.isFailed()); //$NON-NLS-1$
+			json.put("duration", row.getDuration()); //$NON-NLS-1$
+			if (!Float.isNaN(row.getCcPercentage()))
+			{
+				json.put("ccPercentage", row.getCcPercentage()); //$NON-NLS-1$
+			}
+			array.add(json);
+		}
+
+		send(array, rsp);
+	}
+
+	private static void send(final JSONArray array, final StaplerResponse rsp) throws IOException
+	{
+		rsp.setContentType("application/json;charset=UTF-8"); //$NON-NLS-1$
+		rsp.getWriter().print(array.toString());
+	}
+
+	/**
+	 * Adds the history to the jobs that have one.
+	 */
+	@Extension
+	@SuppressWarnings("rawtypes")
+	public static class Factory extends TransientActionFactory<Job>
+	{
+		@Override
+		public Class<Job> type()
+		{
+			return Job.class;
+		}
+
+		@NonNull
+		@Override
+		public Collection<? extends Action> createFor(@NonNull final Job target)
+		{
+			if (!TotalTestHistory.exists(target))
+			{
+				return Collections.emptyList();
+			}
+
+			return Collections.singletonList(new TotalTestHistoryAction(target));
+		}
+	}
+}
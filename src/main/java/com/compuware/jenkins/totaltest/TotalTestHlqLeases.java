@@ -0,0 +1,229 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import jenkins.model.Jenkins;
+
+/**
+ * Leases unique dataset high level qualifiers to concurrent unit test runs.
+ * <p>
+ * A qualifier is derived from the configured HLQ, or from the user of the run when no HLQ is configured, by replacing
+ * its end with a base 36 slot number, so it stays a valid qualifier of at most 8 characters. The first free slot is
+ * leased to the run until it ends, so concurrent builds, parallel branches and shards never share the temporary
+ * datasets of a qualifier. A qualifier whose build is no longer running, for example after a controller restart, is
+ * reclaimed.
+ */
+public final class TotalTestHlqLeases
+{
+	private static final int MAX_QUALIFIER_LENGTH = 8;
+	private static final int MAX_SLOTS = 36 * 36;
+	private static final TotalTestHlqLeases INSTANCE = new TotalTestHlqLeases();
+
+	/** The leased qualifiers, with the build holding them. */
+	private final Map<String, Holder> leases = new TreeMap<>();
+
+	/**
+	 * Constructor
+	 */
+	private TotalTestHlqLeases()
+	{
+	}
+
+	/**
+	 * Returns the controller wide lease registry.
+	 *
+	 * @return the registry
+	 */
+	public static TotalTestHlqLeases get()
+	{
+		return INSTANCE;
+	}
+
+	/**
+	 * Leases a unique qualifier derived from the given base qualifier.
+	 *
+	 * @param baseHlq
+	 * 			  The configured high level qualifier, or the user of the run.
+	 * @param build
+	 * 			  The build the qualifier is leased to.
+	 * @param listener
+	 * 			  Build listener
+	 * @return the lease, to be closed when the run ends
+	 * @throws IOException
+	 * 			  if the base qualifier is not valid or all its slots are leased
+	 */
+	public synchronized Lease acquire(final String baseHlq, final Run<?, ?> build, final TaskListener listener) throws IOException
+	{
+		String base = baseHlq != null ? baseHlq.trim().toUpperCase(Locale.ROOT) : ""; //$NON-NLS-1$
+		if (base.isEmpty() || !getQualifier(base, 0).matches(TotalTestBuilder.DATASET_HLQ_PATTERN))
+		{
+			throw new IOException("ERROR: '" + base + "' is not a valid high level qualifier to derive isolated qualifiers from."); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		for (int slot = 0; slot < MAX_SLOTS; slot++)
+		{
+			String qualifier = getQualifier(base, slot);
+			Holder holder = leases.get(qualifier);
+			if (holder != null && holder.isRunning())
+			{
+				continue;
+			}
+
+			if (holder != null)
+			{
+				listener.getLogger().println("Reclaiming high level qualifier " + qualifier + " of " + holder); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+
+			Holder newHolder = new Holder(build.getParent().getFullName(), build.getNumber());
+			leases.put(qualifier, newHolder);
+			listener.getLogger().println("Leased high level qualifier " + qualifier + " for this run"); //$NON-NLS-1$ //$NON-NLS-2$
+			return new Lease(qualifier, newHolder);
+		}
+
+		throw new IOException("ERROR: All the high level qualifiers derived from " + base + " are leased to running builds."); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Returns the leased qualifiers, with the build holding them.
+	 *
+	 * @return the descriptions of the leases
+	 */
+	public synchronized List<String> getLeases()
+	{
+		List<String> descriptions = new ArrayList<>(leases.size());
+		for (Map.Entry<String, Holder> lease : leases.entrySet())
+		{
+			descriptions.add(lease.getKey() + ": " + lease.getValue()); //$NON-NLS-1$
+		}
+
+		return descriptions;
+	}
+
+	/**
+	 * Returns the qualifier of a slot: the base qualifier with its end replaced by the slot number in base 36.
+	 *
+	 * @param base
+	 * 			  The base qualifier.
+	 * @param slot
+	 * 			  The slot number.
+	 * @return the qualifier, at most 8 characters
+	 */
+	static String getQualifier(final String base, final int slot)
+	{
+		String suffix = Integer.toString(slot, 36).toUpperCase(Locale.ROOT);
+		if (suffix.length() < 2)
+		{
+			suffix = '0' + suffix;
+		}
+
+		// The first character is kept, since a qualifier can not start with a digit.
+		int baseLength = Math.max(1, Math.min(base.length(), MAX_QUALIFIER_LENGTH - suffix.length()));
+		return base.substring(0, baseLength) + suffix;
+	}
+
+	private synchronized void release(final String qualifier, final Holder holder)
+	{
+		// A reclaimed qualifier belongs to its new holder.
+		if (leases.get(qualifier) == holder)
+		{
+			leases.remove(qualifier);
+		}
+	}
+
+	/**
+	 * The lease of a qualifier, which must be closed when the run ends.
+	 */
+	public final class Lease implements AutoCloseable
+	{
+		private final String qualifier;
+		private final Holder holder;
+
+		private Lease(final String qualifier, final Holder holder)
+		{
+			this.qualifier = qualifier;
+			this.holder = holder;
+		}
+
+		/**
+		 * Returns the leased qualifier.
+		 *
+		 * @return the high level qualifier
+		 */
+		public String getQualifier()
+		{
+			return qualifier;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.AutoCloseable#close()
+		 */
+		@Override
+		public void close()
+		{
+			release(qualifier, holder);
+		}
+	}
+
+	/**
+	 * The build holding a qualifier.
+	 */
+	private static final class Holder
+	{
+		private final String jobName;
+		private final int buildNumber;
+
+		Holder(final String jobName, final int buildNumber)
+		{
+			this.jobName = jobName;
+			this.buildNumber = buildNumber;
+		}
+
+		boolean isRunning()
+		{
+			// The holder may be a job the user of the current build can not see.
+			try (ACLContext context = ACL.as2(ACL.SYSTEM2))
+			{
+				Job<?, ?> job = Jenkins.get().getItemByFullName(jobName, Job.class);
+				Run<?, ?> run = job != null ? job.getBuildByNumber(buildNumber) : null;
+				return run != null && run.isBuilding();
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString()
+		{
+			return jobName + " #" + buildNumber; //$NON-NLS-1$
+		}
+	}
+}
@@ -0,0 +1,77 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import hudson.Extension;
+import hudson.model.Project;
+import hudson.model.Queue;
+import hudson.model.queue.CauseOfBlockage;
+import hudson.model.queue.QueueTaskDispatcher;
+import hudson.tasks.Builder;
+
+/**
+ * Keeps the freestyle builds with a Total Test step in the build queue while the host of the step is busy, so that
+ * waiting for the host does not hold an executor.
+ */
+@Extension
+public class TotalTestHostDispatcher extends QueueTaskDispatcher
+{
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.queue.QueueTaskDispatcher#canRun(hudson.model.Queue.Item)
+	 */
+	@Override
+	public CauseOfBlockage canRun(final Queue.Item item)
+	{
+		if (item.task instanceof Project)
+		{
+			for (Builder builder : ((Project<?, ?>) item.task).getBuilders())
+			{
+				String hostKey = TotalTestHostThrottle.getHostKey(builder);
+				if (hostKey != null && !TotalTestHostThrottle.get().isAvailable(hostKey))
+				{
+					return new HostBusy(hostKey);
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * The build waits for a busy host.
+	 */
+	private static final class HostBusy extends CauseOfBlockage
+	{
+		private final String hostKey;
+
+		HostBusy(final String hostKey)
+		{
+			this.hostKey = hostKey;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see hudson.model.queue.CauseOfBlockage#getShortDescription()
+		 */
+		@Override
+		public String getShortDescription()
+		{
+			return Messages.hostBusy(hostKey);
+		}
+	}
+}
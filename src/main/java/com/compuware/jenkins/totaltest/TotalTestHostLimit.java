@@ -0,0 +1,157 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import org.apache.commons.lang.StringUtils;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.QueryParameter;
+
+import com.compuware.jenkins.common.configuration.CpwrGlobalConfiguration;
+import com.compuware.jenkins.common.configuration.HostConnection;
+
+import hudson.Extension;
+import hudson.model.AbstractDescribableImpl;
+import hudson.model.Descriptor;
+import hudson.util.FormValidation;
+import hudson.util.ListBoxModel;
+import hudson.util.ListBoxModel.Option;
+import jenkins.model.Jenkins;
+
+/**
+ * The number of concurrent Total Test CLI runs allowed on a host connection.
+ */
+public class TotalTestHostLimit extends AbstractDescribableImpl<TotalTestHostLimit>
+{
+	private final String connectionId;
+	private final int permits;
+
+	/**
+	 * Constructor
+	 *
+	 * @param connectionId
+	 * 			  The host connection ID.
+	 * @param permits
+	 * 			  The number of concurrent runs, 0 for no limit.
+	 */
+	@DataBoundConstructor
+	public TotalTestHostLimit(final String connectionId, final int permits)
+	{
+		this.connectionId = StringUtils.trimToEmpty(connectionId);
+		this.permits = Math.max(permits, 0);
+	}
+
+	/**
+	 * Returns the host connection ID.
+	 *
+	 * @return the host connection ID
+	 */
+	public String getConnectionId()
+	{
+		return connectionId;
+	}
+
+	/**
+	 * Returns the number of concurrent runs allowed on the host connection.
+	 *
+	 * @return the number of runs, 0 for no limit
+	 */
+	public int getPermits()
+	{
+		return permits;
+	}
+
+	/**
+	 * Validates a number of concurrent runs.
+	 *
+	 * @param value
+	 * 			  The number of runs.
+	 * @return validation message
+	 */
+	static FormValidation checkPermits(final String value)
+	{
+		try
+		{
+			if (Integer.parseInt(StringUtils.trimToEmpty(value)) >= 0)
+			{
+				return FormValidation.ok();
+			}
+		}
+		catch (NumberFormatException e)
+		{
+			// Reported below.
+		}
+
+		return FormValidation.error(Messages.checkHostPermitsError());
+	}
+
+	/**
+	 * Descriptor for {@link TotalTestHostLimit}.
+	 */
+	@Extension
+	public static final class DescriptorImpl extends Descriptor<TotalTestHostLimit>
+	{
+		/**
+		 * Fills in the Host Connection selection box.
+		 *
+		 * @param connectionId
+		 * 			  an existing host connection identifier; can be null
+		 * @return host connection selections
+		 */
+		public ListBoxModel doFillConnectionIdItems(@QueryParameter final String connectionId)
+		{
+			Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+
+			ListBoxModel model = new ListBoxModel();
+			model.add(new Option(StringUtils.EMPTY, StringUtils.EMPTY, false));
+
+			CpwrGlobalConfiguration globalConfig = CpwrGlobalConfiguration.get();
+			if (globalConfig != null)
+			{
+				for (HostConnection connection : globalConfig.getHostConnections())
+				{
+					boolean isSelected = connection.getConnectionId().equals(connectionId);
+					model.add(new Option(connection.getDescription() + " [" + connection.getHostPort() + ']', //$NON-NLS-1$
+							connection.getConnectionId(), isSelected));
+				}
+			}
+
+			return model;
+		}
+
+		/**
+		 * Validates the 'permits' field.
+		 *
+		 * @param value
+		 * 			  The number of runs.
+		 * @return validation message
+		 */
+		public FormValidation doCheckPermits(@QueryParameter final String value)
+		{
+			return checkPermits(value);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see hudson.model.Descriptor#getDisplayName()
+		 */
+		@Override
+		public String getDisplayName()
+		{
+			return Messages.hostLimit();
+		}
+	}
+}
@@ -0,0 +1,151 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.util.List;
+
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.interceptor.RequirePOST;
+
+import hudson.Extension;
+import hudson.model.ManagementLink;
+import hudson.security.Permission;
+import jenkins.model.Jenkins;
+
+/**
+ * The page of the Total Test host connections under Manage Jenkins, showing the current limit and queue of every host
+ * used by Total Test runs since Jenkins started, the high level qualifiers leased to running unit test runs and the
+ * qualifiers under which runs left temporary datasets to clean up.
+ */
+@Extension
+public class TotalTestHostManagementLink extends ManagementLink
+{
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.ManagementLink#getIconFileName()
+	 */
+	@Override
+	public String getIconFileName()
+	{
+		return "symbol-computer"; //$NON-NLS-1$
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.ManagementLink#getDisplayName()
+	 */
+	@Override
+	public String getDisplayName()
+	{
+		return Messages.hostManagement();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.ManagementLink#getDescription()
+	 */
+	@Override
+	public String getDescription()
+	{
+		return Messages.hostManagementDescription();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.ManagementLink#getUrlName()
+	 */
+	@Override
+	public String getUrlName()
+	{
+		return "totalTestHosts"; //$NON-NLS-1$
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.ManagementLink#getRequiredPermission()
+	 */
+	@Override
+	public Permission getRequiredPermission()
+	{
+		return Jenkins.SYSTEM_READ;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.ManagementLink#getCategory()
+	 */
+	@Override
+	public Category getCategory()
+	{
+		return Category.STATUS;
+	}
+
+	/**
+	 * Returns whether the limits of the hosts adapt to their runs.
+	 *
+	 * @return <code>true</code> if adaptive limits are enabled, otherwise <code>false</code>
+	 */
+	public boolean isAdaptiveLimits()
+	{
+		TotalTestGlobalConfiguration config = TotalTestGlobalConfiguration.get();
+		return config != null && config.isAdaptiveLimits();
+	}
+
+	/**
+	 * Returns the statistics of the hosts used by Total Test runs since Jenkins started.
+	 *
+	 * @return the statistics
+	 */
+	public List<TotalTestHostThrottle.HostStatistics> getHostStatistics()
+	{
+		return TotalTestHostThrottle.get().getStatistics();
+	}
+
+	/**
+	 * Returns the high level qualifiers leased to running unit test runs.
+	 *
+	 * @return the descriptions of the leases
+	 */
+	public List<String> getHlqLeases()
+	{
+		return TotalTestHlqLeases.get().getLeases();
+	}
+
+	/**
+	 * Returns the high level qualifiers under which runs left temporary datasets to clean up.
+	 *
+	 * @return the entries of the cleanup backlog
+	 */
+	public List<TotalTestCleanupBacklog.Entry> getCleanupBacklog()
+	{
+		return TotalTestCleanupBacklog.get().getEntries();
+	}
+
+	/**
+	 * Clears the cleanup backlog, once the temporary datasets were deleted on the host.
+	 *
+	 * @return a redirect to the page
+	 */
+	@RequirePOST
+	public HttpResponse doClearCleanupBacklog()
+	{
+		Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+		TotalTestCleanupBacklog.get().clear();
+		return HttpResponses.redirectToDot();
+	}
+}
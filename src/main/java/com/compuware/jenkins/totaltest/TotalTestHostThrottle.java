@@ -0,0 +1,602 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.lang.StringUtils;
+
+import hudson.model.TaskListener;
+import hudson.tasks.Builder;
+
+/**
+ * Limits the number of Total Test CLI runs that use the same host at once.
+ * <p>
+ * The number of runs allowed on a host comes from {@link TotalTestGlobalConfiguration}, or from the adaptive limit of
+ * the host when adaptive limits are enabled, see {@link TotalTestAdaptiveLimit}. Runs waiting for a host are served in
+ * the order they arrived. The throttle keeps the queue depth and wait time of every host, which are shown in
+ * the global configuration and logged.
+ */
+public final class TotalTestHostThrottle
+{
+	private static final Logger LOGGER = Logger.getLogger(TotalTestHostThrottle.class.getName());
+	private static final long RECHECK_INTERVAL = TimeUnit.SECONDS.toMillis(5);
+	private static final TotalTestHostThrottle INSTANCE = new TotalTestHostThrottle();
+
+	private final Map<String, Host> hosts = new TreeMap<>();
+
+	/**
+	 * Constructor
+	 */
+	private TotalTestHostThrottle()
+	{
+	}
+
+	/**
+	 * Returns the controller wide host throttle.
+	 *
+	 * @return the throttle
+	 */
+	public static TotalTestHostThrottle get()
+	{
+		return INSTANCE;
+	}
+
+	/**
+	 * Returns the key of the host used by a Total Test build step.
+	 *
+	 * @param builder
+	 * 			  The build step.
+	 * @return the host connection ID, or the host and port when the step does not use a host connection,
+	 *         <code>null</code> if the step is not a Total Test step or the host is not known
+	 */
+	public static String getHostKey(final Builder builder)
+	{
+		String hostKey = null;
+		if (builder instanceof TotalTestBuilder)
+		{
+			TotalTestBuilder tttBuilder = (TotalTestBuilder) builder;
+			hostKey = StringUtils.isNotBlank(tttBuilder.getConnectionId()) ? tttBuilder.getConnectionId() : tttBuilder.getHostPort(); //NOSONAR
+		}
+		else if (builder instanceof TotalTestCTBuilder)
+		{
+			TotalTestCTBuilder tttBuilder = (TotalTestCTBuilder) builder;
+			if (!tttBuilder.isSelectEnvironmentId() && tttBuilder.isSelectHostConnection())
+			{
+				hostKey = tttBuilder.getConnectionId();
+			}
+		}
+
+		return StringUtils.trimToNull(hostKey);
+	}
+
+	/**
+	 * Waits until the given host allows one more CLI run.
+	 * <p>
+	 * The wait, the queue depth and the number of running runs are written to the build log.
+	 *
+	 * @param hostKey
+	 * 			  The key of the host, <code>null</code> does not limit the run.
+	 * @param jobKey
+	 * 			  The full name of the job of the run, which keys the baseline duration of adaptive limits.
+	 * @param listener
+	 * 			  Build listener
+	 * @return the permit of the run, to be closed when the run ends
+	 * @throws InterruptedException
+	 * 			  if the build was aborted while waiting
+	 */
+	public Permit acquire(final String hostKey, final String jobKey, final TaskListener listener) throws InterruptedException
+	{
+		if (hostKey == null || getPermits(hostKey) <= 0)
+		{
+			return new Permit(null, jobKey);
+		}
+
+		long start = System.currentTimeMillis();
+		Object ticket = new Object();
+		Host host;
+		synchronized (this)
+		{
+			host = getHost(hostKey);
+			host.waiting.addLast(ticket);
+			host.maxQueueDepth = Math.max(host.maxQueueDepth, host.waiting.size());
+
+			int permits = getPermits(hostKey);
+			if (!host.isNext(ticket, permits))
+			{
+				listener.getLogger().println("Waiting for host connection " + hostKey + ": " + (host.waiting.size() - 1) //$NON-NLS-1$ //$NON-NLS-2$
+						+ " run(s) waiting ahead, " + host.running + " of " + permits + " run(s) in progress"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+
+			try
+			{
+				while (!host.isNext(ticket, permits))
+				{
+					wait(RECHECK_INTERVAL);
+
+					// The limit may have been changed in the global configuration while waiting.
+					permits = getPermits(hostKey);
+				}
+			}
+			catch (InterruptedException e)
+			{
+				host.waiting.remove(ticket);
+				notifyAll();
+				throw e;
+			}
+
+			host.waiting.removeFirst();
+			host.running++;
+
+			long waited = System.currentTimeMillis() - start;
+			host.acquired++;
+			host.totalWaitMillis += waited;
+			host.maxWaitMillis = Math.max(host.maxWaitMillis, waited);
+			notifyAll();
+
+			listener.getLogger().println("Acquired host connection " + hostKey + " after " + waited + " ms, " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					+ host.running + " of " + permits + " run(s) in progress, " + host.waiting.size() + " run(s) waiting"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			LOGGER.log(Level.FINE, "Host {0}: waited {1} ms, {2} running, {3} waiting", //$NON-NLS-1$
+					new Object[] { hostKey, waited, host.running, host.waiting.size() });
+		}
+
+		return new Permit(host, jobKey);
+	}
+
+	/**
+	 * Counts a run that is already running on the given host, without waiting, for example a durable run found again
+	 * after Jenkins restarted. The duration of the run is not known, so its outcome does not adjust the adaptive limit.
+	 *
+	 * @param hostKey
+	 * 			  The key of the host, <code>null</code> does not limit the run.
+	 * @param jobKey
+	 * 			  The full name of the job of the run.
+	 * @return the permit of the run, to be closed when the run ends
+	 */
+	public synchronized Permit reattach(final String hostKey, final String jobKey)
+	{
+		if (hostKey == null || getPermits(hostKey) <= 0)
+		{
+			return new Permit(null, jobKey);
+		}
+
+		Host host = getHost(hostKey);
+		host.running++;
+		Permit permit = new Permit(host, jobKey);
+		permit.reattached = true;
+
+		return permit;
+	}
+
+	/**
+	 * Returns whether a run on the given host could start without waiting.
+	 *
+	 * @param hostKey
+	 * 			  The key of the host.
+	 * @return <code>true</code> if the host is not limited or has a free permit and no waiting run, otherwise
+	 *         <code>false</code>
+	 */
+	public synchronized boolean isAvailable(final String hostKey)
+	{
+		int permits = hostKey != null ? getPermits(hostKey) : 0;
+		if (permits <= 0)
+		{
+			return true;
+		}
+
+		Host host = hosts.get(hostKey);
+		return host == null || (host.waiting.isEmpty() && host.running < permits);
+	}
+
+	/**
+	 * Returns the statistics of the hosts used since Jenkins started.
+	 *
+	 * @return the statistics, by host key
+	 */
+	public synchronized List<HostStatistics> getStatistics()
+	{
+		List<HostStatistics> statistics = new ArrayList<>(hosts.size());
+		for (Host host : hosts.values())
+		{
+			statistics.add(new HostStatistics(host, getPermits(host.key), isAdaptive()));
+		}
+
+		return statistics;
+	}
+
+	/**
+	 * Releases a permit and adjusts the adaptive limit of its host with the outcome of the run.
+	 *
+	 * @param permit
+	 * 			  The permit.
+	 */
+	private synchronized void release(final Permit permit)
+	{
+		Host host = permit.host;
+		boolean saturated = host.running >= getPermits(host.key) || !host.waiting.isEmpty();
+		host.running--;
+
+		TotalTestGlobalConfiguration config = TotalTestGlobalConfiguration.get();
+		if (config != null && config.isAdaptiveLimits() && !permit.reattached && (permit.completed || permit.hostFailed))
+		{
+			int before = getPermits(host.key);
+			host.limit.onRunEnded(permit.jobKey, permit.startTime, System.currentTimeMillis() - permit.startTime, permit.hostFailed,
+					saturated, config.getAdaptiveMinPermits(), config.getAdaptiveMaxPermits());
+			int after = getPermits(host.key);
+			if (before != after)
+			{
+				LOGGER.log(Level.INFO, "Host {0}: adaptive limit {1} -> {2}, {3}", //$NON-NLS-1$
+						new Object[] { host.key, before, after, host.limit.getLastAdjustment() });
+			}
+		}
+
+		notifyAll();
+	}
+
+	/**
+	 * Returns the runs of the given host, starting its adaptive limit from its configured limit.
+	 *
+	 * @param hostKey
+	 * 			  The key of the host.
+	 * @return the runs of the host
+	 */
+	private synchronized Host getHost(final String hostKey)
+	{
+		Host host = hosts.get(hostKey);
+		if (host == null)
+		{
+			TotalTestGlobalConfiguration config = TotalTestGlobalConfiguration.get();
+			int initialLimit = config != null ? config.getHostPermits(hostKey) : 0;
+			if (initialLimit <= 0 && config != null)
+			{
+				initialLimit = config.getAdaptiveMaxPermits();
+			}
+
+			host = new Host(hostKey, initialLimit);
+			hosts.put(hostKey, host);
+		}
+
+		return host;
+	}
+
+	/**
+	 * Returns the number of runs allowed on the given host.
+	 *
+	 * @param hostKey
+	 * 			  The key of the host.
+	 * @return the number of runs, 0 for no limit
+	 */
+	private synchronized int getPermits(final String hostKey)
+	{
+		TotalTestGlobalConfiguration config = TotalTestGlobalConfiguration.get();
+		if (config == null)
+		{
+			return 0;
+		}
+		else if (config.isAdaptiveLimits())
+		{
+			return getHost(hostKey).limit.getLimit(config.getAdaptiveMinPermits(), config.getAdaptiveMaxPermits());
+		}
+		else
+		{
+			return config.getHostPermits(hostKey);
+		}
+	}
+
+	/**
+	 * Returns whether the limits of the hosts adapt to their runs.
+	 *
+	 * @return <code>true</code> if adaptive limits are enabled, otherwise <code>false</code>
+	 */
+	private static boolean isAdaptive()
+	{
+		TotalTestGlobalConfiguration config = TotalTestGlobalConfiguration.get();
+		return config != null && config.isAdaptiveLimits();
+	}
+
+	/**
+	 * The permit of a run, which must be closed when the run ends.
+	 */
+	public final class Permit implements AutoCloseable
+	{
+		private Host host;
+		private final String jobKey;
+		private long startTime = System.currentTimeMillis();
+		private boolean completed;
+		private boolean hostFailed;
+		private boolean reattached;
+
+		/**
+		 * Constructor
+		 *
+		 * @param host
+		 * 			  The host of the permit, <code>null</code> for a run that is not limited.
+		 * @param jobKey
+		 * 			  The full name of the job of the run.
+		 */
+		private Permit(final Host host, final String jobKey)
+		{
+			this.host = host;
+			this.jobKey = jobKey;
+		}
+
+		/**
+		 * Records that the run ended without an error, whatever its test results, so its duration counts for the
+		 * adaptive limit of the host. A permit closed without an outcome, for example after a configuration error or an
+		 * abort, does not change the adaptive limit.
+		 */
+		public void completed()
+		{
+			completed = true;
+		}
+
+		/**
+		 * Records that the run failed to connect to the host or the host failed, which counts as a failed run for the
+		 * adaptive limit of the host, whatever else happens to the run.
+		 */
+		public void hostFailed()
+		{
+			hostFailed = true;
+		}
+
+		/**
+		 * Waits without holding the host, for example for the backoff before a retry. The permit is released with the
+		 * outcome recorded so far and acquired again, with a new outcome, once the wait is over.
+		 *
+		 * @param millis
+		 * 			  The time to wait in milliseconds.
+		 * @param listener
+		 * 			  Build listener
+		 * @throws InterruptedException
+		 * 			  if the build was aborted while waiting, the permit is then released
+		 */
+		public void pause(final long millis, final TaskListener listener) throws InterruptedException
+		{
+			if (host == null)
+			{
+				Thread.sleep(millis);
+				return;
+			}
+
+			String hostKey = host.key;
+			close();
+			Thread.sleep(millis);
+
+			Permit again = acquire(hostKey, jobKey, listener);
+			host = again.host;
+			startTime = again.startTime;
+			completed = false;
+			hostFailed = false;
+			reattached = false;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.AutoCloseable#close()
+		 */
+		@Override
+		public void close()
+		{
+			if (host != null)
+			{
+				release(this);
+				host = null;
+			}
+		}
+	}
+
+	/**
+	 * The runs of a host. Guarded by the throttle.
+	 */
+	private static final class Host
+	{
+		private final String key;
+		private final TotalTestAdaptiveLimit limit;
+		private final Deque<Object> waiting = new ArrayDeque<>();
+		private int running;
+		private int maxQueueDepth;
+		private long acquired;
+		private long totalWaitMillis;
+		private long maxWaitMillis;
+
+		Host(final String key, final int initialLimit)
+		{
+			this.key = key;
+			this.limit = new TotalTestAdaptiveLimit(initialLimit);
+		}
+
+		boolean isNext(final Object ticket, final int permits)
+		{
+			return waiting.peekFirst() == ticket && (permits <= 0 || running < permits);
+		}
+	}
+
+	/**
+	 * A snapshot of the statistics of a host.
+	 */
+	public static final class HostStatistics
+	{
+		private final String hostKey;
+		private final int permits;
+		private final int running;
+		private final int waiting;
+		private final int maxQueueDepth;
+		private final long acquired;
+		private final long averageWaitMillis;
+		private final long maxWaitMillis;
+		private final boolean adaptive;
+		private final long successes;
+		private final long slowRuns;
+		private final long failures;
+		private final String lastAdjustment;
+
+		HostStatistics(final Host host, final int permits, final boolean adaptive)
+		{
+			this.hostKey = host.key;
+			this.permits = permits;
+			this.running = host.running;
+			this.waiting = host.waiting.size();
+			this.maxQueueDepth = host.maxQueueDepth;
+			this.acquired = host.acquired;
+			this.averageWaitMillis = host.acquired > 0 ? host.totalWaitMillis / host.acquired : 0;
+			this.maxWaitMillis = host.maxWaitMillis;
+			this.adaptive = adaptive;
+			this.successes = host.limit.getSuccesses();
+			this.slowRuns = host.limit.getSlowRuns();
+			this.failures = host.limit.getFailures();
+			this.lastAdjustment = host.limit.getLastAdjustment();
+		}
+
+		/**
+		 * Returns the key of the host.
+		 *
+		 * @return the key of the host
+		 */
+		public String getHostKey()
+		{
+			return hostKey;
+		}
+
+		/**
+		 * Returns the number of runs allowed on the host, 0 for no limit.
+		 *
+		 * @return the number of runs allowed on the host, 0 for no limit
+		 */
+		public int getPermits()
+		{
+			return permits;
+		}
+
+		/**
+		 * Returns the number of runs in progress.
+		 *
+		 * @return the number of runs in progress
+		 */
+		public int getRunning()
+		{
+			return running;
+		}
+
+		/**
+		 * Returns the number of runs waiting for the host.
+		 *
+		 * @return the number of runs waiting for the host
+		 */
+		public int getWaiting()
+		{
+			return waiting;
+		}
+
+		/**
+		 * Returns the highest number of runs that waited for the host at once.
+		 *
+		 * @return the highest number of runs that waited for the host at once
+		 */
+		public int getMaxQueueDepth()
+		{
+			return maxQueueDepth;
+		}
+
+		/**
+		 * Returns the number of runs that used the host.
+		 *
+		 * @return the number of runs that used the host
+		 */
+		public long getAcquired()
+		{
+			return acquired;
+		}
+
+		/**
+		 * Returns the average wait of the runs, in milliseconds.
+		 *
+		 * @return the average wait of the runs, in milliseconds
+		 */
+		public long getAverageWaitMillis()
+		{
+			return averageWaitMillis;
+		}
+
+		/**
+		 * Returns the longest wait of a run, in milliseconds.
+		 *
+		 * @return the longest wait of a run, in milliseconds
+		 */
+		public long getMaxWaitMillis()
+		{
+			return maxWaitMillis;
+		}
+
+		/**
+		 * Returns whether the number of runs allowed on the host adapts to its runs.
+		 *
+		 * @return <code>true</code> if the limit is adaptive, otherwise <code>false</code>
+		 */
+		public boolean isAdaptive()
+		{
+			return adaptive;
+		}
+
+		/**
+		 * Returns the number of runs that ended in time, for the adaptive limit.
+		 *
+		 * @return the number of runs that ended in time
+		 */
+		public long getSuccesses()
+		{
+			return successes;
+		}
+
+		/**
+		 * Returns the number of runs slower than the baseline of their job, for the adaptive limit.
+		 *
+		 * @return the number of slow runs
+		 */
+		public long getSlowRuns()
+		{
+			return slowRuns;
+		}
+
+		/**
+		 * Returns the number of runs that ended with an error, for the adaptive limit.
+		 *
+		 * @return the number of failed runs
+		 */
+		public long getFailures()
+		{
+			return failures;
+		}
+
+		/**
+		 * Returns the last change of the adaptive limit.
+		 *
+		 * @return the description of the change, or <code>null</code> if the limit did not change yet
+		 */
+		public String getLastAdjustment()
+		{
+			return lastAdjustment;
+		}
+	}
+}
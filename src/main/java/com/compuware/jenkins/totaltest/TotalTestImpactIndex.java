@@ -0,0 +1,689 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import hudson.FilePath;
+import hudson.Util;
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+import net.sf.json.JSON;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+import net.sf.json.JSONSerializer;
+
+/**
+ * Keeps an index of the programs referenced by the test files of a folder on each node.
+ * <p>
+ * The index maps the <code>.context</code>, <code>.scenario</code> and <code>.testscenario</code> files of a folder to
+ * the program names and test files they reference, and is kept per folder under the node's <code>caches</code>
+ * directory. A file is only read again when its timestamp or size changed, and only parsed again when its content hash
+ * changed, so a build does not need to scan every test file of the folder to find the ones impacted by a change.
+ * <p>
+ * A program name is any attribute value, JSON value or element text that is a single name of at most 8 characters, so
+ * the index errs on the side of running a test file. A scenario in which no program name is found at all is always
+ * counted as impacted, so a reference the pattern misses never drops its tests.
+ * <p>
+ * The impacted test files are run through the narrowest folder holding all of them, one folder per CLI invocation, and
+ * the CLI still selects the programs itself.
+ */
+public class TotalTestImpactIndex
+{
+	private static final String CACHES_FOLDER = "caches"; //$NON-NLS-1$
+	private static final String CACHE_FOLDER = "totaltest-impact-index"; //$NON-NLS-1$
+	private static final String INDEX_EXTENSION = ".idx"; //$NON-NLS-1$
+	private static final String LOCK_EXTENSION = ".lock"; //$NON-NLS-1$
+	private static final String TEMP_EXTENSION = ".tmp"; //$NON-NLS-1$
+	private static final int FORMAT_VERSION = 1;
+
+	private static final String CONTEXT_EXTENSION = ".context"; //$NON-NLS-1$
+	private static final String SCENARIO_EXTENSION = ".scenario"; //$NON-NLS-1$
+	private static final String TEST_SCENARIO_EXTENSION = ".testscenario"; //$NON-NLS-1$
+	private static final Pattern PROGRAM_VALUE = Pattern.compile("[=:>]\\s*\"?([A-Za-z0-9@#$]{1,8})[\"<]"); //$NON-NLS-1$
+	private static final Pattern TEST_FILE_REFERENCE = Pattern.compile("([^\\s\"'<>=:/\\\\]+\\.(?:testscenario|scenario|context))\\b", //$NON-NLS-1$
+			Pattern.CASE_INSENSITIVE);
+	private static final String PROGRAM_NAME_KEY = "programName"; //$NON-NLS-1$
+	private static final String PROGRAMS_KEY = "programs"; //$NON-NLS-1$
+
+	/** The index files being updated in this JVM, a file lock does not guard against the own JVM. */
+	private static final Map<String, Object> LOCKS = new ConcurrentHashMap<>();
+
+	private final FilePath cacheRoot;
+	private final TaskListener listener;
+
+	/**
+	 * Constructor
+	 *
+	 * @param cacheRoot
+	 *            The directory of the indexes on the node, or <code>null</code> if the node has no root directory.
+	 * @param listener
+	 *            Build listener
+	 */
+	TotalTestImpactIndex(final FilePath cacheRoot, final TaskListener listener)
+	{
+		this.cacheRoot = cacheRoot;
+		this.listener = listener;
+	}
+
+	/**
+	 * Creates an impact index for the node of the given workspace.
+	 *
+	 * @param workspaceFilePath
+	 *            The job workspace.
+	 * @param listener
+	 *            Build listener
+	 *
+	 * @return an instance of <code>TotalTestImpactIndex</code>
+	 */
+	public static TotalTestImpactIndex forWorkspace(final FilePath workspaceFilePath, final TaskListener listener)
+	{
+		FilePath cacheRoot = null;
+
+		Computer computer = workspaceFilePath.toComputer();
+		Node node = computer != null ? computer.getNode() : null;
+		FilePath rootPath = node != null ? node.getRootPath() : null;
+		if (rootPath != null)
+		{
+			cacheRoot = rootPath.child(CACHES_FOLDER).child(CACHE_FOLDER);
+		}
+
+		return new TotalTestImpactIndex(cacheRoot, listener);
+	}
+
+	/**
+	 * Returns the programs selected in the "Select programs" option of a Functional Test step.
+	 * <p>
+	 * For a JSON file, the values of the <code>programName</code> keys are the programs.
+	 *
+	 * @param tttBuilder
+	 *            The configuration of the run.
+	 * @param workspaceFilePath
+	 *            The job workspace, which JSON file paths are relative to.
+	 * @param listener
+	 *            Build listener
+	 *
+	 * @return the upper case program names, or <code>null</code> if no programs are selected or they could not be read
+	 *
+	 * @throws InterruptedException
+	 *             If reading the JSON file was interrupted.
+	 */
+	public static Set<String> getSelectedPrograms(final TotalTestCTBuilder tttBuilder, final FilePath workspaceFilePath,
+			final TaskListener listener) throws InterruptedException
+	{
+		if (!tttBuilder.getSelectProgramsOption())
+		{
+			return null;
+		}
+
+		String text = Util.fixEmptyAndTrim(tttBuilder.getselectProgramsRadioText());
+		if (tttBuilder.isSelectProgramsList())
+		{
+			if (text == null)
+			{
+				return null;
+			}
+
+			Set<String> programs = new TreeSet<>();
+			for (String program : text.replace("\"", "").split("[,\\s]+")) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			{
+				if (!program.isEmpty())
+				{
+					programs.add(program.toUpperCase(Locale.ROOT));
+				}
+			}
+
+			return programs;
+		}
+
+		FilePath jsonFile = workspaceFilePath.child(text != null ? text : TotalTestCTBuilder.defaultLocalConfigLocation);
+		try
+		{
+			if (!jsonFile.exists())
+			{
+				return null;
+			}
+
+			Set<String> programs = new TreeSet<>();
+			return collectPrograms(JSONSerializer.toJSON(jsonFile.readToString()), programs) ? programs : null;
+		}
+		catch (IOException | JSONException e)
+		{
+			listener.getLogger().println("Unable to read the programs from " + jsonFile.getRemote() + ": " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the test files of a folder that reference one of the given programs, directly or through other test
+	 * files, after bringing the index of the folder up to date.
+	 *
+	 * @param folder
+	 *            The folder of the test files.
+	 * @param recursive
+	 *            <code>true</code> to include the sub folders.
+	 * @param programs
+	 *            The upper case program names.
+	 * @param scenariosOnly
+	 *            <code>true</code> to return the <code>.scenario</code> files only, otherwise the <code>.context</code>
+	 *            and <code>.scenario</code> files are returned.
+	 *
+	 * @return the selection, or <code>null</code> to run the whole folder, when the index is not available, empty or
+	 *         could not read every test file of the folder
+	 *
+	 * @throws InterruptedException
+	 *             If the update was interrupted.
+	 */
+	public Selection select(final FilePath folder, final boolean recursive, final Collection<String> programs,
+			final boolean scenariosOnly) throws InterruptedException
+	{
+		if (cacheRoot == null)
+		{
+			return null;
+		}
+
+		try
+		{
+			Selection selection = cacheRoot.act(new Select(folder.getRemote(), recursive, new HashSet<>(programs), scenariosOnly));
+			listener.getLogger().println("Total Test impact index: " + selection.indexed + " test file(s), " + selection.parsed //$NON-NLS-1$ //$NON-NLS-2$
+					+ " parsed again, " + selection.files.size() + " impacted by " + programs.size() + " program(s)"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			if (selection.indexed == 0 || selection.unreadable > 0)
+			{
+				// Only an index of every test file proves that nothing is impacted.
+				listener.getLogger().println("The Total Test impact index is empty or could not read " + selection.unreadable //$NON-NLS-1$
+						+ " test file(s), running the folder"); //$NON-NLS-1$
+				return null;
+			}
+
+			return selection;
+		}
+		catch (IOException e)
+		{
+			listener.getLogger().println("Unable to use the Total Test impact index: " + e.getMessage()); //$NON-NLS-1$
+			return null;
+		}
+	}
+
+	/**
+	 * Collects the values of the <code>programName</code> keys of a JSON document.
+	 *
+	 * @param json
+	 *            The JSON document.
+	 * @param programs
+	 *            The upper case program names found.
+	 *
+	 * @return <code>true</code> if the document lists programs, even none, otherwise <code>false</code>
+	 */
+	private static boolean collectPrograms(final Object json, final Set<String> programs)
+	{
+		boolean found = false;
+		if (json instanceof JSONObject)
+		{
+			JSONObject object = (JSONObject) json;
+			for (Object key : object.keySet())
+			{
+				Object value = object.get(key);
+				if (PROGRAM_NAME_KEY.equalsIgnoreCase(key.toString()) && value instanceof String)
+				{
+					programs.add(((String) value).trim().toUpperCase(Locale.ROOT));
+					found = true;
+				}
+				else
+				{
+					found |= PROGRAMS_KEY.equalsIgnoreCase(key.toString()) && value instanceof JSONArray;
+					found |= value instanceof JSON && collectPrograms(value, programs);
+				}
+			}
+		}
+		else if (json instanceof JSONArray)
+		{
+			for (Object value : (JSONArray) json)
+			{
+				found |= collectPrograms(value, programs);
+			}
+		}
+
+		return found;
+	}
+
+	/**
+	 * The test files referencing the programs, with the figures of the index update.
+	 */
+	static final class Selection implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final List<String> files;
+		private final String folder;
+		private final int indexed;
+		private final int parsed;
+		private final int unreadable;
+
+		Selection(final List<String> files, final String folder, final int indexed, final int parsed, final int unreadable)
+		{
+			this.files = files;
+			this.folder = folder;
+			this.indexed = indexed;
+			this.parsed = parsed;
+			this.unreadable = unreadable;
+		}
+
+		/**
+		 * Returns the impacted test files.
+		 *
+		 * @return the absolute paths of the files, empty if no test file is impacted
+		 */
+		List<String> getFiles()
+		{
+			return files;
+		}
+
+		/**
+		 * Returns the narrowest folder holding all the impacted test files.
+		 *
+		 * @return the path relative to the selected folder, with '/' separators, empty for the selected folder itself
+		 */
+		String getFolder()
+		{
+			return folder;
+		}
+	}
+
+	/**
+	 * The references of a test file.
+	 */
+	private static final class Entry
+	{
+		private long lastModified;
+		private long size;
+		private String hash;
+		private Set<String> programs;
+		private Set<String> references;
+	}
+
+	/**
+	 * Brings the index of a folder up to date and selects the test files impacted by the programs.
+	 */
+	private static final class Select extends MasterToSlaveFileCallable<Selection>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String folder;
+		private final boolean recursive;
+		private final Set<String> programs;
+		private final boolean scenariosOnly;
+
+		Select(final String folder, final boolean recursive, final Set<String> programs, final boolean scenariosOnly)
+		{
+			this.folder = folder;
+			this.recursive = recursive;
+			this.programs = programs;
+			this.scenariosOnly = scenariosOnly;
+		}
+
+		@Override
+		public Selection invoke(File cacheRoot, VirtualChannel channel) throws IOException, InterruptedException
+		{
+			Path root = new File(folder).getAbsoluteFile().toPath().normalize();
+			if (!Files.isDirectory(root))
+			{
+				throw new IOException(root + " is not a folder"); //$NON-NLS-1$
+			}
+
+			Files.createDirectories(cacheRoot.toPath());
+			String key = Util.getDigestOf(root + (recursive ? "|R" : "")); //$NON-NLS-1$ //$NON-NLS-2$
+			File indexFile = new File(cacheRoot, key + INDEX_EXTENSION);
+
+			Map<String, Entry> entries;
+			int[] counts;
+			synchronized (LOCKS.computeIfAbsent(indexFile.getPath(), k -> new Object()))
+			{
+				try (RandomAccessFile lockFile = new RandomAccessFile(new File(cacheRoot, key + LOCK_EXTENSION), "rw"); //$NON-NLS-1$
+						FileLock lock = lockFile.getChannel().lock())
+				{
+					entries = read(indexFile, root);
+					counts = update(root, entries);
+					write(indexFile, root, entries);
+				}
+			}
+
+			List<String> impacted = select(root, entries);
+			return new Selection(impacted, getCommonFolder(root, impacted), entries.size(), counts[0], counts[1]);
+		}
+
+		/**
+		 * Updates the entries from the test files of the folder.
+		 *
+		 * @return the number of test files parsed and the number of test files that could not be read
+		 */
+		private int[] update(final Path root, final Map<String, Entry> entries) throws IOException
+		{
+			Set<String> found = new HashSet<>();
+			int[] counts = new int[2];
+			MessageDigest digest = getDigest();
+			Files.walkFileTree(root, EnumSet.noneOf(FileVisitOption.class), recursive ? Integer.MAX_VALUE : 1,
+					new SimpleFileVisitor<Path>()
+					{
+						@Override
+						public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+						{
+							Path name = dir.getFileName();
+							return !dir.equals(root) && name != null && TotalTestCTRunner.PRUNED_FOLDERS.contains(name.toString())
+									? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+						}
+
+						@Override
+						public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException
+						{
+							if (!attrs.isRegularFile() || !isTestFile(file.getFileName().toString()))
+							{
+								return FileVisitResult.CONTINUE;
+							}
+
+							String path = root.relativize(file).toString();
+							found.add(path);
+
+							Entry entry = entries.get(path);
+							long lastModified = attrs.lastModifiedTime().toMillis();
+							if (entry != null && entry.lastModified == lastModified && entry.size == attrs.size())
+							{
+								return FileVisitResult.CONTINUE;
+							}
+
+							byte[] content = Files.readAllBytes(file);
+							String hash = Util.toHexString(digest.digest(content));
+							if (entry == null || !hash.equals(entry.hash))
+							{
+								entry = parse(new String(content, StandardCharsets.ISO_8859_1));
+								entry.hash = hash;
+								entries.put(path, entry);
+								counts[0]++;
+							}
+
+							entry.lastModified = lastModified;
+							entry.size = attrs.size();
+							return FileVisitResult.CONTINUE;
+						}
+
+						@Override
+						public FileVisitResult visitFileFailed(Path file, IOException exc)
+						{
+							if (isTestFile(file.getFileName().toString()))
+							{
+								counts[1]++;
+							}
+
+							return FileVisitResult.CONTINUE;
+						}
+					});
+
+			entries.keySet().retainAll(found);
+			return counts;
+		}
+
+		/**
+		 * Returns the narrowest folder holding all the given files.
+		 *
+		 * @return the path relative to the root, with '/' separators, empty for the root itself
+		 */
+		private static String getCommonFolder(final Path root, final List<String> files)
+		{
+			Path common = null;
+			for (String file : files)
+			{
+				Path parent = root.relativize(Path.of(file)).getParent();
+				if (parent == null)
+				{
+					return ""; //$NON-NLS-1$
+				}
+
+				if (common == null)
+				{
+					common = parent;
+				}
+				else
+				{
+					while (common != null && !parent.startsWith(common))
+					{
+						common = common.getParent();
+					}
+
+					if (common == null)
+					{
+						return ""; //$NON-NLS-1$
+					}
+				}
+			}
+
+			return common != null ? common.toString().replace(File.separatorChar, '/') : ""; //$NON-NLS-1$
+		}
+
+		/**
+		 * Selects the test files referencing the programs, directly or through other test files.
+		 */
+		private List<String> select(final Path root, final Map<String, Entry> entries)
+		{
+			Set<String> impacted = new HashSet<>();
+			Set<String> impactedNames = new HashSet<>();
+			for (Map.Entry<String, Entry> entry : entries.entrySet())
+			{
+				// A scenario without any program name found is not proven to be unaffected.
+				if (!Collections.disjoint(entry.getValue().programs, programs)
+						|| (entry.getValue().programs.isEmpty() && !entry.getKey().toLowerCase(Locale.ROOT).endsWith(CONTEXT_EXTENSION)))
+				{
+					impacted.add(entry.getKey());
+					impactedNames.add(getName(entry.getKey()));
+				}
+			}
+
+			boolean added = !impacted.isEmpty();
+			while (added)
+			{
+				added = false;
+				for (Map.Entry<String, Entry> entry : entries.entrySet())
+				{
+					if (!impacted.contains(entry.getKey()) && !Collections.disjoint(entry.getValue().references, impactedNames))
+					{
+						impacted.add(entry.getKey());
+						impactedNames.add(getName(entry.getKey()));
+						added = true;
+					}
+				}
+			}
+
+			List<String> files = new ArrayList<>();
+			for (String path : new TreeSet<>(impacted))
+			{
+				String name = path.toLowerCase(Locale.ROOT);
+				if (name.endsWith(SCENARIO_EXTENSION) || (!scenariosOnly && name.endsWith(CONTEXT_EXTENSION)))
+				{
+					files.add(root.resolve(path).toString());
+				}
+			}
+
+			return files;
+		}
+
+		private static boolean isTestFile(final String name)
+		{
+			String lowerCaseName = name.toLowerCase(Locale.ROOT);
+			return lowerCaseName.endsWith(CONTEXT_EXTENSION) || lowerCaseName.endsWith(SCENARIO_EXTENSION)
+					|| lowerCaseName.endsWith(TEST_SCENARIO_EXTENSION);
+		}
+
+		private static String getName(final String path)
+		{
+			return new File(path).getName().toLowerCase(Locale.ROOT);
+		}
+
+		private static Entry parse(final String content)
+		{
+			Entry entry = new Entry();
+			entry.programs = new HashSet<>();
+			entry.references = new HashSet<>();
+
+			Matcher matcher = PROGRAM_VALUE.matcher(content);
+			while (matcher.find())
+			{
+				entry.programs.add(matcher.group(1).toUpperCase(Locale.ROOT));
+			}
+
+			matcher = TEST_FILE_REFERENCE.matcher(content);
+			while (matcher.find())
+			{
+				entry.references.add(matcher.group(1).toLowerCase(Locale.ROOT));
+			}
+
+			return entry;
+		}
+
+		private static MessageDigest getDigest() throws IOException
+		{
+			try
+			{
+				return MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+			}
+			catch (NoSuchAlgorithmException e)
+			{
+				throw new IOException(e);
+			}
+		}
+
+		/**
+		 * Reads an index, an unreadable index or the index of another format is rebuilt.
+		 */
+		private static Map<String, Entry> read(final File indexFile, final Path root)
+		{
+			Map<String, Entry> entries = new HashMap<>();
+			if (!indexFile.isFile())
+			{
+				return entries;
+			}
+
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile))))
+			{
+				if (in.readInt() != FORMAT_VERSION || !in.readUTF().equals(root.toString()))
+				{
+					return entries;
+				}
+
+				int count = in.readInt();
+				for (int i = 0; i < count; i++)
+				{
+					String path = in.readUTF();
+					Entry entry = new Entry();
+					entry.lastModified = in.readLong();
+					entry.size = in.readLong();
+					entry.hash = in.readUTF();
+					entry.programs = readSet(in);
+					entry.references = readSet(in);
+					entries.put(path, entry);
+				}
+			}
+			catch (IOException e)
+			{
+				entries.clear();
+			}
+
+			return entries;
+		}
+
+		private static Set<String> readSet(final DataInputStream in) throws IOException
+		{
+			int count = in.readInt();
+			Set<String> values = new HashSet<>(count * 2);
+			for (int i = 0; i < count; i++)
+			{
+				values.add(in.readUTF());
+			}
+
+			return values;
+		}
+
+		/**
+		 * Writes an index to a temporary file first, so a crash never leaves a partial index.
+		 */
+		private static void write(final File indexFile, final Path root, final Map<String, Entry> entries) throws IOException
+		{
+			File temp = new File(indexFile.getPath() + TEMP_EXTENSION);
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp))))
+			{
+				out.writeInt(FORMAT_VERSION);
+				out.writeUTF(root.toString());
+				out.writeInt(entries.size());
+				for (Map.Entry<String, Entry> entry : entries.entrySet())
+				{
+					out.writeUTF(entry.getKey());
+					out.writeLong(entry.getValue().lastModified);
+					out.writeLong(entry.getValue().size);
+					out.writeUTF(entry.getValue().hash);
+					writeSet(out, entry.getValue().programs);
+					writeSet(out, entry.getValue().references);
+				}
+			}
+
+			Files.move(temp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+
+		private static void writeSet(final DataOutputStream out, final Set<String> values) throws IOException
+		{
+			out.writeInt(values.size());
+			for (String value : values)
+			{
+				out.writeUTF(value);
+			}
+		}
+	}
+}
@@ -0,0 +1,364 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import hudson.EnvVars;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.Proc;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import hudson.util.ArgumentListBuilder;
+import jenkins.MasterToSlaveFileCallable;
+import jenkins.util.BuildListenerAdapter;
+
+/**
+ * Moves the output of the Total Test CLI to the build log without slowing the CLI down.
+ * <p>
+ * The CLI is started through the launcher of the build, so its decorators apply, with its output redirected by the
+ * shell of the node to a log file next to the workspace. The CLI never waits on the remoting channel. The controller
+ * polls the file and copies the new output to the build log in batches of at most {@link #BATCH_SIZE} bytes every
+ * {@link #POLL_INTERVAL} milliseconds. When the console falls more than {@link #MAX_BACKLOG} bytes behind, the backlog
+ * is skipped with a note in the build log. Once the CLI exited, the complete log is compressed on the node and archived
+ * with the build.
+ */
+public final class TotalTestLogPipeline
+{
+	/** The workspace folder of the CLI log files. */
+	public static final String LOG_FOLDER = "BMC-CliLogs"; //$NON-NLS-1$
+
+	private static final long POLL_INTERVAL = 250;
+	private static final int BATCH_SIZE = 256 * 1024;
+	private static final long MAX_BACKLOG = 16L * 1024 * 1024;
+	private static final String GZIP_EXTENSION = ".gz"; //$NON-NLS-1$
+
+	// The log file is passed as $0, so the arguments of the CLI are passed on as they are.
+	private static final String UNIX_REDIRECT = "exec \"$@\" >>\"$0\" 2>&1"; //$NON-NLS-1$
+
+	private final Run<?, ?> build;
+	private final FilePath workspace;
+	private final TaskListener listener;
+	private final String runId = UUID.randomUUID().toString().substring(0, 8);
+	private FilePath logFile;
+
+	/**
+	 * Constructor
+	 *
+	 * @param build
+	 * 			  The current running Jenkins build
+	 * @param workspace
+	 * 			  The workspace of the build, the log is written below it.
+	 * @param listener
+	 * 			  Build listener
+	 */
+	public TotalTestLogPipeline(final Run<?, ?> build, final FilePath workspace, final TaskListener listener)
+	{
+		this.build = build;
+		this.workspace = workspace;
+		this.listener = listener;
+	}
+
+	/**
+	 * Starts the CLI through the launcher with its output written to the log file.
+	 *
+	 * @param launcher
+	 * 			  The machine that the CLI will be executed on.
+	 * @param name
+	 * 			  The name of the script file being run, used to name the log file.
+	 * @param args
+	 * 			  An instance of <code>ArgumentListBuilder</code> containing the script and its arguments.
+	 * @param env
+	 * 			  The environment variables for the CLI process.
+	 * @param workDir
+	 * 			  The working directory of the CLI process.
+	 * @param out
+	 * 			  The stream the output is forwarded to.
+	 * @return the CLI process
+	 * @throws IOException
+	 * 			  If the CLI could not be launched.
+	 * @throws InterruptedException
+	 * 			  If the launch was interrupted.
+	 */
+	public Proc start(final Launcher launcher, final String name, final ArgumentListBuilder args, final EnvVars env,
+			final FilePath workDir, final OutputStream out) throws IOException, InterruptedException
+	{
+		FilePath logFolder = workspace.child(LOG_FOLDER);
+		logFolder.mkdirs();
+		logFile = logFolder.child(name.replaceFirst("\\.[^.]*$", "") + '-' + build.getNumber() + '-' + runId + ".log"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		logFile.write("", null); //$NON-NLS-1$
+
+		listener.getLogger().println("Launching " + args); //$NON-NLS-1$
+		listener.getLogger().println("The complete CLI log is written to " + logFile.getRemote()); //$NON-NLS-1$
+		Proc proc = launcher.launch().cmds(getCommand(launcher.isUnix(), args, logFile.getRemote())).envs(env)
+				.pwd(workDir).quiet(true).start();
+
+		return new BufferedProc(proc, out);
+	}
+
+	/**
+	 * Returns the command running the CLI with its output appended to the log file by the shell of the node.
+	 *
+	 * @param unix
+	 * 			  <code>true</code> if the node runs Unix.
+	 * @param args
+	 * 			  The script and its arguments.
+	 * @param log
+	 * 			  The path of the log file on the node.
+	 * @return the command, with the arguments masked as in <code>args</code>
+	 */
+	static ArgumentListBuilder getCommand(final boolean unix, final ArgumentListBuilder args, final String log)
+	{
+		ArgumentListBuilder command = new ArgumentListBuilder();
+		if (unix)
+		{
+			command.add("/bin/sh").add("-c").add(UNIX_REDIRECT).add(log); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		else
+		{
+			command.add("cmd.exe").add("/C").add("call"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+
+		List<String> arguments = args.toList();
+		boolean[] masks = args.toMaskArray();
+		for (int i = 0; i < arguments.size(); i++)
+		{
+			command.add(arguments.get(i), masks[i]);
+		}
+
+		if (!unix)
+		{
+			command.add(">>").add(log).add("2>&1"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		return command;
+	}
+
+	/**
+	 * Compresses the log file on the node and archives it with the build.
+	 * <p>
+	 * Must be called once the CLI exited, also when the run failed.
+	 *
+	 * @param launcher
+	 * 			  The machine that the CLI was executed on.
+	 * @throws InterruptedException
+	 * 			  If archiving was interrupted.
+	 */
+	public void archive(final Launcher launcher) throws InterruptedException
+	{
+		VirtualChannel channel = launcher.getChannel();
+		if (logFile == null || channel == null)
+		{
+			return;
+		}
+
+		try
+		{
+			String compressed = logFile.act(new Compress());
+			String relativePath = LOG_FOLDER + '/' + logFile.getName() + GZIP_EXTENSION;
+			build.pickArtifactManager().archive(workspace, launcher, BuildListenerAdapter.wrap(listener),
+					Collections.singletonMap(relativePath, relativePath));
+			listener.getLogger().println("Archived the complete CLI log as " + relativePath); //$NON-NLS-1$
+			new FilePath(channel, compressed).delete();
+		}
+		catch (IOException e)
+		{
+			listener.getLogger().println("Could not archive the CLI log " + logFile.getRemote() + ": " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * The CLI process, which forwards the log file to the build log while it is waited for.
+	 */
+	private final class BufferedProc extends Proc
+	{
+		private final Proc proc;
+		private final OutputStream out;
+		private long offset;
+
+		BufferedProc(final Proc proc, final OutputStream out)
+		{
+			this.proc = proc;
+			this.out = out;
+		}
+
+		@Override
+		public boolean isAlive() throws IOException, InterruptedException
+		{
+			return proc.isAlive();
+		}
+
+		@Override
+		public void kill() throws IOException, InterruptedException
+		{
+			proc.kill();
+		}
+
+		@Override
+		public int join() throws IOException, InterruptedException
+		{
+			try
+			{
+				Integer exitValue = null;
+				while (true)
+				{
+					// The exit is checked before the read, so the last read has all the output of the CLI.
+					if (exitValue == null && !proc.isAlive())
+					{
+						exitValue = proc.join();
+					}
+
+					Chunk chunk = logFile.act(new Poll(offset, BATCH_SIZE));
+					if (chunk.size - offset - chunk.data.length > MAX_BACKLOG)
+					{
+						long skipped = chunk.size - offset;
+						offset = chunk.size;
+						out.write(("\n[... " + skipped + " bytes of CLI output skipped, see the archived CLI log ...]\n") //$NON-NLS-1$ //$NON-NLS-2$
+								.getBytes(StandardCharsets.UTF_8));
+						continue;
+					}
+
+					out.write(chunk.data);
+					offset += chunk.data.length;
+					out.flush();
+
+					if (exitValue != null && offset >= chunk.size)
+					{
+						return exitValue;
+					}
+
+					if (chunk.data.length < BATCH_SIZE)
+					{
+						TimeUnit.MILLISECONDS.sleep(POLL_INTERVAL);
+					}
+				}
+			}
+			catch (InterruptedException e)
+			{
+				kill();
+				throw e;
+			}
+		}
+
+		@Override
+		public InputStream getStdout()
+		{
+			return null;
+		}
+
+		@Override
+		public InputStream getStderr()
+		{
+			return null;
+		}
+
+		@Override
+		public OutputStream getStdin()
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * The output read from the log file.
+	 */
+	private static final class Chunk implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final byte[] data;
+		private final long size;
+
+		Chunk(final byte[] data, final long size)
+		{
+			this.data = data;
+			this.size = size;
+		}
+	}
+
+	/**
+	 * Reads the next output of the CLI from the log file.
+	 */
+	private static final class Poll extends MasterToSlaveFileCallable<Chunk>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final long offset;
+		private final int maxLength;
+
+		Poll(final long offset, final int maxLength)
+		{
+			this.offset = offset;
+			this.maxLength = maxLength;
+		}
+
+		@Override
+		public Chunk invoke(final File logFile, final VirtualChannel channel) throws IOException
+		{
+			try (RandomAccessFile file = new RandomAccessFile(logFile, "r")) //$NON-NLS-1$
+			{
+				long size = file.length();
+				byte[] data = new byte[(int) Math.max(0, Math.min(maxLength, size - offset))];
+				file.seek(offset);
+				file.readFully(data);
+
+				return new Chunk(data, size);
+			}
+		}
+	}
+
+	/**
+	 * Compresses the log file and deletes it.
+	 */
+	private static final class Compress extends MasterToSlaveFileCallable<String>
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public String invoke(final File log, final VirtualChannel channel) throws IOException
+		{
+			File compressed = new File(log.getPath() + GZIP_EXTENSION);
+			try (InputStream in = new FileInputStream(log);
+					OutputStream out = new GZIPOutputStream(new FileOutputStream(compressed), BATCH_SIZE))
+			{
+				in.transferTo(out);
+			}
+
+			if (!log.delete())
+			{
+				throw new IOException("Could not delete " + log); //$NON-NLS-1$
+			}
+
+			return compressed.getAbsolutePath();
+		}
+	}
+}
@@ -0,0 +1,117 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import hudson.console.LineTransformationOutputStream;
+
+/**
+ * Follows the output of the Total Test CLI line by line while it is copied to the build log.
+ * <p>
+ * The lines announcing the number of scenarios, the start and end of a scenario and the failure of a scenario or test
+ * case update the {@link TotalTestProgressAction} of the step.
+ * <p>
+ * The patterns follow the usual wording of the CLI but are not taken from a specification of its output, so the parser
+ * only drives the progress shown on the build page. It never stops the CLI: the verdict of a run always comes from its
+ * result file. A scenario only counts as failed when its end line has a non-zero failure count or a failed result, so
+ * lines such as "0 failed" or "no errors" are not shown as failures.
+ */
+public class TotalTestOutputParser extends LineTransformationOutputStream.Delegating
+{
+	private static final Pattern SCENARIO_COUNT = Pattern.compile("(\\d+)\\s+(?:test\\s+)?scenarios?\\s+(?:found|to\\s+(?:execute|run))", Pattern.CASE_INSENSITIVE); //$NON-NLS-1$
+	private static final Pattern SCENARIO_START = Pattern.compile("(?:executing|running|starting)\\s+(?:test\\s+)?scenario\\s*:?\\s+(\\S.*?)\\s*\\.*$", Pattern.CASE_INSENSITIVE); //$NON-NLS-1$
+	private static final Pattern SCENARIO_END = Pattern.compile("(?:test\\s+)?scenario\\s+(\\S.*?)\\s+(?:finished|completed|ended|executed)\\b(.*)$", Pattern.CASE_INSENSITIVE); //$NON-NLS-1$
+	private static final Pattern TEST_CASE_FAILURE = Pattern.compile("test\\s*case\\s+(\\S.*?)\\s+(?:failed|has\\s+failed)\\b", Pattern.CASE_INSENSITIVE); //$NON-NLS-1$
+	private static final Pattern FAILURE_COUNT = Pattern.compile("(?<![\\d.])0*[1-9]\\d*\\s+(?:test\\s*cases?\\s+)?(?:failed|failures?|errors?)\\b", Pattern.CASE_INSENSITIVE); //$NON-NLS-1$
+	private static final Pattern FAILED_RESULT = Pattern.compile("\\b(?:result|status|with)\\s*[:=]?\\s*(?:failed|failure|error)\\b", Pattern.CASE_INSENSITIVE); //$NON-NLS-1$
+
+	private final TotalTestProgressAction progress;
+
+	/**
+	 * Constructor
+	 *
+	 * @param out
+	 * 			  The stream the output is copied to.
+	 * @param progress
+	 * 			  The progress of the run, see {@link TotalTestProgressAction#start(hudson.model.Run, String)}.
+	 */
+	public TotalTestOutputParser(final OutputStream out, final TotalTestProgressAction progress)
+	{
+		super(out);
+		this.progress = progress;
+	}
+
+	/**
+	 * Returns the progress of the run.
+	 *
+	 * @return the progress
+	 */
+	public TotalTestProgressAction getProgress()
+	{
+		return progress;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.console.LineTransformationOutputStream#eol(byte[], int)
+	 */
+	@Override
+	protected void eol(final byte[] b, final int len) throws IOException
+	{
+		out.write(b, 0, len);
+
+		String line = trimEOL(new String(b, 0, len, StandardCharsets.UTF_8));
+		if (line.isEmpty())
+		{
+			return;
+		}
+
+		Matcher matcher = SCENARIO_START.matcher(line);
+		if (matcher.find())
+		{
+			progress.scenarioStarted(matcher.group(1));
+			return;
+		}
+
+		matcher = SCENARIO_END.matcher(line);
+		if (matcher.find())
+		{
+			String result = matcher.group(2);
+			boolean failed = FAILURE_COUNT.matcher(result).find() || FAILED_RESULT.matcher(result).find();
+			progress.scenarioFinished(matcher.group(1), failed);
+			return;
+		}
+
+		matcher = TEST_CASE_FAILURE.matcher(line);
+		if (matcher.find())
+		{
+			progress.testCaseFailed(matcher.group(1));
+			return;
+		}
+
+		matcher = SCENARIO_COUNT.matcher(line);
+		if (matcher.find())
+		{
+			progress.setTotal(Integer.parseInt(matcher.group(1)));
+		}
+	}
+}
@@ -0,0 +1,331 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.console.LineTransformationOutputStream;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import hudson.util.StreamTaskListener;
+import jenkins.security.MasterToSlaveCallable;
+
+/**
+ * Runs the test folders of a Functional Test step in parallel on the node of the build.
+ * <p>
+ * Each folder is run by its own {@link TotalTestCTRunner}, with its own CLI process and CLI workspace, in a pool sized
+ * to the cores and free memory of the node. The output of each folder is written to the build log with the folder as
+ * prefix. A failing folder does not stop the others, whatever it failed with; only an abort of the build stops them.
+ * The results of all folders are merged into the result of the build once they all ended.
+ */
+public class TotalTestParallelRunner
+{
+	/** The memory a CLI process and its Eclipse workspace need. */
+	private static final long MEMORY_PER_RUN = 1024L * 1024 * 1024;
+
+	private final TotalTestCTBuilder tttBuilder;
+	private final TotalTestCredentials credentials;
+	private volatile boolean aborted;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param tttBuilder
+	 * 			  An instance of <code>TotalTestCTBuilder</code> containing the arguments.
+	 * @param credentials
+	 * 			  The credentials resolved for the build.
+	 */
+	public TotalTestParallelRunner(final TotalTestCTBuilder tttBuilder, final TotalTestCredentials credentials)
+	{
+		this.tttBuilder = tttBuilder;
+		this.credentials = credentials;
+	}
+
+	/**
+	 * Runs the test folders of the step and waits for all of them to end.
+	 * 
+	 * @param build
+	 *			  The current running Jenkins build
+	 * @param launcher
+	 *            The machine that the CLI will be executed on.
+	 * @param workspaceFilePath
+	 *            The workspace of the build.
+	 * @param listener
+	 *            Build listener
+	 * 
+	 * @return <code>true</code> if all the folders were successful, otherwise <code>false</code>
+	 * 
+	 * @throws IOException
+	 * 			If the node could not be reached.
+	 * @throws InterruptedException
+	 * 			If the build was aborted, which stops all the folders.
+	 */
+	public boolean run(final Run<?, ?> build, final Launcher launcher, final FilePath workspaceFilePath,
+			final TaskListener listener) throws IOException, InterruptedException
+	{
+		List<String> folders = tttBuilder.getFolderPaths();
+		int poolSize = getPoolSize(launcher, folders.size(), listener);
+		listener.getLogger().println("Running " + folders.size() + " test folders, " + poolSize + " at a time"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+		ExecutorService pool = Executors.newFixedThreadPool(poolSize,
+				new NamingThreadFactory(new DaemonThreadFactory(), TotalTestParallelRunner.class.getSimpleName()));
+		List<FolderResult> results = new ArrayList<>();
+		try
+		{
+			List<Future<FolderResult>> futures = new ArrayList<>();
+			for (int i = 0; i < folders.size(); i++)
+			{
+				String folder = folders.get(i);
+				int index = i + 1;
+				futures.add(pool.submit(() -> runFolder(build, launcher, workspaceFilePath, listener, folder, index)));
+			}
+
+			for (int i = 0; i < futures.size(); i++)
+			{
+				try
+				{
+					results.add(futures.get(i).get());
+				}
+				catch (ExecutionException e)
+				{
+					// An error of one folder, for example out of memory, only fails that folder.
+					listener.getLogger().println("[" + folders.get(i) + "] The folder failed: " + e.getCause()); //$NON-NLS-1$ //$NON-NLS-2$
+					results.add(new FolderResult(folders.get(i), false, null));
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			aborted = true;
+			throw e;
+		}
+		finally
+		{
+			// Stops the folders still running when the build was aborted.
+			pool.shutdownNow();
+		}
+
+		return merge(build, results, listener);
+	}
+
+	/**
+	 * Runs one folder, with a host permit and a build log prefix of its own.
+	 * <p>
+	 * Any exception fails only the folder. An interruption is thrown again only when the build was aborted, the run of
+	 * the folder may also be interrupted while it waits for its host permit or its retry.
+	 */
+	private FolderResult runFolder(final Run<?, ?> build, final Launcher launcher, final FilePath workspaceFilePath,
+			final TaskListener listener, final String folder, final int index) throws InterruptedException
+	{
+		PrefixedOutputStream out = new PrefixedOutputStream(listener.getLogger(), "[" + folder + "] "); //$NON-NLS-1$ //$NON-NLS-2$
+		TaskListener folderListener = new StreamTaskListener(out, StandardCharsets.UTF_8);
+		TotalTestCTRunner runner = new TotalTestCTRunner(tttBuilder, credentials);
+		runner.setParallelFolder(folder, index);
+
+		boolean success = false;
+		try (TotalTestHostThrottle.Permit permit = TotalTestHostThrottle.get().acquire(TotalTestHostThrottle.getHostKey(tttBuilder),
+				build.getParent().getFullName(), folderListener))
+		{
+			runner.setPermit(permit);
+			success = runner.run(build, launcher, workspaceFilePath, folderListener);
+			permit.completed();
+		}
+		catch (InterruptedException e)
+		{
+			if (aborted)
+			{
+				throw e;
+			}
+
+			folderListener.getLogger().println("The folder failed: it was interrupted"); //$NON-NLS-1$
+		}
+		catch (Exception e)
+		{
+			folderListener.getLogger().println("The folder failed: " + e.getMessage()); //$NON-NLS-1$
+		}
+		finally
+		{
+			try
+			{
+				out.forceEol();
+			}
+			catch (IOException e)
+			{
+				// The build log is gone, nothing left to write to.
+			}
+		}
+
+		return new FolderResult(folder, success, runner.getSummary());
+	}
+
+	/**
+	 * Merges the results of the folders into the result of the build.
+	 * 
+	 * @return <code>true</code> if all the folders were successful, otherwise <code>false</code>
+	 */
+	private boolean merge(final Run<?, ?> build, final List<FolderResult> results, final TaskListener listener)
+	{
+		boolean success = true;
+		TotalTestResultSummary merged = null;
+		for (FolderResult result : results)
+		{
+			listener.getLogger().println("Test folder " + result.folder + ": " + (result.success ? "successful" : "failed")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			success &= result.success;
+			if (result.summary != null && !result.summary.isNoImpactedTests())
+			{
+				if (merged == null)
+				{
+					merged = new TotalTestResultSummary();
+				}
+
+				merged.merge(result.summary);
+			}
+		}
+
+		if (merged == null)
+		{
+			merged = new TotalTestResultSummary();
+			merged.setResultType(TotalTestResultSummary.RESULT_NO_IMPACTED_TESTS);
+		}
+
+		String label = "all folders"; //$NON-NLS-1$
+		build.addAction(new TotalTestResultAction(merged, null, TotalTestResultAction.newId(build, label), label));
+		TotalTestResultAction.printDigest(listener.getLogger(), merged);
+
+		return success;
+	}
+
+	/**
+	 * Returns the number of folders to run at once: no more than the cores of the node, the free memory of the node
+	 * allows or the limit of the step.
+	 */
+	private int getPoolSize(final Launcher launcher, final int folderCount, final TaskListener listener)
+			throws IOException, InterruptedException
+	{
+		int poolSize = folderCount;
+		VirtualChannel channel = launcher.getChannel();
+		if (channel != null)
+		{
+			long[] resources = channel.call(new GetResources());
+			int memoryRuns = resources[1] > 0 ? (int) Math.max(1, resources[1] / MEMORY_PER_RUN) : folderCount;
+			listener.getLogger().println("The node has " + resources[0] + " core(s) and free memory for " + memoryRuns + " CLI run(s)"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			poolSize = Math.min(poolSize, Math.min((int) resources[0], memoryRuns));
+		}
+
+		if (tttBuilder.getMaxParallelRuns() > 0)
+		{
+			poolSize = Math.min(poolSize, tttBuilder.getMaxParallelRuns());
+		}
+
+		return Math.max(poolSize, 1);
+	}
+
+	/**
+	 * The outcome of the run of a folder.
+	 */
+	private static final class FolderResult
+	{
+		private final String folder;
+		private final boolean success;
+		private final TotalTestResultSummary summary;
+
+		FolderResult(final String folder, final boolean success, final TotalTestResultSummary summary)
+		{
+			this.folder = folder;
+			this.success = success;
+			this.summary = summary;
+		}
+	}
+
+	/**
+	 * Writes whole lines to the build log, each with the prefix of its folder.
+	 */
+	private static final class PrefixedOutputStream extends LineTransformationOutputStream
+	{
+		private final PrintStream out;
+		private final byte[] prefix;
+
+		PrefixedOutputStream(final PrintStream out, final String prefix)
+		{
+			this.out = out;
+			this.prefix = prefix.getBytes(StandardCharsets.UTF_8);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see hudson.console.LineTransformationOutputStream#eol(byte[], int)
+		 */
+		@Override
+		protected void eol(final byte[] b, final int len) throws IOException
+		{
+			// The lines of the folders must not interleave.
+			synchronized (out)
+			{
+				out.write(prefix);
+				out.write(b, 0, len);
+				out.flush();
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.io.OutputStream#flush()
+		 */
+		@Override
+		public void flush()
+		{
+			out.flush();
+		}
+	}
+
+	/**
+	 * Returns the number of cores and the free physical memory of the node. The memory already used by other builds and
+	 * processes of the node is not available to the CLI runs, so the total memory would overcommit a busy node.
+	 */
+	private static final class GetResources extends MasterToSlaveCallable<long[], IOException>
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public long[] call()
+		{
+			long memory = 0;
+			OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+			if (os instanceof com.sun.management.OperatingSystemMXBean)
+			{
+				memory = ((com.sun.management.OperatingSystemMXBean) os).getFreePhysicalMemorySize(); //NOSONAR
+			}
+
+			return new long[] { Runtime.getRuntime().availableProcessors(), memory };
+		}
+	}
+}
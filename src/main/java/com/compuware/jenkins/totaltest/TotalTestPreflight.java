@@ -0,0 +1,341 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.remoting.VirtualChannel;
+import jenkins.security.MasterToSlaveCallable;
+
+/**
+ * The state of the node of a build, collected with a single call to the node before the Total Test CLI is launched.
+ * <p>
+ * The preflight contains the file separator and operating system of the node, the state of the build workspace, the
+ * installation timestamp of the CLI and the state of the paths the runner needs to resolve.
+ */
+public final class TotalTestPreflight implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	private final String fileSeparator;
+	private final String osName;
+	private final long nodeTime;
+	private final String workspace;
+	private final boolean workspaceExists;
+	private final String cliDirectory;
+	private final long cliTimestamp;
+	private final Map<String, PathState> paths = new HashMap<>();
+
+	/**
+	 * Constructor
+	 *
+	 * @param workspace
+	 *            The absolute path of the build workspace.
+	 * @param workspaceExists
+	 *            <code>true</code> if the build workspace exists.
+	 * @param cliDirectory
+	 *            The CLI location.
+	 * @param cliTimestamp
+	 *            The installation timestamp of the CLI, negative if the CLI location does not exist.
+	 */
+	private TotalTestPreflight(final String workspace, final boolean workspaceExists, final String cliDirectory,
+			final long cliTimestamp)
+	{
+		this.fileSeparator = File.separator;
+		this.osName = System.getProperty("os.name"); //$NON-NLS-1$
+		this.nodeTime = System.currentTimeMillis();
+		this.workspace = workspace;
+		this.workspaceExists = workspaceExists;
+		this.cliDirectory = cliDirectory;
+		this.cliTimestamp = cliTimestamp;
+	}
+
+	/**
+	 * Collects the preflight of the node of the given launcher.
+	 *
+	 * @param launcher
+	 *            An instance <code>Launcher</code> for the node running the CLI.
+	 * @param workspaceFilePath
+	 *            The workspace of the build.
+	 * @param pathNames
+	 *            The paths to resolve, both as given and relative to the workspace. <code>null</code> entries are
+	 *            ignored.
+	 *
+	 * @return an instance of <code>TotalTestPreflight</code>
+	 *
+	 * @throws IOException
+	 *             If the CLI location was not specified or the node could not be reached.
+	 * @throws InterruptedException
+	 *             If the call to the node was interrupted.
+	 */
+	public static TotalTestPreflight collect(final Launcher launcher, final FilePath workspaceFilePath,
+			final String... pathNames) throws IOException, InterruptedException
+	{
+		String cliDirectoryName = TotalTestRunnerUtils.getTopaWorkbenchCLIPath(launcher);
+		if (cliDirectoryName == null)
+		{
+			throw new FileNotFoundException("ERROR: Topaz Workench CLI location was not specified. Check 'BMC Configuration' section under 'Configure System'"); //$NON-NLS-1$
+		}
+
+		Probe probe = new Probe(workspaceFilePath.getRemote(), cliDirectoryName, pathNames);
+		VirtualChannel vChannel = launcher.getChannel();
+
+		return vChannel != null ? vChannel.call(probe) : probe.call();
+	}
+
+	/**
+	 * Returns the file separator of the node.
+	 *
+	 * @return the file separator
+	 */
+	public String getFileSeparator()
+	{
+		return fileSeparator;
+	}
+
+	/**
+	 * Returns the operating system name of the node.
+	 *
+	 * @return the operating system name
+	 */
+	public String getOsName()
+	{
+		return osName;
+	}
+
+	/**
+	 * Returns the time on the clock of the node when the preflight was collected. Files modified on the node after this
+	 * time were written by the current run.
+	 *
+	 * @return the node time in milliseconds
+	 */
+	public long getNodeTime()
+	{
+		return nodeTime;
+	}
+
+	/**
+	 * Returns the absolute path of the build workspace.
+	 *
+	 * @return the workspace path
+	 */
+	public String getWorkspace()
+	{
+		return workspace;
+	}
+
+	/**
+	 * Returns if the build workspace exists.
+	 *
+	 * @return <code>true</code> if the workspace exists, otherwise <code>false</code>
+	 */
+	public boolean isWorkspaceExists()
+	{
+		return workspaceExists;
+	}
+
+	/**
+	 * Returns the CLI location.
+	 *
+	 * @return the CLI directory
+	 */
+	public String getCLIDirectory()
+	{
+		return cliDirectory;
+	}
+
+	/**
+	 * Returns the installation timestamp of the CLI.
+	 *
+	 * @return the timestamp, negative if the CLI location does not exist
+	 */
+	public long getCLITimestamp()
+	{
+		return cliTimestamp;
+	}
+
+	/**
+	 * Returns the state of a path that was resolved by the preflight.
+	 *
+	 * @param pathName
+	 *            The path as passed to the preflight.
+	 *
+	 * @return an instance of <code>PathState</code>, or <code>null</code> if the path was not resolved
+	 */
+	public PathState getPath(final String pathName)
+	{
+		return pathName != null ? paths.get(pathName) : null;
+	}
+
+	/**
+	 * Returns a file for the given path, keeping absolute paths as they are and resolving relative paths against the
+	 * given directory, in the same way as <code>FilePath(FilePath, String)</code>.
+	 *
+	 * @param base
+	 *            The directory to resolve relative paths against.
+	 * @param pathName
+	 *            The path to resolve.
+	 *
+	 * @return the resolved file
+	 */
+	static File resolve(final File base, final String pathName)
+	{
+		File file = new File(pathName);
+		return file.isAbsolute() ? file : new File(base, pathName);
+	}
+
+	/**
+	 * The state of a path on the node, both as given and resolved against the build workspace.
+	 */
+	public static final class PathState implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final boolean absolute;
+		private final boolean exists;
+		private final boolean directory;
+		private final String workspacePath;
+		private final boolean workspacePathExists;
+		private final boolean workspacePathDirectory;
+
+		/**
+		 * Constructor
+		 *
+		 * @param workspace
+		 *            The absolute build workspace.
+		 * @param pathName
+		 *            The path to resolve.
+		 */
+		PathState(final File workspace, final String pathName)
+		{
+			File file = new File(pathName);
+			this.absolute = file.getAbsolutePath().equalsIgnoreCase(pathName);
+			this.exists = file.exists();
+			this.directory = file.isDirectory();
+
+			File workspaceFile = resolve(workspace, pathName).getAbsoluteFile();
+			this.workspacePath = workspaceFile.getPath();
+			this.workspacePathExists = workspaceFile.exists();
+			this.workspacePathDirectory = workspaceFile.isDirectory();
+		}
+
+		/**
+		 * Returns if the path is absolute.
+		 *
+		 * @return <code>true</code> if the path is absolute, otherwise <code>false</code>
+		 */
+		public boolean isAbsolute()
+		{
+			return absolute;
+		}
+
+		/**
+		 * Returns if the path exists.
+		 *
+		 * @return <code>true</code> if the path exists, otherwise <code>false</code>
+		 */
+		public boolean isExists()
+		{
+			return exists;
+		}
+
+		/**
+		 * Returns if the path is a directory.
+		 *
+		 * @return <code>true</code> if the path is a directory, otherwise <code>false</code>
+		 */
+		public boolean isDirectory()
+		{
+			return directory;
+		}
+
+		/**
+		 * Returns the absolute path resolved against the build workspace.
+		 *
+		 * @return the path in the workspace
+		 */
+		public String getWorkspacePath()
+		{
+			return workspacePath;
+		}
+
+		/**
+		 * Returns if the path resolved against the build workspace exists.
+		 *
+		 * @return <code>true</code> if the path in the workspace exists, otherwise <code>false</code>
+		 */
+		public boolean isWorkspacePathExists()
+		{
+			return workspacePathExists;
+		}
+
+		/**
+		 * Returns if the path resolved against the build workspace is a directory.
+		 *
+		 * @return <code>true</code> if the path in the workspace is a directory, otherwise <code>false</code>
+		 */
+		public boolean isWorkspacePathDirectory()
+		{
+			return workspacePathDirectory;
+		}
+	}
+
+	/**
+	 * Collects the preflight on the node.
+	 */
+	private static final class Probe extends MasterToSlaveCallable<TotalTestPreflight, IOException>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String workspace;
+		private final String cliDirectory;
+		private final String[] pathNames;
+
+		Probe(final String workspace, final String cliDirectory, final String[] pathNames)
+		{
+			this.workspace = workspace;
+			this.cliDirectory = cliDirectory;
+			this.pathNames = pathNames != null ? pathNames.clone() : new String[0];
+		}
+
+		@Override
+		public TotalTestPreflight call() throws IOException
+		{
+			File workspaceFile = new File(workspace).getAbsoluteFile();
+			long cliTimestamp = TotalTestCLICapabilities.GetInstallationTimestamp.getInstallationTimestamp(new File(cliDirectory));
+
+			TotalTestPreflight preflight = new TotalTestPreflight(workspaceFile.getPath(), workspaceFile.exists(), cliDirectory,
+					cliTimestamp);
+			for (String pathName : pathNames)
+			{
+				if (pathName != null && !pathName.isEmpty())
+				{
+					preflight.paths.put(pathName, new PathState(workspaceFile, pathName));
+				}
+			}
+
+			return preflight;
+		}
+	}
+}
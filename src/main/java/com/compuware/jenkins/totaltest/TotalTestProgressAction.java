@@ -0,0 +1,285 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import hudson.Util;
+import hudson.model.InvisibleAction;
+import hudson.model.Run;
+
+/**
+ * The live progress of a Total Test CLI run, shown on the build page while the CLI runs.
+ * <p>
+ * Updated by the {@link TotalTestOutputParser} from the output of the CLI. Each step of a build has an action of its own,
+ * and a retry of the CLI starts the counts of the action over, so the counts of steps and attempts never mix.
+ */
+public class TotalTestProgressAction extends InvisibleAction
+{
+	private static final Object ID_LOCK = new Object();
+
+	private final int id;
+	private final String label;
+	private int attempt = 1;
+	private long startTime = System.currentTimeMillis();
+	private int total = -1;
+	private int completed;
+	private int failed;
+	private int failedTestCases;
+	private String currentScenario;
+	private String lastFailure;
+	private boolean finished;
+
+	/**
+	 * Constructor
+	 *
+	 * @param id
+	 *            The id of the action in the build.
+	 * @param label
+	 *            What the step runs, for example the test folder.
+	 */
+	private TotalTestProgressAction(final int id, final String label)
+	{
+		this.id = id;
+		this.label = label;
+	}
+
+	/**
+	 * Adds the progress of a new step to the build.
+	 *
+	 * @param build
+	 *            The build.
+	 * @param label
+	 *            What the step runs, for example the test folder.
+	 *
+	 * @return the action
+	 */
+	public static TotalTestProgressAction start(final Run<?, ?> build, final String label)
+	{
+		synchronized (ID_LOCK)
+		{
+			int id = build.getActions(TotalTestProgressAction.class).size() + 1;
+			TotalTestProgressAction progress = new TotalTestProgressAction(id, label);
+			build.addAction(progress);
+			return progress;
+		}
+	}
+
+	/**
+	 * Returns the progress of a step of the build.
+	 *
+	 * @param build
+	 *            The build.
+	 * @param id
+	 *            The id of the action, see {@link #getId()}.
+	 *
+	 * @return the action, or <code>null</code> if the build has no action with that id
+	 */
+	public static TotalTestProgressAction find(final Run<?, ?> build, final int id)
+	{
+		for (TotalTestProgressAction progress : build.getActions(TotalTestProgressAction.class))
+		{
+			if (progress.id == id)
+			{
+				return progress;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns the id of the action in the build.
+	 *
+	 * @return the id
+	 */
+	public int getId()
+	{
+		return id;
+	}
+
+	/**
+	 * Returns what the step runs and, on a retry, the attempt.
+	 *
+	 * @return the title
+	 */
+	public synchronized String getTitle()
+	{
+		String title = label != null && !label.trim().isEmpty() ? label.trim() : "#" + id; //$NON-NLS-1$
+		return attempt > 1 ? title + " (attempt " + attempt + ")" : title; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Returns the attempt of the CLI run.
+	 *
+	 * @return the one based attempt
+	 */
+	public synchronized int getAttempt()
+	{
+		return attempt;
+	}
+
+	/**
+	 * Starts the counts over for a retry of the CLI.
+	 */
+	synchronized void nextAttempt()
+	{
+		attempt++;
+		startTime = System.currentTimeMillis();
+		total = -1;
+		completed = 0;
+		failed = 0;
+		failedTestCases = 0;
+		currentScenario = null;
+		lastFailure = null;
+		finished = false;
+	}
+
+	/**
+	 * Returns the number of scenarios of the run.
+	 *
+	 * @return the number of scenarios, -1 if not known yet
+	 */
+	public synchronized int getTotal()
+	{
+		return total;
+	}
+
+	/**
+	 * Returns the number of scenarios that finished.
+	 *
+	 * @return the completed scenario count
+	 */
+	public synchronized int getCompleted()
+	{
+		return completed;
+	}
+
+	/**
+	 * Returns the number of scenarios that failed.
+	 *
+	 * @return the failed scenario count
+	 */
+	public synchronized int getFailed()
+	{
+		return failed;
+	}
+
+	/**
+	 * Returns the number of test cases that failed.
+	 *
+	 * @return the failed test case count
+	 */
+	public synchronized int getFailedTestCases()
+	{
+		return failedTestCases;
+	}
+
+	/**
+	 * Returns the scenario running.
+	 *
+	 * @return the scenario name, or <code>null</code> if no scenario is running
+	 */
+	public synchronized String getCurrentScenario()
+	{
+		return currentScenario;
+	}
+
+	/**
+	 * Returns the last failed scenario or test case.
+	 *
+	 * @return the name, or <code>null</code> if nothing failed
+	 */
+	public synchronized String getLastFailure()
+	{
+		return lastFailure;
+	}
+
+	/**
+	 * Returns whether the CLI run ended.
+	 *
+	 * @return <code>true</code> if the run ended, otherwise <code>false</code>
+	 */
+	public synchronized boolean isFinished()
+	{
+		return finished;
+	}
+
+	/**
+	 * Returns the estimated time left, from the average duration of the completed scenarios.
+	 *
+	 * @return the time left in milliseconds, -1 if it can not be estimated
+	 */
+	public synchronized long getRemainingMillis()
+	{
+		if (finished || total <= 0 || completed == 0 || completed >= total)
+		{
+			return -1;
+		}
+
+		long elapsed = System.currentTimeMillis() - startTime;
+		return elapsed / completed * (total - completed);
+	}
+
+	/**
+	 * Returns the estimated time left, for display.
+	 *
+	 * @return the time left, or <code>null</code> if it can not be estimated
+	 */
+	public String getRemaining()
+	{
+		long remaining = getRemainingMillis();
+		return remaining >= 0 ? Util.getTimeSpanString(remaining) : null;
+	}
+
+	synchronized void setTotal(final int total)
+	{
+		this.total = total;
+	}
+
+	synchronized void scenarioStarted(final String name)
+	{
+		currentScenario = name;
+	}
+
+	synchronized void scenarioFinished(final String name, final boolean scenarioFailed)
+	{
+		completed++;
+		if (scenarioFailed)
+		{
+			failed++;
+			lastFailure = name;
+		}
+
+		if (total >= 0 && completed > total)
+		{
+			total = completed;
+		}
+
+		currentScenario = null;
+	}
+
+	synchronized void testCaseFailed(final String name)
+	{
+		failedTestCases++;
+		lastFailure = name;
+	}
+
+	synchronized void finish()
+	{
+		finished = true;
+		currentScenario = null;
+	}
+}
@@ -0,0 +1,453 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * Converts Total Test suite and scenario result files to JUnit XML and SonarQube generic test execution XML.
+ * <p>
+ * The result file is read once with a streaming (StAX) parser and both reports are written while it is read, so only the
+ * scenario being converted is held in memory. Scenarios and test cases are recognized the same way as in
+ * {@link TotalTestResultParser}: every scenario becomes a JUnit test suite and a Sonar file, every test case a test case of
+ * both. A scenario without test cases is reported as a single test case.
+ * <p>
+ * The converter reads the result files of functional tests. The folders of a parallel run are converted at the same time,
+ * each by the runner of its folder.
+ */
+public final class TotalTestReportConverter
+{
+	/** The folder of the workspace the JUnit reports are written to. */
+	static final String JUNIT_FOLDER = "TTTUnit"; //$NON-NLS-1$
+	/** The folder of the workspace the Sonar reports are written to. */
+	static final String SONAR_FOLDER = "TTTSonar"; //$NON-NLS-1$
+
+	private static final String XML_EXTENSION = ".xml"; //$NON-NLS-1$
+	private static final String DEFAULT_REPORT_NAME = "result"; //$NON-NLS-1$
+	private static final String ENCODING = StandardCharsets.UTF_8.name();
+
+	private TotalTestReportConverter()
+	{
+	}
+
+	/**
+	 * Converts a result file.
+	 *
+	 * @param resultFile
+	 *            The result file.
+	 * @param junitFile
+	 *            The JUnit report to write, or <code>null</code> for none.
+	 * @param sonarFile
+	 *            The Sonar report to write, or <code>null</code> for none.
+	 *
+	 * @throws IOException
+	 *             If the result file could not be read or is not well formed, or a report could not be written.
+	 */
+	public static void convert(final File resultFile, final File junitFile, final File sonarFile) throws IOException
+	{
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(resultFile.toPath()));
+				OutputStream junitOut = open(junitFile);
+				OutputStream sonarOut = open(sonarFile))
+		{
+			XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+			ReportWriter writer = new ReportWriter(
+					junitOut != null ? outputFactory.createXMLStreamWriter(junitOut, ENCODING) : null,
+					sonarOut != null ? outputFactory.createXMLStreamWriter(sonarOut, ENCODING) : null);
+			convert(in, writer);
+		}
+		catch (XMLStreamException e)
+		{
+			throw new IOException("Unable to convert Total Test result " + resultFile.getName() + ": " + e.getMessage(), e); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * Returns the name of the reports of a result file: the name of the result file without its extension.
+	 *
+	 * @param resultFileName
+	 *            The name of the result file.
+	 *
+	 * @return the report name
+	 */
+	static String getReportName(final String resultFileName)
+	{
+		int idx = resultFileName.lastIndexOf('.');
+		String name = idx != -1 ? resultFileName.substring(0, idx) : resultFileName;
+
+		// The suite result generated by the CLI is a hidden file.
+		while (name.startsWith(".")) //$NON-NLS-1$
+		{
+			name = name.substring(1);
+		}
+
+		return (name.isEmpty() ? DEFAULT_REPORT_NAME : name) + XML_EXTENSION;
+	}
+
+	/**
+	 * Returns the name of the report of a result file, prefixed with the path of the file relative to a folder, so the
+	 * reports of result files with the same name in different folders do not overwrite each other.
+	 *
+	 * @param folder
+	 *            The folder the path of the result file is made relative to.
+	 * @param resultFile
+	 *            The result file.
+	 *
+	 * @return the name of the report
+	 */
+	static String getReportName(final File folder, final File resultFile)
+	{
+		String reportName = getReportName(resultFile.getName());
+		Path folderPath = folder.getAbsoluteFile().toPath().normalize();
+		Path filePath = resultFile.getAbsoluteFile().toPath().normalize();
+		Path parent = filePath.startsWith(folderPath) ? folderPath.relativize(filePath).getParent() : null;
+		if (parent == null)
+		{
+			return reportName;
+		}
+
+		StringBuilder prefix = new StringBuilder();
+		for (Path segment : parent)
+		{
+			prefix.append(segment).append('.');
+		}
+
+		return prefix + reportName;
+	}
+
+	/**
+	 * Opens a report for writing, creating its folder.
+	 *
+	 * @param file
+	 *            The report, or <code>null</code> for none.
+	 *
+	 * @return the stream to write the report to, or <code>null</code> for none
+	 *
+	 * @throws IOException
+	 *             If the report could not be created.
+	 */
+	private static OutputStream open(final File file) throws IOException
+	{
+		if (file == null)
+		{
+			return null;
+		}
+
+		Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+		return new BufferedOutputStream(Files.newOutputStream(file.toPath()));
+	}
+
+	/**
+	 * Converts a result document in a single pass.
+	 *
+	 * @param in
+	 *            The stream to read the document from.
+	 * @param writer
+	 *            The writer of the reports.
+	 *
+	 * @throws XMLStreamException
+	 *             If the document is not well formed or a report could not be written.
+	 */
+	private static void convert(final InputStream in, final ReportWriter writer) throws XMLStreamException
+	{
+		XMLStreamReader reader = TotalTestResultParser.createInputFactory().createXMLStreamReader(in);
+		try
+		{
+			boolean isSuite = false;
+			int depth = 0;
+			boolean inCC = false;
+			while (reader.hasNext())
+			{
+				int event = reader.next();
+				if (event == XMLStreamConstants.START_ELEMENT)
+				{
+					depth++;
+					String resultType = reader.getAttributeValue(null, TotalTestResultParser.ATTR_RESULT_TYPE);
+					if (depth == 1)
+					{
+						isSuite = TotalTestResultParser.XA_SUITE_RESULT.equals(reader.getLocalName());
+						writer.start();
+						if (!isSuite)
+						{
+							writer.startScenario(reader, resultType);
+						}
+					}
+					else if (depth == 2 && TotalTestResultParser.ELEMENT_CC.equals(reader.getLocalName()))
+					{
+						inCC = true;
+					}
+					else if (!inCC && resultType != null)
+					{
+						if (isSuite && depth == 2)
+						{
+							writer.startScenario(reader, resultType);
+						}
+						else
+						{
+							writer.testCase(TotalTestResultParser.getName(reader), resultType,
+									TotalTestResultParser.getAttribute(reader, TotalTestResultParser.DURATION_ATTRIBUTES),
+									TotalTestResultParser.getAttribute(reader, TotalTestResultParser.MESSAGE_ATTRIBUTES));
+						}
+					}
+				}
+				else if (event == XMLStreamConstants.END_ELEMENT)
+				{
+					if (depth == 2)
+					{
+						inCC = false;
+					}
+
+					if (depth == 1 || (isSuite && depth == 2))
+					{
+						writer.endScenario();
+					}
+					depth--;
+				}
+			}
+
+			writer.end();
+		}
+		finally
+		{
+			reader.close();
+		}
+	}
+
+	/**
+	 * Returns the duration of a result in milliseconds.
+	 *
+	 * @param duration
+	 *            The duration, as written in the result file.
+	 *
+	 * @return the duration, 0 if unknown
+	 */
+	static long toMillis(final String duration)
+	{
+		if (duration == null)
+		{
+			return 0;
+		}
+
+		try
+		{
+			return Math.max(0, Math.round(Double.parseDouble(duration.trim())));
+		}
+		catch (NumberFormatException e) //NOSONAR
+		{
+			return 0;
+		}
+	}
+
+	/**
+	 * Writes the JUnit and Sonar reports while the result file is read.
+	 */
+	private static final class ReportWriter
+	{
+		private final XMLStreamWriter junit;
+		private final XMLStreamWriter sonar;
+
+		private String scenarioName;
+		private String scenarioResultType;
+		private String scenarioDuration;
+		private String scenarioMessage;
+		private int testCases;
+
+		ReportWriter(final XMLStreamWriter junit, final XMLStreamWriter sonar)
+		{
+			this.junit = junit;
+			this.sonar = sonar;
+		}
+
+		void start() throws XMLStreamException
+		{
+			if (junit != null)
+			{
+				junit.writeStartDocument(ENCODING, "1.0"); //$NON-NLS-1$
+				junit.writeStartElement("testsuites"); //$NON-NLS-1$
+			}
+
+			if (sonar != null)
+			{
+				sonar.writeStartDocument(ENCODING, "1.0"); //$NON-NLS-1$
+				sonar.writeStartElement("testExecutions"); //$NON-NLS-1$
+				sonar.writeAttribute("version", "1"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+
+		void startScenario(final XMLStreamReader reader, final String resultType) throws XMLStreamException
+		{
+			scenarioName = TotalTestResultParser.getName(reader);
+			scenarioResultType = resultType;
+			scenarioDuration = TotalTestResultParser.getAttribute(reader, TotalTestResultParser.DURATION_ATTRIBUTES);
+			scenarioMessage = TotalTestResultParser.getAttribute(reader, TotalTestResultParser.MESSAGE_ATTRIBUTES);
+			testCases = 0;
+
+			if (junit != null)
+			{
+				junit.writeStartElement("testsuite"); //$NON-NLS-1$
+				junit.writeAttribute("name", scenarioName); //$NON-NLS-1$
+			}
+
+			if (sonar != null)
+			{
+				sonar.writeStartElement("file"); //$NON-NLS-1$
+				sonar.writeAttribute("path", scenarioName); //$NON-NLS-1$
+			}
+		}
+
+		void testCase(final String name, final String resultType, final String duration, final String message)
+				throws XMLStreamException
+		{
+			if (scenarioName == null)
+			{
+				// A test case outside of a scenario, the result file is not one the converter knows.
+				return;
+			}
+
+			testCases++;
+			long millis = toMillis(duration);
+			boolean failed = !TotalTestResultParser.RESULT_SUCCESS.equalsIgnoreCase(resultType);
+			String failure = message != null ? message : resultType;
+
+			if (junit != null)
+			{
+				junit.writeStartElement("testcase"); //$NON-NLS-1$
+				junit.writeAttribute("name", name); //$NON-NLS-1$
+				junit.writeAttribute("classname", scenarioName); //$NON-NLS-1$
+				junit.writeAttribute("time", String.format(Locale.ROOT, "%.3f", millis / 1000.0)); //$NON-NLS-1$ //$NON-NLS-2$
+				writeFailure(junit, failed, failure);
+				junit.writeEndElement();
+			}
+
+			if (sonar != null)
+			{
+				sonar.writeStartElement("testCase"); //$NON-NLS-1$
+				sonar.writeAttribute("name", name); //$NON-NLS-1$
+				sonar.writeAttribute("duration", Long.toString(millis)); //$NON-NLS-1$
+				writeFailure(sonar, failed, failure);
+				sonar.writeEndElement();
+			}
+		}
+
+		private static void writeFailure(final XMLStreamWriter writer, final boolean failed, final String message)
+				throws XMLStreamException
+		{
+			if (failed)
+			{
+				writer.writeEmptyElement("failure"); //$NON-NLS-1$
+				writer.writeAttribute("message", message); //$NON-NLS-1$
+			}
+		}
+
+		void endScenario() throws XMLStreamException
+		{
+			if (scenarioName == null)
+			{
+				return;
+			}
+
+			if (testCases == 0)
+			{
+				testCase(scenarioName, scenarioResultType, scenarioDuration, scenarioMessage);
+			}
+
+			if (junit != null)
+			{
+				junit.writeEndElement();
+			}
+
+			if (sonar != null)
+			{
+				sonar.writeEndElement();
+			}
+
+			scenarioName = null;
+		}
+
+		void end() throws XMLStreamException
+		{
+			for (XMLStreamWriter writer : new XMLStreamWriter[] { junit, sonar })
+			{
+				if (writer != null)
+				{
+					writer.writeEndDocument();
+					writer.flush();
+					writer.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Converts a result file on the node where it resides. The reports are written to the {@value #JUNIT_FOLDER} and
+	 * {@value #SONAR_FOLDER} folders next to the result file and are named after it.
+	 */
+	public static final class ConvertResultFile extends MasterToSlaveFileCallable<Void>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String workspace;
+		private final boolean createJUnitReport;
+		private final boolean createSonarReport;
+
+		/**
+		 * Constructor
+		 *
+		 * @param workspace
+		 *            The workspace the reports are written to, in its <code>TTTUnit</code> and <code>TTTSonar</code>
+		 *            folders.
+		 * @param createJUnitReport
+		 *            <code>true</code> to write the JUnit report
+		 * @param createSonarReport
+		 *            <code>true</code> to write the Sonar report
+		 */
+		public ConvertResultFile(final String workspace, final boolean createJUnitReport, final boolean createSonarReport)
+		{
+			this.workspace = workspace;
+			this.createJUnitReport = createJUnitReport;
+			this.createSonarReport = createSonarReport;
+		}
+
+		@Override
+		public Void invoke(File resultFile, VirtualChannel channel) throws IOException, InterruptedException
+		{
+			File folder = new File(workspace);
+			String reportName = getReportName(folder, resultFile);
+
+			convert(resultFile, createJUnitReport ? new File(new File(folder, JUNIT_FOLDER), reportName) : null,
+					createSonarReport ? new File(new File(folder, SONAR_FOLDER), reportName) : null);
+			return null;
+		}
+	}
+}
@@ -0,0 +1,388 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.io.IOUtils;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import hudson.FilePath;
+import hudson.model.Item;
+import hudson.model.Run;
+import jenkins.model.RunAction2;
+
+/**
+ * Shows the summary of the Total Test result of a build.
+ * <p>
+ * The action holds the parsed summary only, with a bounded list of failures. The raw result file is archived gzipped in
+ * the build directory and is only read when it is requested, the scenarios shown on the page being parsed from it.
+ * <p>
+ * A build has one action per result, so several Total Test steps in a build each keep their own result. Each action has
+ * an id that is unique in the build, which names its page and its archived result file.
+ */
+public class TotalTestResultAction implements RunAction2
+{
+	/** The archive of the result of builds made before results had an id. */
+	static final String ARCHIVE_FILE_NAME = "totaltest-result.xml.gz"; //$NON-NLS-1$
+	private static final String ARCHIVE_FILE_PREFIX = "totaltest-result-"; //$NON-NLS-1$
+	private static final String ARCHIVE_FILE_SUFFIX = ".xml.gz"; //$NON-NLS-1$
+	private static final String URL_NAME = "totaltest-result"; //$NON-NLS-1$
+	private static final int MAX_ID_LENGTH = 64;
+	private static final int DIGEST_FAILURES = 10;
+	private static final Object ID_LOCK = new Object();
+	/** The ids handed out for results that are not added to their build yet, guarded by {@link #ID_LOCK}. */
+	private static final Map<Run<?, ?>, Set<String>> RESERVED_IDS = new WeakHashMap<>();
+
+	private final TotalTestResultSummary summary;
+	private final String resultFileName;
+	private final String id;
+	private final String label;
+	private transient Run<?, ?> run;
+
+	/**
+	 * Constructor
+	 *
+	 * @param summary
+	 *            The summary of the result file.
+	 * @param resultFileName
+	 *            The name of the result file.
+	 * @param id
+	 *            The id of the result in the build, see {@link #newId(Run, String)}.
+	 * @param label
+	 *            What the result is of, shown with the title, or <code>null</code>.
+	 */
+	public TotalTestResultAction(final TotalTestResultSummary summary, final String resultFileName, final String id,
+			final String label)
+	{
+		this.summary = summary;
+		this.resultFileName = resultFileName;
+		this.id = id;
+		this.label = label;
+	}
+
+	/**
+	 * Returns a new id for a result of the build, based on what the result is of.
+	 * <p>
+	 * The id only holds letters, digits, dashes and underscores. When the build already has a result with that id, a
+	 * counter is added to it.
+	 *
+	 * @param build
+	 *            The build.
+	 * @param label
+	 *            What the result is of, for example the test folder.
+	 *
+	 * @return the id
+	 */
+	public static String newId(final Run<?, ?> build, final String label)
+	{
+		String base = label != null ? label.trim().replaceAll("[^A-Za-z0-9_-]+", "_") : ""; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		base = base.replaceAll("^_+|_+$", ""); //$NON-NLS-1$ //$NON-NLS-2$
+		if (base.length() > MAX_ID_LENGTH)
+		{
+			base = base.substring(base.length() - MAX_ID_LENGTH);
+		}
+		if (base.isEmpty())
+		{
+			base = "workspace"; //$NON-NLS-1$
+		}
+
+		// The id is reserved until its action is added, so parallel steps of the build cannot both take it.
+		synchronized (ID_LOCK)
+		{
+			Set<String> reserved = RESERVED_IDS.computeIfAbsent(build, r -> new HashSet<>());
+			String candidate = base;
+			for (int i = 2; reserved.contains(candidate) || isTaken(build, candidate); i++)
+			{
+				candidate = base + '-' + i;
+			}
+
+			reserved.add(candidate);
+			return candidate;
+		}
+	}
+
+	/**
+	 * Returns if the build already has a result with the given id.
+	 */
+	private static boolean isTaken(final Run<?, ?> build, final String candidate)
+	{
+		for (TotalTestResultAction action : build.getActions(TotalTestResultAction.class))
+		{
+			if (candidate.equals(action.id))
+			{
+				return true;
+			}
+		}
+
+		return getArchiveFile(build, candidate).exists();
+	}
+
+	/**
+	 * Returns the archive of the result with the given id.
+	 */
+	private static File getArchiveFile(final Run<?, ?> build, final String resultId)
+	{
+		return new File(build.getRootDir(), resultId != null ? ARCHIVE_FILE_PREFIX + resultId + ARCHIVE_FILE_SUFFIX : ARCHIVE_FILE_NAME);
+	}
+
+	/**
+	 * Copies the result file into the build directory, gzipped. The file is streamed, so it is never held in memory.
+	 *
+	 * @param build
+	 *            The build to archive the result file for.
+	 * @param resultId
+	 *            The id of the result, see {@link #newId(Run, String)}.
+	 * @param resultFile
+	 *            The result file.
+	 *
+	 * @throws IOException
+	 *             If the file could not be copied.
+	 * @throws InterruptedException
+	 *             If the copy was interrupted.
+	 */
+	public static void archive(final Run<?, ?> build, final String resultId, final FilePath resultFile)
+			throws IOException, InterruptedException
+	{
+		File archive = getArchiveFile(build, resultId);
+		try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(archive.toPath())))
+		{
+			resultFile.copyTo(out);
+		}
+	}
+
+	/**
+	 * Prints a bounded digest of the summary to the console.
+	 *
+	 * @param logger
+	 *            The console to print to.
+	 * @param summary
+	 *            The summary of the result file.
+	 */
+	public static void printDigest(final PrintStream logger, final TotalTestResultSummary summary)
+	{
+		logger.println(String.format("Scenarios: %d (%d failed), test cases: %d (%d failed)", //$NON-NLS-1$
+				summary.getScenarioCount(), summary.getFailedScenarioCount(), summary.getTestCaseCount(),
+				summary.getFailedTestCaseCount()));
+
+		if (summary.getCcPercentage() != null)
+		{
+			logger.println((summary.isCcMinimum() ? "Lowest Code Coverage of the folders: " : "Code Coverage: ") //$NON-NLS-1$ //$NON-NLS-2$
+					+ summary.getCcPercentage() + " %"); //$NON-NLS-1$
+		}
+
+		printFailures(logger, "Failed scenarios", summary.getFailedScenarios(), summary.getFailedScenarioCount()); //$NON-NLS-1$
+		printFailures(logger, "Failed test cases", summary.getFailedTestCases(), summary.getFailedTestCaseCount()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Prints at most {@value #DIGEST_FAILURES} failures to the console.
+	 *
+	 * @param logger
+	 *            The console to print to.
+	 * @param title
+	 *            The title of the list.
+	 * @param failures
+	 *            The failures to print.
+	 * @param count
+	 *            The total number of failures.
+	 */
+	private static void printFailures(final PrintStream logger, final String title, final List<String> failures, final int count)
+	{
+		if (count == 0)
+		{
+			return;
+		}
+
+		logger.println(title + ":"); //$NON-NLS-1$
+		int printed = Math.min(DIGEST_FAILURES, failures.size());
+		for (int i = 0; i < printed; i++)
+		{
+			logger.println("  " + failures.get(i)); //$NON-NLS-1$
+		}
+
+		if (count > printed)
+		{
+			logger.println("  ... and " + (count - printed) + " more"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	@Override
+	public String getIconFileName()
+	{
+		return "clipboard.png"; //$NON-NLS-1$
+	}
+
+	@Override
+	public String getDisplayName()
+	{
+		return label != null ? "Total Test Result: " + label : "Total Test Result"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Override
+	public String getUrlName()
+	{
+		return id != null ? URL_NAME + '-' + id : URL_NAME;
+	}
+
+	@Override
+	public void onAttached(final Run<?, ?> r)
+	{
+		this.run = r;
+		if (id != null)
+		{
+			// The action now holds the id.
+			synchronized (ID_LOCK)
+			{
+				Set<String> reserved = RESERVED_IDS.get(r);
+				if (reserved != null)
+				{
+					reserved.remove(id);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void onLoad(final Run<?, ?> r)
+	{
+		this.run = r;
+	}
+
+	/**
+	 * Returns the build of this action.
+	 *
+	 * @return the build
+	 */
+	public Run<?, ?> getRun()
+	{
+		return run;
+	}
+
+	/**
+	 * Returns the summary of the result file.
+	 *
+	 * @return an instance of <code>TotalTestResultSummary</code>
+	 */
+	public TotalTestResultSummary getSummary()
+	{
+		return summary;
+	}
+
+	/**
+	 * Returns the name of the result file.
+	 *
+	 * @return the result file name
+	 */
+	public String getResultFileName()
+	{
+		return resultFileName;
+	}
+
+	/**
+	 * Returns the id of the result in the build.
+	 *
+	 * @return the id, or <code>null</code> for results of builds made before results had an id
+	 */
+	public String getId()
+	{
+		return id;
+	}
+
+	/**
+	 * Returns the results of the scenarios, read from the archived result file when the page is shown, so they are not
+	 * kept in the build.
+	 *
+	 * @return the scenario results, at most {@link TotalTestResultSummary#MAX_SCENARIOS}, empty if the result file was
+	 *         not archived or could not be read
+	 */
+	public List<TotalTestResultSummary.ScenarioResult> getScenarios()
+	{
+		if (!isRawAvailable())
+		{
+			return Collections.emptyList();
+		}
+
+		try (InputStream in = new GZIPInputStream(Files.newInputStream(getArchiveFile(run, id).toPath())))
+		{
+			return TotalTestResultParser.parse(in).getScenarios();
+		}
+		catch (IOException e) //NOSONAR
+		{
+			// Only the scenario table is left out, the summary is kept in the build.
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * Returns if the raw result file was archived.
+	 *
+	 * @return <code>true</code> if the raw result file is available, otherwise <code>false</code>
+	 */
+	public boolean isRawAvailable()
+	{
+		return run != null && getArchiveFile(run, id).isFile();
+	}
+
+	/**
+	 * Serves the raw result file.
+	 *
+	 * @param req
+	 *            The request.
+	 * @param rsp
+	 *            The response.
+	 *
+	 * @throws IOException
+	 *             If the archived file could not be read.
+	 */
+	public void doRaw(final StaplerRequest req, final StaplerResponse rsp) throws IOException
+	{
+		if (run != null)
+		{
+			run.checkPermission(Item.READ);
+		}
+
+		if (!isRawAvailable())
+		{
+			rsp.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+
+		// Served as plain text, so the browser never renders markup from the result file.
+		rsp.setContentType("text/plain;charset=UTF-8"); //$NON-NLS-1$
+		try (InputStream in = new GZIPInputStream(Files.newInputStream(getArchiveFile(run, id).toPath())))
+		{
+			IOUtils.copy(in, rsp.getOutputStream());
+		}
+	}
+}
@@ -0,0 +1,597 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang.StringUtils;
+
+import hudson.FilePath;
+import hudson.Util;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+import jenkins.model.Jenkins;
+
+/**
+ * Reuses the results of unit test scenarios run with stubs, whose outcome depends on their inputs only.
+ * <p>
+ * The inputs of a scenario are the scenario file, the other files of the test project (stubs, interfaces, JCL, ...),
+ * the files matching the memoization inputs of the step, which stand for the load modules under test, the CLI version
+ * and the settings of the step. Their hash keys the JUnit result of the scenario in a cache under the controller's
+ * <code>caches</code> directory. Scenarios with a cached result are not sent to the CLI, their JUnit files are written
+ * to the <code>TTTUnit</code> folder of the workspace instead. Only passed scenarios are cached. The least recently used
+ * results are evicted when the cache exceeds the size set in {@link TotalTestGlobalConfiguration}.
+ */
+public final class TotalTestResultCache
+{
+	private static final String CACHES_FOLDER = "caches"; //$NON-NLS-1$
+	private static final String CACHE_FOLDER = "totaltest-results"; //$NON-NLS-1$
+	private static final String ENTRY_FILE = "entry.properties"; //$NON-NLS-1$
+	private static final String JUNIT_FOLDER = "TTTUnit"; //$NON-NLS-1$
+	private static final String OUTPUT_FOLDER = "Output"; //$NON-NLS-1$
+	private static final String TEMP_PREFIX = ".tmp-"; //$NON-NLS-1$
+	private static final long BYTES_PER_MB = 1024L * 1024;
+	private static final Pattern FAILURES = Pattern.compile("\\b(?:failures|errors)\\s*=\\s*\"(\\d+)\""); //$NON-NLS-1$
+	private static final Pattern TEST_SUITE_NAME = Pattern.compile("<testsuite\\b[^>]*?\\bname\\s*=\\s*\"([^\"]*)\""); //$NON-NLS-1$
+	private static final String JUNIT_EXTENSION = ".xml"; //$NON-NLS-1$
+	private static final long MODIFIED_TIME_TOLERANCE = 2000;
+
+	/** Guards the stores and evictions of all builds. */
+	private static final Object LOCK = new Object();
+
+	private final File cacheRoot;
+	private final long maxSize;
+	private final TaskListener listener;
+	private final Map<String, String> misses = new LinkedHashMap<>();
+	private final Set<String> replayedFiles = new HashSet<>();
+	private long startTime;
+
+	/**
+	 * Constructor
+	 *
+	 * @param cacheRoot
+	 *            The directory of the cache on the controller.
+	 * @param maxSize
+	 *            The largest size of the cache in bytes.
+	 * @param listener
+	 *            Build listener
+	 */
+	TotalTestResultCache(final File cacheRoot, final long maxSize, final TaskListener listener)
+	{
+		this.cacheRoot = cacheRoot;
+		this.maxSize = maxSize;
+		this.listener = listener;
+	}
+
+	/**
+	 * Creates the result cache of a unit test step.
+	 *
+	 * @param tttBuilder
+	 *            The configuration of the run.
+	 * @param listener
+	 *            Build listener
+	 *
+	 * @return the cache, or <code>null</code> if the results of the step can not be reused
+	 */
+	public static TotalTestResultCache forBuilder(final TotalTestBuilder tttBuilder, final TaskListener listener)
+	{
+		if (!tttBuilder.isMemoizeResults())
+		{
+			return null;
+		}
+
+		if (!tttBuilder.isUseStubs() || StringUtils.isNotBlank(tttBuilder.getCcRepo()))
+		{
+			listener.getLogger().println("Total Test results are only reused for runs with stubs and without Code Coverage"); //$NON-NLS-1$
+			return null;
+		}
+
+		TotalTestGlobalConfiguration config = TotalTestGlobalConfiguration.get();
+		long maxSize = config != null ? config.getResultCacheSize() * BYTES_PER_MB : 0;
+		if (maxSize <= 0)
+		{
+			listener.getLogger().println("The Total Test result cache is disabled in the global configuration"); //$NON-NLS-1$
+			return null;
+		}
+
+		File cacheRoot = new File(new File(Jenkins.get().getRootDir(), CACHES_FOLDER), CACHE_FOLDER);
+		return new TotalTestResultCache(cacheRoot, maxSize, listener);
+	}
+
+	/**
+	 * Replays the cached results of the given test scenarios and returns the scenarios that must be run.
+	 *
+	 * @param projectFolder
+	 *            The test project folder on the node.
+	 * @param workspace
+	 *            The workspace the JUnit files are written to.
+	 * @param testNames
+	 *            The test scenario and suite names of the run.
+	 * @param ignoreCase
+	 *            <code>true</code> if the names are case-insensitive on the node, otherwise <code>false</code>.
+	 * @param tttBuilder
+	 *            The configuration of the run.
+	 * @param cliVersion
+	 *            The version of the CLI.
+	 * @param nodeTime
+	 *            The time on the clock of the node when the run started, JUnit files modified after it were written by
+	 *            the run.
+	 *
+	 * @return the test names to send to the CLI, which may be empty
+	 *
+	 * @throws InterruptedException
+	 *             If reading the inputs was interrupted.
+	 */
+	public List<String> replay(final FilePath projectFolder, final FilePath workspace, final List<String> testNames,
+			final boolean ignoreCase, final TotalTestBuilder tttBuilder, final String cliVersion, final long nodeTime)
+			throws InterruptedException
+	{
+		startTime = nodeTime;
+		for (String testName : testNames)
+		{
+			if (!testName.toLowerCase(Locale.ROOT).endsWith(TotalTestShard.TEST_SCENARIO_SUFFIX))
+			{
+				listener.getLogger().println("Total Test results are not reused for test suites, running all tests"); //$NON-NLS-1$
+				return testNames;
+			}
+		}
+
+		Map<String, String> inputHashes;
+		try
+		{
+			inputHashes = projectFolder.act(new HashInputs(testNames, ignoreCase, workspace.getRemote(),
+					Util.fixEmptyAndTrim(tttBuilder.getMemoizationInputs())));
+		}
+		catch (IOException e)
+		{
+			listener.getLogger().println("Unable to hash the inputs of the Total Test scenarios, running all tests: " + e.getMessage()); //$NON-NLS-1$
+			return testNames;
+		}
+
+		String settings = String.join("|", cliVersion, tttBuilder.getJcl(), tttBuilder.getHlq(), //$NON-NLS-1$
+				TotalTestHostThrottle.getHostKey(tttBuilder), Boolean.toString(tttBuilder.isDeleteTemp()));
+		List<String> toRun = new ArrayList<>();
+		int reused = 0;
+		for (String testName : testNames)
+		{
+			String key = Util.getDigestOf(settings + '|' + inputHashes.get(testName));
+			File entry = new File(cacheRoot, key);
+			if (replay(entry, testName, workspace))
+			{
+				reused++;
+			}
+			else
+			{
+				misses.put(testName, key);
+				toRun.add(testName);
+			}
+		}
+
+		listener.getLogger().println("Total Test result cache: " + reused + " scenario(s) reused, " + toRun.size() //$NON-NLS-1$ //$NON-NLS-2$
+				+ " scenario(s) to run"); //$NON-NLS-1$
+		return toRun;
+	}
+
+	/**
+	 * Caches the results of the scenarios that ran and passed.
+	 *
+	 * @param build
+	 *            The current running Jenkins build
+	 * @param workspace
+	 *            The workspace the CLI wrote the JUnit files to.
+	 *
+	 * @throws InterruptedException
+	 *             If reading the JUnit files was interrupted.
+	 */
+	public void store(final Run<?, ?> build, final FilePath workspace) throws InterruptedException
+	{
+		if (misses.isEmpty())
+		{
+			return;
+		}
+
+		try
+		{
+			FilePath junitFolder = workspace.child(JUNIT_FOLDER);
+			List<FilePath> junitFiles = new ArrayList<>();
+			if (junitFolder.isDirectory())
+			{
+				for (FilePath junitFile : junitFolder.list("*.xml")) //$NON-NLS-1$
+				{
+					if (junitFile.lastModified() >= startTime - MODIFIED_TIME_TOLERANCE && !replayedFiles.contains(junitFile.getName()))
+					{
+						junitFiles.add(junitFile);
+					}
+				}
+			}
+
+			int stored = 0;
+			for (Map.Entry<String, String> miss : misses.entrySet())
+			{
+				if (store(build, miss.getKey(), miss.getValue(), junitFiles))
+				{
+					stored++;
+				}
+			}
+
+			evict();
+			listener.getLogger().println("Total Test result cache: " + stored + " passed scenario result(s) cached"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		catch (IOException e)
+		{
+			listener.getLogger().println("Unable to cache the Total Test results: " + e.getMessage()); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Returns the names of the test suites of a JUnit report.
+	 */
+	private static List<String> getTestSuiteNames(final String content)
+	{
+		List<String> names = new ArrayList<>();
+		Matcher matcher = TEST_SUITE_NAME.matcher(content);
+		while (matcher.find())
+		{
+			names.add(matcher.group(1));
+		}
+
+		return names;
+	}
+
+	/**
+	 * Writes the cached JUnit files of a scenario to the workspace.
+	 *
+	 * @return <code>true</code> if the result was reused, otherwise <code>false</code>
+	 */
+	private boolean replay(final File entry, final String testName, final FilePath workspace) throws InterruptedException
+	{
+		File[] files = entry.listFiles((dir, name) -> !ENTRY_FILE.equals(name));
+		if (files == null || files.length == 0)
+		{
+			return false;
+		}
+
+		try
+		{
+			FilePath junitFolder = workspace.child(JUNIT_FOLDER);
+			junitFolder.mkdirs();
+			for (File file : files)
+			{
+				junitFolder.child(file.getName()).copyFrom(new FilePath(file));
+				replayedFiles.add(file.getName());
+			}
+
+			Properties properties = loadEntry(entry);
+			listener.getLogger().println("Reused the result of " + testName + " from " //$NON-NLS-1$ //$NON-NLS-2$
+					+ properties.getProperty("build", "an earlier build")); //$NON-NLS-1$ //$NON-NLS-2$
+
+			// Marks the result as recently used.
+			if (!entry.setLastModified(System.currentTimeMillis()))
+			{
+				listener.getLogger().println("Unable to mark the cached result of " + testName + " as used"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+
+			return true;
+		}
+		catch (IOException e)
+		{
+			listener.getLogger().println("Unable to reuse the result of " + testName + ": " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+			return false;
+		}
+	}
+
+	/**
+	 * Caches the JUnit files of a scenario, when the scenario passed.
+	 */
+	private boolean store(final Run<?, ?> build, final String testName, final String key, final List<FilePath> junitFiles)
+			throws IOException, InterruptedException
+	{
+		String fileName = TotalTestShard.getFileName(testName);
+		String baseName = StringUtils.removeEndIgnoreCase(fileName, TotalTestShard.TEST_SCENARIO_SUFFIX);
+		Map<String, String> matches = new TreeMap<>();
+		for (FilePath junitFile : junitFiles)
+		{
+			String content = junitFile.readToString();
+			List<String> suiteNames = getTestSuiteNames(content);
+			boolean namedAfter = StringUtils.removeEndIgnoreCase(junitFile.getName(), JUNIT_EXTENSION).equalsIgnoreCase(baseName);
+			boolean suiteOf = suiteNames.size() == 1
+					&& (suiteNames.get(0).equalsIgnoreCase(baseName) || suiteNames.get(0).equalsIgnoreCase(fileName));
+			if (namedAfter && suiteNames.size() > 1)
+			{
+				// A report of several scenarios can not be replayed for one of them.
+				return false;
+			}
+
+			if (namedAfter || suiteOf)
+			{
+				Matcher matcher = FAILURES.matcher(content);
+				while (matcher.find())
+				{
+					if (Integer.parseInt(matcher.group(1)) > 0)
+					{
+						return false;
+					}
+				}
+
+				matches.put(junitFile.getName(), content);
+			}
+		}
+
+		if (matches.isEmpty())
+		{
+			return false;
+		}
+
+		synchronized (LOCK)
+		{
+			File entry = new File(cacheRoot, key);
+			if (entry.isDirectory())
+			{
+				return false;
+			}
+
+			// Write to a temporary directory first, so a concurrent build never replays a partial result.
+			File temp = Files.createTempDirectory(Files.createDirectories(cacheRoot.toPath()), TEMP_PREFIX).toFile();
+			try
+			{
+				for (Map.Entry<String, String> match : matches.entrySet())
+				{
+					Files.write(new File(temp, match.getKey()).toPath(), match.getValue().getBytes(StandardCharsets.UTF_8));
+				}
+
+				Properties properties = new Properties();
+				properties.setProperty("scenario", testName); //$NON-NLS-1$
+				properties.setProperty("build", build.getFullDisplayName()); //$NON-NLS-1$
+				try (OutputStream out = Files.newOutputStream(new File(temp, ENTRY_FILE).toPath()))
+				{
+					properties.store(out, null);
+				}
+
+				return temp.renameTo(entry);
+			}
+			finally
+			{
+				if (temp.exists())
+				{
+					Util.deleteRecursive(temp);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Evicts the least recently used results until the cache fits its size.
+	 */
+	private void evict() throws IOException
+	{
+		synchronized (LOCK)
+		{
+			File[] entries = cacheRoot.listFiles(File::isDirectory);
+			if (entries == null)
+			{
+				return;
+			}
+
+			Map<File, Long> sizes = new LinkedHashMap<>();
+			long totalSize = 0;
+			for (File entry : entries)
+			{
+				long size = sizeOf(entry);
+				sizes.put(entry, size);
+				totalSize += size;
+			}
+
+			Arrays.sort(entries, Comparator.comparingLong(File::lastModified));
+			int evicted = 0;
+			for (int i = 0; i < entries.length && totalSize > maxSize; i++)
+			{
+				Util.deleteRecursive(entries[i]);
+				totalSize -= sizes.get(entries[i]);
+				evicted++;
+			}
+
+			if (evicted > 0)
+			{
+				listener.getLogger().println("Total Test result cache: " + evicted + " least recently used result(s) evicted"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+	}
+
+	private static long sizeOf(final File entry)
+	{
+		long size = 0;
+		File[] files = entry.listFiles();
+		if (files != null)
+		{
+			for (File file : files)
+			{
+				size += file.length();
+			}
+		}
+
+		return size;
+	}
+
+	private static Properties loadEntry(final File entry)
+	{
+		Properties properties = new Properties();
+		try (InputStream in = Files.newInputStream(new File(entry, ENTRY_FILE).toPath()))
+		{
+			properties.load(in);
+		}
+		catch (IOException e)
+		{
+			// The entry is still reused, only its origin is unknown.
+		}
+
+		return properties;
+	}
+
+	/**
+	 * Hashes the inputs of the test scenarios on the node.
+	 */
+	private static final class HashInputs extends MasterToSlaveFileCallable<Map<String, String>>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final List<String> testNames;
+		private final boolean ignoreCase;
+		private final String workspace;
+		private final String memoizationInputs;
+
+		HashInputs(final List<String> testNames, final boolean ignoreCase, final String workspace, final String memoizationInputs)
+		{
+			this.testNames = testNames;
+			this.ignoreCase = ignoreCase;
+			this.workspace = workspace;
+			this.memoizationInputs = memoizationInputs;
+		}
+
+		@Override
+		public Map<String, String> invoke(File projectFolder, VirtualChannel channel) throws IOException, InterruptedException
+		{
+			Path root = projectFolder.toPath();
+			Map<String, List<Path>> scenarios = new TreeMap<>(ignoreCase ? String.CASE_INSENSITIVE_ORDER : Comparator.naturalOrder());
+			List<Path> projectFiles = new ArrayList<>();
+			Set<String> prunedFolders = new HashSet<>(TotalTestShard.PRUNED_FOLDERS);
+			prunedFolders.add(OUTPUT_FOLDER);
+
+			Files.walkFileTree(root, new SimpleFileVisitor<Path>()
+			{
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+				{
+					Path name = dir.getFileName();
+					return !dir.equals(root) && name != null && prunedFolders.contains(name.toString())
+							? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+				{
+					if (attrs.isRegularFile())
+					{
+						String name = file.getFileName().toString();
+						if (name.toLowerCase(Locale.ROOT).endsWith(TotalTestShard.TEST_SCENARIO_SUFFIX))
+						{
+							scenarios.computeIfAbsent(TotalTestShard.relativePath(root, file), k -> new ArrayList<>()).add(file);
+						}
+						else if (!name.toLowerCase(Locale.ROOT).endsWith(TotalTestShard.TEST_SUITE_SUFFIX))
+						{
+							projectFiles.add(file);
+						}
+					}
+
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException exc)
+				{
+					return FileVisitResult.CONTINUE;
+				}
+			});
+
+			MessageDigest common = getDigest();
+			projectFiles.sort(Comparator.naturalOrder());
+			for (Path file : projectFiles)
+			{
+				update(common, root.relativize(file).toString(), file);
+			}
+
+			if (memoizationInputs != null)
+			{
+				File workspaceFolder = new File(workspace);
+				String[] inputs = Util.createFileSet(workspaceFolder, memoizationInputs).getDirectoryScanner().getIncludedFiles();
+				Arrays.sort(inputs);
+				for (String input : inputs)
+				{
+					update(common, input, new File(workspaceFolder, input).toPath());
+				}
+			}
+
+			String commonHash = Util.toHexString(common.digest());
+			Map<String, String> hashes = new LinkedHashMap<>();
+			for (String testName : testNames)
+			{
+				List<Path> files = scenarios.get(testName);
+				if (files == null)
+				{
+					throw new IOException("The test scenario " + testName + " was not found in " + projectFolder); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+
+				MessageDigest digest = getDigest();
+				digest.update(commonHash.getBytes(StandardCharsets.UTF_8));
+				files.sort(Comparator.naturalOrder());
+				for (Path file : files)
+				{
+					update(digest, root.relativize(file).toString(), file);
+				}
+
+				hashes.put(testName, Util.toHexString(digest.digest()));
+			}
+
+			return hashes;
+		}
+
+		private static void update(final MessageDigest digest, final String name, final Path file) throws IOException
+		{
+			digest.update(name.replace('\\', '/').getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+			digest.update(Files.readAllBytes(file));
+			digest.update((byte) 0);
+		}
+
+		private static MessageDigest getDigest() throws IOException
+		{
+			try
+			{
+				return MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+			}
+			catch (NoSuchAlgorithmException e)
+			{
+				throw new IOException(e);
+			}
+		}
+	}
+}
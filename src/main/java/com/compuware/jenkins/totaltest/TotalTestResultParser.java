@@ -0,0 +1,257 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * Parses Total Test suite and scenario result files with a streaming (StAX) parser.
+ * <p>
+ * The parser reads the root result type and duration, the Code Coverage percentage and the results of the scenarios and
+ * test cases, including their durations and failure messages when the result file has them.
+ * Elements directly below an <code>XaSuiteResult</code> that have a <code>resultType</code> are counted as scenarios,
+ * deeper elements that have a <code>resultType</code> are counted as test cases. In an <code>XaUnitResult</code> all
+ * elements below the root that have a <code>resultType</code> are counted as test cases.
+ * <p>
+ * Only the <code>resultType</code> attributes and <code>CC/data@percentage</code> are relied on. Names, durations and
+ * messages are each read from a single attribute and are left out when a result file does not have it; a result is
+ * then named after its element.
+ */
+public final class TotalTestResultParser
+{
+	static final String XA_SUITE_RESULT = "XaSuiteResult"; //$NON-NLS-1$
+	static final String XA_UNIT_RESULT = "XaUnitResult"; //$NON-NLS-1$
+	static final String RESULT_SUCCESS = "SUCCESS"; //$NON-NLS-1$
+
+	static final String ATTR_RESULT_TYPE = "resultType"; //$NON-NLS-1$
+	private static final String ATTR_PERCENTAGE = "percentage"; //$NON-NLS-1$
+	static final String ELEMENT_CC = "CC"; //$NON-NLS-1$
+	private static final String ELEMENT_DATA = "data"; //$NON-NLS-1$
+	static final String[] DURATION_ATTRIBUTES = { "duration" }; //$NON-NLS-1$
+	static final String[] MESSAGE_ATTRIBUTES = { "message" }; //$NON-NLS-1$
+	private static final String[] NAME_ATTRIBUTES = { "name" }; //$NON-NLS-1$
+
+	private TotalTestResultParser()
+	{
+	}
+
+	/**
+	 * Parses a result file.
+	 *
+	 * @param file
+	 *            The result file.
+	 *
+	 * @return an instance of <code>TotalTestResultSummary</code>
+	 *
+	 * @throws IOException
+	 *             If the file could not be read or is not well formed.
+	 */
+	public static TotalTestResultSummary parse(final File file) throws IOException
+	{
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath())))
+		{
+			return parse(in);
+		}
+	}
+
+	/**
+	 * Parses a result document.
+	 *
+	 * @param in
+	 *            The stream to read the document from.
+	 *
+	 * @return an instance of <code>TotalTestResultSummary</code>
+	 *
+	 * @throws IOException
+	 *             If the document is not well formed.
+	 */
+	public static TotalTestResultSummary parse(final InputStream in) throws IOException
+	{
+		TotalTestResultSummary summary = new TotalTestResultSummary();
+
+		XMLStreamReader reader = null;
+		try
+		{
+			reader = createInputFactory().createXMLStreamReader(in);
+
+			int depth = 0;
+			boolean inCC = false;
+			while (reader.hasNext())
+			{
+				int event = reader.next();
+				if (event == XMLStreamConstants.START_ELEMENT)
+				{
+					depth++;
+					String localName = reader.getLocalName();
+					if (depth == 1)
+					{
+						summary.setRootElement(localName);
+						summary.setResultType(reader.getAttributeValue(null, ATTR_RESULT_TYPE));
+						summary.setDuration(getAttribute(reader, DURATION_ATTRIBUTES));
+					}
+					else if (depth == 2 && ELEMENT_CC.equals(localName))
+					{
+						inCC = true;
+					}
+					else if (depth == 3 && inCC && ELEMENT_DATA.equals(localName) && summary.getCcPercentage() == null)
+					{
+						summary.setCcPercentage(reader.getAttributeValue(null, ATTR_PERCENTAGE));
+					}
+					else if (!inCC)
+					{
+						addResult(summary, reader, depth);
+					}
+				}
+				else if (event == XMLStreamConstants.END_ELEMENT)
+				{
+					if (depth == 2)
+					{
+						inCC = false;
+					}
+					depth--;
+				}
+			}
+		}
+		catch (XMLStreamException e)
+		{
+			throw new IOException("Unable to parse Total Test result: " + e.getMessage(), e); //$NON-NLS-1$
+		}
+		finally
+		{
+			if (reader != null)
+			{
+				try
+				{
+					reader.close();
+				}
+				catch (XMLStreamException e) //NOSONAR
+				{
+					// nothing to clean up
+				}
+			}
+		}
+
+		return summary;
+	}
+
+	/**
+	 * Adds the element at the reader's position to the summary, if it is a scenario or test case result.
+	 *
+	 * @param summary
+	 *            The summary to add to.
+	 * @param reader
+	 *            The reader positioned on a start element.
+	 * @param depth
+	 *            The depth of the element, the root being 1.
+	 */
+	private static void addResult(final TotalTestResultSummary summary, final XMLStreamReader reader, final int depth)
+	{
+		String resultType = reader.getAttributeValue(null, ATTR_RESULT_TYPE);
+		if (resultType == null)
+		{
+			return;
+		}
+
+		String name = getName(reader);
+		String message = getAttribute(reader, MESSAGE_ATTRIBUTES);
+		if (depth == 2 && XA_SUITE_RESULT.equals(summary.getRootElement()))
+		{
+			summary.addScenario(name, resultType, getAttribute(reader, DURATION_ATTRIBUTES), message);
+		}
+		else
+		{
+			summary.addTestCase(name, !RESULT_SUCCESS.equalsIgnoreCase(resultType), message);
+		}
+	}
+
+	/**
+	 * Returns the name of the element at the reader's position.
+	 *
+	 * @param reader
+	 *            The reader positioned on a start element.
+	 *
+	 * @return the value of the first name attribute found, otherwise the element name
+	 */
+	static String getName(final XMLStreamReader reader)
+	{
+		String name = getAttribute(reader, NAME_ATTRIBUTES);
+		return name != null ? name : reader.getLocalName();
+	}
+
+	/**
+	 * Returns the value of the first of the given attributes that is set on the element at the reader's position.
+	 *
+	 * @param reader
+	 *            The reader positioned on a start element.
+	 * @param attributes
+	 *            The names of the attributes, in order of preference.
+	 *
+	 * @return the attribute value, or <code>null</code> if none of the attributes is set
+	 */
+	static String getAttribute(final XMLStreamReader reader, final String[] attributes)
+	{
+		for (String attribute : attributes)
+		{
+			String value = reader.getAttributeValue(null, attribute);
+			if (value != null && !value.isEmpty())
+			{
+				return value;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns an input factory that does not resolve DTDs or external entities.
+	 *
+	 * @return an instance of <code>XMLInputFactory</code>
+	 */
+	static XMLInputFactory createInputFactory()
+	{
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return factory;
+	}
+
+	/**
+	 * Parses a result file on the node where it resides, so only the summary is sent to the controller.
+	 */
+	public static final class ParseResultFile extends MasterToSlaveFileCallable<TotalTestResultSummary>
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public TotalTestResultSummary invoke(File file, VirtualChannel channel) throws IOException, InterruptedException
+		{
+			return parse(file);
+		}
+	}
+}
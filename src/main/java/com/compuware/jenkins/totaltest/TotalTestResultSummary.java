@@ -0,0 +1,416 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A compact summary of a Total Test suite (<code>XaSuiteResult</code>) or scenario (<code>XaUnitResult</code>) result
+ * file.
+ * <p>
+ * The number of failed test names kept is bounded, so the size of the summary does not depend on the size of the result
+ * file. The results of the scenarios are only kept while the summary is parsed, they are neither saved with the build nor
+ * sent from the node.
+ */
+public class TotalTestResultSummary implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	/** The maximum number of failed scenario and test case names kept in a summary. */
+	public static final int MAX_FAILED_NAMES = 100;
+
+	/** The maximum number of scenario results kept in a summary. */
+	public static final int MAX_SCENARIOS = 1000;
+
+	/** The result type of a run skipped because no test is impacted by the selected programs. */
+	public static final String RESULT_NO_IMPACTED_TESTS = "NO_IMPACTED_TESTS"; //$NON-NLS-1$
+
+	private String rootElement;
+	private String resultType;
+	private String duration;
+	private String ccPercentage;
+	private boolean ccMinimum;
+	private int scenarioCount;
+	private int testCaseCount;
+	private int failedScenarioCount;
+	private int failedTestCaseCount;
+	private final List<String> failedScenarios = new ArrayList<>();
+	private final List<String> failedTestCases = new ArrayList<>();
+	private transient List<ScenarioResult> scenarios;
+
+	/**
+	 * Returns the name of the root element of the result file.
+	 *
+	 * @return <code>XaSuiteResult</code>, <code>XaUnitResult</code> or <code>null</code> if the file was empty
+	 */
+	public String getRootElement()
+	{
+		return rootElement;
+	}
+
+	void setRootElement(final String rootElement)
+	{
+		this.rootElement = rootElement;
+	}
+
+	/**
+	 * Returns the result type of the suite or scenario.
+	 *
+	 * @return the result type, for example <code>SUCCESS</code>
+	 */
+	public String getResultType()
+	{
+		return resultType;
+	}
+
+	void setResultType(final String resultType)
+	{
+		this.resultType = resultType;
+	}
+
+	/**
+	 * Returns the duration of the suite or scenario, as written in the result file.
+	 *
+	 * @return the duration, or <code>null</code> if the result file has no duration
+	 */
+	public String getDuration()
+	{
+		return duration;
+	}
+
+	void setDuration(final String duration)
+	{
+		this.duration = duration;
+	}
+
+	/**
+	 * Returns the Code Coverage percentage.
+	 *
+	 * @return the percentage, or <code>null</code> if the result has no Code Coverage data
+	 */
+	public String getCcPercentage()
+	{
+		return ccPercentage;
+	}
+
+	void setCcPercentage(final String ccPercentage)
+	{
+		this.ccPercentage = ccPercentage;
+	}
+
+	/**
+	 * Returns whether the Code Coverage percentage is the lowest of several merged results rather than the coverage of
+	 * a single run.
+	 *
+	 * @return <code>true</code> if the percentage is the lowest of the merged results, otherwise <code>false</code>
+	 */
+	public boolean isCcMinimum()
+	{
+		return ccMinimum;
+	}
+
+	/**
+	 * Returns the number of scenarios in the result.
+	 *
+	 * @return the scenario count
+	 */
+	public int getScenarioCount()
+	{
+		return scenarioCount;
+	}
+
+	/**
+	 * Returns the number of test cases in the result.
+	 *
+	 * @return the test case count
+	 */
+	public int getTestCaseCount()
+	{
+		return testCaseCount;
+	}
+
+	/**
+	 * Returns the number of failed scenarios.
+	 *
+	 * @return the failed scenario count
+	 */
+	public int getFailedScenarioCount()
+	{
+		return failedScenarioCount;
+	}
+
+	/**
+	 * Returns the number of failed test cases.
+	 *
+	 * @return the failed test case count
+	 */
+	public int getFailedTestCaseCount()
+	{
+		return failedTestCaseCount;
+	}
+
+	/**
+	 * Returns the names of the failed scenarios, at most {@link #MAX_FAILED_NAMES}.
+	 *
+	 * @return the failed scenario names
+	 */
+	public List<String> getFailedScenarios()
+	{
+		return Collections.unmodifiableList(failedScenarios);
+	}
+
+	/**
+	 * Returns the names of the failed test cases, at most {@link #MAX_FAILED_NAMES}.
+	 *
+	 * @return the failed test case names
+	 */
+	public List<String> getFailedTestCases()
+	{
+		return Collections.unmodifiableList(failedTestCases);
+	}
+
+	/**
+	 * Returns the results of the scenarios, at most {@link #MAX_SCENARIOS}, of a summary that was just parsed.
+	 *
+	 * @return the scenario results, empty once the summary was saved or sent from the node
+	 */
+	public List<ScenarioResult> getScenarios()
+	{
+		return scenarios != null ? Collections.unmodifiableList(scenarios) : Collections.emptyList();
+	}
+
+	/**
+	 * Returns if the run was skipped because no test is impacted by the selected programs.
+	 *
+	 * @return <code>true</code> if the CLI was not launched, otherwise <code>false</code>
+	 */
+	public boolean isNoImpactedTests()
+	{
+		return RESULT_NO_IMPACTED_TESTS.equals(resultType);
+	}
+
+	/**
+	 * Returns if the result is successful.
+	 *
+	 * @return <code>true</code> if the result type is <code>SUCCESS</code>, otherwise <code>false</code>
+	 */
+	public boolean isSuccess()
+	{
+		return TotalTestResultParser.RESULT_SUCCESS.equalsIgnoreCase(resultType);
+	}
+
+	/**
+	 * Adds a scenario to the summary.
+	 *
+	 * @param name
+	 *            The name of the scenario.
+	 * @param resultType
+	 *            The result type of the scenario.
+	 * @param duration
+	 *            The duration of the scenario, can be <code>null</code>.
+	 * @param message
+	 *            The failure message of the scenario, can be <code>null</code>.
+	 */
+	void addScenario(final String name, final String resultType, final String duration, final String message)
+	{
+		boolean failed = !TotalTestResultParser.RESULT_SUCCESS.equalsIgnoreCase(resultType);
+		if (scenarios == null)
+		{
+			scenarios = new ArrayList<>();
+		}
+
+		if (scenarios.size() < MAX_SCENARIOS)
+		{
+			scenarios.add(new ScenarioResult(name, resultType, duration, message));
+		}
+
+		scenarioCount++;
+		if (failed)
+		{
+			failedScenarioCount++;
+			if (failedScenarios.size() < MAX_FAILED_NAMES)
+			{
+				failedScenarios.add(name);
+			}
+		}
+	}
+
+	/**
+	 * Adds a test case to the summary.
+	 *
+	 * @param name
+	 *            The name of the test case.
+	 * @param failed
+	 *            <code>true</code> if the test case failed.
+	 * @param message
+	 *            The failure message of the test case, can be <code>null</code>.
+	 */
+	void addTestCase(final String name, final boolean failed, final String message)
+	{
+		testCaseCount++;
+		if (failed)
+		{
+			failedTestCaseCount++;
+			if (failedTestCases.size() < MAX_FAILED_NAMES)
+			{
+				failedTestCases.add(message != null ? name + ": " + message : name); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Adds the result of the run of another folder to this summary.
+	 * <p>
+	 * The merged result is successful only when both results are, its Code Coverage is the lowest of the two, and it
+	 * has no duration since the runs overlapped.
+	 *
+	 * @param other
+	 *            The summary of the other run.
+	 */
+	void merge(final TotalTestResultSummary other)
+	{
+		if (rootElement == null)
+		{
+			rootElement = other.rootElement;
+		}
+
+		if (resultType == null || (isSuccess() && !other.isSuccess() && other.resultType != null))
+		{
+			resultType = other.resultType;
+		}
+
+		if (other.ccPercentage != null)
+		{
+			ccMinimum = true;
+			try
+			{
+				if (ccPercentage == null || Integer.parseInt(other.ccPercentage) < Integer.parseInt(ccPercentage))
+				{
+					ccPercentage = other.ccPercentage;
+				}
+			}
+			catch (NumberFormatException e)
+			{
+				// Keeps the percentage already merged.
+			}
+		}
+
+		duration = null;
+		scenarioCount += other.scenarioCount;
+		testCaseCount += other.testCaseCount;
+		failedScenarioCount += other.failedScenarioCount;
+		failedTestCaseCount += other.failedTestCaseCount;
+		addAll(failedScenarios, other.failedScenarios, MAX_FAILED_NAMES);
+		addAll(failedTestCases, other.failedTestCases, MAX_FAILED_NAMES);
+		if (other.scenarios != null)
+		{
+			if (scenarios == null)
+			{
+				scenarios = new ArrayList<>();
+			}
+
+			addAll(scenarios, other.scenarios, MAX_SCENARIOS);
+		}
+	}
+
+	private static <T> void addAll(final List<T> target, final List<T> source, final int max)
+	{
+		for (T element : source)
+		{
+			if (target.size() >= max)
+			{
+				break;
+			}
+
+			target.add(element);
+		}
+	}
+
+	/**
+	 * The result of a single scenario.
+	 */
+	public static final class ScenarioResult implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String name;
+		private final String resultType;
+		private final String duration;
+		private final String message;
+
+		ScenarioResult(final String name, final String resultType, final String duration, final String message)
+		{
+			this.name = name;
+			this.resultType = resultType;
+			this.duration = duration;
+			this.message = message;
+		}
+
+		/**
+		 * Returns the name of the scenario.
+		 *
+		 * @return the scenario name
+		 */
+		public String getName()
+		{
+			return name;
+		}
+
+		/**
+		 * Returns the result type of the scenario.
+		 *
+		 * @return the result type
+		 */
+		public String getResultType()
+		{
+			return resultType;
+		}
+
+		/**
+		 * Returns the duration of the scenario, as written in the result file.
+		 *
+		 * @return the duration, or <code>null</code> if unknown
+		 */
+		public String getDuration()
+		{
+			return duration;
+		}
+
+		/**
+		 * Returns the failure message of the scenario.
+		 *
+		 * @return the message, or <code>null</code> if none
+		 */
+		public String getMessage()
+		{
+			return message;
+		}
+
+		/**
+		 * Returns if the scenario was successful.
+		 *
+		 * @return <code>true</code> if the result type is <code>SUCCESS</code>, otherwise <code>false</code>
+		 */
+		public boolean isSuccess()
+		{
+			return TotalTestResultParser.RESULT_SUCCESS.equalsIgnoreCase(resultType);
+		}
+	}
+}
@@ -0,0 +1,305 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import hudson.model.InvisibleAction;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+
+/**
+ * Decides whether a failed CLI run is retried.
+ * <p>
+ * A run is retried only when its failure looks transient: the CLI exited with an error and the end of its output
+ * contains the signature of a network or host availability problem, such as a refused connection, a dropped TLS session
+ * or an unavailable service, and no signature of a permanent one, such as rejected credentials. Test failures are never
+ * retried. Retries wait with an exponential backoff with jitter, and are bounded by the retries of the step, by a
+ * budget per build and by a budget per host over a sliding window, so a host that is down is not hammered.
+ */
+public final class TotalTestRetryPolicy
+{
+	private static final long BASE_DELAY = TimeUnit.SECONDS.toMillis(15);
+	private static final long MAX_DELAY = TimeUnit.MINUTES.toMillis(5);
+	private static final long HOST_WINDOW = TimeUnit.MINUTES.toMillis(10);
+
+	/** Exit values of a CLI killed by a signal, which was stopped on purpose. */
+	private static final List<Integer> KILLED_EXIT_VALUES = Arrays.asList(130, 137, 143);
+
+	private static final List<String> TRANSIENT_SIGNATURES = Arrays.asList(
+			"connection refused", //$NON-NLS-1$
+			"java.net.connectexception", //$NON-NLS-1$
+			"java.net.sockettimeoutexception", //$NON-NLS-1$
+			"java.net.noroutetohostexception", //$NON-NLS-1$
+			"connection reset", //$NON-NLS-1$
+			"connection timed out", //$NON-NLS-1$
+			"broken pipe", //$NON-NLS-1$
+			"javax.net.ssl.sslexception", //$NON-NLS-1$
+			"javax.net.ssl.sslhandshakeexception", //$NON-NLS-1$
+			"remote host terminated the handshake", //$NON-NLS-1$
+			"503 service unavailable", //$NON-NLS-1$
+			"502 bad gateway", //$NON-NLS-1$
+			"504 gateway timeout", //$NON-NLS-1$
+			"temporarily unavailable"); //$NON-NLS-1$
+
+	/** Rejected logons, as reported by the host security product, and rejected certificates. */
+	private static final List<String> PERMANENT_SIGNATURES = Arrays.asList(
+			"invalid password", //$NON-NLS-1$
+			"password is not valid", //$NON-NLS-1$
+			"password has expired", //$NON-NLS-1$
+			"invalid userid or password", //$NON-NLS-1$
+			"password not authorized", //$NON-NLS-1$
+			"ich408i", //$NON-NLS-1$
+			"authentication failed", //$NON-NLS-1$
+			"certificate_unknown", //$NON-NLS-1$
+			"unable to find valid certification path"); //$NON-NLS-1$
+
+	/** The times of the recent retries, by host. */
+	private static final Map<String, Deque<Long>> HOST_RETRIES = new HashMap<>();
+
+	private final int maxRetries;
+	private final String hostKey;
+	private final TaskListener listener;
+	private TotalTestHostThrottle.Permit permit;
+	private int attempt;
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxRetries
+	 * 			  The number of retries allowed to the step, 0 to never retry.
+	 * @param hostKey
+	 * 			  The key of the host of the step, <code>null</code> if not known.
+	 * @param listener
+	 * 			  Build listener
+	 */
+	public TotalTestRetryPolicy(final int maxRetries, final String hostKey, final TaskListener listener)
+	{
+		this.maxRetries = Math.max(maxRetries, 0);
+		this.hostKey = hostKey;
+		this.listener = listener;
+	}
+
+	/**
+	 * Sets the host permit of the run, which is told about the connection and host errors of the CLI.
+	 *
+	 * @param permit
+	 * 			  The permit, or <code>null</code> if the run has none.
+	 */
+	public void setPermit(final TotalTestHostThrottle.Permit permit)
+	{
+		this.permit = permit;
+	}
+
+	/**
+	 * Decides whether a failed CLI run is retried and, if so, waits for the backoff delay.
+	 *
+	 * @param build
+	 * 			  The current running Jenkins build
+	 * @param exitValue
+	 * 			  The exit value of the CLI.
+	 * @param logTail
+	 * 			  The end of the output of the CLI.
+	 * @return <code>true</code> if the run must be launched again, otherwise <code>false</code>
+	 * @throws InterruptedException
+	 * 			  if the build was aborted during the backoff
+	 */
+	public boolean retry(final Run<?, ?> build, final int exitValue, final String logTail) throws InterruptedException
+	{
+		if (exitValue == 0)
+		{
+			return false;
+		}
+
+		String signature = getTransientSignature(exitValue, logTail);
+		if (signature == null)
+		{
+			return false;
+		}
+
+		if (permit != null)
+		{
+			permit.hostFailed();
+		}
+
+		if (maxRetries == 0)
+		{
+			return false;
+		}
+		else if (attempt >= maxRetries)
+		{
+			listener.getLogger().println("The CLI failed with a transient error (" + signature + ") but the " + maxRetries //$NON-NLS-1$ //$NON-NLS-2$
+					+ " retries of the step are used"); //$NON-NLS-1$
+			return false;
+		}
+
+		TotalTestGlobalConfiguration config = TotalTestGlobalConfiguration.get();
+		int buildBudget = config != null ? config.getRetryBuildBudget() : TotalTestGlobalConfiguration.DEFAULT_RETRY_BUILD_BUDGET;
+		int hostBudget = config != null ? config.getRetryHostBudget() : TotalTestGlobalConfiguration.DEFAULT_RETRY_HOST_BUDGET;
+		synchronized (HOST_RETRIES)
+		{
+			Retries retries = build.getAction(Retries.class);
+			if (retries == null)
+			{
+				retries = new Retries();
+				build.addAction(retries);
+			}
+
+			if (retries.count >= buildBudget)
+			{
+				listener.getLogger().println("The CLI failed with a transient error (" + signature + ") but the build used its " //$NON-NLS-1$ //$NON-NLS-2$
+						+ buildBudget + " retries"); //$NON-NLS-1$
+				return false;
+			}
+
+			long now = System.currentTimeMillis();
+			pruneHostRetries(now);
+			if (hostKey != null)
+			{
+				Deque<Long> hostRetries = HOST_RETRIES.computeIfAbsent(hostKey, k -> new ArrayDeque<>());
+				if (hostRetries.size() >= hostBudget)
+				{
+					listener.getLogger().println("The CLI failed with a transient error (" + signature + ") but host connection " //$NON-NLS-1$ //$NON-NLS-2$
+							+ hostKey + " had " + hostRetries.size() + " retries in the last " //$NON-NLS-1$ //$NON-NLS-2$
+							+ TimeUnit.MILLISECONDS.toMinutes(HOST_WINDOW) + " minutes, it may be down"); //$NON-NLS-1$
+					return false;
+				}
+
+				hostRetries.addLast(now);
+			}
+
+			retries.count++;
+		}
+
+		long delay = getDelay(attempt++);
+		listener.getLogger().println("The CLI failed with a transient error (" + signature + "), retry " + attempt + " of " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ maxRetries + " in " + TimeUnit.MILLISECONDS.toSeconds(delay) + " seconds"); //$NON-NLS-1$ //$NON-NLS-2$
+		if (permit != null)
+		{
+			// The host is free for other runs during the backoff.
+			permit.pause(delay, listener);
+		}
+		else
+		{
+			Thread.sleep(delay);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Drops the retries older than the window, and the hosts without recent retries. The caller must hold the lock of
+	 * the retries.
+	 *
+	 * @param now
+	 * 			  The current time.
+	 */
+	private static void pruneHostRetries(final long now)
+	{
+		Iterator<Deque<Long>> iterator = HOST_RETRIES.values().iterator();
+		while (iterator.hasNext())
+		{
+			Deque<Long> hostRetries = iterator.next();
+			while (!hostRetries.isEmpty() && now - hostRetries.peekFirst() > HOST_WINDOW)
+			{
+				hostRetries.removeFirst();
+			}
+
+			if (hostRetries.isEmpty())
+			{
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Returns the signature of a transient failure in the output of a failed run.
+	 *
+	 * @param exitValue
+	 * 			  The exit value of the CLI.
+	 * @param logTail
+	 * 			  The end of the output of the CLI.
+	 * @return the signature found, or <code>null</code> if the failure is not transient
+	 */
+	static String getTransientSignature(final int exitValue, final String logTail)
+	{
+		if (exitValue == 0 || KILLED_EXIT_VALUES.contains(exitValue) || logTail == null)
+		{
+			return null;
+		}
+
+		String log = logTail.toLowerCase(Locale.ROOT);
+		for (String signature : PERMANENT_SIGNATURES)
+		{
+			if (log.contains(signature))
+			{
+				return null;
+			}
+		}
+
+		for (String signature : TRANSIENT_SIGNATURES)
+		{
+			if (log.contains(signature))
+			{
+				return signature;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns the backoff delay before a retry: the exponential delay of the attempt, with a random jitter of up to
+	 * half of it so the builds that failed together do not retry together.
+	 *
+	 * @param attempt
+	 * 			  The zero based retry.
+	 * @return the delay in milliseconds
+	 */
+	private static long getDelay(final int attempt)
+	{
+		long delay = Math.min(MAX_DELAY, BASE_DELAY << Math.min(attempt, 16));
+		return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+	}
+
+	/**
+	 * The number of retries of a build, shared by its Total Test steps.
+	 */
+	public static final class Retries extends InvisibleAction
+	{
+		private int count;
+
+		/**
+		 * Returns the number of retries of the build.
+		 *
+		 * @return the number of retries
+		 */
+		public int getCount()
+		{
+			return count;
+		}
+	}
+}
@@ -18,14 +18,13 @@
 
 package com.compuware.jenkins.totaltest;
 
-import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.Properties;
+import java.util.List;
+import java.util.Locale;
 
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
 import com.compuware.jenkins.common.configuration.CpwrGlobalConfiguration;
 import com.compuware.jenkins.common.configuration.HostConnection;
-import com.compuware.jenkins.common.utils.CLIVersionUtils;
 
 import hudson.EnvVars;
 import hudson.FilePath;
@@ -74,12 +73,15 @@ public class TotalTestRunner
 	
 	private static final String RECURSIVE = "-recursive"; //$NON-NLS-1$
 	
-	private static final String PROPERTY_FILE_SEPARATOR = "file.separator";  //$NON-NLS-1$
 	private static final String DEFAULT_CODE_PAGE = "1047";  //$NON-NLS-1$
 
 	private static final String JENKINS = "-jenkins";  //$NON-NLS-1$
 	
 	private final TotalTestBuilder tttBuilder;
+	private TotalTestCredentials credentials;
+	private TotalTestResultCache resultCache;
+	private String dsnhlq;
+	private TotalTestHostThrottle.Permit permit;
 	
 	/**
 	 * Constructor
@@ -88,8 +90,33 @@ public class TotalTestRunner
 	 * 			  An instance of <code>TotalTestBuilder</code> containing the arguments.
 	 */
 	public TotalTestRunner(TotalTestBuilder tttBuilder)
+	{
+		this(tttBuilder, null);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param tttBuilder
+	 * 			  An instance of <code>TotalTestBuilder</code> containing the arguments.
+	 * @param credentials
+	 * 			  The credentials resolved for the build, or <code>null</code> to resolve them when the runner runs.
+	 */
+	public TotalTestRunner(TotalTestBuilder tttBuilder, TotalTestCredentials credentials)
 	{
 		this.tttBuilder = tttBuilder;
+		this.credentials = credentials;
+	}
+
+	/**
+	 * Sets the host permit the run holds.
+	 * 
+	 * @param permit
+	 * 			  The permit, told about the connection and host errors of the CLI, or <code>null</code> if the run has none.
+	 */
+	void setPermit(final TotalTestHostThrottle.Permit permit)
+	{
+		this.permit = permit;
 	}
 	
 	/**
@@ -113,27 +140,68 @@ public class TotalTestRunner
 	 */
 	public boolean run(final Run<?,?> build, final Launcher launcher, final FilePath workspaceFilePath, final TaskListener listener) throws IOException, InterruptedException
 	{
-        ArgumentListBuilder args = new ArgumentListBuilder();
-        EnvVars env = build.getEnvironment(listener);
-
-        VirtualChannel vChannel = launcher.getChannel();
-        String remoteFileSeparator = null;
-        if (vChannel != null)
+        if (credentials == null)
+        {
+        	credentials = TotalTestCredentials.resolve(build.getParent(), tttBuilder.getCredentialsId());
+        }
+        
+        if (!tttBuilder.isIsolateHlq())
         {
-        	Properties remoteProperties = vChannel.call(new RemoteSystemProperties());
-            remoteFileSeparator = remoteProperties.getProperty(PROPERTY_FILE_SEPARATOR);
+        	dsnhlq = tttBuilder.getHlq();
+        	return execute(build, launcher, workspaceFilePath, listener);
         }
-        else
+        
+        // Without a configured HLQ, the CLI allocates its datasets under the user ID.
+        String baseHlq = tttBuilder.getHlq();
+        if (baseHlq == null || baseHlq.isEmpty())
         {
-        	remoteFileSeparator = File.separator;
+        	StandardUsernamePasswordCredentials loginCredentials = credentials.get(tttBuilder.getCredentialsId());
+        	baseHlq = loginCredentials != null ? loginCredentials.getUsername() : null;
         }
         
+        try (TotalTestHlqLeases.Lease lease = TotalTestHlqLeases.get().acquire(baseHlq, build, listener))
+        {
+        	dsnhlq = lease.getQualifier();
+        	return execute(build, launcher, workspaceFilePath, listener);
+        }
+	}
+	
+	/**
+	 * Runs the Total Test Unit Test CLI with the high level qualifier of the run.
+	 * 
+	 * @param build
+	 *			  The current running Jenkins build
+	 * @param launcher
+	 *            The machine that the files will be checked out.
+	 * @param workspaceFilePath
+	 *            a directory to check out the source code.
+	 * @param listener
+	 *            Build listener
+	 *            
+	 * @return <code>boolean</code> if the build was successful
+	 * 
+	 * @throws IOException
+	 * 			If an error occurred execute Total Test run.
+	 * @throws InterruptedException
+	 * 			If the Total Test run was interrupted.
+	 */
+	private boolean execute(final Run<?,?> build, final Launcher launcher, final FilePath workspaceFilePath, final TaskListener listener) throws IOException, InterruptedException
+	{
+        ArgumentListBuilder args = new ArgumentListBuilder();
+        EnvVars env = build.getEnvironment(listener);
+
+        VirtualChannel vChannel = launcher.getChannel();
+        TotalTestPreflight preflight = TotalTestPreflight.collect(launcher, workspaceFilePath, tttBuilder.getProjectFolder());
+        String remoteFileSeparator = preflight.getFileSeparator();
+        
 		boolean isLinux = launcher.isUnix();
 		String osScriptFile = isLinux ? TOTAL_TEST_CLI_SH : TOTAL_TEST_CLI_BAT;
 		
 		TotalTestRunnerUtils.logJenkinsAndPluginVersion(listener);
 		
-		FilePath cliScriptPath = TotalTestRunnerUtils.getCLIScriptPath(launcher, listener, remoteFileSeparator, osScriptFile);
+		TotalTestCLICapabilities cliCapabilities = TotalTestCLICapabilities.resolve(launcher, preflight);
+		FilePath cliScriptPath = TotalTestRunnerUtils.getCLIScriptPath(cliCapabilities, launcher, listener, remoteFileSeparator,
+				osScriptFile, TotalTestRunnerUtils.TTT_MINIMUM_CLI_VERSION);
 		
 		args.add(cliScriptPath.getRemote());
 		
@@ -146,7 +214,11 @@ public class TotalTestRunner
 		
 		addHostArguments(build, args, isLinux);
 		
-		addProjectArguments(launcher, workspaceFilePath.getRemote() + remoteFileSeparator, args, isLinux);
+		resultCache = TotalTestResultCache.forBuilder(tttBuilder, listener);
+		if (!addProjectArguments(preflight, vChannel, workspaceFilePath, cliCapabilities.getCLIVersion(), listener, args, isLinux))
+		{
+			return true;
+		}
 	
 		addExecutionArguments(args, isLinux);
 		
@@ -157,71 +229,79 @@ public class TotalTestRunner
 		args.add(DATA, topazCliWorkspace);
 		
 		FilePath workDir = new FilePath (vChannel, workspaceFilePath.getRemote());
-		workDir.mkdirs();
-		int exitValue = launcher.launch().cmds(args).envs(env).stdout(listener.getLogger()).pwd(workDir).join();
+		TotalTestRetryPolicy retryPolicy = new TotalTestRetryPolicy(tttBuilder.getMaxRetries(),
+				TotalTestHostThrottle.getHostKey(tttBuilder), listener);
+		retryPolicy.setPermit(permit);
+		TotalTestCLILauncher cliLauncher;
+		int exitValue;
+		try
+		{
+			do
+			{
+				cliLauncher = new TotalTestCLILauncher(launcher, listener, osScriptFile);
+				if (tttBuilder.isUseWorkspaceCache())
+				{
+					cliLauncher.setWorkspaceCache(TotalTestWorkspaceCache.forWorkspace(workspaceFilePath,
+							new FilePath(vChannel, topazCliWorkspace), cliCapabilities.getCLIVersion(), listener));
+				}
+				
+				if (tttBuilder.isBufferLog())
+				{
+					cliLauncher.setLogPipeline(new TotalTestLogPipeline(build, workspaceFilePath, listener));
+				}
+				
+				cliLauncher.setWatchdog(new TotalTestWatchdog(tttBuilder.getTimeoutMinutes(), tttBuilder.getInactivityTimeoutMinutes()));
+				exitValue = cliLauncher.launch(args, env, workDir);
+				if (cliLauncher.getTimeoutReason() != null)
+				{
+					throw TotalTestWatchdog.timedOut(build, cliLauncher.getTimeoutReason());
+				}
+			}
+			while (retryPolicy.retry(build, exitValue, cliLauncher.getLogTail()));
+		}
+		finally
+		{
+			// A run that failed, timed out or was aborted leaves its temporary datasets as well.
+			if (!tttBuilder.isDeleteTemp())
+			{
+				recordTemporaryDatasets(build, listener);
+			}
+		}
 
-		listener.getLogger().println(osScriptFile + " exited with exit value = " + exitValue); //$NON-NLS-1$
+		if (resultCache != null)
+		{
+			resultCache.store(build, workspaceFilePath);
+		}
 
 		return exitValue == 0;
 	}
 	
 	/**
-	 * Returns the path to the script to execute Total Test CLI
+	 * Records the high level qualifier under which the run left its temporary datasets, so they can be deleted on the
+	 * host once the build reported its verdict.
 	 * 
-	 * @param launcher
-	 *            The machine that the files will be checked out.
+	 * @param build
+	 *			  The current running Jenkins build
 	 * @param listener
 	 *            Build listener
-	 * @param remoteFileSeparator
-	 * 			  The remote file seperator
-	 * @param osScriptFile
-	 * 			  The name of the operating system dependent script file to run.
-	 *            
-	 * @return	An instance of <code>FilePath</code> for the CLI directory
-	 * 
-	 * @throws IOException
-	 * 			If the CLI directory does not exist.
-	 * @throws InterruptedException
-	 * 			If unable to get CLI directory.
 	 */
-	private FilePath getCLIScriptPath(final Launcher launcher, final TaskListener listener, String remoteFileSeparator, String osScriptFile) throws IOException, InterruptedException
+	private void recordTemporaryDatasets(final Run<?,?> build, final TaskListener listener)
 	{
-		FilePath cliBatchFileRemote = null;
-		FilePath globalCLIDirectory = null;
-		CpwrGlobalConfiguration globalConfig = CpwrGlobalConfiguration.get();
-		if (globalConfig != null)
+		// Without a configured HLQ, the CLI allocates its datasets under the user ID.
+		String qualifier = dsnhlq;
+		if (qualifier == null || qualifier.isEmpty())
 		{
-			String cliDirectoryName = globalConfig.getTopazCLILocation(launcher);
-			if (cliDirectoryName != null)
-			{
-		        VirtualChannel vChannel = launcher.getChannel();
-				globalCLIDirectory = new FilePath(vChannel,cliDirectoryName);
-			}
+			StandardUsernamePasswordCredentials loginCredentials = credentials.get(tttBuilder.getCredentialsId());
+			qualifier = loginCredentials != null ? loginCredentials.getUsername() : null;
 		}
 		
-		if (globalCLIDirectory == null)
+		if (qualifier != null && !qualifier.isEmpty())
 		{
-        	throw new FileNotFoundException("ERROR: Workench CLI location was not specified. Check 'BMC Configuration' section under 'Configure System'"); //$NON-NLS-1$
+			qualifier = qualifier.toUpperCase(Locale.ROOT);
+			TotalTestCleanupBacklog.get().record(qualifier, build);
+			listener.getLogger().println("Temporary datasets were kept under high level qualifier " + qualifier //$NON-NLS-1$
+					+ ", they are listed on the Total Test Host Connections page until cleaned up."); //$NON-NLS-1$
 		}
-		else
-		{
-			if (globalCLIDirectory.exists() == false) //NOSONAR
-			{
-		       	throw new FileNotFoundException("ERROR: Workench CLI location does not exist. Location: " + globalCLIDirectory.getRemote() + ". Check 'BMC Configuration' section under 'Configure System'");  //NOSONAR //$NON-NLS-1$ //$NON-NLS-2$
-			}
-
-			String cliScriptFile = globalCLIDirectory  + remoteFileSeparator + osScriptFile;
-			listener.getLogger().println("Total Test CLI script file path: " + cliScriptFile); //$NON-NLS-1$
-			
-	        VirtualChannel vChannel = launcher.getChannel();
-			cliBatchFileRemote = new FilePath(vChannel, cliScriptFile);
-			listener.getLogger().println("Total Test CLI script file remote path: " + cliBatchFileRemote.getRemote()); //$NON-NLS-1$
-			
-			String cliVersion = CLIVersionUtils.getCLIVersion(globalCLIDirectory, TotalTestRunnerUtils.TTT_MINIMUM_CLI_VERSION);
-			CLIVersionUtils.checkCLICompatibility(cliVersion, TotalTestRunnerUtils.TTT_MINIMUM_CLI_VERSION);
-		}
-		
-		return cliBatchFileRemote;
 	}
 	
 	/**
@@ -299,8 +379,14 @@ public class TotalTestRunner
 		addArgument(args, PORT, port, isLinux);
 		addArgument(args, TARGET_ENCODING, codePage, isLinux);
 		addArgument(args, PROTOCOL, protocol, isLinux);
-		addArgument(args, USER, TotalTestRunnerUtils.getLoginInformation(build.getParent(), tttBuilder.getCredentialsId()).getUsername(), isLinux);
-		addArgument(args, PASSWORD, TotalTestRunnerUtils.getLoginInformation(build.getParent(), tttBuilder.getCredentialsId()).getPassword().getPlainText(), isLinux, true);
+		StandardUsernamePasswordCredentials loginCredentials = credentials.get(tttBuilder.getCredentialsId());
+		if (loginCredentials == null)
+		{
+			throw new IOException(Messages.missingParameterError(Messages.loginCredentials()));
+		}
+		
+		addArgument(args, USER, loginCredentials.getUsername(), isLinux);
+		addArgument(args, PASSWORD, loginCredentials.getPassword().getPlainText(), isLinux, true);
 	}
 	
 	/**
@@ -313,50 +399,65 @@ public class TotalTestRunner
 	 * <li>JCL
 	 * </ul>
 	 * 
-	 * @param launcher
-	 *            The machine that the files will be checked out.
+	 * When the run is sharded, the test scenario/suite selection is expanded on the node and only the paths of the tests
+	 * of this shard, relative to the project folder, are passed to the CLI. A selection that matches no test fails the
+	 * run. When results are reused, the test scenarios whose result was reused are left out.
+	 * 
+	 * @param preflight
+	 *            The preflight of the node, containing the state of the project folder.
+	 * @param vChannel
+	 * 			The channel to the node.
 	 * @param workspaceFilePath
-	 *            a directory to check out the source code.
+	 *            The workspace the reused results are written to.
+	 * @param cliVersion
+	 * 			The version of the CLI.
+	 * @param listener
+	 *            Build listener
 	 * @param args
 	 * 			An instance of <code>ArgumentListBuilder</code> containing the arguments.
 	 * @param isLinux
 	 * 			<code>true</code> if running a shell script, otherwise <code>false</code>.
-	 * @throws InterruptedException 
+	 * @return <code>false</code> if the shard has no test scenario/suite to run or all results were reused, otherwise <code>true</code>
 	 * @throws IOException 
+	 * 			If the project folder does not exist.
+	 * @throws InterruptedException
+	 * 			If the expansion of a sharded selection was interrupted.
 	 */
-	private void addProjectArguments(final Launcher launcher, final String workspaceFilePath, final ArgumentListBuilder args, final boolean isLinux) throws IOException, InterruptedException
+	private boolean addProjectArguments(final TotalTestPreflight preflight, final VirtualChannel vChannel, final FilePath workspaceFilePath,
+			final String cliVersion, final TaskListener listener, final ArgumentListBuilder args, final boolean isLinux)
+			throws IOException, InterruptedException
 	{
-		FilePath projectPath = null;
+		String projectPath = null;
 		String projectFolder = tttBuilder.getProjectFolder();
+		TotalTestPreflight.PathState projectState = preflight.getPath(projectFolder);
 		
-		if (projectFolder != null)
+		if (projectFolder != null && projectFolder.trim().isEmpty())
 		{
-			VirtualChannel vChannel = launcher.getChannel();
-			FilePath remoteProjectFolder = new FilePath(vChannel, projectFolder);
-			boolean isAbsolute = remoteProjectFolder.absolutize().getRemote().equalsIgnoreCase(remoteProjectFolder.getRemote());
-			
-			if (isAbsolute)
+			// An empty folder is the workspace, as the preflight does not collect empty paths.
+			projectPath = preflight.getWorkspace();
+		}
+		else if (projectState != null)
+		{
+			if (projectState.isAbsolute())
 			{
-				if (remoteProjectFolder.exists() && remoteProjectFolder.isDirectory())
+				if (projectState.isExists() && projectState.isDirectory())
 				{
-					projectPath = remoteProjectFolder;
+					projectPath = projectFolder;
 				}
 				else
 				{
-					throw new IOException("ERROR: Test Project Folder '" + remoteProjectFolder.getRemote() + "' does not exist or is not a directory.");  //$NON-NLS-1$//$NON-NLS-2$
+					throw new IOException("ERROR: Test Project Folder '" + projectFolder + "' does not exist or is not a directory.");  //$NON-NLS-1$//$NON-NLS-2$
 				}
 			}
 			else
 			{
-				FilePath workspaceProjectPath = new FilePath(new FilePath(vChannel, workspaceFilePath).absolutize(), projectFolder);
-				FilePath absolutizeWorkspaceProjectPath = workspaceProjectPath.absolutize();
-				if (absolutizeWorkspaceProjectPath.exists() && absolutizeWorkspaceProjectPath.isDirectory())
+				if (projectState.isWorkspacePathExists() && projectState.isWorkspacePathDirectory())
 				{
-					projectPath = absolutizeWorkspaceProjectPath;
+					projectPath = projectState.getWorkspacePath();
 				}
 				else
 				{
-					throw new IOException("ERROR: Test Project Folder '" + absolutizeWorkspaceProjectPath.getRemote() + "' does not exist or is not a directory."); //$NON-NLS-1$ //$NON-NLS-2$
+					throw new IOException("ERROR: Test Project Folder '" + projectState.getWorkspacePath() + "' does not exist or is not a directory."); //$NON-NLS-1$ //$NON-NLS-2$
 				}
 			}
 		}
@@ -365,10 +466,49 @@ public class TotalTestRunner
 			throw new IOException("ERROR: 'Test Project Folder' was not specified."); //$NON-NLS-1$
 		}
 		
-		addArgument(args,PROJECT, projectPath.getRemote(), isLinux);
+		addArgument(args,PROJECT, projectPath, isLinux);
 		 
 		String testSuiteEntry = tttBuilder.getTestSuite();
-		if (TotalTestRunnerUtils.isSpecicalTestName(testSuiteEntry) || TotalTestRunnerUtils.isTestNameList(testSuiteEntry))
+		TotalTestShard shard = new TotalTestShard(tttBuilder.getShardCount(), tttBuilder.getShardIndex());
+		if (resultCache != null && testSuiteEntry.toUpperCase(Locale.ROOT).contains(TotalTestRunnerUtils.AUTO_SELECT))
+		{
+			listener.getLogger().println("Total Test results are not reused with " + TotalTestRunnerUtils.AUTO_SELECT); //$NON-NLS-1$
+			resultCache = null;
+		}
+		
+		List<String> testNames = null;
+		FilePath projectFilePath = new FilePath(vChannel, projectPath);
+		if (shard.isSharded() || resultCache != null)
+		{
+			testNames = shard.select(projectFilePath, testSuiteEntry, !isLinux, tttBuilder.isRecursive());
+		}
+		
+		if (shard.isSharded())
+		{
+			listener.getLogger().println("Total Test " + shard + ": " + testNames.size() + " test scenario(s)/suite(s)"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			if (testNames.isEmpty())
+			{
+				listener.getLogger().println("No test scenario or test suite to run in this shard, the other shards run all the tests."); //$NON-NLS-1$
+				return false;
+			}
+		}
+		
+		if (resultCache != null && !testNames.isEmpty())
+		{
+			testNames = resultCache.replay(projectFilePath, workspaceFilePath, testNames, !isLinux, tttBuilder, cliVersion,
+					preflight.getNodeTime());
+			if (testNames.isEmpty())
+			{
+				listener.getLogger().println("All the Total Test results were reused, the CLI is not launched."); //$NON-NLS-1$
+				return false;
+			}
+		}
+		
+		if (testNames != null && !testNames.isEmpty())
+		{
+			addArgument(args, TEST_NAME_LIST, String.join(COMMA, testNames), isLinux);
+		}
+		else if (TotalTestRunnerUtils.isSpecicalTestName(testSuiteEntry) || TotalTestRunnerUtils.isTestNameList(testSuiteEntry))
 		{
 			addArgument(args, TEST_NAME_LIST, testSuiteEntry, isLinux);
 		}
@@ -378,6 +518,8 @@ public class TotalTestRunner
 		}
 		
 		addArgument(args, JCL, tttBuilder.getJcl(), isLinux);
+		
+		return true;
 	}
 	
 	/**
@@ -440,7 +582,6 @@ public class TotalTestRunner
 	 */	
 	private void addExecutionArguments(final ArgumentListBuilder args, final boolean isLinux)
 	{
-		String dsnhlq =  tttBuilder.getHlq();
 		if ((dsnhlq != null) && (dsnhlq.length() != 0))
 		{
 			addArgument(args, DSN_HLQ , dsnhlq.toUpperCase(), isLinux);
@@ -19,7 +19,6 @@
 package com.compuware.jenkins.totaltest;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -29,10 +28,10 @@ import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
 
+import com.cloudbees.plugins.credentials.CredentialsMatchers;
 import com.cloudbees.plugins.credentials.CredentialsProvider;
 import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
 import com.cloudbees.plugins.credentials.domains.DomainRequirement;
-import com.cloudbees.plugins.credentials.matchers.IdMatcher;
 import com.compuware.jenkins.common.configuration.CpwrGlobalConfiguration;
 import com.compuware.jenkins.common.utils.CLIVersionUtils;
 
@@ -62,9 +61,9 @@ public class TotalTestRunnerUtils
 	private static final String DOUBLE_QUOTE = "\""; //$NON-NLS-1$
 	private static final String DOUBLE_QUOTE_ESCAPED = "\"\""; //$NON-NLS-1$
 	
-	private static final String ALL_SCENARIOS = "ALL_SCENARIOS"; //$NON-NLS-1$
-	private static final String ALL_SUITES = "ALL_SUITES"; //$NON-NLS-1$
-	private static final String AUTO_SELECT = "AUTO_SELECT"; //$NON-NLS-1$
+	static final String ALL_SCENARIOS = "ALL_SCENARIOS"; //$NON-NLS-1$
+	static final String ALL_SUITES = "ALL_SUITES"; //$NON-NLS-1$
+	static final String AUTO_SELECT = "AUTO_SELECT"; //$NON-NLS-1$
 	
 	/**
 	 * Gets the host name;
@@ -120,22 +119,12 @@ public class TotalTestRunnerUtils
 	 */
 	public static StandardUsernamePasswordCredentials getLoginInformation(Item project, String credentialsId)
 	{
-		StandardUsernamePasswordCredentials credential = null;
-
 		List<StandardUsernamePasswordCredentials> credentials = CredentialsProvider
 				.lookupCredentials(StandardUsernamePasswordCredentials.class, project, ACL.SYSTEM,
 						Collections.<DomainRequirement> emptyList());
 
-		IdMatcher matcher = new IdMatcher(credentialsId);
-		for (StandardUsernamePasswordCredentials cred : credentials)
-		{
-			if (matcher.matches(cred))
-			{
-				credential = cred;
-			}
-		}
-
-		return credential;
+		// The first match is the credential closest to the project.
+		return CredentialsMatchers.firstOrNull(credentials, CredentialsMatchers.withId(credentialsId));
 	}
 
 	/**
@@ -342,36 +331,42 @@ public class TotalTestRunnerUtils
 	public static FilePath getCLIScriptPath(final Launcher launcher, final TaskListener listener, final String fileSeparator, 
 			final String osScriptFile, final String minCLIRelease) throws IOException, InterruptedException
 	{
-		FilePath topazWorkbenchCLIPath = null;
-		FilePath cliScriptPath = null;
+		return getCLIScriptPath(TotalTestCLICapabilities.resolve(launcher), launcher, listener, fileSeparator, osScriptFile,
+				minCLIRelease);
+	}
+	
+	/**
+	 * Returns the path to the script to execute Total Test CLI, using already resolved CLI capabilities.
+	 * 
+	 * @param capabilities
+	 * 			The capabilities of the CLI on the node.
+	 * @param launcher
+	 *          An instance <code>Launcher</code> for launching the script.
+	 * @param listener
+	 * 			An instance of <code>TaskListener</code> for the task.
+	 * @param fileSeparator
+	 * 			The file separator for the system on which the script will run.
+	 * @param osScriptFile
+	 * 			The name of the operating system dependent script file to run.
+	 * @param minCLIRelease
+	 * 			The minimum CLI release required to run the script.
+	 *            
+	 * @return	An instance of <code>FilePath</code> for the CLI directory
+	 * 
+	 * @throws IOException
+	 * 			If the CLI version is not compatible.
+	 * @throws InterruptedException
+	 * 			If unable to get CLI directory.
+	 */
+	public static FilePath getCLIScriptPath(final TotalTestCLICapabilities capabilities, final Launcher launcher,
+			final TaskListener listener, final String fileSeparator, final String osScriptFile, final String minCLIRelease)
+			throws IOException, InterruptedException
+	{
+		String cliScriptFile = capabilities.getCLIDirectory() + fileSeparator + osScriptFile;
+		FilePath cliScriptPath = new FilePath(launcher.getChannel(), cliScriptFile);
+		listener.getLogger().println("Total Test CLI script path: " + cliScriptPath.getRemote()); //$NON-NLS-1$
 		
-        VirtualChannel vChannel = launcher.getChannel();
-
-		String cliDirectoryName = getTopaWorkbenchCLIPath(launcher);
-		if (cliDirectoryName != null)
-		{
-			topazWorkbenchCLIPath = new FilePath(vChannel,cliDirectoryName);
-		}
-
-		
-		if (topazWorkbenchCLIPath == null)
-		{
-        	throw new FileNotFoundException("ERROR: Topaz Workench CLI location was not specified. Check 'BMC Configuration' section under 'Configure System'"); //$NON-NLS-1$
-		}
-		else
-		{
-			if (topazWorkbenchCLIPath.exists() == false) //NOSONAR
-			{
-		       	throw new FileNotFoundException("ERROR: Topaz Workench CLI location does not exist. Location: " + topazWorkbenchCLIPath.getRemote() + ". Check 'BMC Configuration' section under 'Configure System'");  //NOSONAR //$NON-NLS-1$  //$NON-NLS-2$
-			}
-			
-			String cliScriptFile = topazWorkbenchCLIPath.getRemote()  + fileSeparator + osScriptFile;
-			cliScriptPath = new FilePath(vChannel, cliScriptFile);
-			listener.getLogger().println("Total Test CLI script path: " + cliScriptPath.getRemote()); //$NON-NLS-1$
-			
-			String cliVersion = getCLIVersion(launcher, fileSeparator);
-			CLIVersionUtils.checkCLICompatibility(cliVersion, minCLIRelease);
-		}
+		CLIVersionUtils.checkCLICompatibility(capabilities.getCLIVersion(), minCLIRelease);
 		
 		return cliScriptPath;
 	}
@@ -393,36 +388,7 @@ public class TotalTestRunnerUtils
 	 */
 	public static String getCLIVersion(final Launcher launcher, String remoteFileSeparator) throws IOException, InterruptedException
 	{
-		String cliVersion = null;
-		FilePath globalCLIDirectory = null;
-		CpwrGlobalConfiguration globalConfig = CpwrGlobalConfiguration.get();
-		if (globalConfig != null)
-		{
-			String cliDirectoryName = globalConfig.getTopazCLILocation(launcher);
-			if (cliDirectoryName != null)
-			{
-		        VirtualChannel vChannel = launcher.getChannel();
-				globalCLIDirectory = new FilePath(vChannel,cliDirectoryName);
-			}
-		}
-		
-		if (globalCLIDirectory == null)
-		{
-			throw new FileNotFoundException("ERROR: Topaz Workench CLI location was not specified. Check 'BMC Configuration' section under 'Configure System'"); //$NON-NLS-1$
-		}
-		else
-		{
-			if (globalCLIDirectory.exists() == false) //NOSONAR
-			{
-				throw new FileNotFoundException("ERROR: Topaz Workench CLI location does not exist. Location: " + globalCLIDirectory.getRemote() + ". Check 'BMC Configuration' section under 'Configure System'");  //NOSONAR //$NON-NLS-1$ //$NON-NLS-2$
-			}
-			else
-			{
-				cliVersion = CLIVersionUtils.getCLIVersion(globalCLIDirectory, TTT_MINIMUM_CLI_VERSION);
-			}
-		}
-		
-		return cliVersion;
+		return TotalTestCLICapabilities.resolve(launcher).getCLIVersion();
 	}
 
 	/**
@@ -479,16 +445,7 @@ public class TotalTestRunnerUtils
 		boolean isminimumRelease = true;
 		try
 		{
-			String cliVersion = getCLIVersion(launcher, remoteFileSeparator);
-			
-			try
-			{
-				CLIVersionUtils.checkCLICompatibility(cliVersion, versionNumber);
-			}
-			catch (Exception e)
-			{
-				isminimumRelease = false;
-			}
+			isminimumRelease = TotalTestCLICapabilities.resolve(launcher).isMinimumRelease(versionNumber);
 		}
 		catch (Exception e)
 		{
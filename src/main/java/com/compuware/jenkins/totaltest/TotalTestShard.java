@@ -0,0 +1,310 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import hudson.AbortException;
+import hudson.FilePath;
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * A shard of a Total Test unit test run.
+ * <p>
+ * The test scenario/suite selection of the run is expanded on the node into the concrete test scenarios and test suites
+ * found in the project folder, and its sub-folders when the run is recursive. Their paths relative to the project folder
+ * are sorted and dealt round-robin over the shards, so every shard of the same selection gets the same, disjoint part of
+ * the tests on whichever node it runs, and test files with the same name in different folders are kept apart.
+ */
+public final class TotalTestShard
+{
+	private static final String COMMA = ","; //$NON-NLS-1$
+	static final String TEST_SCENARIO_SUFFIX = ".testscenario"; //$NON-NLS-1$
+	static final String TEST_SUITE_SUFFIX = ".testsuite"; //$NON-NLS-1$
+	static final Set<String> PRUNED_FOLDERS = new HashSet<>(Arrays.asList("BMC-CliWkspc", "TTTUnit", "TTTSonar", ".metadata", ".git", ".svn", ".settings")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+
+	private final int count;
+	private final int index;
+
+	/**
+	 * Constructor
+	 *
+	 * @param count
+	 * 			  The number of shards, a value lower than 2 disables sharding.
+	 * @param index
+	 * 			  The zero based index of this shard.
+	 */
+	public TotalTestShard(final int count, final int index)
+	{
+		this.count = Math.max(count, 1);
+		this.index = index;
+	}
+
+	/**
+	 * Returns whether the run is split in several shards.
+	 *
+	 * @return <code>true</code> if the run is sharded, otherwise <code>false</code>
+	 */
+	public boolean isSharded()
+	{
+		return count > 1;
+	}
+
+	/**
+	 * Returns whether the index of this shard is within the number of shards.
+	 *
+	 * @return <code>true</code> if the index is valid, otherwise <code>false</code>
+	 */
+	public boolean isValid()
+	{
+		return index >= 0 && index < count;
+	}
+
+	/**
+	 * Expands the test scenario/suite selection into the test names that belong to this shard.
+	 *
+	 * @param projectFolder
+	 * 			  The project folder on the node.
+	 * @param testSuiteEntry
+	 * 			  The test scenario/suite entry of the builder.
+	 * @param ignoreCase
+	 * 			  <code>true</code> if the names are case-insensitive on the node, otherwise <code>false</code>.
+	 * @param recursive
+	 * 			  <code>true</code> if the sub-folders of the project folder are searched as well.
+	 * @return the sorted paths of the tests of this shard, relative to the project folder, which may be empty when the
+	 * 			  other shards have all the tests
+	 * @throws AbortException
+	 * 			  if the selection does not match any test scenario or test suite
+	 * @throws IOException
+	 * 			  if the selection can not be sharded or the project folder could not be read
+	 * @throws InterruptedException
+	 * 			  if the expansion was interrupted
+	 */
+	public List<String> select(final FilePath projectFolder, final String testSuiteEntry, final boolean ignoreCase,
+			final boolean recursive) throws IOException, InterruptedException
+	{
+		List<String> patterns = new ArrayList<>();
+		for (String name : testSuiteEntry.split(COMMA))
+		{
+			String trimmedName = name.trim();
+			if (TotalTestRunnerUtils.AUTO_SELECT.equalsIgnoreCase(trimmedName))
+			{
+				throw new IOException("ERROR: " + TotalTestRunnerUtils.AUTO_SELECT + " can not be sharded."); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			else if (TotalTestRunnerUtils.ALL_SCENARIOS.equalsIgnoreCase(trimmedName))
+			{
+				patterns.add("*" + TEST_SCENARIO_SUFFIX); //$NON-NLS-1$
+			}
+			else if (TotalTestRunnerUtils.ALL_SUITES.equalsIgnoreCase(trimmedName))
+			{
+				patterns.add("*" + TEST_SUITE_SUFFIX); //$NON-NLS-1$
+			}
+			else if (!trimmedName.isEmpty())
+			{
+				patterns.add(trimmedName);
+			}
+		}
+
+		List<String> names = projectFolder.act(new ExpandTestNames(patterns, ignoreCase, recursive));
+		if (names.isEmpty())
+		{
+			// Every shard would otherwise succeed without running anything.
+			throw new AbortException("ERROR: '" + testSuiteEntry + "' does not match any test scenario or test suite in " //$NON-NLS-1$ //$NON-NLS-2$
+					+ projectFolder.getRemote() + (recursive ? " or its sub-folders." : ".")); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		List<String> shardNames = new ArrayList<>();
+		for (int i = index; i < names.size(); i += count)
+		{
+			shardNames.add(names.get(i));
+		}
+
+		return shardNames;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return "shard " + (index + 1) + " of " + count; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Converts a test name, which may contain '*' and '?' wild cards, into a regular expression.
+	 *
+	 * @param name
+	 * 			  The test name.
+	 * @param ignoreCase
+	 * 			  <code>true</code> if the name is case-insensitive.
+	 * @return the regular expression
+	 */
+	static Pattern toPattern(final String name, final boolean ignoreCase)
+	{
+		StringBuilder regex = new StringBuilder();
+		StringBuilder literal = new StringBuilder();
+		for (char c : name.toCharArray())
+		{
+			if (c == '*' || c == '?')
+			{
+				if (literal.length() > 0)
+				{
+					regex.append(Pattern.quote(literal.toString()));
+					literal.setLength(0);
+				}
+
+				regex.append(c == '*' ? ".*" : "."); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			else
+			{
+				literal.append(c);
+			}
+		}
+
+		if (literal.length() > 0)
+		{
+			regex.append(Pattern.quote(literal.toString()));
+		}
+
+		return Pattern.compile(regex.toString(), ignoreCase ? Pattern.CASE_INSENSITIVE : 0);
+	}
+
+	/**
+	 * Returns the path of a file relative to a folder, with '/' separators on every node.
+	 *
+	 * @param folder
+	 * 			  The folder.
+	 * @param file
+	 * 			  A file in the folder.
+	 * @return the relative path
+	 */
+	static String relativePath(final Path folder, final Path file)
+	{
+		return folder.relativize(file).toString().replace(File.separatorChar, '/');
+	}
+
+	/**
+	 * Returns the file name of a test path relative to the project folder.
+	 *
+	 * @param testPath
+	 * 			  The relative path of the test.
+	 * @return the file name
+	 */
+	static String getFileName(final String testPath)
+	{
+		return testPath.substring(testPath.lastIndexOf('/') + 1);
+	}
+
+	/**
+	 * Searches the project folder on the node for the test scenarios and test suites matching the selection and returns
+	 * their paths relative to the project folder. The names in the selection are matched against the file names.
+	 */
+	private static final class ExpandTestNames extends MasterToSlaveFileCallable<List<String>>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final List<String> names;
+		private final boolean ignoreCase;
+		private final boolean recursive;
+
+		ExpandTestNames(final List<String> names, final boolean ignoreCase, final boolean recursive)
+		{
+			this.names = names;
+			this.ignoreCase = ignoreCase;
+			this.recursive = recursive;
+		}
+
+		@Override
+		public List<String> invoke(File projectFolder, VirtualChannel channel) throws IOException, InterruptedException
+		{
+			List<Pattern> patterns = new ArrayList<>(names.size());
+			for (String name : names)
+			{
+				patterns.add(toPattern(name, ignoreCase));
+			}
+
+			Set<String> matches = ignoreCase ? new TreeSet<>(String.CASE_INSENSITIVE_ORDER) : new TreeSet<>();
+			if (projectFolder.isDirectory())
+			{
+				Path root = projectFolder.toPath();
+				Files.walkFileTree(root, new SimpleFileVisitor<Path>()
+				{
+					@Override
+					public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+					{
+						if (dir.equals(root))
+						{
+							return FileVisitResult.CONTINUE;
+						}
+
+						Path name = dir.getFileName();
+						if (!recursive || (name != null && PRUNED_FOLDERS.contains(name.toString())))
+						{
+							return FileVisitResult.SKIP_SUBTREE;
+						}
+
+						return FileVisitResult.CONTINUE;
+					}
+
+					@Override
+					public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+					{
+						String name = file.getFileName().toString();
+						String lcName = name.toLowerCase();
+						if (attrs.isRegularFile() && (lcName.endsWith(TEST_SCENARIO_SUFFIX) || lcName.endsWith(TEST_SUITE_SUFFIX)))
+						{
+							for (Pattern pattern : patterns)
+							{
+								if (pattern.matcher(name).matches())
+								{
+									matches.add(relativePath(root, file));
+									break;
+								}
+							}
+						}
+
+						return FileVisitResult.CONTINUE;
+					}
+
+					@Override
+					public FileVisitResult visitFileFailed(Path file, IOException exc)
+					{
+						return FileVisitResult.CONTINUE;
+					}
+				});
+			}
+
+			return new ArrayList<>(matches);
+		}
+	}
+}
@@ -0,0 +1,133 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.jenkinsci.plugins.workflow.steps.SynchronousNonBlockingStepExecution;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+import hudson.Extension;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+
+/**
+ * A Pipeline step waiting for the reports the Total Test steps of the build convert in the background, before steps
+ * reading the reports run:
+ *
+ * <pre>
+ * totaltestWaitForReports()
+ * junit 'TTTUnit/*.xml'
+ * </pre>
+ *
+ * The build is marked unstable when a report could not be converted.
+ */
+public class TotalTestWaitForReportsStep extends Step
+{
+	/**
+	 * Constructor
+	 */
+	@DataBoundConstructor
+	public TotalTestWaitForReportsStep()
+	{
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.jenkinsci.plugins.workflow.steps.Step#start(org.jenkinsci.plugins.workflow.steps.StepContext)
+	 */
+	@Override
+	public StepExecution start(final StepContext context) throws Exception
+	{
+		return new Execution(context);
+	}
+
+	/**
+	 * The execution of the step.
+	 */
+	static final class Execution extends SynchronousNonBlockingStepExecution<Void>
+	{
+		private static final long serialVersionUID = 1L;
+
+		Execution(final StepContext context)
+		{
+			super(context);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.jenkinsci.plugins.workflow.steps.SynchronousNonBlockingStepExecution#run()
+		 */
+		@Override
+		protected Void run() throws Exception
+		{
+			Run<?, ?> build = getContext().get(Run.class);
+			TaskListener listener = getContext().get(TaskListener.class);
+			TotalTestDeferredReportsAction action = build.getAction(TotalTestDeferredReportsAction.class);
+			if (action != null && action.await(listener) > 0)
+			{
+				build.setResult(Result.UNSTABLE);
+			}
+
+			return null;
+		}
+	}
+
+	/**
+	 * Descriptor for {@link TotalTestWaitForReportsStep}.
+	 */
+	@Extension
+	public static final class DescriptorImpl extends StepDescriptor
+	{
+		/*
+		 * (non-Javadoc)
+		 * @see org.jenkinsci.plugins.workflow.steps.StepDescriptor#getFunctionName()
+		 */
+		@Override
+		public String getFunctionName()
+		{
+			return "totaltestWaitForReports"; //$NON-NLS-1$
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.jenkinsci.plugins.workflow.steps.StepDescriptor#getRequiredContext()
+		 */
+		@Override
+		public Set<? extends Class<?>> getRequiredContext()
+		{
+			return new HashSet<>(Arrays.asList(Run.class, TaskListener.class));
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see hudson.model.Descriptor#getDisplayName()
+		 */
+		@Override
+		public String getDisplayName()
+		{
+			return Messages.displayNameWaitForReports();
+		}
+	}
+}
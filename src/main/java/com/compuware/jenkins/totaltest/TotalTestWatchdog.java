@@ -0,0 +1,397 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import hudson.AbortException;
+import hudson.Launcher;
+import hudson.model.InterruptedBuildAction;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import hudson.util.ProcessTree;
+import hudson.util.ProcessTree.OSProcess;
+import jenkins.model.CauseOfInterruption;
+import jenkins.security.MasterToSlaveCallable;
+
+/**
+ * Bounds the execution time of a Total Test CLI run.
+ * <p>
+ * A run is timed out when it exceeds its wall-clock limit, or when the CLI writes no output for longer than the
+ * inactivity limit. Before the CLI is killed, a thread dump of the CLI JVM is written to the build log, so a hung HCI
+ * session or JES job can be told apart from a slow one. The CLI process is found on the node by a marker environment
+ * variable set for the run.
+ */
+public final class TotalTestWatchdog implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	/** The environment variable marking the processes of a run. */
+	static final String MARKER_VARIABLE = "TOTAL_TEST_WATCHDOG_ID"; //$NON-NLS-1$
+
+	private static final long MIN_CHECK_INTERVAL = TimeUnit.SECONDS.toMillis(5);
+	private static final long MAX_CHECK_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+	private static final long THREAD_DUMP_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+	private final long timeoutMillis;
+	private final long inactivityMillis;
+	private final String marker = UUID.randomUUID().toString();
+	private long startTime;
+	private volatile long lastActivity;
+
+	/**
+	 * Constructor
+	 *
+	 * @param timeoutMinutes
+	 * 			  The wall-clock limit of the run in minutes, 0 for no limit.
+	 * @param inactivityMinutes
+	 * 			  The longest time without output in minutes, 0 for no limit.
+	 */
+	public TotalTestWatchdog(final int timeoutMinutes, final int inactivityMinutes)
+	{
+		this.timeoutMillis = TimeUnit.MINUTES.toMillis(Math.max(timeoutMinutes, 0));
+		this.inactivityMillis = TimeUnit.MINUTES.toMillis(Math.max(inactivityMinutes, 0));
+	}
+
+	/**
+	 * Returns whether the run has a limit.
+	 *
+	 * @return <code>true</code> if a wall-clock or inactivity limit is set, otherwise <code>false</code>
+	 */
+	public boolean isEnabled()
+	{
+		return timeoutMillis > 0 || inactivityMillis > 0;
+	}
+
+	/**
+	 * Returns the marker identifying the processes of the run.
+	 *
+	 * @return the marker, to be set in the {@link #MARKER_VARIABLE} environment variable of the CLI
+	 */
+	public String getMarker()
+	{
+		return marker;
+	}
+
+	/**
+	 * Returns how often the limits should be checked.
+	 *
+	 * @return the interval in milliseconds
+	 */
+	public long getCheckInterval()
+	{
+		long shortest = Long.MAX_VALUE;
+		if (timeoutMillis > 0)
+		{
+			shortest = timeoutMillis;
+		}
+		if (inactivityMillis > 0)
+		{
+			shortest = Math.min(shortest, inactivityMillis);
+		}
+
+		return Math.max(MIN_CHECK_INTERVAL, Math.min(MAX_CHECK_INTERVAL, shortest / 10));
+	}
+
+	/**
+	 * Starts the clocks of the run.
+	 */
+	public void start()
+	{
+		startTime = System.currentTimeMillis();
+		lastActivity = startTime;
+	}
+
+	/**
+	 * Records output of the CLI.
+	 */
+	public void activity()
+	{
+		lastActivity = System.currentTimeMillis();
+	}
+
+	/**
+	 * Checks the limits of the run.
+	 *
+	 * @return the reason the run timed out, or <code>null</code> if it is within its limits
+	 */
+	public String check()
+	{
+		long now = System.currentTimeMillis();
+		if (timeoutMillis > 0 && now - startTime > timeoutMillis)
+		{
+			return "the Total Test CLI did not complete within " + TimeUnit.MILLISECONDS.toMinutes(timeoutMillis) + " minute(s)"; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		if (inactivityMillis > 0 && now - lastActivity > inactivityMillis)
+		{
+			return "the Total Test CLI wrote no output for " + TimeUnit.MILLISECONDS.toMinutes(inactivityMillis) + " minute(s)"; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		return null;
+	}
+
+	/**
+	 * Wraps a stream receiving the output of the CLI, so that every write counts as activity.
+	 *
+	 * @param out
+	 * 			  The stream receiving the output.
+	 * @return the wrapping stream
+	 */
+	public OutputStream watch(final OutputStream out)
+	{
+		return new FilterOutputStream(out)
+		{
+			@Override
+			public void write(final int b) throws IOException
+			{
+				activity();
+				out.write(b);
+			}
+
+			@Override
+			public void write(final byte[] b, final int off, final int len) throws IOException
+			{
+				activity();
+				out.write(b, off, len);
+			}
+
+			@Override
+			public void close() throws IOException
+			{
+				// The wrapped stream belongs to the caller.
+				flush();
+			}
+		};
+	}
+
+	/**
+	 * Writes a thread dump of the CLI JVM of the run to the build log.
+	 * <p>
+	 * Failures are logged and otherwise ignored, the run is killed in any case.
+	 *
+	 * @param launcher
+	 * 			  The machine the CLI runs on.
+	 * @param listener
+	 * 			  Build listener
+	 */
+	public void dumpThreads(final Launcher launcher, final TaskListener listener)
+	{
+		VirtualChannel channel = launcher.getChannel();
+		if (channel == null)
+		{
+			return;
+		}
+
+		try
+		{
+			String dump = channel.call(new DumpThreads(marker));
+			listener.getLogger().println("---------- Total Test CLI thread dump ----------"); //$NON-NLS-1$
+			listener.getLogger().println(dump);
+			listener.getLogger().println("------------------------------------------------"); //$NON-NLS-1$
+		}
+		catch (IOException e)
+		{
+			listener.getLogger().println("Could not take a thread dump of the Total Test CLI: " + e.getMessage()); //$NON-NLS-1$
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Marks a build whose CLI run timed out as aborted, with the reason shown on the build page.
+	 *
+	 * @param build
+	 * 			  The current running Jenkins build
+	 * @param reason
+	 * 			  The reason the run timed out.
+	 * @return the exception failing the build step
+	 */
+	public static AbortException timedOut(final Run<?, ?> build, final String reason)
+	{
+		build.setResult(Result.ABORTED);
+		build.addAction(new InterruptedBuildAction(Collections.singletonList(new TimeoutCause(reason))));
+
+		return new AbortException(Messages.timeoutError(reason));
+	}
+
+	/**
+	 * The cause of the interruption of a build whose CLI run timed out.
+	 */
+	public static final class TimeoutCause extends CauseOfInterruption
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String reason;
+
+		/**
+		 * Constructor
+		 *
+		 * @param reason
+		 * 			  The reason the run timed out.
+		 */
+		public TimeoutCause(final String reason)
+		{
+			this.reason = reason;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see jenkins.model.CauseOfInterruption#getShortDescription()
+		 */
+		@Override
+		public String getShortDescription()
+		{
+			return "Timed out: " + reason; //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Finds the JVM of a run on the node and dumps its threads with jcmd, or jstack when jcmd is not available.
+	 */
+	private static final class DumpThreads extends MasterToSlaveCallable<String, IOException>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String marker;
+
+		DumpThreads(final String marker)
+		{
+			this.marker = marker;
+		}
+
+		@Override
+		public String call() throws IOException
+		{
+			int pid = -1;
+			for (OSProcess process : ProcessTree.get())
+			{
+				if (marker.equals(process.getEnvironmentVariables().get(MARKER_VARIABLE)) && isJava(process.getArguments()))
+				{
+					pid = process.getPid();
+					break;
+				}
+			}
+
+			if (pid == -1)
+			{
+				throw new IOException("no Total Test CLI JVM found"); //$NON-NLS-1$
+			}
+
+			IOException failure = null;
+			for (List<String> command : Arrays.asList(
+					Arrays.asList(getTool("jcmd"), String.valueOf(pid), "Thread.print"), //$NON-NLS-1$ //$NON-NLS-2$
+					Arrays.asList(getTool("jstack"), String.valueOf(pid)))) //$NON-NLS-1$
+			{
+				try
+				{
+					return run(command);
+				}
+				catch (IOException e)
+				{
+					failure = e;
+				}
+			}
+
+			throw failure;
+		}
+
+		private static boolean isJava(final List<String> arguments)
+		{
+			if (arguments.isEmpty())
+			{
+				return false;
+			}
+
+			String executable = new File(arguments.get(0)).getName().toLowerCase();
+			return executable.equals("java") || executable.equals("java.exe") || executable.equals("javaw.exe"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+
+		private static String getTool(final String name)
+		{
+			// Prefer the tools of the JDK running the agent, fall back to the PATH.
+			File bin = new File(System.getProperty("java.home"), "bin"); //$NON-NLS-1$ //$NON-NLS-2$
+			for (String fileName : new String[] { name, name + ".exe" }) //$NON-NLS-1$
+			{
+				File tool = new File(bin, fileName);
+				if (tool.canExecute())
+				{
+					return tool.getAbsolutePath();
+				}
+			}
+
+			return name;
+		}
+
+		private static String run(final List<String> command) throws IOException
+		{
+			Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			Thread reader = new Thread(() -> {
+				try
+				{
+					process.getInputStream().transferTo(output);
+				}
+				catch (IOException e)
+				{
+					// The output read so far is returned.
+				}
+			}, "Total Test thread dump reader"); //$NON-NLS-1$
+			reader.start();
+
+			try
+			{
+				if (!process.waitFor(THREAD_DUMP_TIMEOUT, TimeUnit.MILLISECONDS))
+				{
+					process.destroyForcibly();
+					throw new IOException(command.get(0) + " did not complete"); //$NON-NLS-1$
+				}
+
+				reader.join(THREAD_DUMP_TIMEOUT);
+			}
+			catch (InterruptedException e)
+			{
+				process.destroyForcibly();
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			}
+
+			if (process.exitValue() != 0)
+			{
+				throw new IOException(command.get(0) + " exited with exit value = " + process.exitValue() + ": " //$NON-NLS-1$ //$NON-NLS-2$
+						+ new String(output.toByteArray(), StandardCharsets.UTF_8).trim());
+			}
+
+			return new String(output.toByteArray(), StandardCharsets.UTF_8);
+		}
+	}
+}
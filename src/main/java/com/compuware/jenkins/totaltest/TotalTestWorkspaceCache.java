@@ -0,0 +1,392 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import hudson.FilePath;
+import hudson.Util;
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * Keeps a template of an initialized Total Test CLI workspace (<code>BMC-CliWkspc</code>) on each node.
+ * <p>
+ * The template is kept per CLI version under the node's <code>caches</code> directory and shared by all jobs, so the
+ * first build of a new job, branch or pull request starts from it too. When a job workspace does not have a CLI
+ * workspace yet, the template is copied into it before the CLI is launched, so the CLI does not need to build its
+ * Eclipse workspace metadata from scratch. Templates of other CLI versions are removed when the CLI is upgraded.
+ * <p>
+ * The project registry of the Eclipse workspace, which holds the locations of the projects of a job, is never cached,
+ * and the templates are seeded, restored and evicted under a lock, as concurrent builds of any job and parallel test
+ * folders use the same templates.
+ */
+public class TotalTestWorkspaceCache
+{
+	private static final String CACHES_FOLDER = "caches"; //$NON-NLS-1$
+	private static final String CACHE_FOLDER = "totaltest-cli-workspace"; //$NON-NLS-1$
+	private static final String METADATA_FOLDER = ".metadata"; //$NON-NLS-1$
+	private static final String LOCK_FILE = ".lock"; //$NON-NLS-1$
+	private static final String LOG_FILE = ".log"; //$NON-NLS-1$
+	private static final String TEMP_SUFFIX = ".tmp"; //$NON-NLS-1$
+	private static final String TEMPLATE_LOCK_FILE = "template.lock"; //$NON-NLS-1$
+	/** The project registry of the Eclipse workspace, relative to its metadata. */
+	private static final String[] EXCLUDED_PATHS = { ".plugins/org.eclipse.core.resources/.projects", //$NON-NLS-1$
+			".plugins/org.eclipse.core.resources/.root", ".plugins/org.eclipse.core.resources/.safetable" }; //$NON-NLS-1$ //$NON-NLS-2$
+
+	/** Guards the templates within the node's JVM, the file lock guarding them across JVMs. */
+	private static final Map<String, Object> LOCKS = new ConcurrentHashMap<>();
+
+	private final FilePath cacheRoot;
+	private final FilePath cliWorkspace;
+	private final String versionKey;
+	private final TaskListener listener;
+
+	/**
+	 * Constructor
+	 *
+	 * @param cacheRoot
+	 *            The directory holding the workspace templates on the node, can be <code>null</code> if the node has no
+	 *            root directory.
+	 * @param cliWorkspace
+	 *            The CLI workspace directory of the job.
+	 * @param cliVersion
+	 *            The version of the Total Test CLI on the node.
+	 * @param listener
+	 *            Build listener
+	 */
+	private TotalTestWorkspaceCache(final FilePath cacheRoot, final FilePath cliWorkspace, final String cliVersion,
+			final TaskListener listener)
+	{
+		this.cacheRoot = cacheRoot;
+		this.cliWorkspace = cliWorkspace;
+		this.versionKey = toVersionKey(cliVersion);
+		this.listener = listener;
+	}
+
+	/**
+	 * Returns the workspace cache for the node on which the given workspace resides.
+	 *
+	 * @param workspaceFilePath
+	 *            The workspace of the build.
+	 * @param cliWorkspace
+	 *            The CLI workspace directory of the job.
+	 * @param cliVersion
+	 *            The version of the Total Test CLI on the node.
+	 * @param listener
+	 *            Build listener
+	 *
+	 * @return an instance of <code>TotalTestWorkspaceCache</code>
+	 */
+	public static TotalTestWorkspaceCache forWorkspace(final FilePath workspaceFilePath, final FilePath cliWorkspace,
+			final String cliVersion, final TaskListener listener)
+	{
+		FilePath cacheRoot = null;
+
+		Computer computer = workspaceFilePath.toComputer();
+		Node node = computer != null ? computer.getNode() : null;
+		FilePath rootPath = node != null ? node.getRootPath() : null;
+		if (rootPath != null)
+		{
+			cacheRoot = rootPath.child(CACHES_FOLDER).child(CACHE_FOLDER);
+		}
+
+		return new TotalTestWorkspaceCache(cacheRoot, cliWorkspace, cliVersion, listener);
+	}
+
+	/**
+	 * Copies the cached workspace template into the job's CLI workspace, if the job does not have a CLI workspace yet
+	 * and a template exists for the CLI version. Templates of other CLI versions are evicted.
+	 *
+	 * @throws InterruptedException
+	 *             If the copy was interrupted.
+	 */
+	public void restore() throws InterruptedException
+	{
+		if (cacheRoot == null || versionKey == null)
+		{
+			return;
+		}
+
+		try
+		{
+			boolean restored = cacheRoot.act(new RestoreTemplate(versionKey, cliWorkspace.getRemote()));
+			if (restored)
+			{
+				listener.getLogger().println("Initialized Total Test CLI workspace from the cached template for CLI version " //$NON-NLS-1$
+						+ versionKey);
+			}
+		}
+		catch (IOException e)
+		{
+			listener.getLogger().println("Unable to restore cached Total Test CLI workspace: " + e.getMessage()); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Saves the job's CLI workspace metadata as the template for the CLI version, if no template exists for the
+	 * version yet. Should only be called after the CLI completed successfully.
+	 *
+	 * @throws InterruptedException
+	 *             If the copy was interrupted.
+	 */
+	public void seed() throws InterruptedException
+	{
+		if (cacheRoot == null || versionKey == null)
+		{
+			return;
+		}
+
+		try
+		{
+			boolean seeded = cacheRoot.act(new SeedTemplate(versionKey, cliWorkspace.getRemote()));
+			if (seeded)
+			{
+				listener.getLogger().println("Cached Total Test CLI workspace template for CLI version " + versionKey); //$NON-NLS-1$
+			}
+		}
+		catch (IOException e)
+		{
+			listener.getLogger().println("Unable to cache Total Test CLI workspace: " + e.getMessage()); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Converts a CLI version to a name that can be used as a directory name.
+	 *
+	 * @param cliVersion
+	 *            The version of the Total Test CLI.
+	 *
+	 * @return the directory name for the version, or <code>null</code> if no version is known
+	 */
+	private static String toVersionKey(final String cliVersion)
+	{
+		String trimmedVersion = Util.fixEmptyAndTrim(cliVersion);
+		return trimmedVersion != null ? trimmedVersion.replaceAll("[^A-Za-z0-9._-]", "_") : null; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Runs an action on the templates while holding their lock.
+	 *
+	 * @param cacheRoot
+	 *            The directory holding the templates.
+	 * @param action
+	 *            The action.
+	 *
+	 * @return the result of the action
+	 *
+	 * @throws IOException
+	 *             If the lock could not be taken or the action failed.
+	 */
+	private static <T> T locked(final File cacheRoot, final LockedAction<T> action) throws IOException
+	{
+		Files.createDirectories(cacheRoot.toPath());
+		synchronized (LOCKS.computeIfAbsent(cacheRoot.getAbsolutePath(), k -> new Object()))
+		{
+			try (RandomAccessFile lockFile = new RandomAccessFile(new File(cacheRoot, TEMPLATE_LOCK_FILE), "rw"); //$NON-NLS-1$
+					FileLock lock = lockFile.getChannel().lock())
+			{
+				return action.run();
+			}
+		}
+	}
+
+	/**
+	 * An action on the templates.
+	 */
+	private interface LockedAction<T>
+	{
+		T run() throws IOException;
+	}
+
+	/**
+	 * Returns if a path of the Eclipse workspace metadata belongs to the project registry.
+	 *
+	 * @param relativePath
+	 *            The path, relative to the metadata folder.
+	 *
+	 * @return <code>true</code> if the path must not be cached, otherwise <code>false</code>
+	 */
+	private static boolean isExcluded(final Path relativePath)
+	{
+		String path = relativePath.toString().replace('\\', '/');
+		for (String excluded : EXCLUDED_PATHS)
+		{
+			if (path.equals(excluded) || path.startsWith(excluded + '/'))
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Copies a directory tree, skipping the Eclipse workspace lock and log files.
+	 *
+	 * @param source
+	 *            The directory to copy.
+	 * @param target
+	 *            The directory to copy to.
+	 *
+	 * @throws IOException
+	 *             If the copy failed.
+	 */
+	private static void copyTree(final Path source, final Path target) throws IOException
+	{
+		Files.walkFileTree(source, new SimpleFileVisitor<Path>()
+		{
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException
+			{
+				if (isExcluded(source.relativize(dir)))
+				{
+					return FileVisitResult.SKIP_SUBTREE;
+				}
+
+				Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException
+			{
+				String name = file.getFileName().toString();
+				if (!LOCK_FILE.equals(name) && !LOG_FILE.equals(name) && !isExcluded(source.relativize(file)))
+				{
+					Files.copy(file, target.resolve(source.relativize(file).toString()), StandardCopyOption.REPLACE_EXISTING,
+							StandardCopyOption.COPY_ATTRIBUTES);
+				}
+
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	/**
+	 * Evicts workspace templates of other CLI versions and copies the template of the current version into the job's
+	 * CLI workspace.
+	 */
+	private static final class RestoreTemplate extends MasterToSlaveFileCallable<Boolean>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String versionKey;
+		private final String cliWorkspace;
+
+		RestoreTemplate(final String versionKey, final String cliWorkspace)
+		{
+			this.versionKey = versionKey;
+			this.cliWorkspace = cliWorkspace;
+		}
+
+		@Override
+		public Boolean invoke(File cacheRoot, VirtualChannel channel) throws IOException, InterruptedException
+		{
+			return locked(cacheRoot, () -> {
+				// Staging directories of a seed are removed by the seed itself, which holds the lock. The templates that
+				// were kept per job by earlier versions are evicted as well.
+				File[] templates = cacheRoot.listFiles();
+				if (templates != null)
+				{
+					for (File template : templates)
+					{
+						String name = template.getName();
+						if (!name.equals(versionKey) && !name.equals(TEMPLATE_LOCK_FILE))
+						{
+							Util.deleteRecursive(template);
+						}
+					}
+				}
+
+				File template = new File(cacheRoot, versionKey);
+				File workspace = new File(cliWorkspace);
+				if (!template.isDirectory() || workspace.exists())
+				{
+					return Boolean.FALSE;
+				}
+
+				copyTree(template.toPath(), workspace.toPath());
+				return Boolean.TRUE;
+			});
+		}
+	}
+
+	/**
+	 * Copies the metadata of the job's CLI workspace into the cache as the template for the current CLI version.
+	 */
+	private static final class SeedTemplate extends MasterToSlaveFileCallable<Boolean>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String versionKey;
+		private final String cliWorkspace;
+
+		SeedTemplate(final String versionKey, final String cliWorkspace)
+		{
+			this.versionKey = versionKey;
+			this.cliWorkspace = cliWorkspace;
+		}
+
+		@Override
+		public Boolean invoke(File cacheRoot, VirtualChannel channel) throws IOException, InterruptedException
+		{
+			return locked(cacheRoot, () -> {
+				File template = new File(cacheRoot, versionKey);
+				File metadata = new File(cliWorkspace, METADATA_FOLDER);
+				if (template.exists() || !metadata.isDirectory())
+				{
+					return Boolean.FALSE;
+				}
+
+				// Copy to a temporary directory first, so a template is never left partial by a failed copy.
+				File temp = Files.createTempDirectory(cacheRoot.toPath(), versionKey + TEMP_SUFFIX).toFile();
+				try
+				{
+					copyTree(metadata.toPath(), new File(temp, METADATA_FOLDER).toPath());
+					if (!temp.renameTo(template))
+					{
+						return Boolean.FALSE;
+					}
+				}
+				finally
+				{
+					if (temp.exists())
+					{
+						Util.deleteRecursive(temp);
+					}
+				}
+
+				return Boolean.TRUE;
+			});
+		}
+	}
+}
@@ -0,0 +1,81 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.jenkinsci.plugins.durabletask.Controller;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import hudson.EnvVars;
+import hudson.FilePath;
+import hudson.Functions;
+import hudson.Launcher;
+import hudson.util.ArgumentListBuilder;
+import hudson.util.StreamTaskListener;
+
+/**
+ * Tests {@link TotalTestCLILauncher}.
+ */
+public class TotalTestCLILauncherTest
+{
+	private static final String SECRET = "s3cr3t-Passw0rd"; //$NON-NLS-1$
+
+	@Rule
+	public JenkinsRule j = new JenkinsRule();
+
+	@Test
+	public void durableTaskDoesNotLogArguments() throws Exception
+	{
+		assumeTrue(!Functions.isWindows());
+
+		ByteArrayOutputStream buildLog = new ByteArrayOutputStream();
+		StreamTaskListener listener = new StreamTaskListener(buildLog, StandardCharsets.UTF_8);
+		Launcher launcher = j.createLocalLauncher();
+		FilePath workspace = j.jenkins.getRootPath().child("workspace/durable"); //$NON-NLS-1$
+		ArgumentListBuilder args = new ArgumentListBuilder("/bin/sh", "-c", "echo done; exit 3", "cli"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		args.addMasked(SECRET);
+
+		Controller controller = new TotalTestCLILauncher(launcher, listener, "TotalTestCLI.sh").launchDurable(args, //$NON-NLS-1$
+				new EnvVars(), workspace);
+		Integer exitValue = null;
+		for (int i = 0; i < 600 && exitValue == null; i++)
+		{
+			Thread.sleep(100);
+			controller.writeLog(workspace, buildLog);
+			exitValue = controller.exitStatus(workspace, launcher, listener);
+		}
+		controller.writeLog(workspace, buildLog);
+		controller.cleanup(workspace);
+		listener.getLogger().flush();
+
+		assertNotNull("The task did not exit", exitValue); //$NON-NLS-1$
+		assertEquals(3, exitValue.intValue());
+		String log = buildLog.toString(StandardCharsets.UTF_8.name());
+		assertFalse(log, log.contains(SECRET));
+		assertFalse(log, log.contains("+ ")); //$NON-NLS-1$
+		assertEquals(0, workspace.sibling("durable@tmp").list("totaltest-args*").length); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
@@ -0,0 +1,105 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertTrue;
+
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.JenkinsSessionRule;
+
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl;
+
+import hudson.model.Result;
+import hudson.model.TaskListener;
+
+/**
+ * Tests {@link TotalTestCTDurableStep}.
+ */
+public class TotalTestCTDurableStepTest
+{
+	private static final String HOST = "host-1"; //$NON-NLS-1$
+	private static final String SCRIPT = "node { totaltestDurable test: [$class: 'TotalTestCTBuilder', environmentId: 'env', " //$NON-NLS-1$
+			+ "folderPath: 'tests', serverUrl: 'http://ces', serverCredentialsId: '', connectionId: '" + HOST + "', " //$NON-NLS-1$ //$NON-NLS-2$
+			+ "credentialsId: 'creds', sonarVersion: '', logLevel: 'INFO', selectEnvironmentRadio: '-hci'] }"; //$NON-NLS-1$
+
+	@Rule
+	public JenkinsSessionRule sessions = new JenkinsSessionRule();
+
+	@Test
+	public void restartBeforeLaunchFailsStep() throws Throwable
+	{
+		TotalTestHostThrottle.Permit[] held = new TotalTestHostThrottle.Permit[1];
+		try
+		{
+			sessions.then(j -> {
+				configure(j);
+				held[0] = TotalTestHostThrottle.get().acquire(HOST, "other", TaskListener.NULL); //$NON-NLS-1$
+
+				WorkflowRun build = createJob(j).scheduleBuild2(0).waitForStart();
+				j.waitForMessage("Waiting for host connection " + HOST, build); //$NON-NLS-1$
+			});
+			sessions.then(j -> {
+				WorkflowRun build = j.jenkins.getItemByFullName("durable", WorkflowJob.class).getBuildByNumber(1); //$NON-NLS-1$
+				j.assertBuildStatus(Result.FAILURE, j.waitForCompletion(build));
+				j.assertLogContains("Jenkins restarted before the Total Test CLI was launched", build); //$NON-NLS-1$
+			});
+		}
+		finally
+		{
+			if (held[0] != null)
+			{
+				held[0].close();
+			}
+		}
+	}
+
+	@Test
+	public void failedLaunchReleasesPermit() throws Throwable
+	{
+		sessions.then(j -> {
+			configure(j);
+
+			WorkflowRun build = j.assertBuildStatus(Result.FAILURE, createJob(j).scheduleBuild2(0));
+
+			j.assertLogContains("Acquired host connection " + HOST, build); //$NON-NLS-1$
+			assertTrue(TotalTestHostThrottle.get().isAvailable(HOST));
+		});
+	}
+
+	private static void configure(final JenkinsRule j) throws Exception
+	{
+		SystemCredentialsProvider.getInstance().getCredentials().add(
+				new UsernamePasswordCredentialsImpl(CredentialsScope.GLOBAL, "creds", null, "user", "password")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		SystemCredentialsProvider.getInstance().save();
+		TotalTestGlobalConfiguration.get().setDefaultHostPermits(1);
+	}
+
+	private static WorkflowJob createJob(final JenkinsRule j) throws Exception
+	{
+		WorkflowJob job = j.createProject(WorkflowJob.class, "durable"); //$NON-NLS-1$
+		job.setDefinition(new CpsFlowDefinition(SCRIPT, true));
+
+		return job;
+	}
+}
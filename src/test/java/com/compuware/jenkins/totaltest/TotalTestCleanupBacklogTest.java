@@ -0,0 +1,87 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import com.compuware.jenkins.totaltest.TotalTestCleanupBacklog.Entry;
+
+import hudson.FilePath;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+
+/**
+ * Tests {@link TotalTestCleanupBacklog}.
+ */
+public class TotalTestCleanupBacklogTest
+{
+	@Rule
+	public JenkinsRule j = new JenkinsRule();
+
+	@Before
+	public void clearBacklog()
+	{
+		// The backlog is controller wide, so entries of an earlier test would otherwise remain.
+		TotalTestCleanupBacklog.get().clear();
+	}
+
+	@Test
+	public void mostRecentlyUsedQualifierIsFirst() throws Exception
+	{
+		FreeStyleProject project = j.createFreeStyleProject("cleanup"); //$NON-NLS-1$
+		FreeStyleBuild first = j.buildAndAssertSuccess(project);
+		FreeStyleBuild second = j.buildAndAssertSuccess(project);
+		TotalTestCleanupBacklog backlog = TotalTestCleanupBacklog.get();
+		backlog.record("USER00", first); //$NON-NLS-1$
+		backlog.record("USER01", first); //$NON-NLS-1$
+		backlog.record("USER00", second); //$NON-NLS-1$
+
+		List<Entry> entries = backlog.getEntries();
+		assertEquals(2, entries.size());
+		assertEquals("USER00", entries.get(0).getQualifier()); //$NON-NLS-1$
+		assertEquals(second.getFullDisplayName(), entries.get(0).getLastBuild());
+		assertEquals("USER01", entries.get(1).getQualifier()); //$NON-NLS-1$
+		assertEquals(first.getFullDisplayName(), entries.get(1).getLastBuild());
+		assertFalse(entries.get(0).getLastUsed().before(entries.get(1).getLastUsed()));
+	}
+
+	@Test
+	public void backlogIsKeptInJenkinsHome() throws Exception
+	{
+		FreeStyleBuild build = j.buildAndAssertSuccess(j.createFreeStyleProject());
+		TotalTestCleanupBacklog backlog = TotalTestCleanupBacklog.get();
+		backlog.record("USER0A", build); //$NON-NLS-1$
+
+		FilePath file = new FilePath(new File(j.jenkins.getRootDir(), TotalTestCleanupBacklog.class.getName() + ".xml")); //$NON-NLS-1$
+		assertTrue(file.exists());
+		assertTrue(file.readToString().contains("USER0A")); //$NON-NLS-1$
+
+		backlog.clear();
+		assertTrue(backlog.getEntries().isEmpty());
+		assertFalse(file.readToString().contains("USER0A")); //$NON-NLS-1$
+	}
+}
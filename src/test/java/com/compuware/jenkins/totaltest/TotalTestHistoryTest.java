@@ -0,0 +1,157 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import com.compuware.jenkins.totaltest.TotalTestHistory.Results;
+import com.compuware.jenkins.totaltest.TotalTestHistory.Row;
+import com.compuware.jenkins.totaltest.TotalTestHistory.TestStatistics;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+
+/**
+ * Tests {@link TotalTestHistory}.
+ */
+public class TotalTestHistoryTest
+{
+	@Rule
+	public JenkinsRule j = new JenkinsRule();
+
+	@Test
+	public void resultFileIsCollected() throws Exception
+	{
+		File resultFile = new File(getClass().getResource("suite.suiteresult").toURI()); //$NON-NLS-1$
+		FreeStyleProject project = j.createFreeStyleProject();
+		FreeStyleBuild build = j.buildAndAssertSuccess(project);
+		TotalTestHistory history = TotalTestHistory.forJob(project);
+
+		history.record(build, "tests", TotalTestResultParser.parse(resultFile), //$NON-NLS-1$
+				new TotalTestHistory.CollectResults().invoke(resultFile, null));
+
+		List<Row> rows = history.getBuild(build.getNumber());
+		assertEquals(6, rows.size());
+		assertEquals("tests", rows.get(0).getTestId()); //$NON-NLS-1$
+		assertEquals(TotalTestHistory.KIND_RUN, rows.get(0).getKind());
+		assertTrue(rows.get(0).isFailed());
+		assertEquals(1500, rows.get(0).getDuration());
+		assertEquals(75f, rows.get(0).getCcPercentage(), 0f);
+		assertEquals("Scenario1", rows.get(1).getTestId()); //$NON-NLS-1$
+		assertEquals(TotalTestHistory.KIND_SCENARIO, rows.get(1).getKind());
+		assertEquals("Scenario1 / TestCase1", rows.get(2).getTestId()); //$NON-NLS-1$
+		assertEquals(TotalTestHistory.KIND_TEST_CASE, rows.get(2).getKind());
+		assertEquals("Scenario2 / TestCase3", rows.get(5).getTestId()); //$NON-NLS-1$
+		assertTrue(rows.get(5).isFailed());
+		assertTrue(TotalTestHistory.exists(project));
+	}
+
+	@Test
+	public void statisticsSpanBuilds() throws Exception
+	{
+		FreeStyleProject project = j.createFreeStyleProject();
+		TotalTestHistory history = TotalTestHistory.forJob(project);
+		history.record(j.buildAndAssertSuccess(project), "tests", summary(false), //$NON-NLS-1$
+				results("Login", false, 100, "Transfer", false, 300)); //$NON-NLS-1$ //$NON-NLS-2$
+		history.record(j.buildAndAssertSuccess(project), "tests", summary(false), //$NON-NLS-1$
+				results("Login", true, 200, "Transfer", false, 500)); //$NON-NLS-1$ //$NON-NLS-2$
+
+		List<TestStatistics> slowest = history.getSlowest(TotalTestHistory.KIND_SCENARIO, 0, 1);
+		assertEquals(1, slowest.size());
+		assertEquals("Transfer", slowest.get(0).getTestId()); //$NON-NLS-1$
+		assertEquals(2, slowest.get(0).getRuns());
+		assertEquals(400, slowest.get(0).getAverageDuration());
+		assertEquals(500, slowest.get(0).getMaxDuration());
+
+		TestStatistics mostFailing = history.getFailureRates(TotalTestHistory.KIND_SCENARIO, 0, 10).get(0);
+		assertEquals("Login", mostFailing.getTestId()); //$NON-NLS-1$
+		assertEquals(1, mostFailing.getFailures());
+		assertEquals(0.5, mostFailing.getFailureRate(), 0.0);
+		assertEquals(2, history.getTest("Login").size()); //$NON-NLS-1$
+		assertTrue(history.getTest("Unknown").isEmpty()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void retriedRunKeepsOnlyLastAttempt() throws Exception
+	{
+		FreeStyleProject project = j.createFreeStyleProject();
+		FreeStyleBuild build = j.buildAndAssertSuccess(project);
+		TotalTestHistory history = TotalTestHistory.forJob(project);
+		history.record(build, "tests", summary(true), results("Login", true, 100, "Transfer", false, 300)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		history.record(build, "other", summary(false), results("Report", false, 50)); //$NON-NLS-1$ //$NON-NLS-2$
+		history.record(build, "tests", summary(false), results("Login", false, 120)); //$NON-NLS-1$ //$NON-NLS-2$
+
+		List<Row> rows = history.getBuild(build.getNumber());
+		assertEquals(4, rows.size());
+		assertEquals("other", rows.get(0).getTestId()); //$NON-NLS-1$
+		assertEquals("Report", rows.get(1).getTestId()); //$NON-NLS-1$
+		assertEquals("tests", rows.get(2).getTestId()); //$NON-NLS-1$
+		assertFalse(rows.get(2).isFailed());
+		assertEquals("Login", rows.get(3).getTestId()); //$NON-NLS-1$
+		assertFalse(rows.get(3).isFailed());
+		assertTrue(history.getTest("Transfer").isEmpty()); //$NON-NLS-1$
+		assertEquals(0, history.getFailureRates(TotalTestHistory.KIND_SCENARIO, 0, 10).get(0).getFailures());
+	}
+
+	@Test
+	public void recreatedJobStartsWithoutHistory() throws Exception
+	{
+		FreeStyleProject project = j.createFreeStyleProject("history"); //$NON-NLS-1$
+		TotalTestHistory.forJob(project).record(j.buildAndAssertSuccess(project), "tests", summary(false), //$NON-NLS-1$
+				results("Login", false, 100)); //$NON-NLS-1$
+		project.delete();
+
+		FreeStyleProject recreated = j.createFreeStyleProject("history"); //$NON-NLS-1$
+		assertFalse(TotalTestHistory.exists(recreated));
+		FreeStyleBuild build = j.buildAndAssertSuccess(recreated);
+		assertTrue(TotalTestHistory.forJob(recreated).getBuild(build.getNumber()).isEmpty());
+		assertTrue(TotalTestHistory.forJob(recreated).getTest("Login").isEmpty()); //$NON-NLS-1$
+	}
+
+	private static TotalTestResultSummary summary(final boolean failed)
+	{
+		TotalTestResultSummary summary = new TotalTestResultSummary();
+		summary.setRootElement(TotalTestResultParser.XA_SUITE_RESULT);
+		summary.setResultType(failed ? "FAILURE" : "SUCCESS"); //$NON-NLS-1$ //$NON-NLS-2$
+		summary.setDuration("1000"); //$NON-NLS-1$
+		return summary;
+	}
+
+	/**
+	 * Returns scenario results from triples of name, failed and duration.
+	 */
+	private static Results results(final Object... scenarios)
+	{
+		Results results = new Results();
+		for (int i = 0; i < scenarios.length; i += 3)
+		{
+			results.add((String) scenarios[i], TotalTestHistory.KIND_SCENARIO, (Boolean) scenarios[i + 1],
+					((Integer) scenarios[i + 2]).longValue());
+		}
+
+		return results;
+	}
+}
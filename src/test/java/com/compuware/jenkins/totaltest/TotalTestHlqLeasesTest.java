@@ -0,0 +1,99 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.SleepBuilder;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.TaskListener;
+
+/**
+ * Tests {@link TotalTestHlqLeases}.
+ */
+public class TotalTestHlqLeasesTest
+{
+	@Rule
+	public JenkinsRule j = new JenkinsRule();
+
+	@Test
+	public void qualifierEndsWithSlot()
+	{
+		assertEquals("USER00", TotalTestHlqLeases.getQualifier("USER", 0)); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("USER0Z", TotalTestHlqLeases.getQualifier("USER", 35)); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("A05", TotalTestHlqLeases.getQualifier("A", 5)); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void qualifierIsAtMostEightCharacters()
+	{
+		assertEquals("LONGUS11", TotalTestHlqLeases.getQualifier("LONGUSER", 37)); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("LONGUSZZ", TotalTestHlqLeases.getQualifier("LONGUSER", 36 * 36 - 1)); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void runningBuildsGetDistinctQualifiers() throws Exception
+	{
+		FreeStyleProject project = j.createFreeStyleProject();
+		project.getBuildersList().add(new SleepBuilder(60000));
+		project.setConcurrentBuild(true);
+		FreeStyleBuild first = project.scheduleBuild2(0).waitForStart();
+		FreeStyleBuild second = project.scheduleBuild2(0).waitForStart();
+		try (TotalTestHlqLeases.Lease lease = TotalTestHlqLeases.get().acquire("tester", first, TaskListener.NULL); //$NON-NLS-1$
+				TotalTestHlqLeases.Lease other = TotalTestHlqLeases.get().acquire("tester", second, TaskListener.NULL)) //$NON-NLS-1$
+		{
+			assertEquals("TESTER00", lease.getQualifier()); //$NON-NLS-1$
+			assertNotEquals(lease.getQualifier(), other.getQualifier());
+		}
+		finally
+		{
+			first.doStop();
+			second.doStop();
+			j.waitForCompletion(first);
+			j.waitForCompletion(second);
+		}
+	}
+
+	@Test
+	public void qualifierOfEndedBuildIsReclaimed() throws Exception
+	{
+		FreeStyleBuild ended = j.buildAndAssertSuccess(j.createFreeStyleProject());
+		TotalTestHlqLeases.Lease lease = TotalTestHlqLeases.get().acquire("reclaim", ended, TaskListener.NULL); //$NON-NLS-1$
+
+		try (TotalTestHlqLeases.Lease reclaimed = TotalTestHlqLeases.get().acquire("reclaim", ended, TaskListener.NULL)) //$NON-NLS-1$
+		{
+			assertEquals(lease.getQualifier(), reclaimed.getQualifier());
+		}
+	}
+
+	@Test
+	public void invalidBaseIsRejected() throws Exception
+	{
+		FreeStyleBuild build = j.buildAndAssertSuccess(j.createFreeStyleProject());
+
+		assertThrows(IOException.class, () -> TotalTestHlqLeases.get().acquire("1ABC", build, TaskListener.NULL)); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,190 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+/**
+ * Tests {@link TotalTestHostThrottle}.
+ */
+public class TotalTestHostThrottleTest
+{
+	@Rule
+	public JenkinsRule j = new JenkinsRule();
+
+	private String host;
+
+	@Before
+	public void setUp()
+	{
+		// The throttle is shared by the whole controller, each test uses a host of its own.
+		host = "host-" + System.nanoTime(); //$NON-NLS-1$
+		TotalTestGlobalConfiguration.get().setDefaultHostPermits(1);
+	}
+
+	@Test
+	public void limitIsHonoured() throws Exception
+	{
+		TotalTestGlobalConfiguration.get().setDefaultHostPermits(2);
+		TotalTestHostThrottle.Permit first = TotalTestHostThrottle.get().acquire(host, "job", j.createTaskListener()); //$NON-NLS-1$
+		TotalTestHostThrottle.Permit second = TotalTestHostThrottle.get().acquire(host, "job", j.createTaskListener()); //$NON-NLS-1$
+
+		assertFalse(TotalTestHostThrottle.get().isAvailable(host));
+		first.close();
+		assertTrue(TotalTestHostThrottle.get().isAvailable(host));
+		second.close();
+		assertEquals(0, getStatistics().getRunning());
+	}
+
+	@Test
+	public void unlimitedHostDoesNotWait() throws Exception
+	{
+		TotalTestGlobalConfiguration.get().setDefaultHostPermits(0);
+		TotalTestHostThrottle.Permit first = TotalTestHostThrottle.get().acquire(host, "job", j.createTaskListener()); //$NON-NLS-1$
+		TotalTestHostThrottle.Permit second = TotalTestHostThrottle.get().acquire(host, "job", j.createTaskListener()); //$NON-NLS-1$
+
+		assertTrue(TotalTestHostThrottle.get().isAvailable(host));
+		first.close();
+		second.close();
+	}
+
+	@Test
+	public void waitingRunsAreServedInArrivalOrder() throws Exception
+	{
+		TotalTestHostThrottle.Permit held = TotalTestHostThrottle.get().acquire(host, "job", j.createTaskListener()); //$NON-NLS-1$
+		List<String> order = Collections.synchronizedList(new ArrayList<>());
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try
+		{
+			List<Future<?>> runs = new ArrayList<>();
+			for (int i = 0; i < 3; i++)
+			{
+				String name = "run" + i; //$NON-NLS-1$
+				runs.add(executor.submit(() -> {
+					try (TotalTestHostThrottle.Permit permit = TotalTestHostThrottle.get().acquire(host, name, j.createTaskListener()))
+					{
+						order.add(name);
+					}
+					return null;
+				}));
+				awaitWaiting(i + 1);
+			}
+
+			held.close();
+			for (Future<?> run : runs)
+			{
+				run.get(60, TimeUnit.SECONDS);
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		assertEquals(Arrays.asList("run0", "run1", "run2"), order); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertEquals(3, getStatistics().getMaxQueueDepth());
+	}
+
+	@Test
+	public void abortedWaitLeavesQueue() throws Exception
+	{
+		TotalTestHostThrottle.Permit held = TotalTestHostThrottle.get().acquire(host, "job", j.createTaskListener()); //$NON-NLS-1$
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try
+		{
+			Future<?> waiting = executor.submit(() -> TotalTestHostThrottle.get().acquire(host, "job", j.createTaskListener())); //$NON-NLS-1$
+			awaitWaiting(1);
+
+			waiting.cancel(true);
+			awaitWaiting(0);
+		}
+		finally
+		{
+			executor.shutdownNow();
+			held.close();
+		}
+
+		assertTrue(TotalTestHostThrottle.get().isAvailable(host));
+	}
+
+	@Test
+	public void reattachedRunHoldsPermitWithoutWaiting() throws Exception
+	{
+		TotalTestHostThrottle.Permit permit = TotalTestHostThrottle.get().acquire(host, "job", j.createTaskListener()); //$NON-NLS-1$
+		TotalTestHostThrottle.Permit reattached = TotalTestHostThrottle.get().reattach(host, "job"); //$NON-NLS-1$
+
+		assertEquals(2, getStatistics().getRunning());
+
+		permit.close();
+		assertFalse(TotalTestHostThrottle.get().isAvailable(host));
+
+		reattached.close();
+		assertTrue(TotalTestHostThrottle.get().isAvailable(host));
+	}
+
+	@Test
+	public void reattachedRunDoesNotAdjustAdaptiveLimit() throws Exception
+	{
+		TotalTestGlobalConfiguration.get().setAdaptiveLimits(true);
+		TotalTestHostThrottle.Permit reattached = TotalTestHostThrottle.get().reattach(host, "job"); //$NON-NLS-1$
+
+		reattached.hostFailed();
+		reattached.close();
+
+		assertEquals(0, getStatistics().getFailures());
+		assertEquals(0, getStatistics().getRunning());
+	}
+
+	private void awaitWaiting(final int waiting) throws InterruptedException
+	{
+		for (int i = 0; i < 600 && getStatistics().getWaiting() != waiting; i++)
+		{
+			Thread.sleep(100);
+		}
+
+		assertEquals(waiting, getStatistics().getWaiting());
+	}
+
+	private TotalTestHostThrottle.HostStatistics getStatistics()
+	{
+		for (TotalTestHostThrottle.HostStatistics statistics : TotalTestHostThrottle.get().getStatistics())
+		{
+			if (statistics.getHostKey().equals(host))
+			{
+				return statistics;
+			}
+		}
+
+		throw new AssertionError("No statistics for " + host); //$NON-NLS-1$
+	}
+}
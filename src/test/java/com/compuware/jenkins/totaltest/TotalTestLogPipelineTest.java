@@ -0,0 +1,101 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import hudson.EnvVars;
+import hudson.FilePath;
+import hudson.Functions;
+import hudson.Launcher;
+import hudson.Proc;
+import hudson.model.FreeStyleBuild;
+import hudson.model.TaskListener;
+import hudson.util.ArgumentListBuilder;
+
+/**
+ * Tests {@link TotalTestLogPipeline}.
+ */
+public class TotalTestLogPipelineTest
+{
+	@Rule
+	public JenkinsRule j = new JenkinsRule();
+
+	@Test
+	public void unixCommandRedirectsOutputAndKeepsMasks()
+	{
+		ArgumentListBuilder args = new ArgumentListBuilder("TotalTestCLI.sh", "-e"); //$NON-NLS-1$ //$NON-NLS-2$
+		args.addMasked("secret"); //$NON-NLS-1$
+
+		ArgumentListBuilder command = TotalTestLogPipeline.getCommand(true, args, "/ws/cli.log"); //$NON-NLS-1$
+
+		assertEquals(Arrays.asList("/bin/sh", "-c", "exec \"$@\" >>\"$0\" 2>&1", "/ws/cli.log", "TotalTestCLI.sh", "-e", "secret"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+				command.toList());
+		assertArrayEquals(new boolean[] { false, false, false, false, false, false, true }, command.toMaskArray());
+	}
+
+	@Test
+	public void windowsCommandRedirectsOutputAndKeepsMasks()
+	{
+		ArgumentListBuilder args = new ArgumentListBuilder("TotalTestCLI.bat"); //$NON-NLS-1$
+		args.addMasked("secret"); //$NON-NLS-1$
+
+		ArgumentListBuilder command = TotalTestLogPipeline.getCommand(false, args, "C:\\ws\\cli.log"); //$NON-NLS-1$
+
+		assertEquals(Arrays.asList("cmd.exe", "/C", "call", "TotalTestCLI.bat", "secret", ">>", "C:\\ws\\cli.log", "2>&1"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
+				command.toList());
+		assertArrayEquals(new boolean[] { false, false, false, false, true, false, false, false }, command.toMaskArray());
+	}
+
+	@Test
+	public void outputIsForwardedAndArchived() throws Exception
+	{
+		assumeFalse(Functions.isWindows());
+
+		FreeStyleBuild build = j.buildAndAssertSuccess(j.createFreeStyleProject());
+		FilePath workspace = j.jenkins.getRootPath().child("workspace/pipeline"); //$NON-NLS-1$
+		workspace.mkdirs();
+		Launcher launcher = j.createLocalLauncher();
+		TotalTestLogPipeline pipeline = new TotalTestLogPipeline(build, workspace, TaskListener.NULL);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ArgumentListBuilder args = new ArgumentListBuilder("/bin/sh", "-c", "echo out; echo err >&2; exit 3"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+		Proc proc = pipeline.start(launcher, "TotalTestCLI.sh", args, new EnvVars(), workspace, out); //$NON-NLS-1$
+		int exitValue = proc.join();
+		pipeline.archive(launcher);
+
+		assertEquals(3, exitValue);
+		String log = out.toString(StandardCharsets.UTF_8.name());
+		assertTrue(log, log.contains("out")); //$NON-NLS-1$
+		assertTrue(log, log.contains("err")); //$NON-NLS-1$
+		assertEquals(1, build.getArtifacts().size());
+		assertTrue(build.getArtifacts().get(0).relativePath.startsWith(TotalTestLogPipeline.LOG_FOLDER + "/TotalTestCLI-")); //$NON-NLS-1$
+		assertFalse(proc.isAlive());
+	}
+}
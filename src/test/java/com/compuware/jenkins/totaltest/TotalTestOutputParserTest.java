@@ -0,0 +1,82 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+/**
+ * Tests {@link TotalTestOutputParser}.
+ * <p>
+ * The output in cli-output.txt is written by hand after the wording the patterns expect, not captured from a CLI run.
+ */
+public class TotalTestOutputParserTest
+{
+	@Rule
+	public JenkinsRule j = new JenkinsRule();
+
+	@Test
+	public void progressFollowsScenarios() throws Exception
+	{
+		TotalTestProgressAction progress = TotalTestProgressAction.start(j.buildAndAssertSuccess(j.createFreeStyleProject()),
+				"tests"); //$NON-NLS-1$
+
+		parse(progress, new ByteArrayOutputStream());
+
+		assertEquals(3, progress.getTotal());
+		assertEquals(3, progress.getCompleted());
+		assertEquals(1, progress.getFailed());
+		assertEquals(1, progress.getFailedTestCases());
+		assertEquals("Transfer.scenario", progress.getLastFailure()); //$NON-NLS-1$
+		assertNull(progress.getCurrentScenario());
+	}
+
+	@Test
+	public void outputIsCopiedAsIs() throws Exception
+	{
+		TotalTestProgressAction progress = TotalTestProgressAction.start(j.buildAndAssertSuccess(j.createFreeStyleProject()),
+				"tests"); //$NON-NLS-1$
+		ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+		parse(progress, log);
+
+		try (InputStream in = getClass().getResourceAsStream("cli-output.txt")) //$NON-NLS-1$
+		{
+			assertArrayEquals(IOUtils.toByteArray(in), log.toByteArray());
+		}
+	}
+
+	private void parse(final TotalTestProgressAction progress, final ByteArrayOutputStream log) throws IOException
+	{
+		try (InputStream in = getClass().getResourceAsStream("cli-output.txt"); //$NON-NLS-1$
+				TotalTestOutputParser parser = new TotalTestOutputParser(log, progress))
+		{
+			IOUtils.copy(in, parser);
+			parser.forceEol();
+		}
+	}
+}
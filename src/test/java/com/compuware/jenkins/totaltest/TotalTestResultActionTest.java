@@ -0,0 +1,149 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import hudson.FilePath;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+
+/**
+ * Tests {@link TotalTestResultAction}.
+ */
+public class TotalTestResultActionTest
+{
+	@Rule
+	public JenkinsRule j = new JenkinsRule();
+
+	@Test
+	public void idOnlyHoldsLettersDigitsDashesAndUnderscores() throws Exception
+	{
+		FreeStyleBuild build = build();
+
+		assertEquals("tests_Suite_1_testsuite", TotalTestResultAction.newId(build, " tests/Suite 1.testsuite ")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("workspace", TotalTestResultAction.newId(build, null)); //$NON-NLS-1$
+		assertEquals("workspace-2", TotalTestResultAction.newId(build, "//")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void longIdKeepsItsEnd() throws Exception
+	{
+		String label = "a".repeat(70) + "end"; //$NON-NLS-1$ //$NON-NLS-2$
+
+		String id = TotalTestResultAction.newId(build(), label);
+
+		assertEquals(64, id.length());
+		assertTrue(id.endsWith("end")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void idOfAttachedResultIsNotReused() throws Exception
+	{
+		FreeStyleBuild build = build();
+		String first = TotalTestResultAction.newId(build, "tests"); //$NON-NLS-1$
+		build.addAction(new TotalTestResultAction(new TotalTestResultSummary(), "a.suiteresult", first, "tests")); //$NON-NLS-1$ //$NON-NLS-2$
+
+		assertEquals("tests", first); //$NON-NLS-1$
+		assertEquals("tests-2", TotalTestResultAction.newId(build, "tests")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void parallelStepsGetDistinctIdsWithoutWritingFiles() throws Exception
+	{
+		FreeStyleBuild build = build();
+		Set<String> filesBefore = new HashSet<>(Arrays.asList(build.getRootDir().list()));
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try
+		{
+			List<Future<String>> ids = new ArrayList<>();
+			for (int i = 0; i < 32; i++)
+			{
+				Callable<String> newId = () -> TotalTestResultAction.newId(build, "tests"); //$NON-NLS-1$
+				ids.add(executor.submit(newId));
+			}
+
+			Set<String> distinct = new HashSet<>();
+			for (Future<String> id : ids)
+			{
+				distinct.add(id.get());
+			}
+
+			assertEquals(32, distinct.size());
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		assertEquals(filesBefore, new HashSet<>(Arrays.asList(build.getRootDir().list())));
+	}
+
+	@Test
+	public void scenariosAreReadFromArchiveAndNotSavedInBuild() throws Exception
+	{
+		FreeStyleBuild build = build();
+		FilePath resultFile = new FilePath(new File(getClass().getResource("suite.suiteresult").toURI())); //$NON-NLS-1$
+		TotalTestResultSummary summary = TotalTestResultParser.parse(new File(resultFile.getRemote()));
+		String id = TotalTestResultAction.newId(build, "tests"); //$NON-NLS-1$
+		TotalTestResultAction.archive(build, id, resultFile);
+		TotalTestResultAction action = new TotalTestResultAction(summary, resultFile.getName(), id, "tests"); //$NON-NLS-1$
+		build.addAction(action);
+		build.save();
+
+		assertEquals(2, action.getScenarios().size());
+		assertEquals("Scenario failed", action.getScenarios().get(1).getMessage()); //$NON-NLS-1$
+		String buildXml = new FilePath(new File(build.getRootDir(), "build.xml")).readToString(); //$NON-NLS-1$
+		assertTrue(buildXml.contains("Scenario2")); //$NON-NLS-1$
+		assertFalse(buildXml.contains("Scenario1")); //$NON-NLS-1$
+		assertFalse(buildXml.contains("Scenario failed")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void scenariosAreEmptyWithoutArchive() throws Exception
+	{
+		FreeStyleBuild build = build();
+		TotalTestResultAction action = new TotalTestResultAction(new TotalTestResultSummary(), "a.suiteresult", //$NON-NLS-1$
+				TotalTestResultAction.newId(build, "tests"), null); //$NON-NLS-1$
+		build.addAction(action);
+
+		assertTrue(action.getScenarios().isEmpty());
+	}
+
+	private FreeStyleBuild build() throws Exception
+	{
+		FreeStyleProject project = j.createFreeStyleProject();
+		return j.buildAndAssertSuccess(project);
+	}
+}
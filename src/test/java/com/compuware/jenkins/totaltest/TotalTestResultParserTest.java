@@ -0,0 +1,95 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.compuware.jenkins.totaltest.TotalTestResultSummary.ScenarioResult;
+
+/**
+ * Tests {@link TotalTestResultParser}.
+ */
+public class TotalTestResultParserTest
+{
+	@Test
+	public void suiteResultIsSummarized() throws IOException
+	{
+		TotalTestResultSummary summary = parse("suite.suiteresult"); //$NON-NLS-1$
+
+		assertEquals(TotalTestResultParser.XA_SUITE_RESULT, summary.getRootElement());
+		assertEquals("FAILURE", summary.getResultType()); //$NON-NLS-1$
+		assertFalse(summary.isSuccess());
+		assertEquals("1500", summary.getDuration()); //$NON-NLS-1$
+		assertEquals("75", summary.getCcPercentage()); //$NON-NLS-1$
+		assertEquals(2, summary.getScenarioCount());
+		assertEquals(1, summary.getFailedScenarioCount());
+		assertEquals(3, summary.getTestCaseCount());
+		assertEquals(1, summary.getFailedTestCaseCount());
+		assertEquals(Collections.singletonList("Scenario2"), summary.getFailedScenarios()); //$NON-NLS-1$
+		assertEquals(Collections.singletonList("TestCase3: Expected 1 but was 2"), summary.getFailedTestCases()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void scenariosOfSuiteAreListed() throws IOException
+	{
+		List<ScenarioResult> scenarios = parse("suite.suiteresult").getScenarios(); //$NON-NLS-1$
+
+		assertEquals(2, scenarios.size());
+		assertEquals("Scenario1", scenarios.get(0).getName()); //$NON-NLS-1$
+		assertTrue(scenarios.get(0).isSuccess());
+		assertEquals("500", scenarios.get(0).getDuration()); //$NON-NLS-1$
+		assertNull(scenarios.get(0).getMessage());
+		assertEquals("Scenario2", scenarios.get(1).getName()); //$NON-NLS-1$
+		assertFalse(scenarios.get(1).isSuccess());
+		assertEquals("1000", scenarios.get(1).getDuration()); //$NON-NLS-1$
+		assertEquals("Scenario failed", scenarios.get(1).getMessage()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void unitResultHasNoScenarios() throws IOException
+	{
+		TotalTestResultSummary summary = parse("scenario.result"); //$NON-NLS-1$
+
+		assertEquals(TotalTestResultParser.XA_UNIT_RESULT, summary.getRootElement());
+		assertTrue(summary.isSuccess());
+		assertEquals("200", summary.getDuration()); //$NON-NLS-1$
+		assertNull(summary.getCcPercentage());
+		assertEquals(0, summary.getScenarioCount());
+		assertEquals(Arrays.asList(), summary.getScenarios());
+		assertEquals(1, summary.getTestCaseCount());
+		assertEquals(0, summary.getFailedTestCaseCount());
+	}
+
+	private TotalTestResultSummary parse(final String fixture) throws IOException
+	{
+		try (InputStream in = getClass().getResourceAsStream(fixture))
+		{
+			return TotalTestResultParser.parse(in);
+		}
+	}
+}
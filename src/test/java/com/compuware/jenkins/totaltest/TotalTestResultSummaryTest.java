@@ -0,0 +1,107 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link TotalTestResultSummary#merge(TotalTestResultSummary)}.
+ */
+public class TotalTestResultSummaryTest
+{
+	@Test
+	public void failureAndLowestCoverageWin()
+	{
+		TotalTestResultSummary merged = new TotalTestResultSummary();
+		merged.merge(summary("SUCCESS", "80", "Login", true)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		merged.merge(summary("FAILURE", "60", "Transfer", false)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		merged.merge(summary("SUCCESS", "70", "Report", true)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+		assertEquals(TotalTestResultParser.XA_SUITE_RESULT, merged.getRootElement());
+		assertEquals("FAILURE", merged.getResultType()); //$NON-NLS-1$
+		assertFalse(merged.isSuccess());
+		assertEquals("60", merged.getCcPercentage()); //$NON-NLS-1$
+		assertTrue(merged.isCcMinimum());
+		assertNull(merged.getDuration());
+		assertEquals(3, merged.getScenarioCount());
+		assertEquals(1, merged.getFailedScenarioCount());
+		assertEquals(3, merged.getTestCaseCount());
+		assertEquals(1, merged.getFailedTestCaseCount());
+		assertEquals(Arrays.asList("Transfer"), merged.getFailedScenarios()); //$NON-NLS-1$
+		assertEquals(Arrays.asList("Transfer-case: broken"), merged.getFailedTestCases()); //$NON-NLS-1$
+		assertEquals(3, merged.getScenarios().size());
+	}
+
+	@Test
+	public void successesStaySuccessful()
+	{
+		TotalTestResultSummary merged = new TotalTestResultSummary();
+		merged.merge(summary("SUCCESS", null, "Login", true)); //$NON-NLS-1$ //$NON-NLS-2$
+		merged.merge(summary("SUCCESS", null, "Report", true)); //$NON-NLS-1$ //$NON-NLS-2$
+
+		assertTrue(merged.isSuccess());
+		assertNull(merged.getCcPercentage());
+		assertFalse(merged.isCcMinimum());
+		assertEquals(2, merged.getScenarioCount());
+		assertEquals(0, merged.getFailedScenarioCount());
+	}
+
+	@Test
+	public void invalidCoverageKeepsMergedCoverage()
+	{
+		TotalTestResultSummary merged = new TotalTestResultSummary();
+		merged.merge(summary("SUCCESS", "75", "Login", true)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		merged.merge(summary("SUCCESS", "n/a", "Report", true)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+		assertEquals("75", merged.getCcPercentage()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void failedNamesAreBounded()
+	{
+		TotalTestResultSummary merged = new TotalTestResultSummary();
+		for (int i = 0; i < TotalTestResultSummary.MAX_FAILED_NAMES + 10; i++)
+		{
+			merged.merge(summary("FAILURE", null, "Scenario" + i, false)); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		assertEquals(TotalTestResultSummary.MAX_FAILED_NAMES + 10, merged.getFailedScenarioCount());
+		assertEquals(TotalTestResultSummary.MAX_FAILED_NAMES, merged.getFailedScenarios().size());
+		assertEquals(TotalTestResultSummary.MAX_FAILED_NAMES, merged.getFailedTestCases().size());
+	}
+
+	private static TotalTestResultSummary summary(final String resultType, final String ccPercentage, final String scenario,
+			final boolean success)
+	{
+		TotalTestResultSummary summary = new TotalTestResultSummary();
+		summary.setRootElement(TotalTestResultParser.XA_SUITE_RESULT);
+		summary.setResultType(resultType);
+		summary.setDuration("100"); //$NON-NLS-1$
+		summary.setCcPercentage(ccPercentage);
+		summary.addScenario(scenario, success ? "SUCCESS" : "FAILURE", "100", null); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		summary.addTestCase(scenario + "-case", !success, success ? null : "broken"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		return summary;
+	}
+}
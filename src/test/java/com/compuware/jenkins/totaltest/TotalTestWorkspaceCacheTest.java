@@ -0,0 +1,179 @@
+/**
+ * The MIT License (MIT)
+ *
+ * (c) Copyright 2026 BMC Software, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import hudson.FilePath;
+import hudson.model.TaskListener;
+
+/**
+ * Tests {@link TotalTestWorkspaceCache}.
+ */
+public class TotalTestWorkspaceCacheTest
+{
+	private static final String VERSION = "20.05.01"; //$NON-NLS-1$
+
+	@Rule
+	public JenkinsRule j = new JenkinsRule();
+
+	@Test
+	public void templateIsSharedByAllJobs() throws Exception
+	{
+		FilePath seeded = createCliWorkspace("job-a"); //$NON-NLS-1$
+		cacheFor("job-a", seeded).seed(); //$NON-NLS-1$
+
+		FilePath restored = cliWorkspace("job-b"); //$NON-NLS-1$
+		cacheFor("job-b", restored).restore(); //$NON-NLS-1$
+
+		assertTrue(restored.child(".metadata/version.ini").exists()); //$NON-NLS-1$
+		assertEquals("seeded", restored.child(".metadata/version.ini").readToString()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void projectRegistryLockAndLogAreNotCached() throws Exception
+	{
+		FilePath seeded = createCliWorkspace("job-a"); //$NON-NLS-1$
+		cacheFor("job-a", seeded).seed(); //$NON-NLS-1$
+
+		FilePath restored = cliWorkspace("job-b"); //$NON-NLS-1$
+		cacheFor("job-b", restored).restore(); //$NON-NLS-1$
+
+		assertFalse(restored.child(".metadata/.plugins/org.eclipse.core.resources/.projects").exists()); //$NON-NLS-1$
+		assertFalse(restored.child(".metadata/.plugins/org.eclipse.core.resources/.root").exists()); //$NON-NLS-1$
+		assertFalse(restored.child(".metadata/.lock").exists()); //$NON-NLS-1$
+		assertFalse(restored.child(".metadata/.log").exists()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void existingCliWorkspaceIsNotOverwritten() throws Exception
+	{
+		FilePath seeded = createCliWorkspace("job-a"); //$NON-NLS-1$
+		cacheFor("job-a", seeded).seed(); //$NON-NLS-1$
+
+		FilePath existing = cliWorkspace("job-b"); //$NON-NLS-1$
+		existing.child(".metadata/version.ini").write("own", "UTF-8"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		cacheFor("job-b", existing).restore(); //$NON-NLS-1$
+
+		assertEquals("own", existing.child(".metadata/version.ini").readToString()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void templatesOfOtherVersionsAreEvicted() throws Exception
+	{
+		FilePath seeded = createCliWorkspace("job-a"); //$NON-NLS-1$
+		cacheFor("job-a", seeded).seed(); //$NON-NLS-1$
+		FilePath cacheRoot = j.jenkins.getRootPath().child("caches/totaltest-cli-workspace"); //$NON-NLS-1$
+		cacheRoot.child("0123456789abcdef").mkdirs(); //$NON-NLS-1$
+		assertTrue(cacheRoot.child(VERSION).isDirectory());
+
+		FilePath restored = cliWorkspace("job-b"); //$NON-NLS-1$
+		TotalTestWorkspaceCache.forWorkspace(j.jenkins.getRootPath().child("job-b"), restored, "20.06.01", TaskListener.NULL) //$NON-NLS-1$ //$NON-NLS-2$
+				.restore();
+
+		assertFalse(cacheRoot.child(VERSION).exists());
+		assertFalse(cacheRoot.child("0123456789abcdef").exists()); //$NON-NLS-1$
+		assertFalse(restored.exists());
+	}
+
+	@Test
+	public void concurrentSeedsAndRestoresLeaveOneCompleteTemplate() throws Exception
+	{
+		int jobs = 8;
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (int i = 0; i < jobs; i++)
+		{
+			String seedJob = "seed-" + i; //$NON-NLS-1$
+			String restoreJob = "restore-" + i; //$NON-NLS-1$
+			FilePath seeded = createCliWorkspace(seedJob);
+			tasks.add(() -> {
+				cacheFor(seedJob, seeded).seed();
+				return null;
+			});
+			tasks.add(() -> {
+				cacheFor(restoreJob, cliWorkspace(restoreJob)).restore();
+				return null;
+			});
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(jobs);
+		try
+		{
+			for (Future<Void> future : pool.invokeAll(tasks))
+			{
+				future.get();
+			}
+		}
+		finally
+		{
+			pool.shutdownNow();
+		}
+
+		FilePath cacheRoot = j.jenkins.getRootPath().child("caches/totaltest-cli-workspace"); //$NON-NLS-1$
+		assertEquals("seeded", cacheRoot.child(VERSION + "/.metadata/version.ini").readToString()); //$NON-NLS-1$ //$NON-NLS-2$
+		for (FilePath child : cacheRoot.list())
+		{
+			assertFalse(child.getName(), child.getName().contains(".tmp")); //$NON-NLS-1$
+		}
+
+		// Every restore either found no template yet or copied a complete one.
+		for (int i = 0; i < jobs; i++)
+		{
+			FilePath restored = cliWorkspace("restore-" + i); //$NON-NLS-1$
+			if (restored.exists())
+			{
+				assertEquals("seeded", restored.child(".metadata/version.ini").readToString()); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+	}
+
+	private TotalTestWorkspaceCache cacheFor(final String job, final FilePath cliWorkspace)
+	{
+		return TotalTestWorkspaceCache.forWorkspace(j.jenkins.getRootPath().child(job), cliWorkspace, VERSION, TaskListener.NULL);
+	}
+
+	private FilePath cliWorkspace(final String job)
+	{
+		return j.jenkins.getRootPath().child(job).child("BMC-CliWkspc"); //$NON-NLS-1$
+	}
+
+	private FilePath createCliWorkspace(final String job) throws Exception
+	{
+		FilePath workspace = cliWorkspace(job);
+		FilePath metadata = workspace.child(".metadata"); //$NON-NLS-1$
+		metadata.child("version.ini").write("seeded", "UTF-8"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		metadata.child(".lock").write("", "UTF-8"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		metadata.child(".log").write("log", "UTF-8"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		FilePath resources = metadata.child(".plugins/org.eclipse.core.resources"); //$NON-NLS-1$
+		resources.child(".projects/" + job + "/.location").write(job, "UTF-8"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		resources.child(".root/.indexes/history.index").write(job, "UTF-8"); //$NON-NLS-1$ //$NON-NLS-2$
+		return workspace;
+	}
+}